@@ -104,6 +104,14 @@ public class Config {
     public enum AlpineKey implements Key {
         WORKER_THREADS                         ("alpine.worker.threads",             0),
         WORKER_THREAD_MULTIPLIER               ("alpine.worker.thread.multiplier",   4),
+        WORKER_THREAD_MODE                     ("alpine.worker.thread.mode",         "platform"),
+        WORKER_VIRTUAL_THREAD_CONCURRENCY      ("alpine.worker.virtual.thread.concurrency", 0),
+        WORKER_POOL_ADAPTIVE                   ("alpine.worker.pool.adaptive",       false),
+        WORKER_POOL_MIN_THREADS                ("alpine.worker.pool.min.threads",    0),
+        WORKER_POOL_MAX_THREADS                ("alpine.worker.pool.max.threads",    0),
+        WORKER_POOL_ADJUSTMENT_INTERVAL        ("alpine.worker.pool.adjustment.interval", 10000),
+        WORKER_POOL_QUEUE_WAIT_TARGET          ("alpine.worker.pool.queue.wait.target", 250),
+        WORKER_POOL_CPU_CEILING                ("alpine.worker.pool.cpu.ceiling",    80),
         DATA_DIRECTORY                         ("alpine.data.directory",             "~/.alpine"),
         SECRET_KEY_PATH                        ("alpine.secret.key.path",            null),
         PRIVATE_KEY_PATH                       ("alpine.private.key.path",           null),
@@ -160,6 +168,8 @@ public class Config {
         METRICS_ENABLED                        ("alpine.metrics.enabled",            false),
         METRICS_AUTH_USERNAME                  ("alpine.metrics.auth.username",      null),
         METRICS_AUTH_PASSWORD                  ("alpine.metrics.auth.password",      null),
+        METRICS_TAG_CARDINALITY_LIMIT          ("alpine.metrics.tag.cardinality.limit", 100),
+        METRICS_EVENT_HISTOGRAMS_ENABLED       ("alpine.metrics.event.histograms.enabled", false),
         OIDC_ENABLED                           ("alpine.oidc.enabled",               false),
         OIDC_ISSUER                            ("alpine.oidc.issuer",                null),
         OIDC_CLIENT_ID                         ("alpine.oidc.client.id",             null),
@@ -185,7 +195,37 @@ public class Config {
         CORS_ALLOW_CREDENTIALS                 ("alpine.cors.allow.credentials",     true),
         CORS_MAX_AGE                           ("alpine.cors.max.age",               3600),
         API_KEY_PREFIX                         ("alpine.api.key.prefix",             "alpine_"),
-        AUTH_JWT_TTL_SECONDS                   ("alpine.auth.jwt.ttl.seconds",       7 * 24 * 60 * 60);
+        AUTH_JWT_TTL_SECONDS                   ("alpine.auth.jwt.ttl.seconds",       7 * 24 * 60 * 60),
+        EVENT_SERVICE_LOG_FLUSH_INTERVAL       ("alpine.event.service.log.flush.interval", 5000),
+        EVENT_SERVICE_LOG_RETENTION_DAYS       ("alpine.event.service.log.retention.days", 0),
+        EVENT_SERVICE_LOG_RETENTION_MAX_LOGS   ("alpine.event.service.log.retention.max.logs", 0),
+        EVENT_SERVICE_LOG_PRUNE_INTERVAL       ("alpine.event.service.log.prune.interval", 3600000),
+        EVENT_SERVICE_LOG_PRUNE_BATCH_SIZE     ("alpine.event.service.log.prune.batch.size", 1000),
+        EVENT_SERVICE_QUEUE_CAPACITY           ("alpine.event.service.queue.capacity", 0),
+        EVENT_SERVICE_OVERFLOW_POLICY          ("alpine.event.service.overflow.policy", "block"),
+        EVENT_SERVICE_OVERFLOW_TIMEOUT         ("alpine.event.service.overflow.timeout", 30000),
+        EVENT_SERVICE_PARTITIONS               ("alpine.event.service.partitions", 0),
+        EVENT_SERVICE_OUTBOX_ENABLED           ("alpine.event.service.outbox.enabled", false),
+        EVENT_SERVICE_OUTBOX_BATCH_SIZE        ("alpine.event.service.outbox.batch.size", 100),
+        EVENT_SERVICE_OUTBOX_POLL_INTERVAL     ("alpine.event.service.outbox.poll.interval", 1000),
+        EVENT_SERVICE_OUTBOX_CLAIM_TIMEOUT     ("alpine.event.service.outbox.claim.timeout", 300000),
+        EVENT_SERIALIZER_ALLOWED_PACKAGES      ("alpine.event.serializer.allowed.packages", null),
+        EVENT_JOURNAL_ENABLED                  ("alpine.event.journal.enabled", false),
+        EVENT_JOURNAL_SEGMENT_SIZE             ("alpine.event.journal.segment.size", 16777216),
+        EVENT_JOURNAL_SYNC_INTERVAL            ("alpine.event.journal.sync.interval", 1000),
+        EVENT_SUBSCRIBER_TIMEOUT               ("alpine.event.subscriber.timeout", 0),
+        EVENT_SUBSCRIBER_BULKHEADS             ("alpine.event.subscriber.bulkheads", null),
+        CLUSTER_ENABLED                        ("alpine.cluster.enabled", false),
+        CLUSTER_TRANSPORT                      ("alpine.cluster.transport", "database"),
+        CLUSTER_POLL_INTERVAL                  ("alpine.cluster.poll.interval", 1000),
+        CLUSTER_BATCH_SIZE                     ("alpine.cluster.batch.size", 100),
+        CLUSTER_HEARTBEAT_INTERVAL             ("alpine.cluster.heartbeat.interval", 5000),
+        CLUSTER_NODE_TIMEOUT                   ("alpine.cluster.node.timeout", 30000),
+        CLUSTER_LEASE_DURATION                 ("alpine.cluster.lease.duration", 30000),
+        CLUSTER_LEASE_RENEWAL_INTERVAL         ("alpine.cluster.lease.renewal.interval", 10000),
+        NOTIFICATION_SERVICE_QUEUE_CAPACITY    ("alpine.notification.service.queue.capacity", 0),
+        NOTIFICATION_SERVICE_OVERFLOW_POLICY   ("alpine.notification.service.overflow.policy", "block"),
+        NOTIFICATION_SERVICE_OVERFLOW_TIMEOUT  ("alpine.notification.service.overflow.timeout", 30000);
 
 
         private String propertyName;
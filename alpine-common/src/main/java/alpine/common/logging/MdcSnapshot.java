@@ -0,0 +1,102 @@
+/*
+ * This file is part of Alpine.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ * Copyright (c) Steve Springett. All Rights Reserved.
+ */
+package alpine.common.logging;
+
+import org.slf4j.MDC;
+
+import java.util.Map;
+
+/**
+ * An immutable snapshot of the {@link MDC} of a thread, used to carry diagnostic context, such as
+ * request and trace identifiers, from the thread submitting work to the thread performing it.
+ * <p>
+ * Capturing is cheap when the MDC is empty: no copy is made, and the shared {@link #EMPTY} snapshot
+ * is returned. Restoring an empty snapshot leaves the MDC of the current thread untouched.
+ *
+ * @since 3.8.0
+ */
+public final class MdcSnapshot {
+
+    /**
+     * A snapshot of an empty MDC.
+     */
+    public static final MdcSnapshot EMPTY = new MdcSnapshot(null);
+
+    private static final Scope NOOP = () -> { };
+
+    private final Map<String, String> context;
+
+    private MdcSnapshot(final Map<String, String> context) {
+        this.context = context;
+    }
+
+    /**
+     * Captures the MDC of the current thread.
+     * @return a snapshot of the MDC, or {@link #EMPTY} if it holds no entries
+     */
+    public static MdcSnapshot capture() {
+        final Map<String, String> context = MDC.getCopyOfContextMap();
+        if (context == null || context.isEmpty()) {
+            return EMPTY;
+        }
+        return new MdcSnapshot(context);
+    }
+
+    /**
+     * Replaces the MDC of the current thread with this snapshot, until the returned {@link Scope}
+     * is closed, after which the previous MDC of the thread is put back.
+     * @return the scope of the restored context
+     */
+    public Scope restore() {
+        if (context == null) {
+            return NOOP;
+        }
+        final Map<String, String> previous = MDC.getCopyOfContextMap();
+        MDC.setContextMap(context);
+        return () -> {
+            if (previous == null || previous.isEmpty()) {
+                MDC.clear();
+            } else {
+                MDC.setContextMap(previous);
+            }
+        };
+    }
+
+    /**
+     * @return {@code true} if this snapshot holds no entries
+     */
+    public boolean isEmpty() {
+        return context == null;
+    }
+
+    /**
+     * The scope in which a {@link MdcSnapshot} is restored.
+     */
+    @FunctionalInterface
+    public interface Scope extends AutoCloseable {
+
+        /**
+         * Puts back the MDC the thread had before the snapshot was restored.
+         */
+        @Override
+        void close();
+
+    }
+
+}
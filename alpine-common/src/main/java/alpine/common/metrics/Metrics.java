@@ -19,6 +19,9 @@
 package alpine.common.metrics;
 
 import alpine.Config;
+import alpine.common.util.VirtualThreadExecutorService;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
 import io.micrometer.core.instrument.MeterRegistry;
 import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
 import io.micrometer.prometheusmetrics.PrometheusConfig;
@@ -40,10 +43,41 @@ public final class Metrics {
 
     public static void registerExecutorService(final ExecutorService executorService, final String name) {
         if (Config.getInstance().getPropertyAsBoolean(Config.AlpineKey.METRICS_ENABLED)) {
-            new ExecutorServiceMetrics(executorService, name, null).bindTo(REGISTRY);
+            if (executorService instanceof final VirtualThreadExecutorService vtExecutor) {
+                registerVirtualThreadExecutorService(vtExecutor, name);
+            } else {
+                new ExecutorServiceMetrics(executorService, name, null).bindTo(REGISTRY);
+            }
         }
     }
 
+    /**
+     * {@link ExecutorServiceMetrics} does not know about {@link VirtualThreadExecutorService}s.
+     * Register meters of the same names, so that dashboards work regardless of the thread mode.
+     */
+    private static void registerVirtualThreadExecutorService(final VirtualThreadExecutorService executor, final String name) {
+        FunctionCounter.builder("executor.completed", executor, VirtualThreadExecutorService::getCompletedTaskCount)
+                .tag("name", name)
+                .description("The approximate total number of tasks that have completed execution")
+                .baseUnit("tasks")
+                .register(REGISTRY);
+        Gauge.builder("executor.active", executor, VirtualThreadExecutorService::getActiveCount)
+                .tag("name", name)
+                .description("The approximate number of threads that are actively executing tasks")
+                .baseUnit("threads")
+                .register(REGISTRY);
+        Gauge.builder("executor.queued", executor, VirtualThreadExecutorService::getQueueSize)
+                .tag("name", name)
+                .description("The approximate number of tasks that are queued for execution")
+                .baseUnit("tasks")
+                .register(REGISTRY);
+        Gauge.builder("executor.pool.max", executor, VirtualThreadExecutorService::getMaxConcurrency)
+                .tag("name", name)
+                .description("The maximum number of tasks executing concurrently")
+                .baseUnit("threads")
+                .register(REGISTRY);
+    }
+
     static <T extends MeterRegistry> T customized(final T meterRegistry) {
         for (final MeterRegistryCustomizer customizer : ServiceLoader.load(MeterRegistryCustomizer.class)) {
             customizer.accept(meterRegistry);
@@ -0,0 +1,84 @@
+/*
+ * This file is part of Alpine.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ * Copyright (c) Steve Springett. All Rights Reserved.
+ */
+package alpine.common.metrics;
+
+import alpine.common.logging.Logger;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Limits the number of distinct values a meter tag can take.
+ * <p>
+ * Every distinct tag value results in a separate time series. For tags whose values are not
+ * bounded by the application itself (e.g. values provided by users or external systems), this
+ * can cause the {@link io.micrometer.core.instrument.MeterRegistry} to grow indefinitely.
+ * Once the configured number of distinct values has been observed, all further values are
+ * mapped to {@link #OVERFLOW_VALUE}.
+ *
+ * @since 3.8.0
+ */
+public final class TagCardinalityLimiter {
+
+    public static final String OVERFLOW_VALUE = "other";
+
+    private static final Logger LOGGER = Logger.getLogger(TagCardinalityLimiter.class);
+
+    private final String tagKey;
+    private final int maxValues;
+    private final Set<String> values = ConcurrentHashMap.newKeySet();
+    private volatile boolean overflowed;
+
+    /**
+     * @param tagKey    Key of the tag to limit; Used for logging purposes only
+     * @param maxValues Maximum number of distinct values to retain
+     */
+    public TagCardinalityLimiter(final String tagKey, final int maxValues) {
+        if (maxValues < 1) {
+            throw new IllegalArgumentException("maxValues must be greater than 0, but is " + maxValues);
+        }
+        this.tagKey = tagKey;
+        this.maxValues = maxValues;
+    }
+
+    /**
+     * @param value The tag value to limit
+     * @return The given value if it is within the limit, otherwise {@link #OVERFLOW_VALUE}
+     */
+    public String limit(final String value) {
+        if (value == null || values.contains(value)) {
+            return value;
+        }
+
+        synchronized (values) {
+            if (values.size() < maxValues) {
+                values.add(value);
+                return value;
+            }
+        }
+
+        if (!overflowed) {
+            overflowed = true;
+            LOGGER.warn("Tag %s exceeded the maximum of %d distinct values; Further values will be reported as \"%s\""
+                    .formatted(tagKey, maxValues, OVERFLOW_VALUE));
+        }
+        return OVERFLOW_VALUE;
+    }
+
+}
@@ -0,0 +1,103 @@
+/*
+ * This file is part of Alpine.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ * Copyright (c) Steve Springett. All Rights Reserved.
+ */
+package alpine.common.metrics;
+
+import alpine.common.logging.Logger;
+import io.micrometer.core.instrument.Timer;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordingStream;
+
+import java.time.Duration;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Reports virtual threads being pinned to their carrier thread, using JDK Flight Recorder events.
+ * <p>
+ * A pinned virtual thread blocks its carrier thread, which most commonly happens when blocking
+ * inside a {@code synchronized} block or method. Pinning events are recorded in the
+ * {@code alpine_virtual_thread_pinned} timer, and the first occurrence of each pinning
+ * location is logged.
+ *
+ * @since 3.8.0
+ */
+public final class VirtualThreadPinningMonitor {
+
+    private static final Logger LOGGER = Logger.getLogger(VirtualThreadPinningMonitor.class);
+    private static final String EVENT_NAME = "jdk.VirtualThreadPinned";
+    private static final Duration THRESHOLD = Duration.ofMillis(20);
+    private static final int MAX_LOGGED_LOCATIONS = 100;
+    private static final AtomicBoolean STARTED = new AtomicBoolean();
+    private static final Set<String> LOGGED_LOCATIONS = ConcurrentHashMap.newKeySet();
+
+    private VirtualThreadPinningMonitor() {
+    }
+
+    /**
+     * Starts monitoring, if not already started.
+     */
+    public static void start() {
+        if (!STARTED.compareAndSet(false, true)) {
+            return;
+        }
+
+        final Timer timer = Timer.builder("alpine_virtual_thread_pinned")
+                .description("Duration of virtual threads being pinned to their carrier thread")
+                .register(Metrics.getRegistry());
+        try {
+            final var recordingStream = new RecordingStream();
+            recordingStream.enable(EVENT_NAME).withThreshold(THRESHOLD).withStackTrace();
+            recordingStream.onEvent(EVENT_NAME, event -> onPinned(event, timer));
+            recordingStream.startAsync();
+        } catch (RuntimeException e) {
+            LOGGER.warn("Unable to monitor virtual thread pinning", e);
+        }
+    }
+
+    private static void onPinned(final RecordedEvent event, final Timer timer) {
+        timer.record(event.getDuration());
+
+        final String location = determineLocation(event);
+        if (LOGGED_LOCATIONS.size() < MAX_LOGGED_LOCATIONS && LOGGED_LOCATIONS.add(location)) {
+            LOGGER.warn("""
+                    Virtual thread was pinned to its carrier thread for %dms at %s; \
+                    This is commonly caused by blocking operations inside synchronized blocks"""
+                    .formatted(event.getDuration().toMillis(), location));
+        }
+    }
+
+    /**
+     * @return The first non-JDK frame of the event's stack trace
+     */
+    private static String determineLocation(final RecordedEvent event) {
+        if (event.getStackTrace() == null) {
+            return "unknown";
+        }
+        for (final RecordedFrame frame : event.getStackTrace().getFrames()) {
+            final String typeName = frame.getMethod().getType().getName();
+            if (!typeName.startsWith("java.") && !typeName.startsWith("jdk.") && !typeName.startsWith("sun.")) {
+                return "%s.%s(line %d)".formatted(typeName, frame.getMethod().getName(), frame.getLineNumber());
+            }
+        }
+        return "unknown";
+    }
+
+}
@@ -28,6 +28,8 @@ public final class ExecutorUtil {
             return new ExecutorStats(tpExecutor.isTerminated(), tpExecutor.getQueue().size(), tpExecutor.getActiveCount());
         } else if (executor instanceof final ForkJoinPool fjpExecutor) {
             return new ExecutorStats(fjpExecutor.isTerminated(), fjpExecutor.getQueuedSubmissionCount(), fjpExecutor.getActiveThreadCount());
+        } else if (executor instanceof final VirtualThreadExecutorService vtExecutor) {
+            return new ExecutorStats(vtExecutor.isTerminated(), vtExecutor.getQueueSize(), vtExecutor.getActiveCount());
         }
 
         return new ExecutorStats(executor.isTerminated(), null, null);
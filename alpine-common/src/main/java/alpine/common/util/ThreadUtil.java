@@ -54,4 +54,27 @@ public final class ThreadUtil {
         }
         return 1; // We have to have a minimum of 1 thread
     }
+
+    /**
+     * Determines whether workers should be executed on virtual threads, rather than on a pool of platform threads.
+     * @return true if {@link Config.AlpineKey#WORKER_THREAD_MODE} is {@code virtual}, otherwise false
+     * @since 3.8.0
+     */
+    public static boolean isVirtualThreadModeEnabled() {
+        return "virtual".equalsIgnoreCase(Config.getInstance().getProperty(Config.AlpineKey.WORKER_THREAD_MODE));
+    }
+
+    /**
+     * Determines the maximum number of workers executing concurrently on virtual threads.
+     * @param defaultConcurrency the concurrency to use when none is configured
+     * @return the maximum number of concurrently executing workers
+     * @since 3.8.0
+     */
+    public static int determineVirtualThreadConcurrency(final int defaultConcurrency) {
+        final int concurrency = Config.getInstance().getPropertyAsInt(Config.AlpineKey.WORKER_VIRTUAL_THREAD_CONCURRENCY);
+        if (concurrency > 0) {
+            return concurrency;
+        }
+        return Math.max(1, defaultConcurrency);
+    }
 }
@@ -0,0 +1,223 @@
+/*
+ * This file is part of Alpine.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ * Copyright (c) Steve Springett. All Rights Reserved.
+ */
+package alpine.common.util;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.AbstractExecutorService;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * An {@link java.util.concurrent.ExecutorService} that executes every task on a new virtual thread.
+ * <p>
+ * Unlike a pool of platform threads, the number of threads is not what limits concurrency.
+ * Instead, a {@link Semaphore} caps the number of tasks executing at the same time. Tasks
+ * that exceed the cap are held in a queue until a permit becomes available. Similar to a
+ * {@link java.util.concurrent.ThreadPoolExecutor}, the queue may be bounded, in which case
+ * {@link #execute(Runnable)} throws a {@link RejectedExecutionException} when it is full.
+ * <p>
+ * Similar to {@link java.util.concurrent.ThreadPoolExecutor#execute(Runnable)}, exceptions thrown
+ * by tasks submitted via {@link #execute(Runnable)} are passed to the thread's
+ * {@link Thread.UncaughtExceptionHandler}.
+ *
+ * @since 3.8.0
+ */
+public final class VirtualThreadExecutorService extends AbstractExecutorService {
+
+    private final ThreadFactory threadFactory;
+    private final int maxConcurrency;
+    private final Semaphore permits;
+    private final BlockingQueue<Runnable> queue;
+    private final AtomicLong completedCount = new AtomicLong();
+    private final Set<Thread> threads = ConcurrentHashMap.newKeySet();
+    private final CountDownLatch terminationLatch = new CountDownLatch(1);
+    private volatile boolean shutdown;
+
+    /**
+     * @param name                     Name of the executor; Used as prefix for thread names
+     * @param maxConcurrency           Maximum number of tasks executing concurrently
+     * @param uncaughtExceptionHandler Handler for exceptions thrown by tasks
+     */
+    public VirtualThreadExecutorService(final String name, final int maxConcurrency,
+                                        final Thread.UncaughtExceptionHandler uncaughtExceptionHandler) {
+        this(name, maxConcurrency, Integer.MAX_VALUE, uncaughtExceptionHandler);
+    }
+
+    /**
+     * @param name                     Name of the executor; Used as prefix for thread names
+     * @param maxConcurrency           Maximum number of tasks executing concurrently
+     * @param queueCapacity            Maximum number of tasks waiting for execution
+     * @param uncaughtExceptionHandler Handler for exceptions thrown by tasks
+     */
+    public VirtualThreadExecutorService(final String name, final int maxConcurrency, final int queueCapacity,
+                                        final Thread.UncaughtExceptionHandler uncaughtExceptionHandler) {
+        if (maxConcurrency < 1) {
+            throw new IllegalArgumentException("maxConcurrency must be greater than 0, but is " + maxConcurrency);
+        }
+        this.threadFactory = Thread.ofVirtual()
+                .name(name + "-", 1)
+                .uncaughtExceptionHandler(uncaughtExceptionHandler)
+                .factory();
+        this.maxConcurrency = maxConcurrency;
+        this.permits = new Semaphore(maxConcurrency);
+        this.queue = new LinkedBlockingQueue<>(queueCapacity);
+    }
+
+    @Override
+    public void execute(final Runnable command) {
+        if (command == null) {
+            throw new NullPointerException();
+        }
+        if (shutdown) {
+            throw new RejectedExecutionException("Executor has been shut down");
+        }
+        if (!queue.offer(command)) {
+            throw new RejectedExecutionException("Queue capacity exceeded");
+        }
+        if (shutdown && queue.remove(command)) {
+            tryTerminate();
+            throw new RejectedExecutionException("Executor has been shut down");
+        }
+        scheduleQueued();
+    }
+
+    /**
+     * Starts a virtual thread for every queued task, for as long as permits are available.
+     * <p>
+     * Permits are acquired before polling the queue, and released before re-checking it upon completion
+     * of a task. This ensures that a task being queued concurrently is never left behind.
+     */
+    private void scheduleQueued() {
+        while (!queue.isEmpty() && permits.tryAcquire()) {
+            final Runnable next = queue.poll();
+            if (next == null) {
+                permits.release();
+                continue;
+            }
+            final Thread thread = threadFactory.newThread(() -> run(next));
+            threads.add(thread);
+            thread.start();
+        }
+    }
+
+    private void run(final Runnable command) {
+        try {
+            command.run();
+        } finally {
+            threads.remove(Thread.currentThread());
+            completedCount.incrementAndGet();
+            permits.release();
+            scheduleQueued();
+            tryTerminate();
+        }
+    }
+
+    private void tryTerminate() {
+        if (shutdown && queue.isEmpty() && permits.availablePermits() == maxConcurrency) {
+            terminationLatch.countDown();
+        }
+    }
+
+    @Override
+    public void shutdown() {
+        shutdown = true;
+        tryTerminate();
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * Executing tasks are interrupted.
+     */
+    @Override
+    public List<Runnable> shutdownNow() {
+        shutdown = true;
+        final var pendingTasks = new ArrayList<Runnable>(queue.size());
+        queue.drainTo(pendingTasks);
+        threads.forEach(Thread::interrupt);
+        tryTerminate();
+        return pendingTasks;
+    }
+
+    @Override
+    public boolean isShutdown() {
+        return shutdown;
+    }
+
+    @Override
+    public boolean isTerminated() {
+        return terminationLatch.getCount() == 0;
+    }
+
+    @Override
+    public boolean awaitTermination(final long timeout, final TimeUnit unit) throws InterruptedException {
+        return terminationLatch.await(timeout, unit);
+    }
+
+    /**
+     * Provides access to the queue of tasks waiting for execution.
+     * <p>
+     * Similar to {@link java.util.concurrent.ThreadPoolExecutor#getQueue()}, this is intended
+     * for monitoring, and for dealing with a saturated executor. Tasks offered to the queue
+     * directly are only executed once a currently executing task completes.
+     *
+     * @return The task queue
+     */
+    public BlockingQueue<Runnable> getQueue() {
+        return queue;
+    }
+
+    /**
+     * @return The maximum number of tasks executing concurrently
+     */
+    public int getMaxConcurrency() {
+        return maxConcurrency;
+    }
+
+    /**
+     * @return The number of tasks waiting for a permit to execute
+     */
+    public int getQueueSize() {
+        return queue.size();
+    }
+
+    /**
+     * @return The number of tasks currently executing
+     */
+    public int getActiveCount() {
+        return maxConcurrency - permits.availablePermits();
+    }
+
+    /**
+     * @return The number of tasks that completed execution, either normally or exceptionally
+     */
+    public long getCompletedTaskCount() {
+        return completedCount.get();
+    }
+
+}
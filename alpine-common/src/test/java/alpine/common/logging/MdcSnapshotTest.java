@@ -0,0 +1,113 @@
+/*
+ * This file is part of Alpine.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ * Copyright (c) Steve Springett. All Rights Reserved.
+ */
+package alpine.common.logging;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.slf4j.MDC;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class MdcSnapshotTest {
+
+    @AfterEach
+    public void tearDown() {
+        MDC.clear();
+    }
+
+    @Test
+    public void testCaptureEmpty() {
+        assertThat(MdcSnapshot.capture()).isSameAs(MdcSnapshot.EMPTY);
+        MDC.put("requestId", "foo");
+        MDC.remove("requestId");
+        assertThat(MdcSnapshot.capture()).isSameAs(MdcSnapshot.EMPTY);
+    }
+
+    @Test
+    public void testCaptureIsIsolatedFromLaterChanges() {
+        MDC.put("requestId", "foo");
+        final MdcSnapshot snapshot = MdcSnapshot.capture();
+        assertThat(snapshot.isEmpty()).isFalse();
+        MDC.put("requestId", "bar");
+        MDC.clear();
+        final MdcSnapshot.Scope scope = snapshot.restore();
+        try {
+            assertThat(MDC.get("requestId")).isEqualTo("foo");
+        } finally {
+            scope.close();
+        }
+        assertThat(MDC.getCopyOfContextMap()).isNullOrEmpty();
+    }
+
+    @Test
+    public void testRestoreOnOtherThread() throws Exception {
+        MDC.put("requestId", "foo");
+        MDC.put("traceId", "bar");
+        final MdcSnapshot snapshot = MdcSnapshot.capture();
+        final ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            final Map<String, String> informed = CompletableFuture.supplyAsync(() -> {
+                final MdcSnapshot.Scope scope = snapshot.restore();
+                try {
+                    return MDC.getCopyOfContextMap();
+                } finally {
+                    scope.close();
+                }
+            }, executor).get();
+            assertThat(informed).containsExactlyInAnyOrderEntriesOf(Map.of("requestId", "foo", "traceId", "bar"));
+            final Map<String, String> after = CompletableFuture.supplyAsync(MDC::getCopyOfContextMap, executor).get();
+            assertThat(after).isNullOrEmpty();
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void testRestorePutsBackPreviousContext() {
+        MDC.put("requestId", "foo");
+        final MdcSnapshot snapshot = MdcSnapshot.capture();
+        MDC.put("requestId", "bar");
+        MDC.put("other", "baz");
+        final MdcSnapshot.Scope scope = snapshot.restore();
+        try {
+            assertThat(MDC.getCopyOfContextMap()).containsExactly(Map.entry("requestId", "foo"));
+        } finally {
+            scope.close();
+        }
+        assertThat(MDC.getCopyOfContextMap()).containsExactlyInAnyOrderEntriesOf(Map.of("requestId", "bar", "other", "baz"));
+    }
+
+    @Test
+    public void testRestoreEmptyLeavesContextUntouched() {
+        MDC.put("requestId", "foo");
+        final MdcSnapshot.Scope scope = MdcSnapshot.EMPTY.restore();
+        try {
+            assertThat(MDC.get("requestId")).isEqualTo("foo");
+        } finally {
+            scope.close();
+        }
+        assertThat(MDC.get("requestId")).isEqualTo("foo");
+    }
+
+}
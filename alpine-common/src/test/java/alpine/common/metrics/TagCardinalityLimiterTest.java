@@ -0,0 +1,52 @@
+/*
+ * This file is part of Alpine.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ * Copyright (c) Steve Springett. All Rights Reserved.
+ */
+package alpine.common.metrics;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+
+public class TagCardinalityLimiterTest {
+
+    @Test
+    public void testLimit() {
+        final var limiter = new TagCardinalityLimiter("scope", 2);
+        assertThat(limiter.limit("a")).isEqualTo("a");
+        assertThat(limiter.limit("b")).isEqualTo("b");
+        assertThat(limiter.limit("c")).isEqualTo(TagCardinalityLimiter.OVERFLOW_VALUE);
+        assertThat(limiter.limit("a")).isEqualTo("a");
+        assertThat(limiter.limit("b")).isEqualTo("b");
+        assertThat(limiter.limit("d")).isEqualTo(TagCardinalityLimiter.OVERFLOW_VALUE);
+    }
+
+    @Test
+    public void testLimitWithNullValue() {
+        final var limiter = new TagCardinalityLimiter("scope", 1);
+        assertThat(limiter.limit(null)).isNull();
+        assertThat(limiter.limit("a")).isEqualTo("a");
+    }
+
+    @Test
+    public void testInvalidMaxValues() {
+        assertThatExceptionOfType(IllegalArgumentException.class)
+                .isThrownBy(() -> new TagCardinalityLimiter("scope", 0));
+    }
+
+}
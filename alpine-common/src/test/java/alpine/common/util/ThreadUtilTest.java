@@ -39,4 +39,25 @@ class ThreadUtilTest {
         Assertions.assertTrue(ThreadUtil.determineNumberOfWorkerThreads() > 0);
     }
 
+    @Test
+    @RestoreEnvironmentVariables
+    @SetEnvironmentVariable(key = "ALPINE_WORKER_THREAD_MODE", value = "virtual")
+    void isVirtualThreadModeEnabledTest() {
+        Assertions.assertTrue(ThreadUtil.isVirtualThreadModeEnabled());
+    }
+
+    @Test
+    @RestoreEnvironmentVariables
+    @SetEnvironmentVariable(key = "ALPINE_WORKER_VIRTUAL_THREAD_CONCURRENCY", value = "500")
+    void determineVirtualThreadConcurrencyStaticTest() {
+        Assertions.assertEquals(500, ThreadUtil.determineVirtualThreadConcurrency(8));
+    }
+
+    @Test
+    @RestoreEnvironmentVariables
+    @SetEnvironmentVariable(key = "ALPINE_WORKER_VIRTUAL_THREAD_CONCURRENCY", value = "0")
+    void determineVirtualThreadConcurrencyDefaultTest() {
+        Assertions.assertEquals(8, ThreadUtil.determineVirtualThreadConcurrency(8));
+    }
+
 }
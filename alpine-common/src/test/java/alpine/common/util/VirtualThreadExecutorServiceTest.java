@@ -0,0 +1,133 @@
+/*
+ * This file is part of Alpine.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ * Copyright (c) Steve Springett. All Rights Reserved.
+ */
+package alpine.common.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+
+public class VirtualThreadExecutorServiceTest {
+
+    @Test
+    public void testConcurrencyIsCapped() throws Exception {
+        final var executor = new VirtualThreadExecutorService("test", 2, (thread, throwable) -> { });
+        final var release = new CountDownLatch(1);
+        final var concurrent = new AtomicInteger();
+        final var maxConcurrent = new AtomicInteger();
+
+        for (int i = 0; i < 10; i++) {
+            executor.execute(() -> {
+                maxConcurrent.accumulateAndGet(concurrent.incrementAndGet(), Math::max);
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                concurrent.decrementAndGet();
+            });
+        }
+
+        final long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while ((executor.getActiveCount() < 2 || executor.getQueueSize() < 8) && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        final ExecutorUtil.ExecutorStats stats = ExecutorUtil.getExecutorStats(executor);
+        assertThat(stats.activeThreads()).isEqualTo(2);
+        assertThat(stats.queueSize()).isEqualTo(8);
+
+        release.countDown();
+        executor.shutdown();
+        assertThat(executor.awaitTermination(5, TimeUnit.SECONDS)).isTrue();
+        assertThat(executor.isTerminated()).isTrue();
+        assertThat(maxConcurrent.get()).isEqualTo(2);
+        assertThat(executor.getCompletedTaskCount()).isEqualTo(10);
+    }
+
+    @Test
+    public void testUncaughtExceptionHandler() throws Exception {
+        // The handler is invoked after the task completed, so it may be invoked after termination.
+        final var failure = new CountDownLatch(1);
+        final var executor = new VirtualThreadExecutorService("test", 1, (thread, throwable) -> failure.countDown());
+        executor.execute(() -> {
+            throw new IllegalStateException();
+        });
+        executor.shutdown();
+        assertThat(executor.awaitTermination(5, TimeUnit.SECONDS)).isTrue();
+        assertThat(failure.await(5, TimeUnit.SECONDS)).isTrue();
+        assertThat(executor.getCompletedTaskCount()).isEqualTo(1);
+    }
+
+    @Test
+    public void testQueueCapacity() throws Exception {
+        final var executor = new VirtualThreadExecutorService("test", 1, 1, (thread, throwable) -> { });
+        final var release = new CountDownLatch(1);
+        final Runnable task = () -> {
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        };
+        executor.execute(task);
+        executor.execute(task);
+        assertThatExceptionOfType(RejectedExecutionException.class)
+                .isThrownBy(() -> executor.execute(task));
+
+        release.countDown();
+        executor.shutdown();
+        assertThat(executor.awaitTermination(5, TimeUnit.SECONDS)).isTrue();
+        assertThat(executor.getCompletedTaskCount()).isEqualTo(2);
+    }
+
+    @Test
+    public void testExecuteAfterShutdown() {
+        final var executor = new VirtualThreadExecutorService("test", 1, (thread, throwable) -> { });
+        executor.shutdown();
+        assertThat(executor.isShutdown()).isTrue();
+        assertThat(executor.isTerminated()).isTrue();
+        assertThatExceptionOfType(RejectedExecutionException.class)
+                .isThrownBy(() -> executor.execute(() -> { }));
+    }
+
+    @Test
+    public void testShutdownNow() throws Exception {
+        final var executor = new VirtualThreadExecutorService("test", 1, (thread, throwable) -> { });
+        final var started = new CountDownLatch(1);
+        executor.execute(() -> {
+            started.countDown();
+            try {
+                Thread.sleep(60_000);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        executor.execute(() -> { });
+        assertThat(started.await(5, TimeUnit.SECONDS)).isTrue();
+
+        assertThat(executor.shutdownNow()).hasSize(1);
+        assertThat(executor.awaitTermination(5, TimeUnit.SECONDS)).isTrue();
+    }
+
+}
@@ -0,0 +1,249 @@
+/*
+ * This file is part of Alpine.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ * Copyright (c) Steve Springett. All Rights Reserved.
+ */
+package alpine.cluster;
+
+import alpine.Config;
+import alpine.common.logging.Logger;
+import alpine.common.metrics.Metrics;
+import alpine.event.framework.LoggableUncaughtExceptionHandler;
+import alpine.persistence.AlpineQueryManager;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.Timer;
+import org.apache.commons.lang3.concurrent.BasicThreadFactory;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Elects a single node of a cluster to perform a named duty, using leases stored in the database.
+ * <p>
+ * A lease is granted to the first node trying to acquire it, and held for
+ * {@link Config.AlpineKey#CLUSTER_LEASE_DURATION} milliseconds. The holder renews its leases every
+ * {@link Config.AlpineKey#CLUSTER_LEASE_RENEWAL_INTERVAL} milliseconds, so that it keeps them until it
+ * stops or loses its connection to the database. Other nodes can acquire a lease once it expired.
+ * <p>
+ * A node considers a lease lost one renewal interval before it expires, unless it was renewed in
+ * the meantime, so that it never assumes to hold a lease another node may have acquired already.
+ * Nodes that failed to acquire a lease retry once per renewal interval at most.
+ *
+ * @since 3.8.0
+ */
+public final class ClusterLeaseManager {
+
+    private static final Logger LOGGER = Logger.getLogger(ClusterLeaseManager.class);
+    private static ClusterLeaseManager instance;
+
+    private final Supplier<AlpineQueryManager> qmSupplier;
+    private final String holderId;
+    private final long leaseDurationNanos;
+    private final long renewalIntervalNanos;
+    private final Map<String, Lease> leases = new ConcurrentHashMap<>();
+    private ScheduledExecutorService renewalExecutor;
+
+    ClusterLeaseManager(final Supplier<AlpineQueryManager> qmSupplier, final String holderId,
+                        final long leaseDurationMillis, final long renewalIntervalMillis) {
+        if (renewalIntervalMillis <= 0 || renewalIntervalMillis >= leaseDurationMillis) {
+            throw new IllegalArgumentException("The lease renewal interval must be positive, and shorter than the lease duration");
+        }
+        this.qmSupplier = qmSupplier;
+        this.holderId = holderId;
+        this.leaseDurationNanos = TimeUnit.MILLISECONDS.toNanos(leaseDurationMillis);
+        this.renewalIntervalNanos = TimeUnit.MILLISECONDS.toNanos(renewalIntervalMillis);
+    }
+
+    /**
+     * @return the lease manager of this node, acquiring leases on behalf of the
+     * {@link ClusterNodeRegistry#getLocalNodeId() local node}
+     */
+    public static synchronized ClusterLeaseManager getInstance() {
+        if (instance == null) {
+            instance = fromConfig(AlpineQueryManager::new, ClusterNodeRegistry.getInstance().getLocalNodeId());
+        }
+        return instance;
+    }
+
+    /**
+     * Creates a lease manager, as configured.
+     * @param qmSupplier the supplier of {@link AlpineQueryManager}s to access leases with
+     * @param holderId the unique identifier of the node acquiring leases
+     * @return a new {@link ClusterLeaseManager}
+     */
+    public static ClusterLeaseManager fromConfig(final Supplier<AlpineQueryManager> qmSupplier, final String holderId) {
+        final Config config = Config.getInstance();
+        return new ClusterLeaseManager(qmSupplier, holderId,
+                config.getPropertyAsLong(Config.AlpineKey.CLUSTER_LEASE_DURATION),
+                config.getPropertyAsLong(Config.AlpineKey.CLUSTER_LEASE_RENEWAL_INTERVAL));
+    }
+
+    /**
+     * Acquires a lease, unless it is held already. Once acquired, the lease is renewed until
+     * {@link #stop()} is called or it is {@link #release(String) released}.
+     * @param name the name of the lease
+     * @return {@code true} if the local node holds the lease
+     */
+    public boolean tryAcquire(final String name) {
+        final Lease lease = leases.computeIfAbsent(name, Lease::new);
+        if (lease.isHeld()) {
+            return true;
+        }
+        if (System.nanoTime() - lease.nextAttemptNanos < 0) {
+            return false;
+        }
+        final boolean acquired = lease.acquire();
+        if (acquired) {
+            startRenewal();
+        }
+        return acquired;
+    }
+
+    /**
+     * @param name the name of the lease
+     * @return {@code true} if the local node holds the lease
+     */
+    public boolean isHeld(final String name) {
+        final Lease lease = leases.get(name);
+        return lease != null && lease.isHeld();
+    }
+
+    /**
+     * Releases a lease held by the local node, so that other nodes can acquire it right away.
+     * @param name the name of the lease
+     */
+    public void release(final String name) {
+        final Lease lease = leases.get(name);
+        if (lease != null) {
+            lease.release();
+        }
+    }
+
+    /**
+     * @return the unique identifier of the node acquiring leases
+     */
+    public String getHolderId() {
+        return holderId;
+    }
+
+    /**
+     * Stops renewing leases, and releases all leases held by the local node.
+     */
+    public synchronized void stop() {
+        if (renewalExecutor != null) {
+            renewalExecutor.shutdownNow();
+            renewalExecutor = null;
+        }
+        leases.values().forEach(Lease::release);
+    }
+
+    private synchronized void startRenewal() {
+        if (renewalExecutor != null) {
+            return;
+        }
+        final var threadFactory = new BasicThreadFactory.Builder()
+                .uncaughtExceptionHandler(new LoggableUncaughtExceptionHandler())
+                .namingPattern("Alpine-ClusterLeaseManager-%d")
+                .daemon(true)
+                .build();
+        renewalExecutor = Executors.newSingleThreadScheduledExecutor(threadFactory);
+        renewalExecutor.scheduleWithFixedDelay(this::renew, renewalIntervalNanos, renewalIntervalNanos, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Renews all leases held by the local node.
+     */
+    void renew() {
+        for (final Lease lease : leases.values()) {
+            if (lease.isHeld() && !lease.acquire()) {
+                LOGGER.warn("Lost lease " + lease.name + "; Another node may take it over");
+            }
+        }
+    }
+
+    private final class Lease {
+
+        private final String name;
+        private final Timer acquiredTimer;
+        private final Timer rejectedTimer;
+        private volatile boolean held;
+        private volatile long validUntilNanos;
+        private volatile long nextAttemptNanos = System.nanoTime();
+
+        private Lease(final String name) {
+            this.name = name;
+            this.acquiredTimer = createTimer("acquired");
+            this.rejectedTimer = createTimer("rejected");
+            Gauge.builder("alpine_cluster_lease_held", this, lease -> lease.isHeld() ? 1 : 0)
+                    .description("Whether the lease is held by this node")
+                    .tags("lease", name, "node", holderId)
+                    .strongReference(true)
+                    .register(Metrics.getRegistry());
+        }
+
+        private Timer createTimer(final String outcome) {
+            return Timer.builder("alpine_cluster_lease_acquisition")
+                    .description("Time taken to acquire or renew a lease")
+                    .tags("lease", name, "outcome", outcome)
+                    .register(Metrics.getRegistry());
+        }
+
+        private boolean isHeld() {
+            return held && System.nanoTime() - validUntilNanos < 0;
+        }
+
+        private synchronized boolean acquire() {
+            final boolean wasHeld = isHeld();
+            final long startedAt = System.nanoTime();
+            boolean acquired = false;
+            try (final AlpineQueryManager qm = qmSupplier.get()) {
+                acquired = qm.acquireClusterLease(name, holderId, TimeUnit.NANOSECONDS.toMillis(leaseDurationNanos));
+            } catch (RuntimeException e) {
+                LOGGER.error("Failed to acquire lease " + name, e);
+            }
+            final long elapsedNanos = System.nanoTime() - startedAt;
+            (acquired ? acquiredTimer : rejectedTimer).record(elapsedNanos, TimeUnit.NANOSECONDS);
+            if (acquired) {
+                validUntilNanos = startedAt + leaseDurationNanos - renewalIntervalNanos;
+                if (!wasHeld) {
+                    LOGGER.info("Acquired lease " + name + " in " + TimeUnit.NANOSECONDS.toMillis(elapsedNanos) + "ms");
+                }
+            } else {
+                nextAttemptNanos = startedAt + renewalIntervalNanos;
+            }
+            held = acquired;
+            return acquired;
+        }
+
+        private synchronized void release() {
+            if (!held) {
+                return;
+            }
+            held = false;
+            try (final AlpineQueryManager qm = qmSupplier.get()) {
+                qm.releaseClusterLease(name, holderId);
+            } catch (RuntimeException e) {
+                LOGGER.warn("Failed to release lease " + name + "; It will be available once it expired", e);
+            }
+        }
+
+    }
+
+}
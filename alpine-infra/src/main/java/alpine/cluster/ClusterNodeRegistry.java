@@ -0,0 +1,183 @@
+/*
+ * This file is part of Alpine.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ * Copyright (c) Steve Springett. All Rights Reserved.
+ */
+package alpine.cluster;
+
+import alpine.Config;
+import alpine.common.logging.Logger;
+import alpine.event.framework.LoggableUncaughtExceptionHandler;
+import alpine.model.ClusterNode;
+import alpine.persistence.AlpineQueryManager;
+import org.apache.commons.lang3.concurrent.BasicThreadFactory;
+
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.sql.Timestamp;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Registry of the nodes of a cluster.
+ * <p>
+ * Every node registers itself with a random node ID when it starts, and sends a heartbeat every
+ * {@link Config.AlpineKey#CLUSTER_HEARTBEAT_INTERVAL} milliseconds. Nodes that did not send a heartbeat
+ * for {@link Config.AlpineKey#CLUSTER_NODE_TIMEOUT} milliseconds are considered gone, and are removed
+ * by the next node sending a heartbeat. Heartbeats are timestamped by the clock of the sending node,
+ * so clocks of all nodes must be synchronized.
+ *
+ * @since 3.8.0
+ */
+public final class ClusterNodeRegistry {
+
+    private static final Logger LOGGER = Logger.getLogger(ClusterNodeRegistry.class);
+    private static ClusterNodeRegistry instance;
+
+    private final Supplier<AlpineQueryManager> qmSupplier;
+    private final String localNodeId;
+    private final long heartbeatIntervalMillis;
+    private final long nodeTimeoutMillis;
+    private volatile List<String> liveNodeIds;
+    private ScheduledExecutorService heartbeatExecutor;
+
+    ClusterNodeRegistry(final Supplier<AlpineQueryManager> qmSupplier, final String localNodeId,
+                        final long heartbeatIntervalMillis, final long nodeTimeoutMillis) {
+        this.qmSupplier = qmSupplier;
+        this.localNodeId = localNodeId;
+        this.heartbeatIntervalMillis = heartbeatIntervalMillis;
+        this.nodeTimeoutMillis = nodeTimeoutMillis;
+        this.liveNodeIds = List.of(localNodeId);
+    }
+
+    /**
+     * @return the registry of this node, as configured
+     */
+    public static synchronized ClusterNodeRegistry getInstance() {
+        if (instance == null) {
+            instance = fromConfig();
+        }
+        return instance;
+    }
+
+    /**
+     * Creates a registry for a new node, as configured.
+     * @return a new {@link ClusterNodeRegistry}
+     */
+    public static ClusterNodeRegistry fromConfig() {
+        return fromConfig(AlpineQueryManager::new);
+    }
+
+    /**
+     * Creates a registry for a new node, as configured.
+     * @param qmSupplier the supplier of {@link AlpineQueryManager}s to access the registry with
+     * @return a new {@link ClusterNodeRegistry}
+     */
+    public static ClusterNodeRegistry fromConfig(final Supplier<AlpineQueryManager> qmSupplier) {
+        final Config config = Config.getInstance();
+        return new ClusterNodeRegistry(qmSupplier, UUID.randomUUID().toString(),
+                config.getPropertyAsLong(Config.AlpineKey.CLUSTER_HEARTBEAT_INTERVAL),
+                config.getPropertyAsLong(Config.AlpineKey.CLUSTER_NODE_TIMEOUT));
+    }
+
+    /**
+     * Registers the local node, and starts sending heartbeats.
+     */
+    public synchronized void start() {
+        if (heartbeatExecutor != null) {
+            return;
+        }
+        try (final AlpineQueryManager qm = qmSupplier.get()) {
+            qm.registerClusterNode(localNodeId, getHostname());
+        }
+        heartbeat();
+        LOGGER.info("Registered cluster node " + localNodeId + "; Live nodes: " + liveNodeIds);
+
+        final var threadFactory = new BasicThreadFactory.Builder()
+                .uncaughtExceptionHandler(new LoggableUncaughtExceptionHandler())
+                .namingPattern("Alpine-ClusterNodeRegistry-%d")
+                .daemon(true)
+                .build();
+        heartbeatExecutor = Executors.newSingleThreadScheduledExecutor(threadFactory);
+        heartbeatExecutor.scheduleWithFixedDelay(this::heartbeat, heartbeatIntervalMillis, heartbeatIntervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Stops sending heartbeats, and deregisters the local node.
+     */
+    public synchronized void stop() {
+        if (heartbeatExecutor == null) {
+            return;
+        }
+        heartbeatExecutor.shutdownNow();
+        heartbeatExecutor = null;
+        try (final AlpineQueryManager qm = qmSupplier.get()) {
+            qm.deleteClusterNode(localNodeId);
+        } catch (RuntimeException e) {
+            LOGGER.warn("Failed to deregister cluster node " + localNodeId, e);
+        }
+    }
+
+    /**
+     * @return the ID of the local node
+     */
+    public String getLocalNodeId() {
+        return localNodeId;
+    }
+
+    /**
+     * @return the IDs of all nodes that were alive as of the last heartbeat, including the local node
+     */
+    public List<String> getLiveNodeIds() {
+        return liveNodeIds;
+    }
+
+    /**
+     * Records a heartbeat of the local node, removes nodes that are gone, and refreshes the live nodes.
+     */
+    void heartbeat() {
+        try (final AlpineQueryManager qm = qmSupplier.get()) {
+            if (!qm.updateClusterNodeHeartbeat(localNodeId)) {
+                // The node was considered gone, for example after a long GC pause.
+                LOGGER.warn("Cluster node " + localNodeId + " was not registered anymore; Registering it again");
+                qm.registerClusterNode(localNodeId, getHostname());
+            }
+            final var heartbeatExpiry = new Timestamp(System.currentTimeMillis() - nodeTimeoutMillis);
+            final long removed = qm.deleteStaleClusterNodes(heartbeatExpiry);
+            if (removed > 0) {
+                LOGGER.info("Removed " + removed + " cluster nodes that stopped sending heartbeats");
+            }
+            liveNodeIds = qm.getClusterNodes(heartbeatExpiry).stream()
+                    .map(ClusterNode::getNodeId)
+                    .toList();
+        } catch (RuntimeException e) {
+            LOGGER.error("Failed to send heartbeat of cluster node " + localNodeId, e);
+        }
+    }
+
+    private static String getHostname() {
+        try {
+            return InetAddress.getLocalHost().getHostName();
+        } catch (UnknownHostException e) {
+            return null;
+        }
+    }
+
+}
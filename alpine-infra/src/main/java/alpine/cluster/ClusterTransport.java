@@ -0,0 +1,77 @@
+/*
+ * This file is part of Alpine.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ * Copyright (c) Steve Springett. All Rights Reserved.
+ */
+package alpine.cluster;
+
+import alpine.Config;
+import alpine.model.ClusterMessage;
+
+import java.util.List;
+import java.util.ServiceLoader;
+import java.util.function.Consumer;
+
+/**
+ * Transports messages between the nodes of a cluster.
+ * <p>
+ * Messages with a {@link ClusterMessage#getTargetNode() target node} must only be received by that node.
+ * Messages without target node must be received by exactly one live node, which may be the sending node.
+ * <p>
+ * Custom transports must be deployed as service providers in order to be discoverable, and are
+ * selected by setting {@link Config.AlpineKey#CLUSTER_TRANSPORT} to their fully qualified class name.
+ * Refer to the {@link java.util.ServiceLoader} documentation for details.
+ *
+ * @since 3.8.0
+ */
+public interface ClusterTransport {
+
+    /**
+     * Starts receiving messages.
+     * @param registry the {@link ClusterNodeRegistry} of the local node
+     * @param receiver the consumer to hand received messages to
+     */
+    void start(ClusterNodeRegistry registry, Consumer<ClusterMessage> receiver);
+
+    /**
+     * Sends messages.
+     * @param messages the messages to send
+     */
+    void send(List<ClusterMessage> messages);
+
+    /**
+     * Stops receiving messages.
+     */
+    void stop();
+
+    /**
+     * @return the transport selected by {@link Config.AlpineKey#CLUSTER_TRANSPORT}
+     * @throws IllegalStateException when no transport with the configured name exists
+     */
+    static ClusterTransport fromConfig() {
+        final String name = Config.getInstance().getProperty(Config.AlpineKey.CLUSTER_TRANSPORT);
+        return switch (name) {
+            case "database" -> new DatabaseClusterTransport();
+            case "postgresql" -> new PostgresClusterTransport();
+            default -> ServiceLoader.load(ClusterTransport.class).stream()
+                    .filter(provider -> provider.type().getName().equals(name))
+                    .findFirst()
+                    .map(ServiceLoader.Provider::get)
+                    .orElseThrow(() -> new IllegalStateException("No cluster transport named " + name));
+        };
+    }
+
+}
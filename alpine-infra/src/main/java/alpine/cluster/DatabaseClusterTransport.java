@@ -0,0 +1,189 @@
+/*
+ * This file is part of Alpine.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ * Copyright (c) Steve Springett. All Rights Reserved.
+ */
+package alpine.cluster;
+
+import alpine.Config;
+import alpine.common.logging.Logger;
+import alpine.event.framework.LoggableUncaughtExceptionHandler;
+import alpine.model.ClusterMessage;
+import alpine.persistence.AlpineQueryManager;
+import org.apache.commons.lang3.concurrent.BasicThreadFactory;
+
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * A {@link ClusterTransport} exchanging messages through the {@link ClusterMessage} table.
+ * <p>
+ * Every node polls for messages every {@link Config.AlpineKey#CLUSTER_POLL_INTERVAL} milliseconds,
+ * receiving up to {@link Config.AlpineKey#CLUSTER_BATCH_SIZE} messages at a time. Received messages
+ * are deleted in the same transaction they were selected in.
+ *
+ * @see AlpineQueryManager#receiveClusterMessages(String, int)
+ * @since 3.8.0
+ */
+public class DatabaseClusterTransport implements ClusterTransport {
+
+    private static final Logger LOGGER = Logger.getLogger(DatabaseClusterTransport.class);
+
+    private final Supplier<AlpineQueryManager> qmSupplier;
+    private final long pollIntervalMillis;
+    private final int batchSize;
+    private final AtomicBoolean pollRequested = new AtomicBoolean();
+    private volatile ScheduledExecutorService pollExecutor;
+    private volatile String localNodeId;
+    private volatile Consumer<ClusterMessage> receiver;
+
+    public DatabaseClusterTransport() {
+        this(AlpineQueryManager::new,
+                Config.getInstance().getPropertyAsLong(Config.AlpineKey.CLUSTER_POLL_INTERVAL),
+                Config.getInstance().getPropertyAsInt(Config.AlpineKey.CLUSTER_BATCH_SIZE));
+    }
+
+    /**
+     * @param qmSupplier the supplier of {@link AlpineQueryManager}s to access the database with
+     * @param pollIntervalMillis the interval to poll for messages in
+     * @param batchSize the maximum number of messages to receive at a time
+     */
+    public DatabaseClusterTransport(final Supplier<AlpineQueryManager> qmSupplier, final long pollIntervalMillis, final int batchSize) {
+        this.qmSupplier = qmSupplier;
+        this.pollIntervalMillis = Math.max(1, pollIntervalMillis);
+        this.batchSize = Math.max(1, batchSize);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public synchronized void start(final ClusterNodeRegistry registry, final Consumer<ClusterMessage> receiver) {
+        if (pollExecutor != null) {
+            return;
+        }
+        this.localNodeId = registry.getLocalNodeId();
+        this.receiver = receiver;
+        final var threadFactory = new BasicThreadFactory.Builder()
+                .uncaughtExceptionHandler(new LoggableUncaughtExceptionHandler())
+                .namingPattern("Alpine-ClusterTransport-%d")
+                .daemon(true)
+                .build();
+        final ScheduledExecutorService executor = Executors.newSingleThreadScheduledExecutor(threadFactory);
+        executor.scheduleWithFixedDelay(this::pollUntilDrained, pollIntervalMillis, pollIntervalMillis, TimeUnit.MILLISECONDS);
+        pollExecutor = executor;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void send(final List<ClusterMessage> messages) {
+        try (final AlpineQueryManager qm = qmSupplier.get()) {
+            qm.callInTransaction(() -> {
+                qm.createClusterMessages(messages);
+                afterSend(qm);
+                return null;
+            });
+        }
+    }
+
+    /**
+     * Invoked in the transaction messages were sent in, before it is committed.
+     * @param qm the {@link AlpineQueryManager} the messages were sent with
+     * @throws Exception when notifying other nodes failed
+     */
+    protected void afterSend(final AlpineQueryManager qm) throws Exception {
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public synchronized void stop() {
+        if (pollExecutor != null) {
+            pollExecutor.shutdownNow();
+            pollExecutor = null;
+        }
+    }
+
+    /**
+     * Polls for messages as soon as possible, rather than waiting for the poll interval to elapse.
+     */
+    protected void requestPoll() {
+        final ScheduledExecutorService executor = pollExecutor;
+        if (executor == null || !pollRequested.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            executor.execute(() -> {
+                pollRequested.set(false);
+                pollUntilDrained();
+            });
+        } catch (RejectedExecutionException e) {
+            pollRequested.set(false);
+        }
+    }
+
+    /**
+     * @return the supplier of {@link AlpineQueryManager}s used to access the database
+     */
+    protected Supplier<AlpineQueryManager> getQueryManagerSupplier() {
+        return qmSupplier;
+    }
+
+    /**
+     * @return the poll interval in milliseconds
+     */
+    protected long getPollIntervalMillis() {
+        return pollIntervalMillis;
+    }
+
+    private void pollUntilDrained() {
+        while (poll() == batchSize && !Thread.currentThread().isInterrupted()) {
+            LOGGER.debug("Received a full batch of cluster messages; Polling again");
+        }
+    }
+
+    /**
+     * Receives a batch of messages, and hands them to the receiver.
+     * @return the number of received messages
+     */
+    int poll() {
+        final List<ClusterMessage> messages;
+        try (final AlpineQueryManager qm = qmSupplier.get()) {
+            messages = qm.receiveClusterMessages(localNodeId, batchSize);
+        } catch (RuntimeException e) {
+            LOGGER.error("Failed to receive cluster messages", e);
+            return 0;
+        }
+        for (final ClusterMessage message : messages) {
+            try {
+                receiver.accept(message);
+            } catch (RuntimeException e) {
+                LOGGER.error("Failed to process cluster message " + message.getId() + " of type " + message.getEventClass(), e);
+            }
+        }
+        return messages.size();
+    }
+
+}
@@ -0,0 +1,140 @@
+/*
+ * This file is part of Alpine.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ * Copyright (c) Steve Springett. All Rights Reserved.
+ */
+package alpine.cluster;
+
+import alpine.common.logging.Logger;
+import alpine.event.framework.LoggableUncaughtExceptionHandler;
+import alpine.model.ClusterMessage;
+import alpine.persistence.AlpineQueryManager;
+
+import javax.jdo.datastore.JDOConnection;
+import java.lang.reflect.Method;
+import java.sql.Connection;
+import java.sql.Statement;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * A {@link DatabaseClusterTransport} for PostgreSQL, that additionally uses {@code LISTEN} / {@code NOTIFY}
+ * to let other nodes receive messages without waiting for their next poll.
+ * <p>
+ * Every node holds one database connection for listening to notifications. The PostgreSQL JDBC driver
+ * is accessed reflectively, so that it is not required when this transport is not used.
+ *
+ * @since 3.8.0
+ */
+public class PostgresClusterTransport extends DatabaseClusterTransport {
+
+    private static final Logger LOGGER = Logger.getLogger(PostgresClusterTransport.class);
+    private static final String CHANNEL = "alpine_cluster";
+    private static final long RECONNECT_DELAY_MILLIS = 5000;
+
+    private volatile Thread listenerThread;
+
+    public PostgresClusterTransport() {
+        super();
+    }
+
+    /**
+     * @param qmSupplier the supplier of {@link AlpineQueryManager}s to access the database with
+     * @param pollIntervalMillis the interval to poll for messages in, when no notifications are received
+     * @param batchSize the maximum number of messages to receive at a time
+     */
+    public PostgresClusterTransport(final Supplier<AlpineQueryManager> qmSupplier, final long pollIntervalMillis, final int batchSize) {
+        super(qmSupplier, pollIntervalMillis, batchSize);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public synchronized void start(final ClusterNodeRegistry registry, final Consumer<ClusterMessage> receiver) {
+        super.start(registry, receiver);
+        if (listenerThread == null) {
+            listenerThread = Thread.ofPlatform()
+                    .name("Alpine-ClusterTransport-Listener")
+                    .daemon(true)
+                    .uncaughtExceptionHandler(new LoggableUncaughtExceptionHandler())
+                    .start(this::listen);
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public synchronized void stop() {
+        super.stop();
+        if (listenerThread != null) {
+            listenerThread.interrupt();
+            listenerThread = null;
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    protected void afterSend(final AlpineQueryManager qm) throws Exception {
+        final var jdoConnection = (JDOConnection) qm.getPersistenceManager().getDataStoreConnection();
+        try (final Statement statement = ((Connection) jdoConnection.getNativeConnection()).createStatement()) {
+            // Notifications are only delivered once the transaction commits.
+            statement.execute("NOTIFY " + CHANNEL);
+        } finally {
+            jdoConnection.close();
+        }
+    }
+
+    private void listen() {
+        while (!Thread.currentThread().isInterrupted()) {
+            try (final AlpineQueryManager qm = getQueryManagerSupplier().get()) {
+                final var jdoConnection = (JDOConnection) qm.getPersistenceManager().getDataStoreConnection();
+                try {
+                    final var connection = (Connection) jdoConnection.getNativeConnection();
+                    try (final Statement statement = connection.createStatement()) {
+                        statement.execute("LISTEN " + CHANNEL);
+                    }
+                    final Class<?> pgConnectionClass = Class.forName("org.postgresql.PGConnection");
+                    final Object pgConnection = connection.unwrap(pgConnectionClass);
+                    final Method getNotifications = pgConnectionClass.getMethod("getNotifications", int.class);
+                    final int timeoutMillis = (int) Math.min(Integer.MAX_VALUE, getPollIntervalMillis());
+                    while (!Thread.currentThread().isInterrupted()) {
+                        final Object[] notifications = (Object[]) getNotifications.invoke(pgConnection, timeoutMillis);
+                        if (notifications != null && notifications.length > 0) {
+                            requestPoll();
+                        }
+                    }
+                } finally {
+                    jdoConnection.close();
+                }
+            } catch (Exception e) {
+                if (Thread.currentThread().isInterrupted()) {
+                    return;
+                }
+                LOGGER.error("Failed to listen for cluster notifications; Retrying in " + RECONNECT_DELAY_MILLIS + "ms", e);
+                try {
+                    Thread.sleep(RECONNECT_DELAY_MILLIS);
+                } catch (InterruptedException ie) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        }
+    }
+
+}
@@ -0,0 +1,4 @@
+/**
+ * This package contains the building blocks for running Alpine applications on multiple nodes.
+ */
+package alpine.cluster;
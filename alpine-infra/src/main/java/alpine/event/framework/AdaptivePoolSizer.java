@@ -0,0 +1,270 @@
+/*
+ * This file is part of Alpine.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ * Copyright (c) Steve Springett. All Rights Reserved.
+ */
+package alpine.event.framework;
+
+import alpine.Config;
+import alpine.common.logging.Logger;
+import alpine.common.metrics.Metrics;
+import alpine.common.util.SystemUtil;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.system.ProcessorMetrics;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.commons.lang3.concurrent.BasicThreadFactory;
+
+import java.time.Duration;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.DoubleSupplier;
+
+/**
+ * Grows and shrinks the worker pool of an event service within configured bounds.
+ * <p>
+ * At every adjustment interval, the pool grows by a quarter of its size when events are queued and waited for
+ * longer than the queue wait target on average, unless the CPU utilization of the system, as reported by
+ * {@link ProcessorMetrics}, exceeds the CPU ceiling. More threads would then only compete for the same cores.
+ * The pool shrinks by a quarter of its size after {@value #IDLE_EVALUATIONS_BEFORE_SHRINKING} consecutive
+ * intervals without queued events and with at most half of its threads busy.
+ * <p>
+ * Every decision is counted in {@code alpine_worker_pool_decisions_total}, tagged with the executor and the
+ * decision ({@code grow}, {@code shrink} or {@code hold_cpu}), and the size of the pool is published as
+ * {@code alpine_worker_pool_size}. Resizes are logged along with the measurements they are based on.
+ *
+ * @see alpine.Config.AlpineKey#WORKER_POOL_ADAPTIVE
+ * @since 3.8.0
+ */
+final class AdaptivePoolSizer {
+
+    /**
+     * The outcome of an evaluation.
+     *
+     * @param size     the size the pool should have
+     * @param decision the tag value of the decision, or {@code null} if the pool is left as is
+     */
+    record Decision(int size, String decision) {
+    }
+
+    static final int IDLE_EVALUATIONS_BEFORE_SHRINKING = 3;
+
+    private static final Logger LOGGER = Logger.getLogger(AdaptivePoolSizer.class);
+    private static final ScheduledExecutorService SCHEDULER = Executors.newSingleThreadScheduledExecutor(
+            new BasicThreadFactory.Builder()
+                    .namingPattern("Alpine-AdaptivePoolSizer-%d")
+                    .uncaughtExceptionHandler(new LoggableUncaughtExceptionHandler())
+                    .daemon(true)
+                    .build());
+
+    private final String executorName;
+    private final ThreadPoolExecutor executor;
+    private final int minThreads;
+    private final int maxThreads;
+    private final long queueWaitTargetMillis;
+    private final double cpuCeiling;
+    private final LongAdder queueWaitNanos = new LongAdder();
+    private final LongAdder queueWaitCount = new LongAdder();
+    private DoubleSupplier cpuUsage;
+    private int idleEvaluations;
+    private ScheduledFuture<?> schedule;
+
+    /**
+     * @param executorName          the name of the executor; Used to tag metrics
+     * @param executor              the executor to resize
+     * @param minThreads            the minimum size of the pool
+     * @param maxThreads            the maximum size of the pool
+     * @param queueWaitTargetMillis the average time events may wait in the queue before the pool grows
+     * @param cpuCeiling            the CPU utilization, between 0 and 1, above which the pool does not grow
+     * @param cpuUsage              supplies the current CPU utilization, or {@code null} to use {@link ProcessorMetrics}
+     */
+    AdaptivePoolSizer(final String executorName, final ThreadPoolExecutor executor, final int minThreads,
+                      final int maxThreads, final long queueWaitTargetMillis, final double cpuCeiling,
+                      final DoubleSupplier cpuUsage) {
+        this.executorName = executorName;
+        this.executor = executor;
+        this.minThreads = Math.max(1, minThreads);
+        this.maxThreads = Math.max(this.minThreads, maxThreads);
+        this.queueWaitTargetMillis = queueWaitTargetMillis;
+        this.cpuCeiling = cpuCeiling;
+        this.cpuUsage = cpuUsage;
+        Gauge.builder("alpine_worker_pool_size", executor, ThreadPoolExecutor::getMaximumPoolSize)
+                .description("Number of threads the adaptively sized worker pool is allowed to use")
+                .tag("executor", executorName)
+                .baseUnit("threads")
+                .register(Metrics.getRegistry());
+    }
+
+    /**
+     * Creates an {@link AdaptivePoolSizer} from configuration.
+     *
+     * @param executorName the name of the executor; Used to tag metrics
+     * @param executor     the executor to resize; Its current size is used to determine the bounds not configured
+     * @return an {@link AdaptivePoolSizer}
+     */
+    static AdaptivePoolSizer fromConfig(final String executorName, final ThreadPoolExecutor executor) {
+        final Config config = Config.getInstance();
+        final int initialThreads = executor.getMaximumPoolSize();
+        final int minThreads = config.getPropertyAsInt(Config.AlpineKey.WORKER_POOL_MIN_THREADS);
+        final int maxThreads = config.getPropertyAsInt(Config.AlpineKey.WORKER_POOL_MAX_THREADS);
+        return new AdaptivePoolSizer(executorName, executor,
+                minThreads > 0 ? minThreads : Math.min(initialThreads, SystemUtil.getCpuCores()),
+                maxThreads > 0 ? maxThreads : initialThreads * 2,
+                config.getPropertyAsLong(Config.AlpineKey.WORKER_POOL_QUEUE_WAIT_TARGET),
+                config.getPropertyAsInt(Config.AlpineKey.WORKER_POOL_CPU_CEILING) / 100.0,
+                null);
+    }
+
+    /**
+     * Starts evaluating the pool periodically. A pool initially sized outside of the bounds is resized into them.
+     *
+     * @param interval the interval between evaluations
+     */
+    synchronized void start(final Duration interval) {
+        if (schedule == null) {
+            LOGGER.info("Adaptively sizing %s between %d and %d threads".formatted(executorName, minThreads, maxThreads));
+            final int size = executor.getMaximumPoolSize();
+            final int boundedSize = Math.clamp(size, minThreads, maxThreads);
+            if (boundedSize != size) {
+                LOGGER.info("Resizing %s from %d to %d threads to fit its bounds".formatted(executorName, size, boundedSize));
+                resize(boundedSize);
+            }
+            schedule = SCHEDULER.scheduleWithFixedDelay(this::adjust,
+                    interval.toMillis(), interval.toMillis(), TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /**
+     * Stops evaluating the pool.
+     */
+    synchronized void stop() {
+        if (schedule != null) {
+            schedule.cancel(false);
+            schedule = null;
+        }
+    }
+
+    /**
+     * Records the time a task waited in the queue of the executor.
+     *
+     * @param nanos the time the task waited, in nanoseconds
+     */
+    void recordQueueWait(final long nanos) {
+        queueWaitNanos.add(nanos);
+        queueWaitCount.increment();
+    }
+
+    /**
+     * Evaluates the measurements collected since the last evaluation, and resizes the pool accordingly.
+     */
+    synchronized void adjust() {
+        if (executor.isShutdown()) {
+            stop();
+            return;
+        }
+        final int size = executor.getMaximumPoolSize();
+        final int queueDepth = executor.getQueue().size();
+        final int active = executor.getActiveCount();
+        final long count = queueWaitCount.sumThenReset();
+        final long waitNanos = queueWaitNanos.sumThenReset();
+        final double queueWaitMillis = count > 0 ? waitNanos / (double) count / 1_000_000 : 0;
+        final double cpu = getCpuUsage();
+
+        final Decision decision = decide(size, queueDepth, active, queueWaitMillis, cpu);
+        if (decision.decision() == null) {
+            return;
+        }
+        Counter.builder("alpine_worker_pool_decisions_total")
+                .description("Total number of decisions taken by the adaptive sizing of a worker pool")
+                .tags("executor", executorName, "decision", decision.decision())
+                .register(Metrics.getRegistry())
+                .increment();
+        final String measurements = "queue depth %d, average queue wait %.0fms, %d of %d threads busy, CPU utilization %s"
+                .formatted(queueDepth, queueWaitMillis, active, size, Double.isNaN(cpu) ? "unknown" : "%.0f%%".formatted(cpu * 100));
+        if (decision.size() == size) {
+            LOGGER.debug("Not growing %s beyond %d threads, as the CPU is saturated (%s)".formatted(executorName, size, measurements));
+            return;
+        }
+        LOGGER.info("Resizing %s from %d to %d threads (%s)".formatted(executorName, size, decision.size(), measurements));
+        resize(decision.size());
+    }
+
+    /**
+     * Decides on the size of the pool.
+     *
+     * @param size            the current size of the pool
+     * @param queueDepth      the number of queued tasks
+     * @param active          the number of busy threads
+     * @param queueWaitMillis the average time tasks waited in the queue since the last evaluation
+     * @param cpu             the CPU utilization between 0 and 1, or {@link Double#NaN} if unknown
+     * @return the decision
+     */
+    Decision decide(final int size, final int queueDepth, final int active, final double queueWaitMillis,
+                    final double cpu) {
+        final int step = Math.max(1, size / 4);
+        if (queueDepth > 0 && queueWaitMillis >= queueWaitTargetMillis) {
+            idleEvaluations = 0;
+            if (size >= maxThreads) {
+                return new Decision(size, null);
+            }
+            if (cpu >= cpuCeiling) {
+                return new Decision(size, "hold_cpu");
+            }
+            return new Decision(Math.min(maxThreads, size + step), "grow");
+        }
+        if (queueDepth == 0 && active <= size / 2) {
+            if (++idleEvaluations >= IDLE_EVALUATIONS_BEFORE_SHRINKING && size > minThreads) {
+                idleEvaluations = 0;
+                return new Decision(Math.max(minThreads, size - step), "shrink");
+            }
+            return new Decision(size, null);
+        }
+        idleEvaluations = 0;
+        return new Decision(size, null);
+    }
+
+    private void resize(final int size) {
+        // The core size must never exceed the maximum size, so the order depends on the direction.
+        if (size > executor.getMaximumPoolSize()) {
+            executor.setMaximumPoolSize(size);
+            executor.setCorePoolSize(size);
+        } else {
+            executor.setCorePoolSize(size);
+            executor.setMaximumPoolSize(size);
+        }
+    }
+
+    private double getCpuUsage() {
+        if (cpuUsage == null) {
+            MeterRegistry registry = Metrics.getRegistry();
+            if (registry.find("system.cpu.usage").gauge() == null) {
+                // Metrics are disabled, so ProcessorMetrics were not bound to the global registry.
+                registry = new SimpleMeterRegistry();
+                new ProcessorMetrics().bindTo(registry);
+            }
+            final Gauge gauge = registry.find("system.cpu.usage").gauge();
+            cpuUsage = gauge != null ? gauge::value : () -> Double.NaN;
+        }
+        final double cpu = cpuUsage.getAsDouble();
+        return cpu >= 0 ? cpu : Double.NaN;
+    }
+
+}
@@ -18,27 +18,44 @@
  */
 package alpine.event.framework;
 
+import alpine.cluster.ClusterLeaseManager;
 import alpine.common.logging.Logger;
+import alpine.common.logging.MdcSnapshot;
 import alpine.common.metrics.Metrics;
-import alpine.model.EventServiceLog;
+import alpine.common.util.ExecutorUtil;
 import alpine.persistence.AlpineQueryManager;
+import alpine.persistence.EventServiceLogRecorder;
 import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
 import io.micrometer.core.instrument.Timer;
 import org.apache.commons.lang3.concurrent.BasicThreadFactory;
 
-import java.lang.reflect.InvocationTargetException;
-import java.lang.reflect.Method;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
 import java.time.Duration;
 import java.time.Instant;
 import java.time.temporal.ChronoUnit;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.UUID;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
-
-import static alpine.common.util.ExecutorUtil.getExecutorStats;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Function;
 
 /**
  * A publish/subscribe (pub/sub) event service that provides the ability to publish events and
@@ -47,20 +64,56 @@ import static alpine.common.util.ExecutorUtil.getExecutorStats;
  * Defaults to a single thread event system when extending this class. This can be changed by
  * specifying an alternative executor service.
  *
+ * The time events wait in the queue, the time subscribers take to process them, and the end-to-end
+ * duration of event chains are published as the {@code alpine_event_queue_wait}, {@code alpine_event_processing}
+ * and {@code alpine_event_chain_duration} timers. The number of dispatches in flight is published per
+ * event type as {@code alpine_events_in_flight}. Percentile histograms of the timers are only published when
+ * {@link alpine.Config.AlpineKey#METRICS_EVENT_HISTOGRAMS_ENABLED} is set. Percentiles can also be configured with a
+ * {@link io.micrometer.core.instrument.config.MeterFilter} registered by a {@link alpine.common.metrics.MeterRegistryCustomizer}.
+ *
+ * The {@link org.slf4j.MDC} of the publishing thread, such as request and trace identifiers, is restored
+ * while subscribers are informed of an event, and thus carried over to the events they publish in turn.
+ * Batched events are dispatched without a diagnostic context.
+ *
  * @author Steve Springett
  * @since 1.0.0
  */
 public abstract class BaseEventService implements IEventService {
 
     private Logger logger = Logger.getLogger(BaseEventService.class);
-    private final Map<Class<? extends Event>, ArrayList<Class<? extends Subscriber>>> subscriptionMap = new ConcurrentHashMap<>();
-    private final Map<UUID, ArrayList<UUID>>chainTracker = new ConcurrentHashMap<>();
+    private final AtomicReference<DispatchTable> dispatchTable = new AtomicReference<>(DispatchTable.EMPTY);
+    private final Map<Class<? extends Subscriber>, SubscriberBinding> subscriberBindings = new ConcurrentHashMap<>();
+    private final Map<Class<? extends Event>, Counter> publishedCounters = new ConcurrentHashMap<>();
+    private final Map<Class<? extends Event>, Counter> coalescedCounters = new ConcurrentHashMap<>();
+    private final Map<Class<? extends Event>, AtomicInteger> inFlightCounts = new ConcurrentHashMap<>();
+    private final Map<Class<? extends Event>, Function<Event, ?>> coalescingKeyFunctions = new ConcurrentHashMap<>();
+    private final Map<CoalescingKey, AtomicInteger> pendingCoalescableDispatches = new ConcurrentHashMap<>();
+    private final Map<Class<? extends Subscriber>, EventBatcher> batchers = new ConcurrentHashMap<>();
+    private final ChainTracker chainTracker = new ChainTracker();
+    private final DispatchStatistics dispatchStatistics = new DispatchStatistics();
+    private final Map<Event, DurableDelivery> durableDeliveries = Collections.synchronizedMap(new IdentityHashMap<>());
     private ExecutorService executor = Executors.newFixedThreadPool(1, new BasicThreadFactory.Builder()
             .namingPattern("Alpine-BaseEventService-%d")
             .uncaughtExceptionHandler(new LoggableUncaughtExceptionHandler())
             .build()
     );
     private final ExecutorService dynamicExecutor = Executors.newWorkStealingPool();
+    private QueueAdmission queueAdmission;
+    private volatile EventOutbox outbox;
+    private volatile EventJournal journal;
+    private volatile EventSerializer journalSerializer;
+    private volatile ClusterEventBridge clusterBridge;
+    private volatile ClusterLeaseManager leaseManager;
+    private volatile long subscriberTimeoutMillis;
+    private volatile DeadLetterStore deadLetterStore;
+    private volatile Map<String, SubscriberBulkhead.Spec> bulkheadSpecs = Map.of();
+    private volatile String bulkheadExecutorName;
+    private volatile int bulkheadQueueCapacity = Integer.MAX_VALUE;
+    private final Map<Class<? extends Subscriber>, SubscriberBulkhead> bulkheads = new ConcurrentHashMap<>();
+    private volatile AdaptivePoolSizer poolSizer;
+    private final AtomicInteger delayedCount = new AtomicInteger();
+    private final AtomicBoolean delayedGaugeRegistered = new AtomicBoolean();
+    private volatile boolean shutdown;
 
     /**
      * @param executor an ExecutorService instance
@@ -70,6 +123,102 @@ public abstract class BaseEventService implements IEventService {
         this.executor = executor;
     }
 
+    /**
+     * @param queueAdmission the {@link QueueAdmission} to submit events to the executor service with,
+     *                       when its queue is bounded
+     * @since 3.8.0
+     */
+    protected void setQueueAdmission(QueueAdmission queueAdmission) {
+        this.queueAdmission = queueAdmission;
+    }
+
+    /**
+     * @param outbox the {@link EventOutbox} to write {@link DurableEvent}s to, or {@code null} to
+     *               dispatch them like any other event
+     * @since 3.8.0
+     */
+    protected void setOutbox(EventOutbox outbox) {
+        this.outbox = outbox;
+    }
+
+    /**
+     * @param journal the {@link EventJournal} to write {@link DurableEvent}s to, or {@code null} to
+     *                dispatch them like any other event. Not used when an outbox is set.
+     * @since 3.8.0
+     */
+    protected void setJournal(EventJournal journal) {
+        this.journalSerializer = EventSerializer.getInstance();
+        this.journal = journal;
+        if (journal != null) {
+            journal.setRecoveryHandler(this::replayJournalEntry);
+        }
+    }
+
+    /**
+     * @param clusterBridge the {@link ClusterEventBridge} to dispatch {@link ClusterEvent}s across
+     *                      the cluster with, or {@code null} to dispatch them locally
+     * @since 3.8.0
+     */
+    protected void setClusterBridge(ClusterEventBridge clusterBridge) {
+        final ClusterEventBridge previous = this.clusterBridge;
+        if (previous != null) {
+            previous.unregister(this);
+        }
+        this.clusterBridge = clusterBridge;
+        if (clusterBridge != null) {
+            clusterBridge.register(this);
+        }
+    }
+
+    /**
+     * @param leaseManager the {@link ClusterLeaseManager} to check whether this node may dispatch
+     *                     {@link ClusterSingleton} events with, or {@code null} to always dispatch them
+     * @since 3.8.0
+     */
+    protected void setLeaseManager(ClusterLeaseManager leaseManager) {
+        this.leaseManager = leaseManager;
+    }
+
+    /**
+     * @param subscriberTimeout the maximum duration subscribers not annotated with {@link SubscriberTimeout}
+     *                          may take to process an event, or {@link Duration#ZERO} to not limit it
+     * @since 3.8.0
+     */
+    protected void setSubscriberTimeout(Duration subscriberTimeout) {
+        this.subscriberTimeoutMillis = subscriberTimeout.toMillis();
+    }
+
+    /**
+     * @param deadLetterStore the {@link DeadLetterStore} to write events to that subscribers with a
+     *                        {@link RetryPolicy} failed to process, or {@code null} to discard them
+     * @since 3.8.0
+     */
+    protected void setDeadLetterStore(DeadLetterStore deadLetterStore) {
+        this.deadLetterStore = deadLetterStore;
+    }
+
+    /**
+     * @param executorName  the name of the executor service; Used to name dedicated executors of bulkheads
+     * @param queueCapacity the maximum number of dispatches waiting in each bulkhead
+     * @param bulkheads     the bulkheads limiting the concurrency of individual subscribers, as entries of the form
+     *                      {@code <subscriber class>:<max concurrency>[:dedicated]}
+     * @see SubscriberBulkhead
+     * @since 3.8.0
+     */
+    protected void setBulkheads(String executorName, int queueCapacity, Collection<String> bulkheads) {
+        this.bulkheadExecutorName = executorName;
+        this.bulkheadQueueCapacity = queueCapacity;
+        this.bulkheadSpecs = SubscriberBulkhead.parse(bulkheads);
+    }
+
+    /**
+     * @param poolSizer the {@link AdaptivePoolSizer} resizing the executor service, or {@code null} if its size is fixed
+     * @since 3.8.0
+     */
+    void setPoolSizer(AdaptivePoolSizer poolSizer) {
+        this.poolSizer = poolSizer;
+    }
+
     /**
      * @param logger the logger instance to use for the executed event
      * @since 1.0.0
@@ -80,88 +229,748 @@ public abstract class BaseEventService implements IEventService {
 
     /**
      * {@inheritDoc}
+     * <p>
+     * When the outbox is enabled, {@link DurableEvent}s are written to it, and dispatched once relayed.
+     * Otherwise, when the journal is enabled, they are written to it before being dispatched.
+     * When the event service is bridged to a cluster, {@link ClusterEvent}s are dispatched across its nodes.
+     * When a lease manager is set, {@link ClusterSingleton} events are ignored unless this node holds their lease.
      * @since 1.0.0
      */
-    public void publish(Event event) {
+    public PublishStatus publish(Event event) {
+        final ClusterLeaseManager leaseManager = this.leaseManager;
+        if (leaseManager != null && event instanceof ClusterSingleton singleton
+                && !leaseManager.tryAcquire(singleton.getLeaseName())) {
+            logger.debug("Ignoring event " + event.getClass().getName() + ", as lease "
+                    + singleton.getLeaseName() + " is held by another node");
+            return PublishStatus.IGNORED;
+        }
+        final ClusterEventBridge clusterBridge = this.clusterBridge;
+        if (clusterBridge != null && event instanceof ClusterEvent clusterEvent) {
+            return clusterBridge.publish(this, clusterEvent);
+        }
+        return publishLocally(event);
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * Pending events are held in a {@link TimingWheel} shared by all event services, and are published
+     * with {@link #publish(Event)} by the {@link DeferredPublisher} once due. Until then, {@link ChainableEvent}s are considered to be
+     * {@link #isEventBeingProcessed(ChainableEvent) processed}. The number of pending events is published
+     * as the {@code alpine_events_delayed} gauge.
+     * @since 3.8.0
+     */
+    public PublishStatus publishDelayed(Event event, Duration delay) {
+        if (event instanceof ChainableEvent chainableEvent) {
+            final boolean singleton = event instanceof SingletonCapableEvent && ((SingletonCapableEvent)event).isSingleton();
+            if (!chainTracker.add(chainableEvent.getChainIdentifier(), singleton)) {
+                logger.info("An singleton event (" + event.getClass().getSimpleName() + ") was received but another singleton event of the same type is already in progress. Skipping.");
+                return PublishStatus.IGNORED;
+            }
+        }
+        if (delayedGaugeRegistered.compareAndSet(false, true)) {
+            Gauge.builder("alpine_events_delayed", delayedCount, AtomicInteger::get)
+                    .description("Number of events waiting to be published after a delay")
+                    .tag("publisher", this.getClass().getName())
+                    .register(Metrics.getRegistry());
+        }
+        delayedCount.incrementAndGet();
+        TimingWheel.getInstance().schedule(() -> DeferredPublisher.execute(() -> publishDelayedEvent(event)), delay.toMillis());
+        return PublishStatus.ACCEPTED;
+    }
+
+    private void publishDelayedEvent(final Event event) {
+        delayedCount.decrementAndGet();
+        final ChainableEvent chainableEvent = event instanceof ChainableEvent ? (ChainableEvent)event : null;
+        if (shutdown) {
+            logger.warn("Discarding delayed event " + event.getClass().getName() + ", as the event service has been shut down");
+            if (chainableEvent != null) {
+                chainTracker.remove(chainableEvent.getChainIdentifier());
+            }
+            return;
+        }
+        if (chainableEvent == null) {
+            publish(event);
+        } else if (event instanceof SingletonCapableEvent && ((SingletonCapableEvent)event).isSingleton()) {
+            // The pending event must no longer count as in progress, or it would be rejected as a duplicate of itself.
+            chainTracker.remove(chainableEvent.getChainIdentifier());
+            publish(event);
+        } else {
+            // Publish first, so that the chain is tracked without interruption.
+            try {
+                publish(event);
+            } finally {
+                chainTracker.remove(chainableEvent.getChainIdentifier());
+            }
+        }
+    }
+
+    /**
+     * Publishes an event to the subscribers of this node.
+     */
+    PublishStatus publishLocally(final Event event) {
+        if (event instanceof DurableEvent && hasSubscriptions(event)) {
+            final EventOutbox outbox = this.outbox;
+            final EventJournal journal = this.journal;
+            if (outbox != null) {
+                if (outbox.append(event)) {
+                    return PublishStatus.ACCEPTED;
+                }
+            } else if (journal != null) {
+                final long sequence = appendToJournal(journal, event);
+                if (sequence >= 0) {
+                    return publishDurably(event, () -> journal.acknowledge(sequence), () -> journal.release(sequence));
+                }
+            }
+        }
+        return dispatchEvent(event);
+    }
+
+    /**
+     * Publishes a durable event as part of the active transaction of the given {@link AlpineQueryManager},
+     * if any. The event is only dispatched if the transaction commits. When the outbox is not enabled,
+     * the event is published immediately.
+     * @param qm the {@link AlpineQueryManager} to write the event to the outbox with
+     * @param event the event to publish
+     * @return the {@link PublishStatus} of the event
+     * @throws EventDispatchException when the event can not be serialized
+     * @since 3.8.0
+     */
+    public PublishStatus publish(AlpineQueryManager qm, DurableEvent event) {
+        final EventOutbox outbox = this.outbox;
+        if (outbox == null) {
+            return publish(event);
+        }
+        if (!hasSubscriptions(event)) {
+            return PublishStatus.IGNORED;
+        }
+        outbox.append(qm, event);
+        return PublishStatus.ACCEPTED;
+    }
+
+    /**
+     * Dispatches a durable event, and acknowledges it once all subscribers have been informed.
+     * Dispatches discarded due to queue overflow are not acknowledged. Instead, {@code abandonment}
+     * is run once all dispatches completed, so that the outbox or journal the event originates from
+     * can deliver it again.
+     */
+    PublishStatus publishDurably(final Event event, final Runnable acknowledgement, final Runnable abandonment) {
+        final var delivery = new DurableDelivery(event, acknowledgement, abandonment);
+        durableDeliveries.put(event, delivery);
+        try {
+            return dispatchEvent(event);
+        } finally {
+            delivery.release();
+        }
+    }
+
+    private long appendToJournal(final EventJournal journal, final Event event) {
+        try {
+            final var baos = new ByteArrayOutputStream();
+            try (final var dos = new DataOutputStream(baos)) {
+                dos.writeUTF(event.getClass().getName());
+                dos.write(journalSerializer.serialize(event));
+            }
+            return journal.append(baos.toByteArray());
+        } catch (IOException | RuntimeException e) {
+            logger.error("Unable to write " + event.getClass().getName()
+                    + " to the journal; Dispatching it without durability guarantees", e);
+            return -1;
+        }
+    }
+
+    private boolean replayJournalEntry(final EventJournal.Entry entry) {
+        final EventJournal journal = this.journal;
+        final Event event;
+        try (final var dis = new DataInputStream(new ByteArrayInputStream(entry.payload()))) {
+            final String eventClass = dis.readUTF();
+            event = journalSerializer.deserialize(eventClass, dis.readAllBytes());
+        } catch (IOException | RuntimeException e) {
+            logger.error("Unable to deserialize event " + entry.sequence() + " recovered from the journal; Discarding it", e);
+            journal.acknowledge(entry.sequence());
+            return true;
+        }
+        if (!hasSubscriptions(event)) {
+            // The application likely did not finish subscribing yet.
+            return false;
+        }
+        publishDurably(event, () -> journal.acknowledge(entry.sequence()), () -> journal.release(entry.sequence()));
+        return true;
+    }
+
+    private PublishStatus dispatchEvent(final Event event) {
         logger.debug("Dispatching event: " + event.getClass().toString());
-        final ArrayList<Class<? extends Subscriber>> subscriberClasses = subscriptionMap.get(event.getClass());
-        if (subscriberClasses == null) {
+        final List<SubscriberBinding> bindings = dispatchTable.get().lookup(event.getClass());
+        if (bindings.isEmpty()) {
             logger.debug("No subscribers to inform from event: " + event.getClass().getName());
-            return;
+            return PublishStatus.IGNORED;
         }
-        for (Class<? extends Subscriber> clazz: subscriberClasses) {
+        PublishStatus status = PublishStatus.IGNORED;
+        for (SubscriberBinding binding: bindings) {
+            final Class<? extends Subscriber> clazz = binding.getSubscriberClass();
             logger.debug("Alerting subscriber " + clazz.getName());
 
             if (event instanceof ChainableEvent) {
                 if (! addTrackedEvent((ChainableEvent)event)) {
-                    return;
+                    return status;
                 }
             }
 
-            // Check to see if the Event is Unblocked. If so, use a separate executor pool from normal events
-            final ExecutorService executorService = event instanceof UnblockedEvent  ? dynamicExecutor : executor;
+            if (binding.getBatchOptions() != null) {
+                retainDurableDelivery(event);
+                status = status.merge(getBatcher(binding).add(event));
+                continue;
+            }
 
-            executorService.execute(() -> {
-                try (AlpineQueryManager qm = new AlpineQueryManager()) {
-                    final EventServiceLog eventServiceLog = qm.createEventServiceLog(clazz);
-                    final Subscriber subscriber = clazz.getDeclaredConstructor().newInstance();
-                    final Timer.Sample timerSample = Timer.start();
-                    try {
-                        subscriber.inform(event);
-                    } finally {
-                        timerSample.stop(Timer.builder("alpine_event_processing")
-                                .tag("event", event.getClass().getSimpleName())
-                                .tag("subscriber", clazz.getSimpleName())
-                                .register(Metrics.getRegistry()));
-                    }
-                    qm.updateEventServiceLog(eventServiceLog);
+            final CoalescingKey coalescingKey = getCoalescingKey(event, binding);
+            if (coalescingKey != null) {
+                final AtomicInteger merged = pendingCoalescableDispatches.putIfAbsent(coalescingKey, new AtomicInteger());
+                if (merged != null) {
+                    // An equivalent event is still waiting to be dispatched to the subscriber.
+                    merged.incrementAndGet();
+                    recordCoalescedMetric(event);
                     if (event instanceof ChainableEvent) {
-                        ChainableEvent chainableEvent = (ChainableEvent)event;
-                        logger.debug("Calling onSuccess");
-                        for (ChainLink chainLink: chainableEvent.onSuccess()) {
-                            if (chainLink.getSuccessEventService() != null) {
-                                Method method = chainLink.getSuccessEventService().getMethod("getInstance");
-                                IEventService es = (IEventService) method.invoke(chainLink.getSuccessEventService(), new Object[0]);
-                                es.publish(chainLink.getSuccessEvent());
-                            } else {
-                                Event.dispatch(chainLink.getSuccessEvent());
+                        removeTrackedEvent((ChainableEvent)event);
+                    }
+                    status = status.merge(PublishStatus.COALESCED);
+                    continue;
+                }
+            }
+
+            retainDurableDelivery(event);
+            status = status.merge(dispatch(binding, List.of(event), coalescingKey, MdcSnapshot.capture()));
+        }
+        recordPublishedMetric(event);
+        return status;
+    }
+
+    /**
+     * Submits a task informing the subscriber of one or more events to the selected {@link ExecutorService}.
+     * Multiple events are only dispatched to {@link BatchSubscriber}s. The given MDC snapshot of the
+     * publishing thread is restored while the subscriber is informed.
+     */
+    private PublishStatus dispatch(final SubscriberBinding binding, final List<Event> events,
+                                   final CoalescingKey coalescingKey, final MdcSnapshot mdcSnapshot) {
+        recordInFlight(events, 1);
+        return submit(binding, events, coalescingKey, getOutboxDeliveries(events), 1, mdcSnapshot);
+    }
+
+    /**
+     * Submits an attempt to inform the subscriber of one or more events. When the attempt fails,
+     * and the subscriber has a {@link RetryPolicy} permitting it, another attempt is scheduled, or made after
+     * the backoff if this event service {@link #retriesInPlace() retries in place}, keeping the events tracked
+     * and their durable deliveries retained in the meantime.
+     */
+    private PublishStatus submit(final SubscriberBinding binding, final List<Event> events,
+                                 final CoalescingKey coalescingKey, final List<DurableDelivery> deliveries,
+                                 final int attempt, final MdcSnapshot mdcSnapshot) {
+        final String eventType = events.get(0).getClass().getName();
+        final long enqueuedAtNanos = dispatchStatistics.recordEnqueued(eventType);
+        final AtomicBoolean dequeued = new AtomicBoolean();
+        final AtomicBoolean discarded = new AtomicBoolean();
+        final Runnable onDiscard = () -> {
+            if (dequeued.compareAndSet(false, true)) {
+                dispatchStatistics.recordDiscarded(eventType);
+            }
+            if (discarded.compareAndSet(false, true)) {
+                if (coalescingKey != null) {
+                    pendingCoalescableDispatches.remove(coalescingKey);
+                }
+                removeTrackedEvents(events);
+                recordInFlight(events, -1);
+                deliveries.forEach(DurableDelivery::abandon);
+            }
+        };
+        final ExecutorService executorService;
+        final SubscriberBulkhead bulkhead;
+        try {
+            executorService = selectExecutorService(events.get(0));
+            bulkhead = getBulkhead(binding);
+        } catch (RuntimeException e) {
+            onDiscard.run();
+            throw e;
+        }
+        // Time spent waiting in a bulkhead can not be reduced by growing the pool.
+        final AdaptivePoolSizer poolSizer = executorService == executor && bulkhead == null ? this.poolSizer : null;
+        final Runnable task = () -> {
+            final long queueWaitNanos = System.nanoTime() - enqueuedAtNanos;
+            if (dequeued.compareAndSet(false, true)) {
+                dispatchStatistics.recordStarted(eventType, enqueuedAtNanos);
+            }
+            binding.getQueueWaitTimer(events.get(0).getClass()).record(queueWaitNanos, TimeUnit.NANOSECONDS);
+            if (poolSizer != null) {
+                poolSizer.recordQueueWait(queueWaitNanos);
+            }
+            boolean retrying = false;
+            final MdcSnapshot.Scope scope = mdcSnapshot.restore();
+            try {
+                for (int currentAttempt = attempt; ; currentAttempt++) {
+                    retrying = false;
+                    try {
+                        if (coalescingKey != null) {
+                            final AtomicInteger merged = pendingCoalescableDispatches.remove(coalescingKey);
+                            if (merged != null && merged.get() > 0) {
+                                logger.debug("Informing subscriber " + binding.getSubscriberClass().getName() + " of "
+                                        + coalescingKey.eventClass().getName() + ", which was merged with " + merged.get()
+                                        + " equivalent events");
                             }
                         }
-                    }
-                } catch (NoSuchMethodException | InvocationTargetException | InstantiationException | IllegalAccessException | SecurityException e) {
-                    logger.error("An error occurred while informing subscriber: " + e);
-                    if (event instanceof ChainableEvent) {
-                        ChainableEvent chainableEvent = (ChainableEvent)event;
-                        logger.debug("Calling onFailure");
-                        for (ChainLink chainLink: chainableEvent.onFailure()) {
-                            if (chainLink.getFailureEventService() != null) {
-                                try {
-                                    Method method = chainLink.getFailureEventService().getMethod("getInstance");
-                                    IEventService es = (IEventService) method.invoke(chainLink.getFailureEventService(), new Object[0]);
-                                    es.publish(chainLink.getFailureEvent());
-                                } catch (NoSuchMethodException | InvocationTargetException | IllegalAccessException ex) {
-                                    logger.error("Exception while calling onFailure callback", ex);
+                        inform(binding, events);
+                        for (final Event event : events) {
+                            if (event instanceof ChainableEvent) {
+                                ChainableEvent chainableEvent = (ChainableEvent)event;
+                                logger.debug("Calling onSuccess");
+                                for (ChainLink chainLink: chainableEvent.onSuccess()) {
+                                    if (chainLink.getSuccessEventService() != null) {
+                                        IEventService es = EventServiceResolver.resolve(chainLink.getSuccessEventService());
+                                        es.publish(chainLink.getSuccessEvent());
+                                    } else {
+                                        Event.dispatch(chainLink.getSuccessEvent());
+                                    }
                                 }
-                            } else {
-                                Event.dispatch(chainLink.getFailureEvent());
                             }
                         }
+                    } catch (RuntimeException e) {
+                        final RetryPolicy retryPolicy = binding.getRetryPolicy();
+                        if (retryPolicy == null && !(e instanceof EventDispatchException)) {
+                            throw e;
+                        }
+                        if (retryPolicy != null) {
+                            retrying = retriesInPlace()
+                                    ? awaitRetry(retryPolicy, binding, events, currentAttempt, e)
+                                    : scheduleRetry(retryPolicy, binding, events, deliveries, currentAttempt, e, mdcSnapshot);
+                            if (!retrying) {
+                                deadLetter(binding, events, currentAttempt, e);
+                            }
+                        }
+                        if (!retrying) {
+                            logger.error("An error occurred while informing subscriber: " + e);
+                            fireOnFailure(events);
+                        }
+                    } finally {
+                        dispatchStatistics.recordProcessed(binding.getSubscriberClass().getName(), events.size());
+                        if (!retrying) {
+                            removeTrackedEvents(events);
+                            recordInFlight(events, -1);
+                            deliveries.forEach(DurableDelivery::release);
+                        }
                     }
-                } finally {
-                    if (event instanceof ChainableEvent) {
-                        removeTrackedEvent((ChainableEvent)event);
+                    if (!retrying || !retriesInPlace()) {
+                        break;
                     }
                 }
-            });
+            } finally {
+                scope.close();
+            }
+        };
+
+        try {
+            if (bulkhead != null) {
+                return bulkhead.submit(new QueueAdmission.Task(task, onDiscard), executorService);
+            }
+            return admit(executorService, new QueueAdmission.Task(task, onDiscard));
+        } catch (RuntimeException e) {
+            // Unless the task already ran, on the calling thread under the CALLER_RUNS policy.
+            if (!dequeued.get()) {
+                onDiscard.run();
+            }
+            throw e;
         }
-        recordPublishedMetric(event);
+    }
+
+    private PublishStatus admit(final ExecutorService executorService, final QueueAdmission.Task task) {
+        if (executorService != dynamicExecutor && queueAdmission != null) {
+            return queueAdmission.submit(executorService, task);
+        }
+        executorService.execute(task);
+        return PublishStatus.ACCEPTED;
+    }
+
+    private SubscriberBulkhead getBulkhead(final SubscriberBinding binding) {
+        final Map<String, SubscriberBulkhead.Spec> specs = this.bulkheadSpecs;
+        if (specs.isEmpty()) {
+            return null;
+        }
+        final Class<? extends Subscriber> subscriberClass = binding.getSubscriberClass();
+        final SubscriberBulkhead bulkhead = bulkheads.get(subscriberClass);
+        if (bulkhead != null) {
+            return bulkhead;
+        }
+        final SubscriberBulkhead.Spec spec = specs.get(subscriberClass.getName());
+        if (spec == null) {
+            return null;
+        }
+        return bulkheads.computeIfAbsent(subscriberClass,
+                clazz -> new SubscriberBulkhead(clazz, spec, bulkheadExecutorName,
+                        bulkheadQueueCapacity, queueAdmission, this::admit));
+    }
+
+    /**
+     * Waits for the backoff of the next attempt on the current thread, so that the attempt is made before
+     * any event queued behind the failed one. Used by event services {@link #retriesInPlace() retrying in place}.
+     */
+    private boolean awaitRetry(final RetryPolicy retryPolicy, final SubscriberBinding binding,
+                               final List<Event> events, final int attempt, final RuntimeException failure) {
+        final long backoffMillis = prepareRetry(retryPolicy, binding, events, attempt, failure);
+        if (backoffMillis < 0) {
+            return false;
+        }
+        try {
+            Thread.sleep(backoffMillis);
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            logger.warn("Interrupted while waiting to retry subscriber " + binding.getSubscriberClass().getName());
+            return false;
+        }
+    }
+
+    private boolean scheduleRetry(final RetryPolicy retryPolicy, final SubscriberBinding binding,
+                                  final List<Event> events, final List<DurableDelivery> deliveries,
+                                  final int attempt, final RuntimeException failure,
+                                  final MdcSnapshot mdcSnapshot) {
+        final long backoffMillis = prepareRetry(retryPolicy, binding, events, attempt, failure);
+        if (backoffMillis < 0) {
+            return false;
+        }
+        RetryScheduler.schedule(() -> {
+            PublishStatus status;
+            try {
+                status = submit(binding, events, null, deliveries, attempt + 1, mdcSnapshot);
+            } catch (RejectedExecutionException e) {
+                status = PublishStatus.DROPPED;
+            } catch (RuntimeException e) {
+                logger.error("An error occurred while retrying subscriber " + binding.getSubscriberClass().getName(), e);
+                status = PublishStatus.DROPPED;
+            }
+            if (status == PublishStatus.DROPPED) {
+                logger.error("Unable to retry subscriber " + binding.getSubscriberClass().getName()
+                        + ", as the event service rejected the retry");
+                if (deliveries.isEmpty()) {
+                    // Durable events were abandoned, and will be delivered again by their outbox or journal.
+                    deadLetter(binding, events, attempt, failure);
+                }
+                fireOnFailure(events);
+            }
+        }, backoffMillis);
+        return true;
+    }
+
+    /**
+     * @return the backoff in milliseconds before the next attempt, or {@code -1} if the failure is not retried
+     */
+    private long prepareRetry(final RetryPolicy retryPolicy, final SubscriberBinding binding,
+                              final List<Event> events, final int attempt, final RuntimeException failure) {
+        if (!RetryScheduler.isRetryable(retryPolicy, attempt, failure)) {
+            return -1;
+        }
+        final long backoffMillis = RetryScheduler.getBackoffMillis(retryPolicy, attempt);
+        logger.warn("Subscriber " + binding.getSubscriberClass().getName() + " failed to process "
+                + events.get(0).getClass().getName() + " (attempt " + attempt + " of " + retryPolicy.maxAttempts()
+                + "); Retrying in " + backoffMillis + "ms: " + failure);
+        binding.recordRetry();
+        return backoffMillis;
+    }
+
+    private void deadLetter(final SubscriberBinding binding, final List<Event> events,
+                            final int attempts, final Throwable failure) {
+        final DeadLetterStore deadLetterStore = this.deadLetterStore;
+        if (deadLetterStore == null) {
+            logger.error("Subscriber " + binding.getSubscriberClass().getName() + " failed to process "
+                    + events.size() + " event(s) after " + attempts + " attempt(s); No dead-letter store is set, discarding them");
+            return;
+        }
+        for (final Event event : events) {
+            deadLetterStore.store(this, binding.getSubscriberClass(), event, attempts, failure);
+        }
+    }
+
+    private void fireOnFailure(final List<Event> events) {
+        for (final Event event : events) {
+            if (event instanceof ChainableEvent) {
+                ChainableEvent chainableEvent = (ChainableEvent)event;
+                logger.debug("Calling onFailure");
+                for (ChainLink chainLink: chainableEvent.onFailure()) {
+                    if (chainLink.getFailureEventService() != null) {
+                        try {
+                            IEventService es = EventServiceResolver.resolve(chainLink.getFailureEventService());
+                            es.publish(chainLink.getFailureEvent());
+                        } catch (EventDispatchException ex) {
+                            logger.error("Exception while calling onFailure callback", ex);
+                        }
+                    } else {
+                        Event.dispatch(chainLink.getFailureEvent());
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Informs a single subscriber of an event, typically one that was dead-lettered before.
+     * @param event the event to dispatch
+     * @param subscriberClassName the name of the class of the subscriber to inform
+     * @return {@link PublishStatus#IGNORED} if the subscriber is not subscribed to the event,
+     * otherwise the status of the dispatch
+     */
+    PublishStatus redeliver(final Event event, final String subscriberClassName) {
+        for (final SubscriberBinding binding : dispatchTable.get().lookup(event.getClass())) {
+            if (binding.getSubscriberClass().getName().equals(subscriberClassName)) {
+                if (event instanceof ChainableEvent && !addTrackedEvent((ChainableEvent)event)) {
+                    return PublishStatus.IGNORED;
+                }
+                return dispatch(binding, List.of(event), null, MdcSnapshot.capture());
+            }
+        }
+        return PublishStatus.IGNORED;
+    }
+
+    private void inform(final SubscriberBinding binding, final List<Event> events) {
+        // Only LoggableSubscribers need to be recorded. Logs are written
+        // asynchronously, so no PersistenceManager is acquired here.
+        final EventServiceLogRecorder.PendingLog eventServiceLog;
+        if (binding.isLoggable()) {
+            eventServiceLog = EventServiceLogRecorder.getInstance().recordStarted(binding.getSubscriberClass());
+        } else {
+            eventServiceLog = null;
+            binding.recordPersistenceSkipped();
+        }
+        final SubscriberFactory factory = binding.getFactory();
+        final Subscriber subscriber = factory.acquire();
+        final long timeoutMillis = binding.getTimeoutMillis(subscriberTimeoutMillis);
+        final CancellationToken token = timeoutMillis > 0 ? CancellationToken.open() : null;
+        final ScheduledFuture<?> watch = token != null ? SubscriberWatchdog.watch(token, binding, timeoutMillis) : null;
+        final Timer.Sample timerSample = Timer.start();
+        RuntimeException failure = null;
+        boolean timedOut = false;
+        try {
+            if (binding.getBatchOptions() != null) {
+                ((BatchSubscriber) subscriber).inform(events);
+            } else {
+                subscriber.inform(events.get(0));
+            }
+        } catch (RuntimeException e) {
+            failure = e;
+        } finally {
+            timerSample.stop(binding.getProcessingTimer(events.get(0).getClass()));
+            if (token != null) {
+                watch.cancel(false);
+                timedOut = token.close();
+            }
+        }
+        if (timedOut) {
+            // The subscriber may have returned normally after being interrupted,
+            // but its work is incomplete. Either way, the event failed.
+            binding.recordTimeout();
+            throw new EventDispatchException("Subscriber " + binding.getSubscriberClass().getName()
+                    + " exceeded its timeout of " + timeoutMillis + "ms", failure);
+        }
+        if (failure != null) {
+            throw failure;
+        }
+        factory.release(subscriber);
+        if (eventServiceLog != null) {
+            EventServiceLogRecorder.getInstance().recordCompleted(eventServiceLog);
+        }
+    }
+
+    private void removeTrackedEvents(final List<Event> events) {
+        for (final Event event : events) {
+            if (event instanceof ChainableEvent) {
+                removeTrackedEvent((ChainableEvent)event);
+            }
+        }
+    }
+
+    private void retainDurableDelivery(final Event event) {
+        if (event instanceof DurableEvent && !durableDeliveries.isEmpty()) {
+            final DurableDelivery delivery = durableDeliveries.get(event);
+            if (delivery != null) {
+                delivery.retain();
+            }
+        }
+    }
+
+    private List<DurableDelivery> getOutboxDeliveries(final List<Event> events) {
+        if (durableDeliveries.isEmpty()) {
+            return List.of();
+        }
+        final var deliveries = new ArrayList<DurableDelivery>();
+        for (final Event event : events) {
+            if (event instanceof DurableEvent) {
+                final DurableDelivery delivery = durableDeliveries.get(event);
+                if (delivery != null) {
+                    deliveries.add(delivery);
+                }
+            }
+        }
+        return deliveries;
+    }
+
+    /**
+     * Tracks the dispatches of a durable event. Dispatches are tracked per event instance, as events
+     * replayed from an outbox or journal are deserialized into distinct instances.
+     */
+    private final class DurableDelivery {
+
+        private final Event event;
+        private final Runnable acknowledgement;
+        private final Runnable abandonment;
+        private final AtomicInteger pending = new AtomicInteger(1);
+        private volatile boolean abandoned;
+
+        private DurableDelivery(final Event event, final Runnable acknowledgement, final Runnable abandonment) {
+            this.event = event;
+            this.acknowledgement = acknowledgement;
+            this.abandonment = abandonment;
+        }
+
+        private void retain() {
+            pending.incrementAndGet();
+        }
+
+        private void release() {
+            if (pending.decrementAndGet() == 0) {
+                durableDeliveries.remove(event);
+                if (abandoned) {
+                    abandonment.run();
+                } else {
+                    acknowledgement.run();
+                }
+            }
+        }
+
+        private void abandon() {
+            abandoned = true;
+            release();
+        }
+
+    }
+
+    private EventBatcher getBatcher(final SubscriberBinding binding) {
+        final Class<? extends Subscriber> subscriberClass = binding.getSubscriberClass();
+        return batchers.computeIfAbsent(subscriberClass, clazz -> new EventBatcher(binding.getBatchOptions(),
+                // Batches combine events of different publishers, so no single diagnostic context applies.
+                batch -> dispatchBatch(subscriberBindings.getOrDefault(clazz, binding), batch)));
+    }
+
+    /**
+     * Dispatches a batch split by the {@link ExecutorService} selected for each of its events, so that
+     * events are never processed outside of their partition. The order of events is kept within each split.
+     */
+    private PublishStatus dispatchBatch(final SubscriberBinding binding, final List<Event> batch) {
+        final Map<ExecutorService, List<Event>> splits = new LinkedHashMap<>();
+        for (final Event event : batch) {
+            splits.computeIfAbsent(selectExecutorService(event), executorService -> new ArrayList<>()).add(event);
+        }
+        PublishStatus status = PublishStatus.IGNORED;
+        RejectedExecutionException rejection = null;
+        for (final List<Event> events : splits.values()) {
+            try {
+                status = status.merge(dispatch(binding, events, null, MdcSnapshot.EMPTY));
+            } catch (RejectedExecutionException e) {
+                // Keep dispatching the remaining splits, whose executors may still accept them.
+                rejection = rejection != null ? rejection : e;
+            }
+        }
+        if (rejection != null) {
+            throw rejection;
+        }
+        return status;
+    }
+
+    /**
+     * Enables coalescing of events of the given type. When an event is published while an equivalent
+     * event is still waiting to be dispatched to a subscriber, the subscriber will only be informed of
+     * the event that is already waiting. Events are equivalent when {@code keyFunction} yields equal keys.
+     * <p>
+     * Dispatches are considered pending until the subscriber starts processing the event. Events
+     * published while a subscriber is processing an equivalent event are not coalesced.
+     * Callbacks of {@link ChainableEvent}s are only executed for the event that was dispatched.
+     * Events are not coalesced for {@link BatchSubscriber}s.
+     * @param eventType The type of event to coalesce
+     * @param keyFunction The function providing the coalescing key of an event
+     * @param <E> The type of event
+     * @since 3.8.0
+     */
+    @SuppressWarnings("unchecked")
+    public <E extends Event> void coalesce(Class<E> eventType, Function<? super E, ?> keyFunction) {
+        coalescingKeyFunctions.put(eventType, event -> keyFunction.apply((E) event));
+    }
+
+    private CoalescingKey getCoalescingKey(final Event event, final SubscriberBinding binding) {
+        final Function<Event, ?> keyFunction = coalescingKeyFunctions.get(event.getClass());
+        if (keyFunction == null) {
+            return null;
+        }
+        return new CoalescingKey(binding.getSubscriberClass(), event.getClass(), keyFunction.apply(event));
+    }
+
+    private record CoalescingKey(Class<? extends Subscriber> subscriberClass,
+                                 Class<? extends Event> eventClass, Object key) {
+    }
+
+    /**
+     * Selects the {@link ExecutorService} to inform subscribers of an event on.
+     * @param event the event being published
+     * @return the {@link ExecutorService} to use
+     * @since 3.8.0
+     */
+    protected ExecutorService selectExecutorService(Event event) {
+        // Check to see if the Event is Unblocked. If so, use a separate executor pool from normal events
+        return event instanceof UnblockedEvent ? dynamicExecutor : executor;
+    }
+
+    /**
+     * Whether failed attempts of a subscriber are retried on the thread that made them, holding it for the
+     * duration of the backoff. Event services processing events in order retry in place, as rescheduling the
+     * attempt would let events published later overtake the failed one.
+     * @return {@code true} to retry in place, {@code false} to schedule retries after the backoff
+     * @see RetryPolicy
+     * @since 3.8.0
+     */
+    protected boolean retriesInPlace() {
+        return false;
+    }
+
+    /**
+     * @return all {@link ExecutorService}s {@link #selectExecutorService(Event)} may select
+     * @since 3.8.0
+     */
+    protected List<ExecutorService> getExecutorServices() {
+        if (bulkheads.isEmpty()) {
+            return List.of(executor, dynamicExecutor);
+        }
+        final var executorServices = new ArrayList<ExecutorService>(List.of(executor, dynamicExecutor));
+        for (final SubscriberBulkhead bulkhead : bulkheads.values()) {
+            if (bulkhead.getDedicatedExecutor() != null) {
+                executorServices.add(bulkhead.getDedicatedExecutor());
+            }
+        }
+        return executorServices;
+    }
+
+    /**
+     * Returns the status of this event service. The status is computed from lock-free counters,
+     * so that it can be retrieved cheaply while the event service is saturated.
+     * @return the {@link EventServiceStatus} of this event service
+     * @since 3.8.0
+     */
+    public EventServiceStatus getStatus() {
+        return new EventServiceStatus(getClass().getName(),
+                getExecutorServices().stream().map(ExecutorUtil::getExecutorStats).toList(),
+                dispatchStatistics.getQueuedCounts(),
+                dispatchStatistics.getOldestQueuedAge().toMillis(),
+                chainTracker.size(),
+                chainTracker.getInFlightCounts(EventServiceStatus.MAX_REPORTED_CHAINS),
+                dispatchStatistics.getThroughput());
     }
 
     /**
      * {@inheritDoc}
      * @since 1.4.0
      */
-    public synchronized boolean isEventBeingProcessed(ChainableEvent event) {
+    public boolean isEventBeingProcessed(ChainableEvent event) {
         return isEventBeingProcessed(event.getChainIdentifier());
     }
 
@@ -169,63 +978,92 @@ public abstract class BaseEventService implements IEventService {
      * {@inheritDoc}
      * @since 1.4.0
      */
-    public synchronized boolean isEventBeingProcessed(UUID chainIdentifier) {
-        ArrayList<UUID> eventIdentifiers = chainTracker.get(chainIdentifier);
-        return eventIdentifiers != null && eventIdentifiers.size() != 0;
+    public boolean isEventBeingProcessed(UUID chainIdentifier) {
+        return chainTracker.isInFlight(chainIdentifier);
     }
 
-    private synchronized boolean addTrackedEvent(ChainableEvent event) {
-            ArrayList<UUID> eventIdentifiers = chainTracker.get(event.getChainIdentifier());
-            if (eventIdentifiers == null) {
-                eventIdentifiers = new ArrayList<>();
-            }
-            if (event instanceof SingletonCapableEvent) {
-                final SingletonCapableEvent sEvent = (SingletonCapableEvent)event;
-                // Check is this is a singleton event where only a
-                // single occurrence should be running at a given time
-                if (sEvent.isSingleton()) {
-                    if (! eventIdentifiers.isEmpty()) {
-                        logger.info("An singleton event (" + sEvent.getClass().getSimpleName() + ") was received but another singleton event of the same type is already in progress. Skipping.");
-                        return false;
-                    }
-                }
-            }
-            eventIdentifiers.add(event.getEventIdentifier());
-            chainTracker.put(event.getChainIdentifier(), eventIdentifiers);
-            return true;
+    private boolean addTrackedEvent(ChainableEvent event) {
+        // Check is this is a singleton event where only a
+        // single occurrence should be running at a given time
+        final boolean singleton = event instanceof SingletonCapableEvent && ((SingletonCapableEvent)event).isSingleton();
+        if (!chainTracker.add(event.getChainIdentifier(), singleton)) {
+            logger.info("An singleton event (" + event.getClass().getSimpleName() + ") was received but another singleton event of the same type is already in progress. Skipping.");
+            return false;
+        }
+        ChainLatencyTracker.getInstance().add(event);
+        return true;
     }
 
-    private synchronized void removeTrackedEvent(ChainableEvent event) {
-        ArrayList<UUID> eventIdentifiers = chainTracker.get(event.getChainIdentifier());
-        if (eventIdentifiers == null) {
-            return;
-        }
-        eventIdentifiers.remove(event.getEventIdentifier());
-        if (eventIdentifiers.isEmpty()) {
-            chainTracker.remove(event.getChainIdentifier());
+    private void removeTrackedEvent(ChainableEvent event) {
+        chainTracker.remove(event.getChainIdentifier());
+        ChainLatencyTracker.getInstance().remove(event.getChainIdentifier());
+    }
+
+    /**
+     * Tracks the number of dispatches of each event type that are queued, being processed,
+     * or waiting for a retry, and exposes them as gauges.
+     */
+    private void recordInFlight(final List<Event> events, final int delta) {
+        for (final Event event : events) {
+            inFlightCounts.computeIfAbsent(event.getClass(), eventClass -> {
+                final var count = new AtomicInteger();
+                Gauge.builder("alpine_events_in_flight", count, AtomicInteger::get)
+                        .description("Number of dispatches of events that are queued, being processed, or waiting for a retry")
+                        .tags("event", eventClass.getName(), "publisher", this.getClass().getName())
+                        .register(Metrics.getRegistry());
+                return count;
+            }).addAndGet(delta);
         }
     }
 
     private void recordPublishedMetric(final Event event) {
-        Counter.builder("alpine_events_published_total")
-                .description("Total number of published events")
-                .tags("event", event.getClass().getName(), "publisher", this.getClass().getName())
-                .register(Metrics.getRegistry())
+        publishedCounters.computeIfAbsent(event.getClass(), eventClass -> Counter.builder("alpine_events_published_total")
+                        .description("Total number of published events")
+                        .tags("event", eventClass.getName(), "publisher", this.getClass().getName())
+                        .register(Metrics.getRegistry()))
+                .increment();
+    }
+
+    private void recordCoalescedMetric(final Event event) {
+        coalescedCounters.computeIfAbsent(event.getClass(), eventClass -> Counter.builder("alpine_events_coalesced_total")
+                        .description("Total number of published events that were merged with an equivalent pending event")
+                        .tags("event", eventClass.getName(), "publisher", this.getClass().getName())
+                        .register(Metrics.getRegistry()))
                 .increment();
     }
 
     /**
      * {@inheritDoc}
+     * <p>
+     * Subscriptions to a superclass or interface apply to all events extending or implementing it.
+     * The {@link SubscriberFactory} of the subscriber is resolved through {@link SubscriberFactories#forClass(Class)}.
+     * @throws IllegalArgumentException when the subscriber does not declare an accessible no-arg constructor
      * @since 1.0.0
      */
     public void subscribe(Class<? extends Event> eventType, Class<? extends Subscriber> subscriberType) {
-        if (!subscriptionMap.containsKey(eventType)) {
-            subscriptionMap.put(eventType, new ArrayList<>());
-        }
-        final ArrayList<Class<? extends Subscriber>> subscribers = subscriptionMap.get(eventType);
-        if (!subscribers.contains(subscriberType)) {
-            subscribers.add(subscriberType);
-        }
+        final SubscriberBinding binding = subscriberBindings.computeIfAbsent(subscriberType,
+                type -> new SubscriberBinding(type, SubscriberFactories.forClass(type)));
+        subscribe(eventType, binding);
+    }
+
+    /**
+     * Subscribes to an event, using a custom {@link SubscriberFactory} to supply instances of the subscriber.
+     * The factory replaces any factory previously used for the subscriber, for all event types it is
+     * subscribed to.
+     * @param eventType The type of event to subscribe to
+     * @param subscriberType The Subscriber that gets informed when the type of event is published
+     * @param subscriberFactory The SubscriberFactory supplying instances of subscriberType
+     * @since 3.8.0
+     */
+    public void subscribe(Class<? extends Event> eventType, Class<? extends Subscriber> subscriberType,
+                          SubscriberFactory subscriberFactory) {
+        final var binding = new SubscriberBinding(subscriberType, subscriberFactory);
+        subscriberBindings.put(subscriberType, binding);
+        dispatchTable.updateAndGet(table -> table.withBinding(binding).withSubscription(eventType, binding));
+    }
+
+    private void subscribe(Class<? extends Event> eventType, SubscriberBinding binding) {
+        dispatchTable.updateAndGet(table -> table.withSubscription(eventType, binding));
     }
 
     /**
@@ -233,8 +1071,11 @@ public abstract class BaseEventService implements IEventService {
      * @since 1.0.0
      */
     public void unsubscribe(Class<? extends Subscriber> subscriberType) {
-        for (ArrayList<Class<? extends Subscriber>> list : subscriptionMap.values()) {
-            list.remove(subscriberType);
+        dispatchTable.updateAndGet(table -> table.withoutSubscriber(subscriberType));
+        subscriberBindings.remove(subscriberType);
+        final EventBatcher batcher = batchers.remove(subscriberType);
+        if (batcher != null) {
+            batcher.flush();
         }
     }
 
@@ -243,8 +1084,7 @@ public abstract class BaseEventService implements IEventService {
      * @since 1.2.0
      */
     public boolean hasSubscriptions(Event event) {
-        final ArrayList<Class<? extends Subscriber>> subscriberClasses = subscriptionMap.get(event.getClass());
-        return subscriberClasses != null;
+        return !dispatchTable.get().lookup(event.getClass()).isEmpty();
     }
 
     /**
@@ -253,8 +1093,25 @@ public abstract class BaseEventService implements IEventService {
      */
     public void shutdown() {
         logger.info("Shutting down EventService");
-        executor.shutdown();
-        dynamicExecutor.shutdown();
+        shutdown = true;
+        final ClusterEventBridge clusterBridge = this.clusterBridge;
+        if (clusterBridge != null) {
+            clusterBridge.unregister(this);
+        }
+        final EventOutbox outbox = this.outbox;
+        if (outbox != null) {
+            outbox.close();
+        }
+        final EventJournal journal = this.journal;
+        if (journal != null) {
+            journal.sync();
+        }
+        final AdaptivePoolSizer poolSizer = this.poolSizer;
+        if (poolSizer != null) {
+            poolSizer.stop();
+        }
+        batchers.values().forEach(EventBatcher::flush);
+        getExecutorServices().forEach(ExecutorService::shutdown);
     }
 
     /**
@@ -264,25 +1121,41 @@ public abstract class BaseEventService implements IEventService {
     public boolean shutdown(final Duration timeout) {
         shutdown();
 
+        final List<ExecutorService> executorServices = getExecutorServices();
         final Instant waitTimeout = Instant.now().plus(timeout);
         Instant statsLastLoggedAt = null;
-        while (!executor.isTerminated() || !dynamicExecutor.isTerminated()) {
+        while (!isTerminated(executorServices)) {
             if (waitTimeout.isBefore(Instant.now())) {
-                logger.warn("Timeout exceeded while waiting for executors to finish: executor=%s, dynamicExecutor=%s"
-                        .formatted(getExecutorStats(executor), getExecutorStats(dynamicExecutor)));
+                logger.warn("Timeout exceeded while waiting for executors to finish: %s"
+                        .formatted(executorServices.stream().map(ExecutorUtil::getExecutorStats).toList()));
                 return false;
             }
 
             final Instant now = Instant.now();
             if (statsLastLoggedAt == null || now.minus(5, ChronoUnit.SECONDS).isAfter(statsLastLoggedAt)) {
-                logger.info("Waiting for executors to terminate: executor=%s, dynamicExecutor=%s"
-                        .formatted(getExecutorStats(executor), getExecutorStats(dynamicExecutor)));
+                logger.info("Waiting for executors to terminate: %s"
+                        .formatted(executorServices.stream().map(ExecutorUtil::getExecutorStats).toList()));
                 statsLastLoggedAt = now;
             }
         }
 
         logger.info("Executors terminated successfully");
+        if (outbox != null) {
+            outbox.flushAcknowledgements();
+        }
+        if (journal != null) {
+            journal.close();
+        }
+        EventServiceLogRecorder.getInstance().flush();
         return true;
     }
 
+    /**
+     * Dispatches still waiting in a bulkhead once the executors terminated are run by the bulkhead itself.
+     */
+    private boolean isTerminated(final List<ExecutorService> executorServices) {
+        return executorServices.stream().allMatch(ExecutorService::isTerminated)
+                && bulkheads.values().stream().allMatch(SubscriberBulkhead::isIdle);
+    }
+
 }
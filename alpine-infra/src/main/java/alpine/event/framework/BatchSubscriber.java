@@ -0,0 +1,60 @@
+/*
+ * This file is part of Alpine.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ * Copyright (c) Steve Springett. All Rights Reserved.
+ */
+package alpine.event.framework;
+
+import java.util.List;
+
+/**
+ * A {@link Subscriber} that is informed of multiple events at once. Events are accumulated
+ * per subscriber until either a maximum batch size, or a maximum linger time is reached.
+ * Both can be customized using {@link BatchOptions}. Event services processing events in partitions,
+ * such as the {@link PartitionedEventService}, split batches by partition before informing the subscriber.
+ * <p>
+ * Batching allows subscribers to amortize costs that are incurred once per invocation,
+ * for example by writing to the database using JDBC batches, within a single transaction.
+ *
+ * <pre>
+ * &#64;BatchOptions(maxSize = 500, maxLingerMillis = 250)
+ * public class MyBatchTask implements BatchSubscriber {
+ *     public void inform(List&lt;Event&gt; events) {
+ *         ...
+ *     }
+ * }
+ * </pre>
+ *
+ * @since 3.8.0
+ */
+public interface BatchSubscriber extends Subscriber {
+
+    /**
+     * Informs the subscriber of a batch of events, in the order in which they were published.
+     * @param events the batch of events; Never empty
+     */
+    void inform(List<Event> events);
+
+    /**
+     * Informs the subscriber of a single event, as a batch of one.
+     * @param event the Event to subscribe to
+     */
+    @Override
+    default void inform(Event event) {
+        inform(List.of(event));
+    }
+
+}
@@ -0,0 +1,118 @@
+/*
+ * This file is part of Alpine.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ * Copyright (c) Steve Springett. All Rights Reserved.
+ */
+package alpine.event.framework;
+
+import java.util.concurrent.CancellationException;
+
+/**
+ * Signals a {@link Subscriber} that it exceeded its {@link SubscriberTimeout}, and should stop
+ * processing the event it is being informed of. The thread informing the subscriber is interrupted
+ * as well, which unblocks most I/O and waits. Subscribers performing long-running computations, or
+ * swallowing interrupts, should check the token of the current thread regularly:
+ *
+ * <pre>
+ * public void inform(Event event) {
+ *     for (final User user : users) {
+ *         CancellationToken.current().throwIfCancelled();
+ *         ...
+ *     }
+ * }
+ * </pre>
+ *
+ * @since 3.8.0
+ */
+public final class CancellationToken {
+
+    private static final CancellationToken NONE = new CancellationToken(null);
+    private static final ThreadLocal<CancellationToken> CURRENT = new ThreadLocal<>();
+
+    private final Thread thread;
+    private volatile boolean cancelled;
+    private boolean completed;
+
+    private CancellationToken(final Thread thread) {
+        this.thread = thread;
+    }
+
+    /**
+     * @return the token of the subscriber being informed on the current thread. Threads not
+     * informing a subscriber with a timeout get a token that is never cancelled.
+     */
+    public static CancellationToken current() {
+        final CancellationToken token = CURRENT.get();
+        return token != null ? token : NONE;
+    }
+
+    /**
+     * @return {@code true} if the subscriber exceeded its timeout
+     */
+    public boolean isCancelled() {
+        return cancelled;
+    }
+
+    /**
+     * @throws CancellationException if the subscriber exceeded its timeout
+     */
+    public void throwIfCancelled() {
+        if (cancelled) {
+            throw new CancellationException("The subscriber exceeded its timeout");
+        }
+    }
+
+    /**
+     * Creates a token for the subscriber about to be informed on the current thread.
+     */
+    static CancellationToken open() {
+        final var token = new CancellationToken(Thread.currentThread());
+        CURRENT.set(token);
+        return token;
+    }
+
+    /**
+     * Cancels the token, and interrupts its thread, unless the subscriber completed already.
+     * @return {@code true} if the token was cancelled
+     */
+    synchronized boolean cancel() {
+        if (completed || cancelled) {
+            return false;
+        }
+        cancelled = true;
+        thread.interrupt();
+        return true;
+    }
+
+    /**
+     * Completes the token once the subscriber returned, so that it is no longer cancelled.
+     * When it was cancelled, the interrupt of its thread is cleared, so that it does not
+     * leak into the next task executed by the thread.
+     * @return {@code true} if the token was cancelled
+     */
+    boolean close() {
+        CURRENT.remove();
+        synchronized (this) {
+            completed = true;
+        }
+        if (cancelled) {
+            // The interrupt was delivered while cancelling, before the lock was released.
+            Thread.interrupted();
+        }
+        return cancelled;
+    }
+
+}
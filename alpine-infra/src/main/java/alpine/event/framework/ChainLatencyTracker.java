@@ -0,0 +1,93 @@
+/*
+ * This file is part of Alpine.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ * Copyright (c) Steve Springett. All Rights Reserved.
+ */
+package alpine.event.framework;
+
+import alpine.common.metrics.Metrics;
+import io.micrometer.core.instrument.Timer;
+
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the end-to-end duration of event chains, from the publication of the root {@link ChainableEvent}
+ * until the last event linked to it through {@link ChainLink}s has been processed.
+ * <p>
+ * Unlike {@link ChainTracker}, which tracks chains per event service, chains are tracked across all
+ * event services, as links may be dispatched to a different service than the event they are linked to.
+ * Links are published before their predecessor stops being tracked, so that a chain only completes
+ * once its last link completed.
+ *
+ * @since 3.8.0
+ */
+final class ChainLatencyTracker {
+
+    private static final ChainLatencyTracker INSTANCE = new ChainLatencyTracker();
+
+    private record Chain(int inFlight, long startedAtNanos, Class<? extends Event> rootEventClass) {
+    }
+
+    private final Map<UUID, Chain> chains = new ConcurrentHashMap<>();
+    private final Map<Class<? extends Event>, Timer> timers = new ConcurrentHashMap<>();
+
+    static ChainLatencyTracker getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * Starts tracking an event of a chain. The first event of a chain starts the chain.
+     * @param event the event
+     */
+    void add(final ChainableEvent event) {
+        final long now = System.nanoTime();
+        chains.compute(event.getChainIdentifier(), (ignored, chain) -> chain == null
+                ? new Chain(1, now, event.getClass())
+                : new Chain(chain.inFlight() + 1, chain.startedAtNanos(), chain.rootEventClass()));
+    }
+
+    /**
+     * Stops tracking an event of a chain. When no other event of the chain is in flight, the chain
+     * completed, and its duration is recorded.
+     * @param chainIdentifier the chain the event is part of
+     */
+    void remove(final UUID chainIdentifier) {
+        final var completed = new Chain[1];
+        chains.computeIfPresent(chainIdentifier, (ignored, chain) -> {
+            if (chain.inFlight() > 1) {
+                return new Chain(chain.inFlight() - 1, chain.startedAtNanos(), chain.rootEventClass());
+            }
+            completed[0] = chain;
+            return null;
+        });
+        if (completed[0] != null) {
+            getTimer(completed[0].rootEventClass())
+                    .record(System.nanoTime() - completed[0].startedAtNanos(), TimeUnit.NANOSECONDS);
+        }
+    }
+
+    private Timer getTimer(final Class<? extends Event> rootEventClass) {
+        return timers.computeIfAbsent(rootEventClass, type -> Timer.builder("alpine_event_chain_duration")
+                .description("Time from the publication of the root event of a chain until all of its links were processed")
+                .tag("event", type.getSimpleName())
+                .publishPercentileHistogram(SubscriberBinding.isHistogramEnabled())
+                .register(Metrics.getRegistry()));
+    }
+
+}
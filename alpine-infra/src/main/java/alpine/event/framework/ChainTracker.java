@@ -0,0 +1,98 @@
+/*
+ * This file is part of Alpine.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ * Copyright (c) Steve Springett. All Rights Reserved.
+ */
+package alpine.event.framework;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Tracks the number of events of each chain that are queued or being processed.
+ * <p>
+ * Counts are updated atomically per chain using {@link ConcurrentHashMap#compute(Object, java.util.function.BiFunction)},
+ * so that events of different chains never contend with each other, and no lock is held while querying.
+ *
+ * @since 3.8.0
+ */
+final class ChainTracker {
+
+    private final Map<UUID, Integer> inFlightCounts = new ConcurrentHashMap<>();
+
+    /**
+     * Starts tracking an event of a chain.
+     * @param chainIdentifier the chain the event is part of
+     * @param singleton whether the event must not be tracked while other events of the chain are in flight
+     * @return {@code true} when the event is tracked, {@code false} when it was rejected as a singleton
+     */
+    boolean add(final UUID chainIdentifier, final boolean singleton) {
+        final var rejected = new boolean[1];
+        inFlightCounts.compute(chainIdentifier, (ignored, count) -> {
+            if (count == null) {
+                return 1;
+            }
+            if (singleton) {
+                rejected[0] = true;
+                return count;
+            }
+            return count + 1;
+        });
+        return !rejected[0];
+    }
+
+    /**
+     * Stops tracking an event of a chain. Each successful invocation of {@link #add(UUID, boolean)}
+     * must be matched by exactly one invocation of this method.
+     * @param chainIdentifier the chain the event is part of
+     */
+    void remove(final UUID chainIdentifier) {
+        inFlightCounts.computeIfPresent(chainIdentifier, (ignored, count) -> count > 1 ? count - 1 : null);
+    }
+
+    /**
+     * @param chainIdentifier the chain to query
+     * @return {@code true} when at least one event of the chain is in flight
+     */
+    boolean isInFlight(final UUID chainIdentifier) {
+        return inFlightCounts.containsKey(chainIdentifier);
+    }
+
+    /**
+     * @return the number of chains with at least one event in flight
+     */
+    int size() {
+        return inFlightCounts.size();
+    }
+
+    /**
+     * @param limit the maximum number of chains to return
+     * @return the number of events in flight, by chain
+     */
+    Map<UUID, Integer> getInFlightCounts(final int limit) {
+        final var counts = new HashMap<UUID, Integer>();
+        for (final Map.Entry<UUID, Integer> entry : inFlightCounts.entrySet()) {
+            if (counts.size() >= limit) {
+                break;
+            }
+            counts.put(entry.getKey(), entry.getValue());
+        }
+        return counts;
+    }
+
+}
@@ -0,0 +1,61 @@
+/*
+ * This file is part of Alpine.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ * Copyright (c) Steve Springett. All Rights Reserved.
+ */
+package alpine.event.framework;
+
+import alpine.Config;
+
+/**
+ * The ClusterEvent interface defines events that are dispatched across all nodes of a cluster,
+ * rather than only within the JVM they are published in.
+ * <p>
+ * Cluster events must be serializable by the {@link EventSerializer} in use. Events are only
+ * dispatched across nodes if the event service they are published to is bridged to the cluster.
+ *
+ * @see ClusterEventBridge
+ * @see Config.AlpineKey#CLUSTER_ENABLED
+ * @since 3.8.0
+ */
+public interface ClusterEvent extends Event {
+
+    /**
+     * The nodes a cluster event is dispatched to.
+     */
+    enum Scope {
+
+        /**
+         * The event is dispatched to exactly one node, which may be the node publishing it.
+         * Nodes receive events in a work-queue fashion.
+         */
+        ONE_NODE,
+
+        /**
+         * The event is dispatched to all nodes that were alive when it was published.
+         */
+        ALL_NODES
+
+    }
+
+    /**
+     * @return the nodes the event is dispatched to; defaults to {@link Scope#ONE_NODE}
+     */
+    default Scope getClusterScope() {
+        return Scope.ONE_NODE;
+    }
+
+}
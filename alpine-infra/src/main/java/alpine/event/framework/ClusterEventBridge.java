@@ -0,0 +1,170 @@
+/*
+ * This file is part of Alpine.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ * Copyright (c) Steve Springett. All Rights Reserved.
+ */
+package alpine.event.framework;
+
+import alpine.cluster.ClusterNodeRegistry;
+import alpine.cluster.ClusterTransport;
+import alpine.common.logging.Logger;
+import alpine.model.ClusterMessage;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Bridges event services to the other nodes of a cluster.
+ * <p>
+ * {@link ClusterEvent}s published to a bridged event service are sent to other nodes through a
+ * {@link ClusterTransport}, and dispatched to the subscribers of the same event service there.
+ * Events scoped to {@link ClusterEvent.Scope#ALL_NODES all nodes} are dispatched locally right away,
+ * and sent to all other nodes that are alive according to the {@link ClusterNodeRegistry}.
+ * Nodes that joined within the last heartbeat interval may not receive them.
+ *
+ * @see alpine.Config.AlpineKey#CLUSTER_ENABLED
+ * @since 3.8.0
+ */
+public final class ClusterEventBridge {
+
+    private static final Logger LOGGER = Logger.getLogger(ClusterEventBridge.class);
+    private static ClusterEventBridge instance;
+
+    private final ClusterNodeRegistry registry;
+    private final ClusterTransport transport;
+    private final EventSerializer serializer;
+    private final Map<String, BaseEventService> eventServices = new ConcurrentHashMap<>();
+    private boolean started;
+
+    ClusterEventBridge(final ClusterNodeRegistry registry, final ClusterTransport transport, final EventSerializer serializer) {
+        this.registry = registry;
+        this.transport = transport;
+        this.serializer = serializer;
+    }
+
+    /**
+     * @return the bridge of this node, using the configured {@link ClusterTransport}
+     */
+    public static synchronized ClusterEventBridge getInstance() {
+        if (instance == null) {
+            instance = new ClusterEventBridge(ClusterNodeRegistry.getInstance(), ClusterTransport.fromConfig(),
+                    EventSerializer.getInstance());
+        }
+        return instance;
+    }
+
+    /**
+     * @return the {@link ClusterNodeRegistry} of this node
+     */
+    public ClusterNodeRegistry getRegistry() {
+        return registry;
+    }
+
+    /**
+     * Bridges an event service to the cluster. The node joins the cluster when the first event service is bridged.
+     * Event services are identified by their class name, and must thus be singletons.
+     * @param eventService the event service to bridge
+     */
+    synchronized void register(final BaseEventService eventService) {
+        eventServices.put(eventService.getClass().getName(), eventService);
+        if (!started) {
+            registry.start();
+            transport.start(registry, this::receive);
+            started = true;
+        }
+    }
+
+    /**
+     * Removes the bridge of an event service. The node leaves the cluster when the last event service is removed.
+     * @param eventService the event service to remove the bridge of
+     */
+    synchronized void unregister(final BaseEventService eventService) {
+        eventServices.remove(eventService.getClass().getName(), eventService);
+        if (started && eventServices.isEmpty()) {
+            transport.stop();
+            registry.stop();
+            started = false;
+        }
+    }
+
+    /**
+     * Publishes a cluster event.
+     * @param eventService the event service the event was published to
+     * @param event the event to publish
+     * @return the {@link PublishStatus} of the event
+     */
+    PublishStatus publish(final BaseEventService eventService, final ClusterEvent event) {
+        final ClusterEvent.Scope scope = event.getClusterScope();
+        final byte[] payload;
+        try {
+            payload = serializer.serialize(event);
+        } catch (IOException | RuntimeException e) {
+            LOGGER.error("Unable to serialize " + event.getClass().getName() + "; Dispatching it to the local node only", e);
+            return eventService.publishLocally(event);
+        }
+
+        final var messages = new ArrayList<ClusterMessage>();
+        if (scope == ClusterEvent.Scope.ALL_NODES) {
+            for (final String nodeId : registry.getLiveNodeIds()) {
+                if (!nodeId.equals(registry.getLocalNodeId())) {
+                    messages.add(createMessage(eventService, event, payload, nodeId));
+                }
+            }
+        } else {
+            messages.add(createMessage(eventService, event, payload, null));
+        }
+
+        try {
+            transport.send(messages);
+        } catch (RuntimeException e) {
+            LOGGER.error("Unable to send " + event.getClass().getName() + " to the cluster; Dispatching it to the local node only", e);
+            return eventService.publishLocally(event);
+        }
+        return scope == ClusterEvent.Scope.ALL_NODES ? eventService.publishLocally(event) : PublishStatus.ACCEPTED;
+    }
+
+    private ClusterMessage createMessage(final BaseEventService eventService, final Event event,
+                                         final byte[] payload, final String targetNode) {
+        final var message = new ClusterMessage();
+        message.setEventService(eventService.getClass().getName());
+        message.setEventClass(event.getClass().getName());
+        message.setPayload(payload);
+        message.setTargetNode(targetNode);
+        message.setOriginNode(registry.getLocalNodeId());
+        return message;
+    }
+
+    private void receive(final ClusterMessage message) {
+        final BaseEventService eventService = eventServices.get(message.getEventService());
+        if (eventService == null) {
+            LOGGER.warn("Received " + message.getEventClass() + " for event service " + message.getEventService()
+                    + ", which is not bridged to the cluster on this node; Discarding it");
+            return;
+        }
+        final Event event;
+        try {
+            event = serializer.deserialize(message.getEventClass(), message.getPayload());
+        } catch (IOException e) {
+            LOGGER.error("Unable to deserialize cluster message " + message.getId() + " of type "
+                    + message.getEventClass() + "; Discarding it", e);
+            return;
+        }
+        eventService.publishLocally(event);
+    }
+
+}
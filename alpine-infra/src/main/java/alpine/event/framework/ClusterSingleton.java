@@ -0,0 +1,44 @@
+/*
+ * This file is part of Alpine.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ * Copyright (c) Steve Springett. All Rights Reserved.
+ */
+package alpine.event.framework;
+
+import alpine.cluster.ClusterLeaseManager;
+
+/**
+ * A capability of events which must only be dispatched by one node of a cluster.
+ * <p>
+ * When clustering is enabled, event services and the task scheduler only dispatch such events
+ * on the node holding the lease named {@link #getLeaseName()}. Other nodes ignore them. This
+ * complements {@link SingletonCapableEvent}, which only prevents concurrent processing within a node.
+ *
+ * @see ClusterLeaseManager
+ * @see alpine.Config.AlpineKey#CLUSTER_ENABLED
+ * @since 3.8.0
+ */
+public interface ClusterSingleton {
+
+    /**
+     * @return the name of the lease a node must hold to dispatch the event.
+     * Defaults to the name of the event class.
+     */
+    default String getLeaseName() {
+        return getClass().getName();
+    }
+
+}
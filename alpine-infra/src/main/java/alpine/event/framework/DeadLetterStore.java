@@ -0,0 +1,142 @@
+/*
+ * This file is part of Alpine.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ * Copyright (c) Steve Springett. All Rights Reserved.
+ */
+package alpine.event.framework;
+
+import alpine.common.logging.Logger;
+import alpine.common.metrics.Metrics;
+import alpine.model.DeadLetterEvent;
+import alpine.persistence.AlpineQueryManager;
+import io.micrometer.core.instrument.Counter;
+
+import java.io.IOException;
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+import java.util.function.Supplier;
+
+/**
+ * Stores events that subscribers with a {@link RetryPolicy} failed to process, in the
+ * {@link DeadLetterEvent dead-letter} table, so that they can be inspected and re-published.
+ * <p>
+ * Events are serialized with the {@link EventSerializer}. Events that can not be serialized are
+ * stored without their payload; They can be inspected, but not re-published.
+ *
+ * @since 3.8.0
+ */
+public final class DeadLetterStore {
+
+    private static final Logger LOGGER = Logger.getLogger(DeadLetterStore.class);
+    private static DeadLetterStore instance;
+
+    private final Supplier<AlpineQueryManager> qmSupplier;
+    private final EventSerializer serializer;
+    private final Counter storedCounter;
+
+    DeadLetterStore(final Supplier<AlpineQueryManager> qmSupplier, final EventSerializer serializer) {
+        this.qmSupplier = qmSupplier;
+        this.serializer = serializer;
+        this.storedCounter = Counter.builder("alpine_events_dead_lettered_total")
+                .description("Total number of events written to the dead-letter store")
+                .register(Metrics.getRegistry());
+    }
+
+    /**
+     * @return the dead-letter store of this instance
+     */
+    public static synchronized DeadLetterStore getInstance() {
+        if (instance == null) {
+            instance = new DeadLetterStore(AlpineQueryManager::new, EventSerializer.getInstance());
+        }
+        return instance;
+    }
+
+    /**
+     * Writes an event a subscriber failed to process to the store.
+     * @param eventService the event service the event was published to
+     * @param subscriberClass the subscriber that failed to process the event
+     * @param event the event
+     * @param attempts the number of attempts made to process the event
+     * @param failure the failure of the last attempt
+     */
+    void store(final IEventService eventService, final Class<? extends Subscriber> subscriberClass,
+               final Event event, final int attempts, final Throwable failure) {
+        byte[] payload = null;
+        try {
+            payload = serializer.serialize(event);
+        } catch (IOException | RuntimeException e) {
+            LOGGER.warn("Unable to serialize event " + event.getClass().getName()
+                    + "; Storing it in the dead-letter store without its payload", e);
+        }
+        try (final AlpineQueryManager qm = qmSupplier.get()) {
+            qm.createDeadLetterEvent(eventService.getClass().getName(), subscriberClass.getName(),
+                    event.getClass().getName(), payload, attempts, String.valueOf(failure));
+            storedCounter.increment();
+        } catch (RuntimeException e) {
+            LOGGER.error("Unable to write event " + event.getClass().getName() + " to the dead-letter store; "
+                    + "It will not be processed by subscriber " + subscriberClass.getName(), e);
+        }
+    }
+
+    /**
+     * Re-publishes dead-lettered events to the subscriber that failed to process them, and deletes
+     * them from the store. Events without payload, whose event service can not be resolved, or whose
+     * subscriber is no longer subscribed to them, remain in the store.
+     * @param qm the {@link AlpineQueryManager} to access the store with
+     * @param uuids the UUIDs of the {@link DeadLetterEvent}s to re-publish
+     * @return the number of re-published events
+     */
+    public int republish(final AlpineQueryManager qm, final Collection<UUID> uuids) {
+        final List<DeadLetterEvent> deadLetterEvents = qm.getDeadLetterEvents(uuids);
+        int republished = 0;
+        for (final DeadLetterEvent deadLetterEvent : deadLetterEvents) {
+            if (republish(deadLetterEvent)) {
+                qm.delete(deadLetterEvent);
+                republished++;
+            }
+        }
+        return republished;
+    }
+
+    private boolean republish(final DeadLetterEvent deadLetterEvent) {
+        if (deadLetterEvent.getPayload() == null) {
+            LOGGER.warn("Dead-lettered event " + deadLetterEvent.getUuid() + " has no payload; Unable to re-publish it");
+            return false;
+        }
+        final Event event;
+        final IEventService eventService;
+        try {
+            event = serializer.deserialize(deadLetterEvent.getEventClass(), deadLetterEvent.getPayload());
+            eventService = EventServiceResolver.resolve(Class.forName(deadLetterEvent.getEventService())
+                    .asSubclass(IEventService.class));
+        } catch (IOException | ClassNotFoundException | RuntimeException e) {
+            LOGGER.error("Unable to re-publish dead-lettered event " + deadLetterEvent.getUuid(), e);
+            return false;
+        }
+        final PublishStatus status = eventService instanceof BaseEventService baseEventService
+                ? baseEventService.redeliver(event, deadLetterEvent.getSubscriberClass())
+                : eventService.publish(event);
+        if (status == PublishStatus.IGNORED || status == PublishStatus.DROPPED) {
+            LOGGER.warn("Dead-lettered event " + deadLetterEvent.getUuid() + " was not accepted by "
+                    + deadLetterEvent.getEventService() + " (" + status + ")");
+            return false;
+        }
+        return true;
+    }
+
+}
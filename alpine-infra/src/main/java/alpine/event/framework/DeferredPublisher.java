@@ -0,0 +1,60 @@
+/*
+ * This file is part of Alpine.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ * Copyright (c) Steve Springett. All Rights Reserved.
+ */
+package alpine.event.framework;
+
+import alpine.common.metrics.Metrics;
+import org.apache.commons.lang3.concurrent.BasicThreadFactory;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Publishes events on behalf of the timers shared by all event services, such as the {@link TimingWheel}
+ * of delayed events. Publishing may block while an event service is saturated, inform subscribers on the
+ * publishing thread, or look up leases and send events to other nodes. Timers therefore only hand their
+ * publications off to the threads of this class, so that one slow publication does not delay all others.
+ * Threads are created as needed, and terminate after being idle for a minute.
+ *
+ * @since 3.8.0
+ */
+final class DeferredPublisher {
+
+    private static final String EXECUTOR_NAME = "Alpine-DeferredPublisher";
+    private static final ExecutorService EXECUTOR = Executors.newCachedThreadPool(
+            new BasicThreadFactory.Builder()
+                    .namingPattern(EXECUTOR_NAME + "-%d")
+                    .uncaughtExceptionHandler(new LoggableUncaughtExceptionHandler())
+                    .daemon(true)
+                    .build());
+
+    static {
+        Metrics.registerExecutorService(EXECUTOR, EXECUTOR_NAME);
+    }
+
+    private DeferredPublisher() {
+    }
+
+    /**
+     * @param publication the task publishing one or more events
+     */
+    static void execute(final Runnable publication) {
+        EXECUTOR.execute(publication);
+    }
+
+}
@@ -0,0 +1,190 @@
+/*
+ * This file is part of Alpine.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ * Copyright (c) Steve Springett. All Rights Reserved.
+ */
+package alpine.event.framework;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.LongSupplier;
+
+/**
+ * Lock-free counters describing the dispatches of an event or notification service, used to report its
+ * {@link EventServiceStatus status}. Nothing is computed by scanning queues, so the statistics can be
+ * retrieved cheaply while the service is saturated.
+ * <p>
+ * The age of the oldest queued dispatch is estimated from the time the most recently started dispatch
+ * was enqueued. For executors processing their queue in order, the estimate overstates the actual age
+ * by at most the interval between two consecutive dispatches.
+ *
+ * @since 3.8.0
+ */
+public final class DispatchStatistics {
+
+    /**
+     * The window over which the throughput of subscribers is computed.
+     */
+    public static final Duration THROUGHPUT_WINDOW = Duration.ofSeconds(60);
+
+    private final Map<String, AtomicInteger> queuedCounts = new ConcurrentHashMap<>();
+    private final AtomicInteger queued = new AtomicInteger();
+    private final AtomicLong headEnqueuedAtNanos = new AtomicLong(Long.MIN_VALUE);
+    private final Map<String, ThroughputWindow> throughputWindows = new ConcurrentHashMap<>();
+    private final LongSupplier nanoClock;
+
+    public DispatchStatistics() {
+        this(System::nanoTime);
+    }
+
+    DispatchStatistics(final LongSupplier nanoClock) {
+        this.nanoClock = nanoClock;
+    }
+
+    /**
+     * Records a dispatch being queued.
+     * @param type the name of the event or notification type being dispatched
+     * @return the time the dispatch was enqueued at, to pass to {@link #recordStarted(String, long)}
+     */
+    public long recordEnqueued(final String type) {
+        final long nowNanos = nanoClock.getAsLong();
+        queuedCounts.computeIfAbsent(type, ignored -> new AtomicInteger()).incrementAndGet();
+        if (queued.getAndIncrement() == 0) {
+            headEnqueuedAtNanos.accumulateAndGet(nowNanos, Math::max);
+        }
+        return nowNanos;
+    }
+
+    /**
+     * Records a queued dispatch being started.
+     * @param type the name of the event or notification type being dispatched
+     * @param enqueuedAtNanos the time the dispatch was enqueued at
+     */
+    public void recordStarted(final String type, final long enqueuedAtNanos) {
+        headEnqueuedAtNanos.accumulateAndGet(enqueuedAtNanos, Math::max);
+        recordDequeued(type);
+    }
+
+    /**
+     * Records a queued dispatch being discarded without being started.
+     * @param type the name of the event or notification type being dispatched
+     */
+    public void recordDiscarded(final String type) {
+        recordDequeued(type);
+    }
+
+    private void recordDequeued(final String type) {
+        final AtomicInteger count = queuedCounts.get(type);
+        if (count != null) {
+            count.decrementAndGet();
+        }
+        queued.decrementAndGet();
+    }
+
+    /**
+     * Records a subscriber having processed one or more events or notifications.
+     * @param subscriber the name of the subscriber
+     * @param count the number of processed events or notifications
+     */
+    public void recordProcessed(final String subscriber, final int count) {
+        throughputWindows.computeIfAbsent(subscriber, ignored -> new ThroughputWindow())
+                .add(TimeUnit.NANOSECONDS.toSeconds(nanoClock.getAsLong()), count);
+    }
+
+    /**
+     * @return the number of queued dispatches, by the name of the event or notification type
+     */
+    public Map<String, Integer> getQueuedCounts() {
+        final var counts = new TreeMap<String, Integer>();
+        queuedCounts.forEach((type, count) -> {
+            final int value = count.get();
+            if (value > 0) {
+                counts.put(type, value);
+            }
+        });
+        return counts;
+    }
+
+    /**
+     * @return the estimated age of the oldest queued dispatch, or {@link Duration#ZERO} if none is queued
+     */
+    public Duration getOldestQueuedAge() {
+        final long headNanos = headEnqueuedAtNanos.get();
+        if (queued.get() <= 0 || headNanos == Long.MIN_VALUE) {
+            return Duration.ZERO;
+        }
+        return Duration.ofNanos(Math.max(0, nanoClock.getAsLong() - headNanos));
+    }
+
+    /**
+     * @return the number of events or notifications processed per second over the {@link #THROUGHPUT_WINDOW},
+     * by the name of the subscriber
+     */
+    public Map<String, Double> getThroughput() {
+        final long nowSeconds = TimeUnit.NANOSECONDS.toSeconds(nanoClock.getAsLong());
+        final var throughput = new TreeMap<String, Double>();
+        throughputWindows.forEach((subscriber, window) ->
+                throughput.put(subscriber, (double) window.sum(nowSeconds) / ThroughputWindow.SECONDS));
+        return throughput;
+    }
+
+    /**
+     * Counts events in one-second buckets, each tagged with the second it counts for.
+     * A bucket is reset when it is first used for a new second.
+     */
+    private static final class ThroughputWindow {
+
+        private static final int SECONDS = (int) THROUGHPUT_WINDOW.toSeconds();
+
+        private final AtomicLongArray seconds = new AtomicLongArray(SECONDS);
+        private final AtomicLongArray counts = new AtomicLongArray(SECONDS);
+
+        private ThroughputWindow() {
+            for (int i = 0; i < SECONDS; i++) {
+                seconds.set(i, Long.MIN_VALUE);
+            }
+        }
+
+        private void add(final long nowSeconds, final int count) {
+            final int index = (int) Math.floorMod(nowSeconds, (long) SECONDS);
+            final long second = seconds.get(index);
+            if (second != nowSeconds && seconds.compareAndSet(index, second, nowSeconds)) {
+                // Increments racing with the reset may be lost, which is acceptable for an estimate.
+                counts.set(index, 0);
+            }
+            counts.addAndGet(index, count);
+        }
+
+        private long sum(final long nowSeconds) {
+            long sum = 0;
+            for (int i = 0; i < SECONDS; i++) {
+                final long second = seconds.get(i);
+                if (second > nowSeconds - SECONDS && second <= nowSeconds) {
+                    sum += counts.get(i);
+                }
+            }
+            return sum;
+        }
+
+    }
+
+}
@@ -0,0 +1,132 @@
+/*
+ * This file is part of Alpine.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ * Copyright (c) Steve Springett. All Rights Reserved.
+ */
+package alpine.event.framework;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * An immutable table of {@link SubscriberBinding}s, keyed by the event type they are subscribed to.
+ * <p>
+ * Modifications yield a new table, so that readers never observe a table being modified, and never need
+ * to lock. Subscriptions made on superclasses and interfaces of an event apply to the event as well.
+ * Bindings applicable to a concrete event class are resolved once per table, and memoized.
+ *
+ * @since 3.8.0
+ */
+final class DispatchTable {
+
+    static final DispatchTable EMPTY = new DispatchTable(Map.of());
+
+    private final Map<Class<? extends Event>, List<SubscriberBinding>> subscriptions;
+    private final Map<Class<?>, List<SubscriberBinding>> resolvedBindings = new ConcurrentHashMap<>();
+
+    private DispatchTable(final Map<Class<? extends Event>, List<SubscriberBinding>> subscriptions) {
+        this.subscriptions = subscriptions;
+    }
+
+    /**
+     * Resolves all bindings to inform of an event of the given class. Bindings subscribed to the
+     * class itself come first, followed by those subscribed to its superclasses and interfaces.
+     * Subscribers subscribed to multiple of these types are only included once.
+     * @param eventClass the concrete class of the event
+     * @return the applicable bindings, in order; Never {@code null}
+     */
+    List<SubscriberBinding> lookup(final Class<?> eventClass) {
+        final List<SubscriberBinding> bindings = resolvedBindings.get(eventClass);
+        if (bindings != null) {
+            return bindings;
+        }
+        return resolvedBindings.computeIfAbsent(eventClass, this::resolve);
+    }
+
+    DispatchTable withSubscription(final Class<? extends Event> eventType, final SubscriberBinding binding) {
+        final List<SubscriberBinding> existing = subscriptions.getOrDefault(eventType, List.of());
+        if (existing.stream().anyMatch(candidate -> candidate.getSubscriberClass() == binding.getSubscriberClass())) {
+            return this;
+        }
+        final var bindings = new ArrayList<>(existing);
+        bindings.add(binding);
+        final var modified = new LinkedHashMap<>(subscriptions);
+        modified.put(eventType, List.copyOf(bindings));
+        return new DispatchTable(Collections.unmodifiableMap(modified));
+    }
+
+    DispatchTable withBinding(final SubscriberBinding binding) {
+        final var modified = new LinkedHashMap<Class<? extends Event>, List<SubscriberBinding>>();
+        subscriptions.forEach((eventType, bindings) -> modified.put(eventType, bindings.stream()
+                .map(existing -> existing.getSubscriberClass() == binding.getSubscriberClass() ? binding : existing)
+                .toList()));
+        return new DispatchTable(Collections.unmodifiableMap(modified));
+    }
+
+    DispatchTable withoutSubscriber(final Class<? extends Subscriber> subscriberClass) {
+        final var modified = new LinkedHashMap<Class<? extends Event>, List<SubscriberBinding>>();
+        subscriptions.forEach((eventType, bindings) -> {
+            final List<SubscriberBinding> remaining = bindings.stream()
+                    .filter(binding -> binding.getSubscriberClass() != subscriberClass)
+                    .toList();
+            if (!remaining.isEmpty()) {
+                modified.put(eventType, remaining);
+            }
+        });
+        return new DispatchTable(Collections.unmodifiableMap(modified));
+    }
+
+    private List<SubscriberBinding> resolve(final Class<?> eventClass) {
+        final var bindingsBySubscriber = new LinkedHashMap<Class<? extends Subscriber>, SubscriberBinding>();
+        for (final Class<?> type : typeHierarchy(eventClass)) {
+            for (final SubscriberBinding binding : subscriptions.getOrDefault(type, List.of())) {
+                bindingsBySubscriber.putIfAbsent(binding.getSubscriberClass(), binding);
+            }
+        }
+        return List.copyOf(bindingsBySubscriber.values());
+    }
+
+    /**
+     * @return the class itself, followed by its superclasses, followed by all interfaces it implements
+     */
+    private static Set<Class<?>> typeHierarchy(final Class<?> clazz) {
+        final var types = new LinkedHashSet<Class<?>>();
+        for (Class<?> type = clazz; type != null && type != Object.class; type = type.getSuperclass()) {
+            types.add(type);
+        }
+
+        final Deque<Class<?>> queue = new ArrayDeque<>(types);
+        final var interfaces = new LinkedHashSet<Class<?>>();
+        while (!queue.isEmpty()) {
+            for (final Class<?> iface : queue.poll().getInterfaces()) {
+                if (interfaces.add(iface)) {
+                    queue.add(iface);
+                }
+            }
+        }
+        types.addAll(interfaces);
+        return types;
+    }
+
+}
@@ -0,0 +1,38 @@
+/*
+ * This file is part of Alpine.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ * Copyright (c) Steve Springett. All Rights Reserved.
+ */
+package alpine.event.framework;
+
+import alpine.Config;
+
+/**
+ * The DurableEvent interface defines events that must survive a restart of the application.
+ * <p>
+ * When the outbox of an event service is enabled, durable events are written to the
+ * {@link alpine.model.EventOutboxEntry outbox} upon publishing, and are only removed from
+ * it once all subscribers have been informed. Events that were not processed to completion,
+ * for example because the application was stopped, are replayed on startup. Subscribers of
+ * durable events must thus tolerate being informed of the same event more than once.
+ * <p>
+ * Durable events must be serializable by the {@link EventSerializer} in use.
+ *
+ * @see Config.AlpineKey#EVENT_SERVICE_OUTBOX_ENABLED
+ * @since 3.8.0
+ */
+public interface DurableEvent extends Event {
+}
@@ -35,9 +35,9 @@ public interface Event {
      * The dispath method provides convenience in not having to know (or care) about
      * what {@link IEventService} implementation is used to process an event.
      *
-     * This method supports both {@link EventService} and {@link SingleThreadedEventService}
-     * and may send an event to zero or more of the event services if they have a subscriber
-     * capable of processing the event.
+     * This method supports {@link EventService}, {@link SingleThreadedEventService} and
+     * {@link PartitionedEventService}, and may send an event to zero or more of the event
+     * services if they have a subscriber capable of processing the event.
      *
      * @param event the event to dispatch
      * @since 1.2.0
@@ -52,6 +52,11 @@ public interface Event {
             informed = true;
             SingleThreadedEventService.getInstance().publish(event);
         }
+        // Subscribing creates the PartitionedEventService; Do not create its partitions just to find none.
+        if (PartitionedEventService.isInitialized() && PartitionedEventService.getInstance().hasSubscriptions(event)) {
+            informed = true;
+            PartitionedEventService.getInstance().publish(event);
+        }
         if (!informed) {
             Logger.getLogger(Event.class).debug("No subscribers to inform from event: " + event.getClass().getName());
         }
@@ -61,7 +66,8 @@ public interface Event {
      * This method provides convenience in not having to know (or care) about
      * what {@link IEventService} implementation is used to process an event.
      *
-     * This method supports both {@link EventService} and {@link SingleThreadedEventService}.
+     * This method supports {@link EventService}, {@link SingleThreadedEventService} and
+     * {@link PartitionedEventService}.
      *
      * @param event the event to query
      * @return returns true if event is being processed, false if not
@@ -75,7 +81,8 @@ public interface Event {
      * This method provides convenience in not having to know (or care) about
      * what {@link IEventService} implementation is used to process an event.
      *
-     * This method supports both {@link EventService} and {@link SingleThreadedEventService}.
+     * This method supports {@link EventService}, {@link SingleThreadedEventService} and
+     * {@link PartitionedEventService}.
      *
      * @param chainIdentifier the UUID of the event to query
      * @return returns true if event is being processed, false if not
@@ -88,6 +95,10 @@ public interface Event {
         if (SingleThreadedEventService.getInstance().isEventBeingProcessed(chainIdentifier)) {
             return true;
         }
+        if (PartitionedEventService.isInitialized()
+                && PartitionedEventService.getInstance().isEventBeingProcessed(chainIdentifier)) {
+            return true;
+        }
         return false;
     }
 }
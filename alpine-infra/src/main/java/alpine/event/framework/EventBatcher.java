@@ -0,0 +1,126 @@
+/*
+ * This file is part of Alpine.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ * Copyright (c) Steve Springett. All Rights Reserved.
+ */
+package alpine.event.framework;
+
+import alpine.common.logging.Logger;
+import org.apache.commons.lang3.concurrent.BasicThreadFactory;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+
+/**
+ * Accumulates events for a {@link BatchSubscriber}, and hands them off once the
+ * maximum batch size or linger time declared by its {@link BatchOptions} is reached.
+ *
+ * @since 3.8.0
+ */
+final class EventBatcher {
+
+    private static final Logger LOGGER = Logger.getLogger(EventBatcher.class);
+
+    /**
+     * Lazily initialized scheduler for linger timeouts, shared among all batchers.
+     */
+    private static final class SchedulerHolder {
+        private static final ScheduledExecutorService SCHEDULER = Executors.newSingleThreadScheduledExecutor(
+                new BasicThreadFactory.Builder()
+                        .namingPattern("Alpine-EventBatcher-%d")
+                        .uncaughtExceptionHandler(new LoggableUncaughtExceptionHandler())
+                        .daemon(true)
+                        .build());
+    }
+
+    private final int maxSize;
+    private final long maxLingerMillis;
+    private final Function<List<Event>, PublishStatus> dispatcher;
+    private final ReentrantLock lock = new ReentrantLock();
+    private List<Event> buffer = new ArrayList<>();
+    private ScheduledFuture<?> lingerFuture;
+
+    EventBatcher(final BatchOptions options, final Function<List<Event>, PublishStatus> dispatcher) {
+        this.maxSize = Math.max(1, options.maxSize());
+        this.maxLingerMillis = Math.max(0, options.maxLingerMillis());
+        this.dispatcher = dispatcher;
+    }
+
+    /**
+     * Adds an event to the current batch, and dispatches the batch if it is full.
+     * @param event the event to add
+     * @return the {@link PublishStatus} of the batch if it was dispatched, otherwise {@link PublishStatus#ACCEPTED}
+     */
+    PublishStatus add(final Event event) {
+        final List<Event> batch;
+        lock.lock();
+        try {
+            buffer.add(event);
+            if (buffer.size() >= maxSize) {
+                batch = takeBuffer();
+            } else {
+                batch = null;
+                if (lingerFuture == null) {
+                    lingerFuture = SchedulerHolder.SCHEDULER.schedule(this::flushSafely, maxLingerMillis, TimeUnit.MILLISECONDS);
+                }
+            }
+        } finally {
+            lock.unlock();
+        }
+        return batch != null ? dispatcher.apply(batch) : PublishStatus.ACCEPTED;
+    }
+
+    /**
+     * Dispatches the current batch, if it contains any events.
+     */
+    void flush() {
+        final List<Event> batch;
+        lock.lock();
+        try {
+            batch = buffer.isEmpty() ? null : takeBuffer();
+        } finally {
+            lock.unlock();
+        }
+        if (batch != null) {
+            dispatcher.apply(batch);
+        }
+    }
+
+    private void flushSafely() {
+        try {
+            flush();
+        } catch (RuntimeException e) {
+            LOGGER.error("Failed to dispatch batch of events", e);
+        }
+    }
+
+    private List<Event> takeBuffer() {
+        if (lingerFuture != null) {
+            lingerFuture.cancel(false);
+            lingerFuture = null;
+        }
+        final List<Event> batch = buffer;
+        buffer = new ArrayList<>();
+        return batch;
+    }
+
+}
@@ -0,0 +1,40 @@
+/*
+ * This file is part of Alpine.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ * Copyright (c) Steve Springett. All Rights Reserved.
+ */
+package alpine.event.framework;
+
+/**
+ * Thrown when the event framework is unable to dispatch an event, for example because
+ * a subscriber could not be instantiated, or because the {@link IEventService} of a
+ * {@link ChainLink} could not be resolved.
+ *
+ * @since 3.8.0
+ */
+public class EventDispatchException extends RuntimeException {
+
+    private static final long serialVersionUID = 4377391285683427105L;
+
+    public EventDispatchException(final String message) {
+        super(message);
+    }
+
+    public EventDispatchException(final String message, final Throwable cause) {
+        super(message, cause);
+    }
+
+}
@@ -0,0 +1,441 @@
+/*
+ * This file is part of Alpine.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ * Copyright (c) Steve Springett. All Rights Reserved.
+ */
+package alpine.event.framework;
+
+import alpine.Config;
+import alpine.common.logging.Logger;
+import org.apache.commons.lang3.concurrent.BasicThreadFactory;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Predicate;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+
+/**
+ * Local, append-only write-ahead journal of published events.
+ * <p>
+ * The journal consists of memory-mapped segment files of a fixed size. Every event is written
+ * as an enqueue record when it is published, and an acknowledgement record is written once all
+ * subscribers have been informed of it. Records are checksummed, so that records torn by a crash
+ * are detected. Segments are forced to disk every {@link Config.AlpineKey#EVENT_JOURNAL_SYNC_INTERVAL}
+ * milliseconds, or after every record if the interval is zero or less.
+ * <p>
+ * When the journal is opened, events of previous runs that were not acknowledged are written to a
+ * new segment, and handed to the {@link #setRecoveryHandler(Predicate) recovery handler} for replay.
+ * Events that could not be dispatched can be {@link #release(long) released} to be replayed as well.
+ * Segments are deleted once they, and all segments before them, contain no unacknowledged events.
+ * To keep a few long-running or lost events from retaining all later segments, unacknowledged events
+ * of the oldest segment are carried over into the active segment, once they occupy less than
+ * {@code 1/}{@value #RELOCATION_THRESHOLD} of it and more recent segments exist.
+ * <p>
+ * The journal only guarantees durability for the local node, and is meant for single-node deployments.
+ * Use the {@link EventOutbox} when events must survive the loss of a node.
+ *
+ * @see Config.AlpineKey#EVENT_JOURNAL_ENABLED
+ * @see Config.AlpineKey#EVENT_JOURNAL_SEGMENT_SIZE
+ * @since 3.8.0
+ */
+public final class EventJournal implements Closeable {
+
+    /**
+     * An unacknowledged event recovered from a previous run, or {@link #release(long) released}.
+     * @param sequence the sequence to {@link #acknowledge(long) acknowledge} the event with
+     * @param payload the payload that was {@link #append(byte[]) appended}
+     */
+    public record Entry(long sequence, byte[] payload) {
+    }
+
+    /**
+     * A segment file. Only accessed while holding the journal's monitor.
+     */
+    private static final class Segment {
+
+        private final long index;
+        private final Path path;
+        private MappedByteBuffer buffer;
+        private int outstanding;
+        private long outstandingBytes;
+        private boolean dirty;
+
+        private Segment(final long index, final Path path) {
+            this.index = index;
+            this.path = path;
+        }
+
+    }
+
+    /**
+     * An appended event that is not acknowledged yet, and the segment its enqueue record was written to.
+     */
+    private record Pending(Segment segment, byte[] payload) {
+    }
+
+    private static final Logger LOGGER = Logger.getLogger(EventJournal.class);
+    private static final byte ENQUEUE = 1;
+    private static final byte ACKNOWLEDGE = 2;
+    private static final int LENGTH_AND_CHECKSUM_SIZE = Integer.BYTES * 2;
+    private static final int RECORD_HEADER_SIZE = Byte.BYTES + Long.BYTES;
+    private static final String SEGMENT_PREFIX = "segment-";
+    private static final String SEGMENT_SUFFIX = ".journal";
+    private static final long RECOVERY_INTERVAL_MILLIS = 1000;
+    static final int RELOCATION_THRESHOLD = 4;
+
+    private final Path directory;
+    private final int segmentSize;
+    private final boolean syncEveryRecord;
+    private final Deque<Segment> segments = new ArrayDeque<>();
+    private final Map<Long, Pending> unacknowledged = new HashMap<>();
+    private final List<Entry> recovered = new ArrayList<>();
+    private final ScheduledExecutorService scheduler;
+    private volatile Predicate<Entry> recoveryHandler;
+    private long nextSequence;
+    private boolean closed;
+
+    EventJournal(final Path directory, final int segmentSize, final long syncIntervalMillis) throws IOException {
+        this.directory = directory;
+        this.segmentSize = segmentSize;
+        this.syncEveryRecord = syncIntervalMillis <= 0;
+        Files.createDirectories(directory);
+        recover();
+
+        final var threadFactory = new BasicThreadFactory.Builder()
+                .uncaughtExceptionHandler(new LoggableUncaughtExceptionHandler())
+                .namingPattern("Alpine-EventJournal-%d")
+                .daemon(true)
+                .build();
+        scheduler = Executors.newSingleThreadScheduledExecutor(threadFactory);
+        final long interval = syncEveryRecord ? RECOVERY_INTERVAL_MILLIS : syncIntervalMillis;
+        scheduler.scheduleWithFixedDelay(this::tick, interval, interval, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Opens the journal with the given name, located in the {@code journal} directory
+     * of the {@link Config#getDataDirectorty() data directory}.
+     * @param name the name of the journal, typically the name of the service using it
+     * @return the opened {@link EventJournal}
+     * @throws IOException when the journal can not be opened
+     */
+    public static EventJournal open(final String name) throws IOException {
+        final Config config = Config.getInstance();
+        return new EventJournal(config.getDataDirectorty().toPath().resolve("journal").resolve(name),
+                config.getPropertyAsInt(Config.AlpineKey.EVENT_JOURNAL_SEGMENT_SIZE),
+                config.getPropertyAsLong(Config.AlpineKey.EVENT_JOURNAL_SYNC_INTERVAL));
+    }
+
+    /**
+     * Sets the handler that unacknowledged events of previous runs, and released events, are replayed with. Entries are
+     * offered to the handler periodically, until it accepts them by returning {@code true}.
+     * Accepted entries must eventually be {@link #acknowledge(long) acknowledged}.
+     * @param recoveryHandler the handler to replay recovered events with
+     */
+    public void setRecoveryHandler(final Predicate<Entry> recoveryHandler) {
+        this.recoveryHandler = recoveryHandler;
+    }
+
+    /**
+     * Appends an event to the journal.
+     * @param payload the serialized event
+     * @return the sequence to {@link #acknowledge(long) acknowledge} the event with
+     * @throws IOException when the journal can not be written to
+     * @throws IllegalArgumentException when the payload does not fit into a segment
+     */
+    public synchronized long append(final byte[] payload) throws IOException {
+        if (LENGTH_AND_CHECKSUM_SIZE + RECORD_HEADER_SIZE + payload.length > segmentSize) {
+            throw new IllegalArgumentException("Payload of " + payload.length
+                    + " bytes exceeds the segment size of " + segmentSize + " bytes");
+        }
+        final long sequence = nextSequence++;
+        unacknowledged.put(sequence, enqueue(sequence, payload));
+        try {
+            relocate();
+        } catch (IOException e) {
+            LOGGER.warn("Failed to carry unacknowledged events over from the oldest segment of " + directory, e);
+        }
+        return sequence;
+    }
+
+    /**
+     * Acknowledges that all subscribers have been informed of an event.
+     * @param sequence the sequence returned by {@link #append(byte[])}
+     */
+    public synchronized void acknowledge(final long sequence) {
+        final Pending pending = unacknowledged.remove(sequence);
+        if (pending == null || closed) {
+            return;
+        }
+        final Segment segment = pending.segment();
+        try {
+            write(ACKNOWLEDGE, sequence, new byte[0]);
+        } catch (IOException e) {
+            // The event will be replayed after a restart, which subscribers must tolerate anyway.
+            LOGGER.warn("Failed to write acknowledgement of event " + sequence + " to " + directory, e);
+        }
+        segment.outstanding--;
+        segment.outstandingBytes -= pending.payload().length;
+        compact();
+    }
+
+    /**
+     * Hands an appended event to the {@link #setRecoveryHandler(Predicate) recovery handler} for replay,
+     * typically because it could not be dispatched. The event remains unacknowledged until then.
+     * @param sequence the sequence returned by {@link #append(byte[])}
+     */
+    public synchronized void release(final long sequence) {
+        final Pending pending = unacknowledged.get(sequence);
+        if (pending == null || closed) {
+            return;
+        }
+        synchronized (recovered) {
+            recovered.add(new Entry(sequence, pending.payload()));
+        }
+    }
+
+    /**
+     * Forces all records written so far to disk.
+     */
+    public synchronized void sync() {
+        final Segment active = segments.peekLast();
+        if (active != null && active.dirty) {
+            active.buffer.force();
+            active.dirty = false;
+        }
+    }
+
+    /**
+     * @return the number of events that were appended, but not acknowledged yet
+     */
+    public synchronized int getUnacknowledgedCount() {
+        return unacknowledged.size();
+    }
+
+    /**
+     * @return the number of segment files currently in use
+     */
+    synchronized int getSegmentCount() {
+        return segments.size();
+    }
+
+    /**
+     * Stops replaying recovered events, and forces all records written so far to disk.
+     * Events that are not acknowledged yet are replayed when the journal is opened again.
+     */
+    @Override
+    public synchronized void close() {
+        if (closed) {
+            return;
+        }
+        scheduler.shutdownNow();
+        sync();
+        closed = true;
+    }
+
+    private Pending enqueue(final long sequence, final byte[] payload) throws IOException {
+        final Segment segment = write(ENQUEUE, sequence, payload);
+        segment.outstanding++;
+        segment.outstandingBytes += payload.length;
+        return new Pending(segment, payload);
+    }
+
+    private Segment write(final byte type, final long sequence, final byte[] payload) throws IOException {
+        if (closed) {
+            throw new IOException("Journal " + directory + " is closed");
+        }
+        final int length = RECORD_HEADER_SIZE + payload.length;
+        Segment segment = segments.peekLast();
+        if (segment == null || segment.buffer.remaining() < LENGTH_AND_CHECKSUM_SIZE + length) {
+            segment = roll();
+        }
+
+        final MappedByteBuffer buffer = segment.buffer;
+        final int position = buffer.position();
+        buffer.position(position + LENGTH_AND_CHECKSUM_SIZE);
+        buffer.put(type);
+        buffer.putLong(sequence);
+        buffer.put(payload);
+        final var checksum = new CRC32();
+        checksum.update(buffer.slice(position + LENGTH_AND_CHECKSUM_SIZE, length));
+        buffer.putInt(position + Integer.BYTES, (int) checksum.getValue());
+        buffer.putInt(position, length);
+
+        if (syncEveryRecord) {
+            buffer.force();
+        } else {
+            segment.dirty = true;
+        }
+        return segment;
+    }
+
+    private Segment roll() throws IOException {
+        final Segment previous = segments.peekLast();
+        if (previous != null) {
+            previous.buffer.force();
+            previous.buffer = null; // Let the mapping be released
+        }
+        final Segment segment = createSegment(previous != null ? previous.index + 1 : 0);
+        segments.addLast(segment);
+        return segment;
+    }
+
+    private Segment createSegment(final long index) throws IOException {
+        final var segment = new Segment(index, directory.resolve(SEGMENT_PREFIX + "%020d".formatted(index) + SEGMENT_SUFFIX));
+        try (final FileChannel channel = FileChannel.open(segment.path, StandardOpenOption.CREATE_NEW,
+                StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            segment.buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, segmentSize);
+        }
+        return segment;
+    }
+
+    private void compact() {
+        while (segments.size() > 1 && segments.peekFirst().outstanding == 0) {
+            final Segment segment = segments.pollFirst();
+            try {
+                Files.deleteIfExists(segment.path);
+            } catch (IOException e) {
+                LOGGER.warn("Failed to delete fully acknowledged journal segment " + segment.path, e);
+            }
+        }
+    }
+
+    /**
+     * Carries the unacknowledged events of the oldest segment over into the active segment, keeping their
+     * sequences, if they occupy only a small part of it, so that the oldest segment can be deleted.
+     * Should the journal crash before, replaying the segments yields the same events.
+     */
+    private void relocate() throws IOException {
+        final Segment oldest = segments.peekFirst();
+        if (segments.size() <= 2 || oldest.outstanding == 0
+                || oldest.outstandingBytes >= segmentSize / RELOCATION_THRESHOLD) {
+            return;
+        }
+        for (final Map.Entry<Long, Pending> entry : unacknowledged.entrySet()) {
+            if (entry.getValue().segment() == oldest) {
+                final byte[] payload = entry.getValue().payload();
+                entry.setValue(enqueue(entry.getKey(), payload));
+                oldest.outstanding--;
+                oldest.outstandingBytes -= payload.length;
+            }
+        }
+        // The relocated records must be durable before the segment holding them before is deleted.
+        segments.peekLast().buffer.force();
+        compact();
+    }
+
+    /**
+     * Reads the segments of previous runs, and carries unacknowledged events over into a new segment.
+     */
+    private synchronized void recover() throws IOException {
+        final List<Path> previousSegments;
+        try (final Stream<Path> files = Files.list(directory)) {
+            previousSegments = files
+                    .filter(path -> path.getFileName().toString().startsWith(SEGMENT_PREFIX))
+                    .filter(path -> path.getFileName().toString().endsWith(SEGMENT_SUFFIX))
+                    .sorted()
+                    .toList();
+        }
+
+        final var pending = new LinkedHashMap<Long, byte[]>();
+        long lastIndex = -1;
+        for (final Path path : previousSegments) {
+            readSegment(path, pending);
+            final String fileName = path.getFileName().toString();
+            lastIndex = Math.max(lastIndex, Long.parseLong(fileName.substring(SEGMENT_PREFIX.length(),
+                    fileName.length() - SEGMENT_SUFFIX.length())));
+        }
+
+        segments.addLast(createSegment(lastIndex + 1));
+        for (final byte[] payload : pending.values()) {
+            final long sequence = append(payload);
+            recovered.add(new Entry(sequence, payload));
+        }
+        segments.peekLast().buffer.force();
+        for (final Path path : previousSegments) {
+            Files.delete(path);
+        }
+        if (!recovered.isEmpty()) {
+            LOGGER.info("Recovered " + recovered.size() + " unacknowledged events from " + directory);
+        }
+    }
+
+    private void readSegment(final Path path, final Map<Long, byte[]> pending) throws IOException {
+        final MappedByteBuffer buffer;
+        try (final FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+        while (buffer.remaining() >= LENGTH_AND_CHECKSUM_SIZE) {
+            final int position = buffer.position();
+            final int length = buffer.getInt();
+            final int expectedChecksum = buffer.getInt();
+            if (length < RECORD_HEADER_SIZE || length > buffer.remaining()) {
+                break; // End of the segment
+            }
+            final var checksum = new CRC32();
+            checksum.update(buffer.slice(position + LENGTH_AND_CHECKSUM_SIZE, length));
+            if ((int) checksum.getValue() != expectedChecksum) {
+                LOGGER.warn("Ignoring torn record at offset " + position + " of journal segment " + path);
+                break;
+            }
+            final byte type = buffer.get();
+            final long sequence = buffer.getLong();
+            nextSequence = Math.max(nextSequence, sequence + 1);
+            if (type == ENQUEUE) {
+                final var payload = new byte[length - RECORD_HEADER_SIZE];
+                buffer.get(payload);
+                pending.put(sequence, payload);
+            } else {
+                pending.remove(sequence);
+            }
+        }
+    }
+
+    private void tick() {
+        sync();
+        final Predicate<Entry> handler = recoveryHandler;
+        if (handler == null) {
+            return;
+        }
+        final List<Entry> entries;
+        synchronized (recovered) {
+            entries = List.copyOf(recovered);
+        }
+        for (final Entry entry : entries) {
+            if (handler.test(entry)) {
+                synchronized (recovered) {
+                    recovered.remove(entry);
+                }
+            }
+        }
+    }
+
+}
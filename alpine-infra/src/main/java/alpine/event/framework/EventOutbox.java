@@ -0,0 +1,312 @@
+/*
+ * This file is part of Alpine.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ * Copyright (c) Steve Springett. All Rights Reserved.
+ */
+package alpine.event.framework;
+
+import alpine.Config;
+import alpine.common.logging.Logger;
+import alpine.model.EventOutboxEntry;
+import alpine.persistence.AlpineQueryManager;
+import org.apache.commons.lang3.concurrent.BasicThreadFactory;
+
+import java.io.IOException;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+/**
+ * Durable outbox of an event service.
+ * <p>
+ * {@link DurableEvent}s published to the event service are written to the {@link EventOutboxEntry outbox}
+ * table, rather than being dispatched to subscribers right away. A relay periodically claims batches
+ * of entries, and dispatches their events. Entries are deleted once all subscribers have been informed.
+ * <p>
+ * Claims are held by the {@link Config#getSystemUuid() system ID} of the instance. On startup, the relay
+ * releases all claims it held before, so that events that were not processed to completion are replayed.
+ * Claims of other instances are considered abandoned after {@link Config.AlpineKey#EVENT_SERVICE_OUTBOX_CLAIM_TIMEOUT}
+ * milliseconds. The relay never claims entries it holds a claim on already; Entries of events discarded due to
+ * queue overflow are released instead, and claimed again during the next poll. Entries of events without
+ * subscribers are released up to {@value #MAX_UNSUBSCRIBED_ATTEMPTS} times, giving the application the opportunity
+ * to subscribe to them, and deleted afterwards.
+ *
+ * @see Config.AlpineKey#EVENT_SERVICE_OUTBOX_ENABLED
+ * @see Config.AlpineKey#EVENT_SERVICE_OUTBOX_BATCH_SIZE
+ * @see Config.AlpineKey#EVENT_SERVICE_OUTBOX_POLL_INTERVAL
+ * @since 3.8.0
+ */
+public final class EventOutbox {
+
+    private static final Logger LOGGER = Logger.getLogger(EventOutbox.class);
+    static final int MAX_UNSUBSCRIBED_ATTEMPTS = 3;
+
+    private final BaseEventService eventService;
+    private final String eventServiceName;
+    private final Supplier<AlpineQueryManager> qmSupplier;
+    private final EventSerializer serializer;
+    private final String claimant;
+    private final int batchSize;
+    private final long pollIntervalMillis;
+    private final long claimTimeoutMillis;
+    private final Queue<Long> acknowledgedIds = new ConcurrentLinkedQueue<>();
+    private final Queue<Long> releasedIds = new ConcurrentLinkedQueue<>();
+    private final AtomicBoolean pollRequested = new AtomicBoolean();
+    private final Lock pollLock = new ReentrantLock();
+    private volatile ScheduledExecutorService relayExecutor;
+    private boolean previousClaimsReleased; // Only accessed while holding the poll lock
+
+    EventOutbox(final BaseEventService eventService, final Supplier<AlpineQueryManager> qmSupplier,
+                final EventSerializer serializer, final String claimant, final int batchSize,
+                final long pollIntervalMillis, final long claimTimeoutMillis) {
+        this.eventService = eventService;
+        this.eventServiceName = eventService.getClass().getName();
+        this.qmSupplier = qmSupplier;
+        this.serializer = serializer;
+        this.claimant = claimant;
+        this.batchSize = Math.max(1, batchSize);
+        this.pollIntervalMillis = Math.max(1, pollIntervalMillis);
+        this.claimTimeoutMillis = claimTimeoutMillis;
+    }
+
+    /**
+     * Creates an outbox for the specified event service, as configured.
+     * @param eventService the event service to relay events to
+     * @return a new {@link EventOutbox}
+     */
+    public static EventOutbox fromConfig(final BaseEventService eventService) {
+        final Config config = Config.getInstance();
+        return new EventOutbox(eventService, AlpineQueryManager::new, EventSerializer.getInstance(), config.getSystemUuid(),
+                config.getPropertyAsInt(Config.AlpineKey.EVENT_SERVICE_OUTBOX_BATCH_SIZE),
+                config.getPropertyAsLong(Config.AlpineKey.EVENT_SERVICE_OUTBOX_POLL_INTERVAL),
+                config.getPropertyAsLong(Config.AlpineKey.EVENT_SERVICE_OUTBOX_CLAIM_TIMEOUT));
+    }
+
+    /**
+     * Starts relaying events. The first batch of events is claimed after one poll interval,
+     * giving the application the opportunity to subscribe to all events during startup.
+     */
+    public synchronized void start() {
+        if (relayExecutor != null) {
+            return;
+        }
+        final var threadFactory = new BasicThreadFactory.Builder()
+                .uncaughtExceptionHandler(new LoggableUncaughtExceptionHandler())
+                .namingPattern("Alpine-EventOutboxRelay-%d")
+                .daemon(true)
+                .build();
+        final ScheduledExecutorService executor = Executors.newSingleThreadScheduledExecutor(threadFactory);
+        executor.scheduleWithFixedDelay(this::pollUntilDrained, pollIntervalMillis, pollIntervalMillis, TimeUnit.MILLISECONDS);
+        relayExecutor = executor;
+    }
+
+    /**
+     * Stops relaying events, and deletes the entries of all events processed so far.
+     * Events that are still being processed will be replayed when the outbox is started again.
+     */
+    public synchronized void close() {
+        if (relayExecutor != null) {
+            relayExecutor.shutdownNow();
+            relayExecutor = null;
+        }
+        flushAcknowledgements();
+    }
+
+    /**
+     * Writes an event to the outbox, using the given {@link AlpineQueryManager}. If a transaction is
+     * active, the event is written as part of it, and will only be relayed if the transaction commits.
+     * @param qm the {@link AlpineQueryManager} to use
+     * @param event the event to write
+     * @return the created {@link EventOutboxEntry}
+     * @throws EventDispatchException when the event can not be serialized
+     */
+    public EventOutboxEntry append(final AlpineQueryManager qm, final Event event) {
+        final byte[] payload;
+        try {
+            payload = serializer.serialize(event);
+        } catch (IOException e) {
+            throw new EventDispatchException("Unable to serialize event " + event.getClass().getName(), e);
+        }
+        final EventOutboxEntry entry = qm.createEventOutboxEntry(eventServiceName, event.getClass().getName(), payload);
+        requestPoll();
+        return entry;
+    }
+
+    /**
+     * Writes an event to the outbox, in a separate transaction.
+     * @param event the event to write
+     * @return {@code true} when the event was written, {@code false} when it must be dispatched in-memory instead
+     */
+    boolean append(final Event event) {
+        try (final AlpineQueryManager qm = qmSupplier.get()) {
+            append(qm, event);
+            return true;
+        } catch (RuntimeException e) {
+            LOGGER.error("Unable to write " + event.getClass().getName() + " to the outbox of "
+                    + eventServiceName + "; Dispatching it without durability guarantees", e);
+            return false;
+        }
+    }
+
+    /**
+     * Marks the entry of an event as processed. Entries are deleted in batches, during the next poll.
+     * @param entryId the ID of the {@link EventOutboxEntry}
+     */
+    void acknowledge(final long entryId) {
+        acknowledgedIds.add(entryId);
+    }
+
+    /**
+     * Marks the entry of an event to be relayed again. Claims are released in batches, during the next poll.
+     * @param entryId the ID of the {@link EventOutboxEntry}
+     */
+    void release(final long entryId) {
+        releasedIds.add(entryId);
+    }
+
+    private void requestPoll() {
+        final ScheduledExecutorService executor = relayExecutor;
+        if (executor == null || !pollRequested.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            executor.execute(() -> {
+                pollRequested.set(false);
+                pollUntilDrained();
+            });
+        } catch (RejectedExecutionException e) {
+            pollRequested.set(false);
+        }
+    }
+
+    private void pollUntilDrained() {
+        // Stop when events were discarded, so that they are only claimed again after the poll interval.
+        while (poll() == batchSize && releasedIds.isEmpty() && !Thread.currentThread().isInterrupted()) {
+            LOGGER.debug("Claimed a full batch of events from the outbox of " + eventServiceName + "; Polling again");
+        }
+    }
+
+    /**
+     * Deletes the entries of processed events and releases the entries of discarded events,
+     * then claims and dispatches a batch of events.
+     * @return the number of claimed events
+     */
+    int poll() {
+        pollLock.lock();
+        try (final AlpineQueryManager qm = qmSupplier.get()) {
+            flushAcknowledgements(qm);
+            flushReleases(qm);
+            if (!previousClaimsReleased) {
+                final int released = qm.releaseEventOutboxEntries(eventServiceName, claimant);
+                if (released > 0) {
+                    LOGGER.info("Replaying " + released + " unfinished events from the outbox of " + eventServiceName);
+                }
+                previousClaimsReleased = true;
+            }
+            final var claimExpiry = new Timestamp(System.currentTimeMillis() - claimTimeoutMillis);
+            final List<EventOutboxEntry> entries = qm.claimEventOutboxEntries(eventServiceName, claimant, batchSize, claimExpiry);
+            for (final EventOutboxEntry entry : entries) {
+                relay(entry);
+            }
+            return entries.size();
+        } catch (RuntimeException e) {
+            LOGGER.error("Failed to relay events from the outbox of " + eventServiceName, e);
+            return 0;
+        } finally {
+            pollLock.unlock();
+        }
+    }
+
+    private void relay(final EventOutboxEntry entry) {
+        final Event event;
+        try {
+            event = serializer.deserialize(entry.getEventClass(), entry.getPayload());
+        } catch (IOException | RuntimeException e) {
+            LOGGER.error("Unable to deserialize event " + entry.getId() + " of type " + entry.getEventClass()
+                    + "; It will be relayed again by another instance once its claim expired, or after a restart", e);
+            return;
+        }
+        if (!eventService.hasSubscriptions(event)) {
+            // Events are only written to the outbox when they have subscribers,
+            // so the application likely did not finish subscribing yet.
+            if (entry.getAttempts() < MAX_UNSUBSCRIBED_ATTEMPTS) {
+                LOGGER.debug("No subscribers to inform from event " + entry.getId() + " of type " + entry.getEventClass()
+                        + "; It will be relayed again during the next poll");
+                release(entry.getId());
+            } else {
+                LOGGER.warn("No subscribers to inform from event " + entry.getId() + " of type " + entry.getEventClass()
+                        + " after " + entry.getAttempts() + " attempts; Discarding it");
+                acknowledge(entry.getId());
+            }
+            return;
+        }
+        eventService.publishDurably(event, () -> acknowledge(entry.getId()), () -> release(entry.getId()));
+    }
+
+    /**
+     * Deletes the entries of all events processed so far.
+     */
+    void flushAcknowledgements() {
+        if (acknowledgedIds.isEmpty()) {
+            return;
+        }
+        try (final AlpineQueryManager qm = qmSupplier.get()) {
+            flushAcknowledgements(qm);
+        } catch (RuntimeException e) {
+            LOGGER.error("Failed to delete processed events from the outbox of " + eventServiceName, e);
+        }
+    }
+
+    private void flushAcknowledgements(final AlpineQueryManager qm) {
+        final List<Long> ids = drain(acknowledgedIds);
+        try {
+            qm.deleteEventOutboxEntries(ids);
+        } catch (RuntimeException e) {
+            acknowledgedIds.addAll(ids);
+            throw e;
+        }
+    }
+
+    private void flushReleases(final AlpineQueryManager qm) {
+        final List<Long> ids = drain(releasedIds);
+        try {
+            qm.releaseEventOutboxEntries(ids);
+        } catch (RuntimeException e) {
+            releasedIds.addAll(ids);
+            throw e;
+        }
+    }
+
+    private static List<Long> drain(final Queue<Long> queue) {
+        final var ids = new ArrayList<Long>();
+        Long id;
+        while ((id = queue.poll()) != null) {
+            ids.add(id);
+        }
+        return ids;
+    }
+
+}
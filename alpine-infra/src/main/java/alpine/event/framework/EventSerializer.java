@@ -0,0 +1,59 @@
+/*
+ * This file is part of Alpine.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ * Copyright (c) Steve Springett. All Rights Reserved.
+ */
+package alpine.event.framework;
+
+import java.io.IOException;
+import java.util.ServiceLoader;
+
+/**
+ * Converts {@link DurableEvent}s to and from the payload stored in the event outbox.
+ * <p>
+ * Serializers must be deployed as service providers in order to be discoverable.
+ * Refer to the {@link java.util.ServiceLoader} documentation for details.
+ * If no serializer is provided, {@link JavaEventSerializer} is used.
+ *
+ * @since 3.8.0
+ */
+public interface EventSerializer {
+
+    /**
+     * Serializes an event.
+     * @param event the event to serialize
+     * @return the serialized event
+     * @throws IOException when the event can not be serialized
+     */
+    byte[] serialize(Event event) throws IOException;
+
+    /**
+     * Deserializes an event.
+     * @param eventClass the name of the class of the serialized event
+     * @param payload the serialized event, as returned by {@link #serialize(Event)}
+     * @return the deserialized event
+     * @throws IOException when the payload can not be deserialized
+     */
+    Event deserialize(String eventClass, byte[] payload) throws IOException;
+
+    /**
+     * @return the first {@link EventSerializer} service provider, or a {@link JavaEventSerializer}
+     */
+    static EventSerializer getInstance() {
+        return ServiceLoader.load(EventSerializer.class).findFirst().orElseGet(JavaEventSerializer::new);
+    }
+
+}
@@ -18,11 +18,17 @@
  */
 package alpine.event.framework;
 
+import alpine.Config;
+import alpine.cluster.ClusterLeaseManager;
 import alpine.common.logging.Logger;
 import alpine.common.metrics.Metrics;
+import alpine.common.metrics.VirtualThreadPinningMonitor;
 import alpine.common.util.ThreadUtil;
+import alpine.common.util.VirtualThreadExecutorService;
 import org.apache.commons.lang3.concurrent.BasicThreadFactory;
 
+import java.io.IOException;
+import java.time.Duration;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.LinkedBlockingQueue;
 import java.util.concurrent.ThreadPoolExecutor;
@@ -33,9 +39,21 @@ import java.util.concurrent.TimeUnit;
  * asynchronously inform all subscribers to subscribed events.
  *
  * This class will use a configurable number of worker threads when processing events.
+ * Alternatively, events can be processed on virtual threads, with a configurable number
+ * of events being processed concurrently.
  *
  * @see alpine.Config.AlpineKey#WORKER_THREADS
  * @see alpine.Config.AlpineKey#WORKER_THREAD_MULTIPLIER
+ * @see alpine.Config.AlpineKey#WORKER_THREAD_MODE
+ * @see alpine.Config.AlpineKey#WORKER_VIRTUAL_THREAD_CONCURRENCY
+ * @see alpine.Config.AlpineKey#WORKER_POOL_ADAPTIVE
+ * @see alpine.Config.AlpineKey#EVENT_SERVICE_QUEUE_CAPACITY
+ * @see alpine.Config.AlpineKey#EVENT_SERVICE_OVERFLOW_POLICY
+ * @see alpine.Config.AlpineKey#EVENT_SERVICE_OUTBOX_ENABLED
+ * @see alpine.Config.AlpineKey#EVENT_JOURNAL_ENABLED
+ * @see alpine.Config.AlpineKey#EVENT_SUBSCRIBER_TIMEOUT
+ * @see alpine.Config.AlpineKey#EVENT_SUBSCRIBER_BULKHEADS
+ * @see alpine.Config.AlpineKey#CLUSTER_ENABLED
  * @see ThreadUtil#determineNumberOfWorkerThreads()
  *
  * @author Steve Springett
@@ -49,16 +67,50 @@ public final class EventService extends BaseEventService {
     private static final String EXECUTOR_NAME = "Alpine-EventService";
 
     static {
-        BasicThreadFactory factory = new BasicThreadFactory.Builder()
-                .namingPattern(EXECUTOR_NAME + "-%d")
-                .uncaughtExceptionHandler(new LoggableUncaughtExceptionHandler())
-                .build();
         final int threadPoolSize = ThreadUtil.determineNumberOfWorkerThreads();
-        EXECUTOR = new ThreadPoolExecutor(threadPoolSize, threadPoolSize, 0L, TimeUnit.MILLISECONDS,
-                new LinkedBlockingQueue<>(), factory);
+        final int queueCapacity = QueueAdmission.determineQueueCapacity(Config.AlpineKey.EVENT_SERVICE_QUEUE_CAPACITY);
+        if (ThreadUtil.isVirtualThreadModeEnabled()) {
+            EXECUTOR = new VirtualThreadExecutorService(EXECUTOR_NAME,
+                    ThreadUtil.determineVirtualThreadConcurrency(threadPoolSize), queueCapacity,
+                    new LoggableUncaughtExceptionHandler());
+            VirtualThreadPinningMonitor.start();
+        } else {
+            BasicThreadFactory factory = new BasicThreadFactory.Builder()
+                    .namingPattern(EXECUTOR_NAME + "-%d")
+                    .uncaughtExceptionHandler(new LoggableUncaughtExceptionHandler())
+                    .build();
+            final var threadPoolExecutor = new ThreadPoolExecutor(threadPoolSize, threadPoolSize, 0L, TimeUnit.MILLISECONDS,
+                    new LinkedBlockingQueue<>(queueCapacity), factory);
+            if (Config.getInstance().getPropertyAsBoolean(Config.AlpineKey.WORKER_POOL_ADAPTIVE)) {
+                final AdaptivePoolSizer poolSizer = AdaptivePoolSizer.fromConfig(EXECUTOR_NAME, threadPoolExecutor);
+                INSTANCE.setPoolSizer(poolSizer);
+                poolSizer.start(Duration.ofMillis(Config.getInstance().getPropertyAsLong(Config.AlpineKey.WORKER_POOL_ADJUSTMENT_INTERVAL)));
+            }
+            EXECUTOR = threadPoolExecutor;
+        }
         INSTANCE.setExecutorService(EXECUTOR);
+        INSTANCE.setQueueAdmission(QueueAdmission.fromConfig(EXECUTOR_NAME,
+                Config.AlpineKey.EVENT_SERVICE_OVERFLOW_POLICY, Config.AlpineKey.EVENT_SERVICE_OVERFLOW_TIMEOUT));
         INSTANCE.setLogger(LOGGER);
+        INSTANCE.setSubscriberTimeout(Duration.ofMillis(Config.getInstance().getPropertyAsLong(Config.AlpineKey.EVENT_SUBSCRIBER_TIMEOUT)));
+        INSTANCE.setDeadLetterStore(DeadLetterStore.getInstance());
+        INSTANCE.setBulkheads(EXECUTOR_NAME, queueCapacity, Config.getInstance().getPropertyAsList(Config.AlpineKey.EVENT_SUBSCRIBER_BULKHEADS));
         Metrics.registerExecutorService(EXECUTOR, EXECUTOR_NAME);
+        if (Config.getInstance().getPropertyAsBoolean(Config.AlpineKey.EVENT_SERVICE_OUTBOX_ENABLED)) {
+            final EventOutbox outbox = EventOutbox.fromConfig(INSTANCE);
+            INSTANCE.setOutbox(outbox);
+            outbox.start();
+        } else if (Config.getInstance().getPropertyAsBoolean(Config.AlpineKey.EVENT_JOURNAL_ENABLED)) {
+            try {
+                INSTANCE.setJournal(EventJournal.open(EXECUTOR_NAME));
+            } catch (IOException e) {
+                LOGGER.error("Unable to open the event journal; Events will be dispatched without durability guarantees", e);
+            }
+        }
+        if (Config.getInstance().getPropertyAsBoolean(Config.AlpineKey.CLUSTER_ENABLED)) {
+            INSTANCE.setClusterBridge(ClusterEventBridge.getInstance());
+            INSTANCE.setLeaseManager(ClusterLeaseManager.getInstance());
+        }
     }
 
     /**
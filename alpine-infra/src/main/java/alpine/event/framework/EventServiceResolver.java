@@ -0,0 +1,64 @@
+/*
+ * This file is part of Alpine.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ * Copyright (c) Steve Springett. All Rights Reserved.
+ */
+package alpine.event.framework;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+
+/**
+ * Resolves {@link IEventService} implementations referenced by {@link ChainLink}s to their
+ * singleton instance. The static {@code getInstance()} method of each implementation is
+ * invoked only once; the instance is cached per class afterward.
+ *
+ * @since 3.8.0
+ */
+final class EventServiceResolver {
+
+    private static final MethodType GET_INSTANCE_TYPE = MethodType.methodType(IEventService.class);
+
+    private static final ClassValue<IEventService> INSTANCES = new ClassValue<>() {
+        @Override
+        protected IEventService computeValue(final Class<?> type) {
+            try {
+                final MethodHandle getInstance = MethodHandles.publicLookup()
+                        .unreflect(type.getMethod("getInstance"))
+                        .asType(GET_INSTANCE_TYPE);
+                return (IEventService) getInstance.invokeExact();
+            } catch (Error e) {
+                throw e;
+            } catch (Throwable e) {
+                throw new EventDispatchException("Unable to resolve the instance of event service " + type.getName(), e);
+            }
+        }
+    };
+
+    private EventServiceResolver() {
+    }
+
+    /**
+     * @param serviceClass the IEventService implementation to resolve
+     * @return the singleton instance of the IEventService
+     * @throws EventDispatchException when the instance could not be resolved
+     */
+    static IEventService resolve(final Class<? extends IEventService> serviceClass) {
+        return INSTANCES.get(serviceClass);
+    }
+
+}
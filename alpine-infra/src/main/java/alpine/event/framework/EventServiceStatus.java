@@ -0,0 +1,51 @@
+/*
+ * This file is part of Alpine.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ * Copyright (c) Steve Springett. All Rights Reserved.
+ */
+package alpine.event.framework;
+
+import alpine.common.util.ExecutorUtil.ExecutorStats;
+
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * A point-in-time view of an event or notification service, for troubleshooting purposes.
+ *
+ * @param name                       the name of the service
+ * @param executors                  the stats of the executors the service dispatches on
+ * @param queuedEvents               the number of queued dispatches, by the name of the event or notification type
+ * @param oldestQueuedEventAgeMillis the estimated age of the oldest queued dispatch, in milliseconds
+ * @param inFlightChainCount         the number of event chains being processed
+ * @param inFlightChains             the number of events being processed per chain, limited to
+ *                                   {@value #MAX_REPORTED_CHAINS} chains
+ * @param subscriberThroughput       the number of events or notifications processed per second over the
+ *                                   {@link DispatchStatistics#THROUGHPUT_WINDOW}, by the name of the subscriber
+ * @see DispatchStatistics
+ * @since 3.8.0
+ */
+public record EventServiceStatus(String name, List<ExecutorStats> executors, Map<String, Integer> queuedEvents,
+                                 long oldestQueuedEventAgeMillis, int inFlightChainCount,
+                                 Map<UUID, Integer> inFlightChains, Map<String, Double> subscriberThroughput) {
+
+    /**
+     * The maximum number of chains reported in {@link #inFlightChains()}.
+     */
+    public static final int MAX_REPORTED_CHAINS = 100;
+
+}
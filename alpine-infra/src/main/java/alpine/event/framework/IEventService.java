@@ -19,6 +19,7 @@
 package alpine.event.framework;
 
 import java.time.Duration;
+import java.time.Instant;
 import java.util.UUID;
 
 /**
@@ -34,10 +35,44 @@ public interface IEventService {
      * Publishes events. Published events will get dispatched to all subscribers in the order in which they
      * subscribed. Subscribers are informed asynchronously one after the next.
      * @param event An Event to publish
+     * @return The {@link PublishStatus}, describing whether the event was queued for all subscribers
      *
      * @since 1.2.0
      */
-    void publish(Event event);
+    PublishStatus publish(Event event);
+
+    /**
+     * Publishes an event once a delay has elapsed. Pending events are kept in memory,
+     * and are lost when the application stops.
+     * <p>
+     * The default implementation {@link #publish(Event) publishes} the event once a timer shared by all
+     * event services comes due, on a thread separate from the timer. Implementations should override it to consider pending {@link ChainableEvent}s
+     * to be {@link #isEventBeingProcessed(ChainableEvent) processed}.
+     * @param event An Event to publish
+     * @param delay The {@link Duration} after which to publish the event
+     * @return {@link PublishStatus#ACCEPTED} when the event was scheduled, or {@link PublishStatus#IGNORED}
+     * when it is a singleton event of which another one is already being processed
+     *
+     * @since 3.8.0
+     */
+    default PublishStatus publishDelayed(Event event, Duration delay) {
+        TimingWheel.getInstance().schedule(() -> DeferredPublisher.execute(() -> publish(event)), delay.toMillis());
+        return PublishStatus.ACCEPTED;
+    }
+
+    /**
+     * Publishes an event at a given time. Events scheduled for a time in the past are published right away.
+     * @param event An Event to publish
+     * @param time The {@link Instant} at which to publish the event
+     * @return {@link PublishStatus#ACCEPTED} when the event was scheduled, or {@link PublishStatus#IGNORED}
+     * when it is a singleton event of which another one is already being processed
+     * @see #publishDelayed(Event, Duration)
+     *
+     * @since 3.8.0
+     */
+    default PublishStatus publishAt(Event event, Instant time) {
+        return publishDelayed(event, Duration.between(Instant.now(), time));
+    }
 
     /**
      * Subscribes to an event. Subscribes are automatically notified of all events for which they are
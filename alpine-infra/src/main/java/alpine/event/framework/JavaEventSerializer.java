@@ -0,0 +1,176 @@
+/*
+ * This file is part of Alpine.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ * Copyright (c) Steve Springett. All Rights Reserved.
+ */
+package alpine.event.framework;
+
+import alpine.Config;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InvalidClassException;
+import java.io.NotSerializableException;
+import java.io.ObjectInputFilter;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * An {@link EventSerializer} using Java serialization. Events must implement {@link Serializable}.
+ * <p>
+ * Payloads are read back from the database, or from other nodes of the cluster. To prevent
+ * deserialization gadgets from being instantiated, only the following classes are accepted:
+ * <ul>
+ *     <li>the recorded event class and its superclasses</li>
+ *     <li>classes of Alpine's event framework</li>
+ *     <li>classes in the packages of {@link Config.AlpineKey#EVENT_SERIALIZER_ALLOWED_PACKAGES}</li>
+ *     <li>common value types and collections of {@code java.base}</li>
+ * </ul>
+ * Everything else is rejected, as are object graphs exceeding {@value #MAX_DEPTH} levels,
+ * {@value #MAX_REFERENCES} references, or arrays of more than {@value #MAX_ARRAY_LENGTH} elements.
+ *
+ * @since 3.8.0
+ */
+public final class JavaEventSerializer implements EventSerializer {
+
+    static final int MAX_DEPTH = 20;
+    static final int MAX_REFERENCES = 10_000;
+    static final int MAX_ARRAY_LENGTH = 100_000;
+
+    private static final Set<String> ALLOWED_JAVA_BASE_CLASSES = Set.of(
+            "java.lang.Boolean", "java.lang.Byte", "java.lang.Character", "java.lang.Short",
+            "java.lang.Integer", "java.lang.Long", "java.lang.Float", "java.lang.Double",
+            "java.lang.Object", "java.lang.Number", "java.lang.String", "java.lang.Enum",
+            "java.math.BigDecimal", "java.math.BigInteger",
+            "java.util.UUID", "java.util.Date", "java.sql.Timestamp", "java.util.Map$Entry",
+            "java.util.ArrayList", "java.util.LinkedList", "java.util.ArrayDeque",
+            "java.util.HashMap", "java.util.LinkedHashMap", "java.util.TreeMap",
+            "java.util.HashSet", "java.util.LinkedHashSet", "java.util.TreeSet",
+            "java.util.Collections$EmptyList", "java.util.Collections$EmptyMap", "java.util.Collections$EmptySet",
+            "java.util.Collections$SingletonList", "java.util.Collections$SingletonMap", "java.util.Collections$SingletonSet",
+            "java.util.Collections$UnmodifiableCollection", "java.util.Collections$UnmodifiableList",
+            "java.util.Collections$UnmodifiableRandomAccessList", "java.util.Collections$UnmodifiableMap",
+            "java.util.Collections$UnmodifiableSet", "java.util.CollSer", "java.util.ImmutableCollections$ListN",
+            "java.util.ImmutableCollections$List12", "java.util.ImmutableCollections$SetN",
+            "java.util.ImmutableCollections$Set12", "java.util.ImmutableCollections$MapN",
+            "java.util.ImmutableCollections$Map1", "java.time.Ser", "java.time.Duration", "java.time.Instant");
+    private static final String EVENT_FRAMEWORK_PACKAGE = JavaEventSerializer.class.getPackageName() + ".";
+
+    private final List<String> allowedPackages;
+
+    public JavaEventSerializer() {
+        this(Config.getInstance().getPropertyAsList(Config.AlpineKey.EVENT_SERIALIZER_ALLOWED_PACKAGES));
+    }
+
+    /**
+     * @param allowedPackages the packages, in addition to the event class, of which classes may be deserialized
+     */
+    public JavaEventSerializer(final Collection<String> allowedPackages) {
+        this.allowedPackages = allowedPackages.stream()
+                .map(String::trim)
+                .filter(pkg -> !pkg.isEmpty())
+                .map(pkg -> pkg.endsWith(".") ? pkg : pkg + ".")
+                .toList();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public byte[] serialize(final Event event) throws IOException {
+        if (!(event instanceof Serializable)) {
+            throw new NotSerializableException(event.getClass().getName());
+        }
+        final var baos = new ByteArrayOutputStream();
+        try (final var oos = new ObjectOutputStream(baos)) {
+            oos.writeObject(event);
+        }
+        return baos.toByteArray();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Event deserialize(final String eventClass, final byte[] payload) throws IOException {
+        final Set<String> eventClassHierarchy = resolveHierarchy(eventClass);
+        try (final var ois = new ObjectInputStream(new ByteArrayInputStream(payload))) {
+            ois.setObjectInputFilter(info -> filter(info, eventClass, eventClassHierarchy));
+            final Object object = ois.readObject();
+            if (!(object instanceof Event event)) {
+                throw new InvalidClassException(object.getClass().getName(), "Not an event");
+            }
+            return event;
+        } catch (ClassNotFoundException e) {
+            throw new InvalidClassException(eventClass, "Event class not found");
+        }
+    }
+
+    private ObjectInputFilter.Status filter(final ObjectInputFilter.FilterInfo info, final String eventClass,
+                                            final Set<String> eventClassHierarchy) {
+        if (info.depth() > MAX_DEPTH || info.references() > MAX_REFERENCES || info.arrayLength() > MAX_ARRAY_LENGTH) {
+            return ObjectInputFilter.Status.REJECTED;
+        }
+        Class<?> clazz = info.serialClass();
+        if (clazz == null) {
+            return ObjectInputFilter.Status.UNDECIDED;
+        }
+        if (info.depth() == 1 && !clazz.getName().equals(eventClass)) {
+            return ObjectInputFilter.Status.REJECTED;
+        }
+        while (clazz.isArray()) {
+            clazz = clazz.getComponentType();
+        }
+        return isAllowed(clazz, eventClassHierarchy) ? ObjectInputFilter.Status.ALLOWED : ObjectInputFilter.Status.REJECTED;
+    }
+
+    private boolean isAllowed(final Class<?> clazz, final Set<String> eventClassHierarchy) {
+        final String name = clazz.getName();
+        if (clazz.isPrimitive() || eventClassHierarchy.contains(name) || ALLOWED_JAVA_BASE_CLASSES.contains(name)) {
+            return true;
+        }
+        if (name.startsWith(EVENT_FRAMEWORK_PACKAGE)) {
+            return true;
+        }
+        for (final String allowedPackage : allowedPackages) {
+            if (name.startsWith(allowedPackage)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static Set<String> resolveHierarchy(final String eventClass) throws InvalidClassException {
+        final var hierarchy = new HashSet<String>();
+        hierarchy.add(eventClass);
+        try {
+            Class<?> clazz = Class.forName(eventClass, false, Thread.currentThread().getContextClassLoader());
+            for (clazz = clazz.getSuperclass(); clazz != null && clazz != Object.class; clazz = clazz.getSuperclass()) {
+                hierarchy.add(clazz.getName());
+            }
+        } catch (ClassNotFoundException e) {
+            throw new InvalidClassException(eventClass, "Event class not found");
+        }
+        return hierarchy;
+    }
+
+}
@@ -0,0 +1,64 @@
+/*
+ * This file is part of Alpine.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ * Copyright (c) Steve Springett. All Rights Reserved.
+ */
+package alpine.event.framework;
+
+/**
+ * Defines how a saturated (bounded) event queue deals with newly published events.
+ *
+ * @see QueueAdmission
+ * @since 3.8.0
+ */
+public enum OverflowPolicy {
+
+    /**
+     * Block the publisher until space becomes available, or a timeout elapses.
+     * Events still not queued after the timeout are dropped.
+     */
+    BLOCK,
+
+    /**
+     * Inform the subscriber on the publisher's thread.
+     */
+    CALLER_RUNS,
+
+    /**
+     * Drop the oldest queued event to make room for the new one.
+     */
+    DROP_OLDEST,
+
+    /**
+     * Drop the new event.
+     */
+    DROP_NEWEST,
+
+    /**
+     * Drop the new event, and throw a {@link java.util.concurrent.RejectedExecutionException}.
+     */
+    REJECT;
+
+    /**
+     * @param value Name of the policy, case-insensitive; Dashes may be used in place of underscores
+     * @return The matching {@link OverflowPolicy}
+     * @throws IllegalArgumentException When no policy matches the given value
+     */
+    public static OverflowPolicy of(final String value) {
+        return valueOf(value.trim().toUpperCase().replace('-', '_'));
+    }
+
+}
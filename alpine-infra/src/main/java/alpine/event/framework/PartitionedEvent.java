@@ -0,0 +1,40 @@
+/*
+ * This file is part of Alpine.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ * Copyright (c) Steve Springett. All Rights Reserved.
+ */
+package alpine.event.framework;
+
+/**
+ * The PartitionedEvent interface defines events that must be processed in order, relative
+ * to other events with the same partition key. Events with different partition keys may be
+ * processed concurrently.
+ * <p>
+ * Ordering is only guaranteed for events published to the {@link PartitionedEventService}.
+ *
+ * @since 3.8.0
+ */
+public interface PartitionedEvent extends Event {
+
+    /**
+     * Returns the key determining the partition this event is processed in, for example the
+     * identifier of the entity the event refers to. Keys must implement {@link Object#hashCode()}
+     * consistently with {@link Object#equals(Object)}.
+     * @return the partition key; Events without key are processed in the first partition
+     */
+    Object getPartitionKey();
+
+}
@@ -0,0 +1,147 @@
+/*
+ * This file is part of Alpine.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ * Copyright (c) Steve Springett. All Rights Reserved.
+ */
+package alpine.event.framework;
+
+import alpine.Config;
+import alpine.common.logging.Logger;
+import alpine.common.metrics.Metrics;
+import alpine.common.util.SystemUtil;
+import org.apache.commons.lang3.concurrent.BasicThreadFactory;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * A publish/subscribe (pub/sub) event service that provides the ability to publish events and
+ * asynchronously inform all subscribers to subscribed events.
+ *
+ * This class processes events in a configurable number of partitions, each using a single thread.
+ * {@link PartitionedEvent}s with the same partition key are always processed in the same partition,
+ * and thus in the order in which they were published. Events with different partition keys
+ * are processed in parallel. Events not implementing {@link PartitionedEvent} are processed in
+ * the first partition.
+ *
+ * Use SingleThreadedEventService for an implementation that processes all events in order.
+ *
+ * Failed attempts of subscribers with a {@link RetryPolicy} are retried in place, preserving the
+ * order of events within a partition while holding it for the duration of the backoff.
+ *
+ * @see alpine.Config.AlpineKey#EVENT_SERVICE_PARTITIONS
+ * @see alpine.Config.AlpineKey#EVENT_SUBSCRIBER_TIMEOUT
+ * @since 3.8.0
+ */
+public final class PartitionedEventService extends BaseEventService {
+
+    private static final Logger LOGGER = Logger.getLogger(PartitionedEventService.class);
+    private static final String EXECUTOR_NAME = "Alpine-PartitionedEventService";
+    private static volatile boolean initialized;
+
+    private final ExecutorService[] partitions;
+
+    /**
+     * @param numberOfPartitions the number of partitions to process events in
+     */
+    PartitionedEventService(final int numberOfPartitions) {
+        partitions = new ExecutorService[numberOfPartitions];
+        for (int i = 0; i < numberOfPartitions; i++) {
+            final String executorName = EXECUTOR_NAME + "-" + i;
+            final BasicThreadFactory factory = new BasicThreadFactory.Builder()
+                    .namingPattern(executorName)
+                    .uncaughtExceptionHandler(new LoggableUncaughtExceptionHandler())
+                    .build();
+            partitions[i] = Executors.newSingleThreadExecutor(factory);
+            Metrics.registerExecutorService(partitions[i], executorName);
+        }
+        setExecutorService(partitions[0]);
+        setLogger(LOGGER);
+        setSubscriberTimeout(Duration.ofMillis(Config.getInstance().getPropertyAsLong(Config.AlpineKey.EVENT_SUBSCRIBER_TIMEOUT)));
+        setDeadLetterStore(DeadLetterStore.getInstance());
+    }
+
+    /**
+     * Creates the instance, and its partitions, on first use.
+     */
+    private static final class Holder {
+        private static final PartitionedEventService INSTANCE = new PartitionedEventService(determineNumberOfPartitions());
+
+        static {
+            initialized = true;
+        }
+    }
+
+    public static PartitionedEventService getInstance() {
+        return Holder.INSTANCE;
+    }
+
+    /**
+     * @return {@code true} if the instance has been created, and may thus have subscriptions
+     */
+    static boolean isInitialized() {
+        return initialized;
+    }
+
+    private static int determineNumberOfPartitions() {
+        final int partitions = Config.getInstance().getPropertyAsInt(Config.AlpineKey.EVENT_SERVICE_PARTITIONS);
+        return partitions > 0 ? partitions : SystemUtil.getCpuCores();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    protected ExecutorService selectExecutorService(final Event event) {
+        if (event instanceof final PartitionedEvent partitionedEvent) {
+            return partitions[partitionOf(partitionedEvent.getPartitionKey())];
+        }
+        return super.selectExecutorService(event);
+    }
+
+    /**
+     * Retries in place, so that the events of a partition are not overtaken by those published after them.
+     * A failing subscriber holds its partition for the duration of the backoff.
+     */
+    @Override
+    protected boolean retriesInPlace() {
+        return true;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    protected List<ExecutorService> getExecutorServices() {
+        final var executorServices = new ArrayList<>(super.getExecutorServices());
+        for (int i = 1; i < partitions.length; i++) {
+            executorServices.add(partitions[i]);
+        }
+        return executorServices;
+    }
+
+    int partitionOf(final Object partitionKey) {
+        if (partitionKey == null) {
+            return 0;
+        }
+        final int hash = partitionKey.hashCode();
+        return Math.floorMod(hash ^ (hash >>> 16), partitions.length);
+    }
+
+}
@@ -0,0 +1,68 @@
+/*
+ * This file is part of Alpine.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ * Copyright (c) Steve Springett. All Rights Reserved.
+ */
+package alpine.event.framework;
+
+/**
+ * Describes the outcome of publishing an {@link Event}, or an {@link alpine.notification.Notification}.
+ * <p>
+ * Producers may use the status to throttle themselves when event processing can't keep up.
+ * Constants are ordered by severity, from least to most severe.
+ *
+ * @since 3.8.0
+ */
+public enum PublishStatus {
+
+    /**
+     * The event was not dispatched, because no subscriber had to be informed.
+     */
+    IGNORED,
+
+    /**
+     * The event was not queued, because an equivalent event was already waiting to be
+     * dispatched to all subscribers.
+     *
+     * @see BaseEventService#coalesce(Class, java.util.function.Function)
+     */
+    COALESCED,
+
+    /**
+     * The event was queued for all subscribers, except those it was coalesced for.
+     */
+    ACCEPTED,
+
+    /**
+     * The event was queued for all subscribers, but the queue was saturated. The publisher
+     * was either blocked, had to inform subscribers itself, or older events were dropped.
+     */
+    THROTTLED,
+
+    /**
+     * The event was dropped for at least one subscriber, because the queue was saturated.
+     */
+    DROPPED;
+
+    /**
+     * @param other The status to merge with
+     * @return The more severe of both statuses
+     */
+    public PublishStatus merge(final PublishStatus other) {
+        return other.ordinal() > ordinal() ? other : this;
+    }
+
+}
@@ -0,0 +1,298 @@
+/*
+ * This file is part of Alpine.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ * Copyright (c) Steve Springett. All Rights Reserved.
+ */
+package alpine.event.framework;
+
+import alpine.Config;
+import alpine.common.logging.Logger;
+import alpine.common.metrics.Metrics;
+import alpine.common.util.VirtualThreadExecutorService;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Timer;
+
+import java.time.Duration;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Admits tasks to an {@link ExecutorService} with a bounded queue, applying an {@link OverflowPolicy}
+ * when the executor rejects a task because its queue is saturated.
+ * <p>
+ * Policies that need access to the queue ({@link OverflowPolicy#BLOCK} and {@link OverflowPolicy#DROP_OLDEST})
+ * are supported for {@link ThreadPoolExecutor}s and {@link VirtualThreadExecutorService}s. For other executors,
+ * they behave like {@link OverflowPolicy#DROP_NEWEST}.
+ *
+ * @since 3.8.0
+ */
+public final class QueueAdmission {
+
+    /**
+     * A task that needs to be notified when it is dropped without being executed,
+     * for example to release resources acquired on its behalf.
+     */
+    public static class Task implements Runnable {
+
+        private final Runnable delegate;
+        private final Runnable onDiscard;
+
+        public Task(final Runnable delegate, final Runnable onDiscard) {
+            this.delegate = delegate;
+            this.onDiscard = onDiscard;
+        }
+
+        @Override
+        public void run() {
+            delegate.run();
+        }
+
+        void discard() {
+            if (onDiscard != null) {
+                onDiscard.run();
+            }
+        }
+
+    }
+
+    private static final Logger LOGGER = Logger.getLogger(QueueAdmission.class);
+
+    private final String name;
+    private final OverflowPolicy policy;
+    private final Duration blockTimeout;
+    private final Counter delayedCounter;
+    private final Counter rejectedCounter;
+    private final Timer blockedTimer;
+
+    /**
+     * @param name         Name of the executor; Used to tag metrics
+     * @param policy       The {@link OverflowPolicy} to apply
+     * @param blockTimeout Maximum duration to block publishers for, when using {@link OverflowPolicy#BLOCK}
+     */
+    public QueueAdmission(final String name, final OverflowPolicy policy, final Duration blockTimeout) {
+        this.name = name;
+        this.policy = policy;
+        this.blockTimeout = blockTimeout;
+        this.delayedCounter = Counter.builder("alpine_dispatch_delayed_total")
+                .description("Total number of dispatches delayed because the executor's queue was saturated")
+                .tags("executor", name, "policy", policy.name())
+                .register(Metrics.getRegistry());
+        this.rejectedCounter = Counter.builder("alpine_dispatch_rejected_total")
+                .description("Total number of dispatches dropped or rejected because the executor's queue was saturated")
+                .tags("executor", name, "policy", policy.name())
+                .register(Metrics.getRegistry());
+        this.blockedTimer = Timer.builder("alpine_dispatch_blocked")
+                .description("Duration publishers were blocked because the executor's queue was saturated")
+                .tags("executor", name)
+                .register(Metrics.getRegistry());
+    }
+
+    /**
+     * Creates a {@link QueueAdmission} from configuration.
+     *
+     * @param name       Name of the executor; Used to tag metrics
+     * @param policyKey  Key of the {@link OverflowPolicy} property
+     * @param timeoutKey Key of the block timeout property, in milliseconds
+     * @return A {@link QueueAdmission}
+     */
+    public static QueueAdmission fromConfig(final String name, final Config.AlpineKey policyKey,
+                                            final Config.AlpineKey timeoutKey) {
+        return new QueueAdmission(name,
+                OverflowPolicy.of(Config.getInstance().getProperty(policyKey)),
+                Duration.ofMillis(Config.getInstance().getPropertyAsLong(timeoutKey)));
+    }
+
+    /**
+     * Determines the capacity of an executor's queue.
+     *
+     * @param capacityKey Key of the capacity property; Values of 0 or less denote an unbounded queue
+     * @return The queue capacity
+     */
+    public static int determineQueueCapacity(final Config.AlpineKey capacityKey) {
+        final int capacity = Config.getInstance().getPropertyAsInt(capacityKey);
+        return capacity > 0 ? capacity : Integer.MAX_VALUE;
+    }
+
+    /**
+     * Submits a task to an executor.
+     *
+     * @param executor The {@link ExecutorService} to submit to
+     * @param task     The task to submit; {@link Task}s are notified when being dropped
+     * @return The resulting {@link PublishStatus}
+     * @throws RejectedExecutionException When the executor has been shut down, or the queue
+     *                                    is saturated and the policy is {@link OverflowPolicy#REJECT}
+     */
+    public PublishStatus submit(final ExecutorService executor, final Runnable task) {
+        try {
+            executor.execute(task);
+            return PublishStatus.ACCEPTED;
+        } catch (RejectedExecutionException e) {
+            if (executor.isShutdown()) {
+                throw e;
+            }
+
+            return switch (policy) {
+                case BLOCK -> block(executor, task);
+                case CALLER_RUNS -> {
+                    delayedCounter.increment();
+                    task.run();
+                    yield PublishStatus.THROTTLED;
+                }
+                case DROP_OLDEST -> dropOldest(executor, task);
+                case DROP_NEWEST -> drop(task);
+                case REJECT -> {
+                    drop(task);
+                    throw e;
+                }
+            };
+        }
+    }
+
+    /**
+     * Offers a task to a bounded queue that is drained by the caller rather than by an executor, applying the
+     * overflow policy when the queue is saturated. {@link OverflowPolicy#CALLER_RUNS} runs the task on the
+     * calling thread.
+     *
+     * @param queue The queue to offer the task to
+     * @param task  The task to offer; {@link Task}s are notified when being dropped
+     * @param <T>   The type of tasks held by the queue
+     * @return The resulting {@link PublishStatus}
+     * @throws RejectedExecutionException When the queue is saturated and the policy is {@link OverflowPolicy#REJECT}
+     */
+    public <T extends Runnable> PublishStatus offer(final BlockingQueue<T> queue, final T task) {
+        if (queue.offer(task)) {
+            return PublishStatus.ACCEPTED;
+        }
+
+        return switch (policy) {
+            case BLOCK -> {
+                if (!offer(queue, task, blockTimeout)) {
+                    yield drop(task);
+                }
+                delayedCounter.increment();
+                yield PublishStatus.THROTTLED;
+            }
+            case CALLER_RUNS -> {
+                delayedCounter.increment();
+                task.run();
+                yield PublishStatus.THROTTLED;
+            }
+            case DROP_OLDEST -> {
+                T oldest;
+                while ((oldest = queue.poll()) != null) {
+                    drop(oldest);
+                    if (queue.offer(task)) {
+                        delayedCounter.increment();
+                        yield PublishStatus.THROTTLED;
+                    }
+                    // Another publisher took the freed slot.
+                }
+                yield drop(task);
+            }
+            case DROP_NEWEST -> drop(task);
+            case REJECT -> {
+                drop(task);
+                throw new RejectedExecutionException("The queue of %s is saturated".formatted(name));
+            }
+        };
+    }
+
+    private PublishStatus block(final ExecutorService executor, final Runnable task) {
+        final BlockingQueue<Runnable> queue = getQueue(executor);
+        if (queue == null || !offer(queue, task, blockTimeout)) {
+            return drop(task);
+        }
+        if (executor.isShutdown() && queue.remove(task)) {
+            discard(task);
+            throw new RejectedExecutionException("Executor %s has been shut down".formatted(name));
+        }
+
+        delayedCounter.increment();
+        return PublishStatus.THROTTLED;
+    }
+
+    /**
+     * Waits for capacity in a queue, for up to {@code timeout}.
+     *
+     * @return {@code true} when the task was queued
+     */
+    private <T extends Runnable> boolean offer(final BlockingQueue<T> queue, final T task, final Duration timeout) {
+        final long startNanos = System.nanoTime();
+        final boolean queued;
+        try {
+            queued = queue.offer(task, timeout.toNanos(), TimeUnit.NANOSECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        } finally {
+            blockedTimer.record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+        }
+
+        if (!queued) {
+            LOGGER.warn("Timed out after %s waiting for capacity in %s; Dropping event".formatted(timeout, name));
+        }
+        return queued;
+    }
+
+    private PublishStatus dropOldest(final ExecutorService executor, final Runnable task) {
+        final BlockingQueue<Runnable> queue = getQueue(executor);
+        if (queue == null) {
+            return drop(task);
+        }
+
+        Runnable oldest;
+        while ((oldest = queue.poll()) != null) {
+            drop(oldest);
+            try {
+                executor.execute(task);
+                delayedCounter.increment();
+                return PublishStatus.THROTTLED;
+            } catch (RejectedExecutionException e) {
+                if (executor.isShutdown()) {
+                    throw e;
+                }
+                // Another publisher took the freed slot.
+            }
+        }
+
+        return drop(task);
+    }
+
+    private PublishStatus drop(final Runnable task) {
+        rejectedCounter.increment();
+        discard(task);
+        return PublishStatus.DROPPED;
+    }
+
+    private static void discard(final Runnable task) {
+        if (task instanceof final Task discardable) {
+            discardable.discard();
+        }
+    }
+
+    private static BlockingQueue<Runnable> getQueue(final ExecutorService executor) {
+        if (executor instanceof final ThreadPoolExecutor tpExecutor) {
+            return tpExecutor.getQueue();
+        } else if (executor instanceof final VirtualThreadExecutorService vtExecutor) {
+            return vtExecutor.getQueue();
+        }
+        return null;
+    }
+
+}
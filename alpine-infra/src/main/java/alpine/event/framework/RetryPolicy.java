@@ -0,0 +1,89 @@
+/*
+ * This file is part of Alpine.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ * Copyright (c) Steve Springett. All Rights Reserved.
+ */
+package alpine.event.framework;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Retries events a {@link Subscriber} failed to process. Retries are delayed with exponential
+ * backoff and jitter, without holding a worker thread while waiting, except in event services
+ * processing events in order ({@link SingleThreadedEventService}, {@link PartitionedEventService}),
+ * which retry on the same thread so that later events do not overtake the failed one. Once all
+ * attempts are exhausted, or the failure is not retryable, the event is written to the
+ * {@link DeadLetterStore}, and the {@link ChainableEvent#onFailure()} links of the event are fired.
+ *
+ * <pre>
+ * &#64;RetryPolicy(maxAttempts = 5, retryOn = IOException.class)
+ * public class WebhookPublisher implements Subscriber {
+ *     ...
+ * }
+ * </pre>
+ *
+ * Subscribers without this annotation are not retried, and their failures are not dead-lettered.
+ * Events remain tracked as being processed while waiting for a retry.
+ *
+ * @since 3.8.0
+ */
+@Documented
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.TYPE)
+public @interface RetryPolicy {
+
+    /**
+     * @return the maximum number of attempts to process an event, including the first one
+     */
+    int maxAttempts() default 3;
+
+    /**
+     * @return the delay in milliseconds before the first retry
+     */
+    long initialBackoffMillis() default 1000;
+
+    /**
+     * @return the factor by which the delay grows with every further retry
+     */
+    double multiplier() default 2.0;
+
+    /**
+     * @return the maximum delay in milliseconds between two attempts
+     */
+    long maxBackoffMillis() default 60000;
+
+    /**
+     * @return the fraction of the delay that is randomized, from 0 (none) to 1 (all of it),
+     * so that events failing together are not all retried at the same time
+     */
+    double jitter() default 0.5;
+
+    /**
+     * @return the exceptions to retry; A failure is retryable if it, or any of its causes,
+     * is an instance of one of them
+     */
+    Class<? extends Throwable>[] retryOn() default Exception.class;
+
+    /**
+     * @return the exceptions to never retry, even if they match {@link #retryOn()}
+     */
+    Class<? extends Throwable>[] abortOn() default {};
+
+}
@@ -0,0 +1,91 @@
+/*
+ * This file is part of Alpine.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ * Copyright (c) Steve Springett. All Rights Reserved.
+ */
+package alpine.event.framework;
+
+import org.apache.commons.lang3.concurrent.BasicThreadFactory;
+
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Delays retries of events according to their subscriber's {@link RetryPolicy}. A single daemon
+ * thread is shared by all event services, so that no worker thread is held while waiting. Once due,
+ * it hands retries off to the {@link DeferredPublisher}, as resubmitting them may block under the
+ * {@link OverflowPolicy#BLOCK} policy, or run the subscriber under {@link OverflowPolicy#CALLER_RUNS}.
+ *
+ * @since 3.8.0
+ */
+final class RetryScheduler {
+
+    private static final ScheduledExecutorService SCHEDULER = Executors.newSingleThreadScheduledExecutor(
+            new BasicThreadFactory.Builder()
+                    .namingPattern("Alpine-RetryScheduler-%d")
+                    .uncaughtExceptionHandler(new LoggableUncaughtExceptionHandler())
+                    .daemon(true)
+                    .build());
+
+    private RetryScheduler() {
+    }
+
+    /**
+     * @param retry the task resubmitting the retry
+     * @param delayMillis the delay in milliseconds
+     */
+    static void schedule(final Runnable retry, final long delayMillis) {
+        SCHEDULER.schedule(() -> DeferredPublisher.execute(retry), delayMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * @param policy the retry policy of the subscriber
+     * @param attempt the number of the attempt that failed, starting at 1
+     * @param failure the failure of the attempt
+     * @return {@code true} if another attempt is permitted
+     */
+    static boolean isRetryable(final RetryPolicy policy, final int attempt, final Throwable failure) {
+        return attempt < policy.maxAttempts()
+                && !matches(policy.abortOn(), failure)
+                && matches(policy.retryOn(), failure);
+    }
+
+    /**
+     * @param policy the retry policy of the subscriber
+     * @param attempt the number of the attempt that failed, starting at 1
+     * @return the delay in milliseconds before the next attempt
+     */
+    static long getBackoffMillis(final RetryPolicy policy, final int attempt) {
+        final double backoff = Math.min(policy.maxBackoffMillis(),
+                policy.initialBackoffMillis() * Math.pow(policy.multiplier(), attempt - 1));
+        final double jitter = Math.clamp(policy.jitter(), 0.0, 1.0);
+        return Math.max(0, Math.round(backoff * (1 - jitter * ThreadLocalRandom.current().nextDouble())));
+    }
+
+    private static boolean matches(final Class<? extends Throwable>[] types, final Throwable failure) {
+        for (Throwable cause = failure; cause != null; cause = cause.getCause()) {
+            for (final Class<? extends Throwable> type : types) {
+                if (type.isInstance(cause)) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+}
@@ -18,10 +18,13 @@
  */
 package alpine.event.framework;
 
+import alpine.Config;
+import alpine.cluster.ClusterLeaseManager;
 import alpine.common.logging.Logger;
 import alpine.common.metrics.Metrics;
 import org.apache.commons.lang3.concurrent.BasicThreadFactory;
 
+import java.time.Duration;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 
@@ -33,6 +36,11 @@ import java.util.concurrent.Executors;
  *
  * Use EventService for an implementation that allows for a configurable number of threads.
  *
+ * Failed attempts of subscribers with a {@link RetryPolicy} are retried in place, preserving the
+ * order of events while holding the thread for the duration of the backoff.
+ *
+ * @see alpine.Config.AlpineKey#EVENT_SUBSCRIBER_TIMEOUT
+ * @see alpine.Config.AlpineKey#CLUSTER_ENABLED
  * @author Steve Springett
  * @since 1.0.0
  */
@@ -51,7 +59,12 @@ public final class SingleThreadedEventService extends BaseEventService {
         EXECUTOR = Executors.newSingleThreadExecutor(factory);
         INSTANCE.setExecutorService(EXECUTOR);
         INSTANCE.setLogger(LOGGER);
+        INSTANCE.setSubscriberTimeout(Duration.ofMillis(Config.getInstance().getPropertyAsLong(Config.AlpineKey.EVENT_SUBSCRIBER_TIMEOUT)));
+        INSTANCE.setDeadLetterStore(DeadLetterStore.getInstance());
         Metrics.registerExecutorService(EXECUTOR, EXECUTOR_NAME);
+        if (Config.getInstance().getPropertyAsBoolean(Config.AlpineKey.CLUSTER_ENABLED)) {
+            INSTANCE.setLeaseManager(ClusterLeaseManager.getInstance());
+        }
     }
 
     /**
@@ -63,4 +76,12 @@ public final class SingleThreadedEventService extends BaseEventService {
         return INSTANCE;
     }
 
+    /**
+     * Retries in place, so that events are not overtaken by those published after them.
+     */
+    @Override
+    protected boolean retriesInPlace() {
+        return true;
+    }
+
 }
@@ -0,0 +1,198 @@
+/*
+ * This file is part of Alpine.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ * Copyright (c) Steve Springett. All Rights Reserved.
+ */
+package alpine.event.framework;
+
+import alpine.Config;
+import alpine.common.metrics.Metrics;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Timer;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Holds everything an {@link IEventService} needs to know about a subscribed {@link Subscriber}
+ * class. Bindings are created once, when a subscriber is subscribed, so that no per-subscriber
+ * state needs to be computed while dispatching events.
+ *
+ * @since 3.8.0
+ */
+final class SubscriberBinding {
+
+    private final Class<? extends Subscriber> subscriberClass;
+    private final SubscriberFactory factory;
+    private final boolean loggable;
+    private final BatchOptions batchOptions;
+    private final long timeoutMillis;
+    private final RetryPolicy retryPolicy;
+    private final Counter persistenceSkippedCounter;
+    private final Counter timeoutCounter;
+    private final Counter retryCounter;
+    private final Map<Class<? extends Event>, Timer> processingTimers = new ConcurrentHashMap<>();
+    private final Map<Class<? extends Event>, Timer> queueWaitTimers = new ConcurrentHashMap<>();
+
+    SubscriberBinding(final Class<? extends Subscriber> subscriberClass, final SubscriberFactory factory) {
+        this.subscriberClass = subscriberClass;
+        this.factory = factory;
+        this.loggable = LoggableSubscriber.class.isAssignableFrom(subscriberClass);
+        this.batchOptions = resolveBatchOptions(subscriberClass);
+        final SubscriberTimeout timeout = subscriberClass.getAnnotation(SubscriberTimeout.class);
+        this.timeoutMillis = timeout != null ? Math.max(timeout.value(), 0) : -1;
+        this.retryPolicy = subscriberClass.getAnnotation(RetryPolicy.class);
+        this.persistenceSkippedCounter = loggable ? null : Counter.builder("alpine_event_persistence_skipped_total")
+                .description("Total number of event dispatches that did not require a persistence context")
+                .tag("subscriber", subscriberClass.getSimpleName())
+                .register(Metrics.getRegistry());
+        this.timeoutCounter = Counter.builder("alpine_event_subscriber_timeouts_total")
+                .description("Total number of event dispatches that exceeded the timeout of the subscriber")
+                .tag("subscriber", subscriberClass.getSimpleName())
+                .register(Metrics.getRegistry());
+        this.retryCounter = retryPolicy == null ? null : Counter.builder("alpine_event_subscriber_retries_total")
+                .description("Total number of retries scheduled for events the subscriber failed to process")
+                .tag("subscriber", subscriberClass.getSimpleName())
+                .register(Metrics.getRegistry());
+    }
+
+    Class<? extends Subscriber> getSubscriberClass() {
+        return subscriberClass;
+    }
+
+    SubscriberFactory getFactory() {
+        return factory;
+    }
+
+    /**
+     * @return {@code true} when the subscriber is a {@link LoggableSubscriber}, and thus
+     *         requires a persistence context to record {@link alpine.model.EventServiceLog}s
+     */
+    boolean isLoggable() {
+        return loggable;
+    }
+
+    /**
+     * @return the {@link BatchOptions} of the subscriber if it is a {@link BatchSubscriber}, otherwise {@code null}
+     */
+    BatchOptions getBatchOptions() {
+        return batchOptions;
+    }
+
+    /**
+     * @param defaultTimeoutMillis the timeout of subscribers that are not annotated with {@link SubscriberTimeout}
+     * @return the timeout of the subscriber in milliseconds, or zero if it has none
+     */
+    long getTimeoutMillis(final long defaultTimeoutMillis) {
+        return timeoutMillis >= 0 ? timeoutMillis : Math.max(defaultTimeoutMillis, 0);
+    }
+
+    /**
+     * Records that a dispatch to the subscriber exceeded its timeout.
+     */
+    void recordTimeout() {
+        timeoutCounter.increment();
+    }
+
+    /**
+     * @return the {@link RetryPolicy} of the subscriber, or {@code null} if its failures are not retried
+     */
+    RetryPolicy getRetryPolicy() {
+        return retryPolicy;
+    }
+
+    /**
+     * Records that a retry was scheduled for an event the subscriber failed to process.
+     */
+    void recordRetry() {
+        if (retryCounter != null) {
+            retryCounter.increment();
+        }
+    }
+
+    /**
+     * Provides the timer for processing events of the given type by the subscriber.
+     * Timers are registered once per event type, instead of looking them up in the
+     * {@link io.micrometer.core.instrument.MeterRegistry} for every dispatched event.
+     *
+     * @param eventType The type of event being processed
+     * @return The {@link Timer} to record processing durations with
+     */
+    Timer getProcessingTimer(final Class<? extends Event> eventType) {
+        return processingTimers.computeIfAbsent(eventType, type -> Timer.builder("alpine_event_processing")
+                .description("Time taken by the subscriber to process events")
+                .tag("event", type.getSimpleName())
+                .tag("subscriber", subscriberClass.getSimpleName())
+                .publishPercentileHistogram(isHistogramEnabled())
+                .register(Metrics.getRegistry()));
+    }
+
+    /**
+     * Provides the timer for the time events of the given type waited in the queue of the
+     * event service, before the subscriber started processing them.
+     *
+     * @param eventType The type of event being processed
+     * @return The {@link Timer} to record queue waits with
+     */
+    Timer getQueueWaitTimer(final Class<? extends Event> eventType) {
+        return queueWaitTimers.computeIfAbsent(eventType, type -> Timer.builder("alpine_event_queue_wait")
+                .description("Time events waited in the queue before the subscriber started processing them")
+                .tag("event", type.getSimpleName())
+                .tag("subscriber", subscriberClass.getSimpleName())
+                .publishPercentileHistogram(isHistogramEnabled())
+                .register(Metrics.getRegistry()));
+    }
+
+    /**
+     * @return whether event timers publish percentile histograms
+     * @see Config.AlpineKey#METRICS_EVENT_HISTOGRAMS_ENABLED
+     */
+    static boolean isHistogramEnabled() {
+        return Config.getInstance().getPropertyAsBoolean(Config.AlpineKey.METRICS_EVENT_HISTOGRAMS_ENABLED);
+    }
+
+    /**
+     * Records that a dispatch to the (non-loggable) subscriber did not acquire a persistence context.
+     */
+    void recordPersistenceSkipped() {
+        if (persistenceSkippedCounter != null) {
+            persistenceSkippedCounter.increment();
+        }
+    }
+
+    /**
+     * @return the number of dispatches to the subscriber that did not acquire a persistence context
+     */
+    double getPersistenceSkippedCount() {
+        return persistenceSkippedCounter != null ? persistenceSkippedCounter.count() : 0;
+    }
+
+    private static BatchOptions resolveBatchOptions(final Class<? extends Subscriber> subscriberClass) {
+        if (!BatchSubscriber.class.isAssignableFrom(subscriberClass)) {
+            return null;
+        }
+        final BatchOptions options = subscriberClass.getAnnotation(BatchOptions.class);
+        return options != null ? options : DefaultBatchOptions.class.getAnnotation(BatchOptions.class);
+    }
+
+    /**
+     * Carries the default {@link BatchOptions}, for batch subscribers that are not annotated.
+     */
+    @BatchOptions
+    private static final class DefaultBatchOptions {
+    }
+
+}
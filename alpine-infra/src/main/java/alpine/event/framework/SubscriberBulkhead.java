@@ -0,0 +1,335 @@
+/*
+ * This file is part of Alpine.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ * Copyright (c) Steve Springett. All Rights Reserved.
+ */
+package alpine.event.framework;
+
+import alpine.common.logging.Logger;
+import alpine.common.metrics.Metrics;
+import io.micrometer.core.instrument.Gauge;
+import org.apache.commons.lang3.concurrent.BasicThreadFactory;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.BlockingDeque;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BiFunction;
+
+/**
+ * Limits how many dispatches to a single subscriber may occupy workers at the same time, so that a slow or
+ * high-volume subscriber can not starve other subscribers of the same event service.
+ * <p>
+ * A bulkhead either shares the executor of its event service, in which case dispatches exceeding the limit
+ * wait in the bulkhead until a running dispatch completes, or uses a dedicated executor with as many threads
+ * as the limit. Bulkheads are configured per subscriber class as a comma-separated list of
+ * {@code <subscriber class>:<max concurrency>[:dedicated]} entries.
+ * <p>
+ * The number of waiting dispatches is limited to the queue capacity of the event service, in both modes.
+ * Dispatches exceeding it are subject to the {@link OverflowPolicy} of the event service.
+ * <p>
+ * The saturation of each bulkhead is published as the {@code alpine_event_bulkhead_saturation} gauge, ranging
+ * from 0 to 1, along with the number of dispatches running ({@code alpine_event_bulkhead_active}) and waiting
+ * ({@code alpine_event_bulkhead_waiting}) in it.
+ *
+ * @see alpine.Config.AlpineKey#EVENT_SUBSCRIBER_BULKHEADS
+ * @since 3.8.0
+ */
+final class SubscriberBulkhead {
+
+    /**
+     * The configuration of a bulkhead.
+     *
+     * @param maxConcurrency the maximum number of concurrent dispatches to the subscriber
+     * @param dedicated      whether the subscriber is informed on a dedicated executor
+     */
+    record Spec(int maxConcurrency, boolean dedicated) {
+    }
+
+    /**
+     * A dispatch waiting for a permit of a shared-mode bulkhead. When run by the {@link OverflowPolicy#CALLER_RUNS}
+     * policy, the dispatch runs on the publishing thread, outside of the bulkhead.
+     */
+    private static final class Pending extends QueueAdmission.Task {
+
+        private final QueueAdmission.Task task;
+        private final ExecutorService executor;
+
+        private Pending(final QueueAdmission.Task task, final ExecutorService executor) {
+            super(task, task::discard);
+            this.task = task;
+            this.executor = executor;
+        }
+
+    }
+
+    private static final Logger LOGGER = Logger.getLogger(SubscriberBulkhead.class);
+    private static final ThreadLocal<Boolean> DRAINING = ThreadLocal.withInitial(() -> false);
+    private static final long DRAIN_RETRY_MILLIS = 50;
+
+    private final Class<? extends Subscriber> subscriberClass;
+    private final int maxConcurrency;
+    private final ThreadPoolExecutor dedicatedExecutor;
+    private final BiFunction<ExecutorService, QueueAdmission.Task, PublishStatus> admission;
+    private final QueueAdmission queueAdmission;
+    private final AtomicInteger permitsInUse = new AtomicInteger();
+    private final BlockingDeque<Pending> waiting;
+    private final AtomicBoolean drainScheduled = new AtomicBoolean();
+
+    /**
+     * @param subscriberClass the class of the subscriber to limit
+     * @param spec            the configuration of the bulkhead
+     * @param executorName    the name of the executor of the event service; Used to name the dedicated executor
+     * @param queueCapacity   the maximum number of dispatches waiting in the bulkhead
+     * @param queueAdmission  applies the overflow policy to dispatches exceeding {@code queueCapacity},
+     *                        or {@code null} to reject them
+     * @param admission       submits tasks to an executor on behalf of the bulkhead
+     */
+    SubscriberBulkhead(final Class<? extends Subscriber> subscriberClass, final Spec spec, final String executorName,
+                       final int queueCapacity, final QueueAdmission queueAdmission,
+                       final BiFunction<ExecutorService, QueueAdmission.Task, PublishStatus> admission) {
+        this.subscriberClass = subscriberClass;
+        this.maxConcurrency = spec.maxConcurrency();
+        this.admission = admission;
+        this.queueAdmission = queueAdmission;
+        if (spec.dedicated()) {
+            final String name = executorName + "-" + subscriberClass.getSimpleName();
+            final BasicThreadFactory factory = new BasicThreadFactory.Builder()
+                    .namingPattern(name + "-%d")
+                    .uncaughtExceptionHandler(new LoggableUncaughtExceptionHandler())
+                    .build();
+            dedicatedExecutor = new ThreadPoolExecutor(maxConcurrency, maxConcurrency, 0L, TimeUnit.MILLISECONDS,
+                    new LinkedBlockingQueue<>(queueCapacity), factory);
+            Metrics.registerExecutorService(dedicatedExecutor, name);
+            waiting = null;
+        } else {
+            dedicatedExecutor = null;
+            waiting = new LinkedBlockingDeque<>(queueCapacity);
+        }
+        Gauge.builder("alpine_event_bulkhead_saturation", this, SubscriberBulkhead::getSaturation)
+                .description("Ratio of the concurrency limit of a subscriber's bulkhead that is in use")
+                .tag("subscriber", subscriberClass.getName())
+                .register(Metrics.getRegistry());
+        Gauge.builder("alpine_event_bulkhead_active", this, SubscriberBulkhead::getActive)
+                .description("Number of dispatches to a subscriber that are occupying its bulkhead")
+                .tag("subscriber", subscriberClass.getName())
+                .register(Metrics.getRegistry());
+        Gauge.builder("alpine_event_bulkhead_waiting", this, SubscriberBulkhead::getWaiting)
+                .description("Number of dispatches to a subscriber that are waiting for its bulkhead")
+                .tag("subscriber", subscriberClass.getName())
+                .register(Metrics.getRegistry());
+    }
+
+    /**
+     * Parses bulkhead configurations.
+     *
+     * @param entries entries of the form {@code <subscriber class>:<max concurrency>[:dedicated]}
+     * @return the configurations, keyed by the name of the subscriber class
+     */
+    static Map<String, Spec> parse(final Collection<String> entries) {
+        final var specs = new HashMap<String, Spec>();
+        for (final String entry : entries) {
+            final String[] parts = entry.split(":");
+            try {
+                if (parts.length < 2 || parts.length > 3 || (parts.length == 3 && !"dedicated".equals(parts[2].trim()))) {
+                    throw new IllegalArgumentException();
+                }
+                final int maxConcurrency = Integer.parseInt(parts[1].trim());
+                if (maxConcurrency < 1) {
+                    throw new IllegalArgumentException();
+                }
+                specs.put(parts[0].trim(), new Spec(maxConcurrency, parts.length == 3));
+            } catch (IllegalArgumentException e) {
+                LOGGER.warn("Ignoring invalid bulkhead \"%s\"; Expected <subscriber class>:<max concurrency>[:dedicated]"
+                        .formatted(entry));
+            }
+        }
+        return Map.copyOf(specs);
+    }
+
+    /**
+     * Submits a dispatch to the subscriber. When the bulkhead is saturated, the dispatch waits in the bulkhead,
+     * and is submitted to {@code executor} once a running dispatch completes.
+     *
+     * @param task     the dispatch to submit
+     * @param executor the executor of the event service
+     * @return the status of the submission, or {@link PublishStatus#THROTTLED} when the dispatch has to wait
+     * @throws RejectedExecutionException when the executor rejects the dispatch, or the bulkhead is saturated
+     *                                    and no {@link QueueAdmission} permits it to be dropped instead
+     */
+    PublishStatus submit(final QueueAdmission.Task task, final ExecutorService executor) {
+        if (dedicatedExecutor != null) {
+            return admission.apply(dedicatedExecutor, task);
+        }
+        if (executor.isShutdown()) {
+            throw new RejectedExecutionException("The executor of subscriber " + subscriberClass.getName() + " has been shut down");
+        }
+        if (waiting.isEmpty() && tryAcquire()) {
+            final QueueAdmission.Task guarded = guard(task);
+            try {
+                return admission.apply(executor, guarded);
+            } catch (RejectedExecutionException e) {
+                guarded.discard();
+                throw e;
+            }
+        }
+        final var pending = new Pending(task, executor);
+        final PublishStatus status;
+        if (queueAdmission != null) {
+            status = queueAdmission.offer(waiting, pending);
+        } else if (waiting.offer(pending)) {
+            status = PublishStatus.ACCEPTED;
+        } else {
+            throw new RejectedExecutionException("The bulkhead of subscriber " + subscriberClass.getName() + " is saturated");
+        }
+        drain();
+        return status == PublishStatus.ACCEPTED ? PublishStatus.THROTTLED : status;
+    }
+
+    private boolean tryAcquire() {
+        int inUse;
+        do {
+            inUse = permitsInUse.get();
+            if (inUse >= maxConcurrency) {
+                return false;
+            }
+        } while (!permitsInUse.compareAndSet(inUse, inUse + 1));
+        return true;
+    }
+
+    private void release() {
+        permitsInUse.decrementAndGet();
+        drain();
+    }
+
+    /**
+     * Submits waiting dispatches for as long as permits are available. The check of the waiting dispatches
+     * is repeated after giving a permit back, as another thread may have queued one in the meantime.
+     * <p>
+     * Draining never blocks, as the draining thread is usually a worker that just completed a dispatch to the
+     * subscriber, and thus one of the threads emptying the queue of the executor. When the executor is saturated,
+     * the dispatch is put back at the head of the waiting dispatches, and draining is retried after a short delay.
+     * <p>
+     * Dispatches that were accepted before the executor was shut down are run by the draining thread.
+     * Dispatches completing within the loop do not drain again, but leave it to the loop, to not recurse once
+     * per waiting dispatch.
+     */
+    private void drain() {
+        if (DRAINING.get()) {
+            return;
+        }
+        DRAINING.set(true);
+        try {
+            while (!waiting.isEmpty() && tryAcquire()) {
+                final Pending pending = waiting.poll();
+                if (pending == null) {
+                    permitsInUse.decrementAndGet();
+                    continue;
+                }
+                final QueueAdmission.Task guarded = guard(pending.task);
+                try {
+                    pending.executor.execute(guarded);
+                } catch (RejectedExecutionException e) {
+                    if (pending.executor.isShutdown()) {
+                        guarded.run();
+                    } else {
+                        // The guarded dispatch neither ran nor was discarded, so its permit is given back here.
+                        permitsInUse.decrementAndGet();
+                        requeue(pending);
+                        scheduleDrain();
+                        return;
+                    }
+                }
+            }
+        } finally {
+            DRAINING.remove();
+        }
+    }
+
+    private void requeue(final Pending pending) {
+        if (!waiting.offerFirst(pending)) {
+            // A publisher took the slot of the dispatch in the meantime.
+            LOGGER.warn("Discarding a waiting event to subscriber " + subscriberClass.getName()
+                    + ", as both the executor and the bulkhead are saturated");
+            pending.task.discard();
+        }
+    }
+
+    private void scheduleDrain() {
+        if (drainScheduled.compareAndSet(false, true)) {
+            TimingWheel.getInstance().schedule(() -> DeferredPublisher.execute(() -> {
+                drainScheduled.set(false);
+                drain();
+            }), DRAIN_RETRY_MILLIS);
+        }
+    }
+
+    /**
+     * Wraps a dispatch so that its permit is given back once it completed or was discarded.
+     */
+    private QueueAdmission.Task guard(final QueueAdmission.Task task) {
+        final AtomicBoolean released = new AtomicBoolean();
+        return new QueueAdmission.Task(() -> {
+            try {
+                task.run();
+            } finally {
+                if (released.compareAndSet(false, true)) {
+                    release();
+                }
+            }
+        }, () -> {
+            task.discard();
+            if (released.compareAndSet(false, true)) {
+                release();
+            }
+        });
+    }
+
+    double getSaturation() {
+        return (double) getActive() / maxConcurrency;
+    }
+
+    int getActive() {
+        return dedicatedExecutor != null ? dedicatedExecutor.getActiveCount() : permitsInUse.get();
+    }
+
+    int getWaiting() {
+        return dedicatedExecutor != null ? dedicatedExecutor.getQueue().size() : waiting.size();
+    }
+
+    /**
+     * @return {@code true} if no dispatch to the subscriber is running or waiting
+     */
+    boolean isIdle() {
+        return getActive() == 0 && getWaiting() == 0;
+    }
+
+    /**
+     * @return the dedicated executor of the bulkhead, or {@code null} if it shares the executor of its event service
+     */
+    ExecutorService getDedicatedExecutor() {
+        return dedicatedExecutor;
+    }
+
+}
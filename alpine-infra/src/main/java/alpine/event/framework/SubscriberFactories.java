@@ -0,0 +1,171 @@
+/*
+ * This file is part of Alpine.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ * Copyright (c) Steve Springett. All Rights Reserved.
+ */
+package alpine.event.framework;
+
+import alpine.common.util.ThreadUtil;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+/**
+ * Provides the built-in {@link SubscriberFactory} implementations.
+ * <p>
+ * All factories created here resolve the no-arg constructor of the subscriber as a
+ * {@link MethodHandle} once, at creation time. Acquiring a subscriber does not involve
+ * any reflection.
+ *
+ * @since 3.8.0
+ */
+public final class SubscriberFactories {
+
+    private static final MethodType SUBSCRIBER_CONSTRUCTOR_TYPE = MethodType.methodType(Subscriber.class);
+
+    private SubscriberFactories() {
+    }
+
+    /**
+     * Creates a {@link SubscriberFactory} for the given subscriber class, using the
+     * {@link SubscriberLifecycle} declared through {@link SubscriberScope}.
+     * @param clazz the Subscriber class
+     * @return a SubscriberFactory
+     * @throws IllegalArgumentException when the subscriber does not declare an accessible no-arg constructor
+     */
+    public static SubscriberFactory forClass(final Class<? extends Subscriber> clazz) {
+        final SubscriberScope scope = clazz.getAnnotation(SubscriberScope.class);
+        if (scope == null) {
+            return prototype(clazz);
+        }
+        return switch (scope.value()) {
+            case PROTOTYPE -> prototype(clazz);
+            case SINGLETON -> singleton(clazz);
+            case POOLED -> pooled(clazz, scope.poolSize());
+        };
+    }
+
+    /**
+     * Creates a {@link SubscriberFactory} with {@link SubscriberLifecycle#PROTOTYPE} lifecycle.
+     * @param clazz the Subscriber class
+     * @return a SubscriberFactory
+     */
+    public static SubscriberFactory prototype(final Class<? extends Subscriber> clazz) {
+        return new PrototypeFactory(clazz, resolveConstructor(clazz));
+    }
+
+    /**
+     * Creates a {@link SubscriberFactory} with {@link SubscriberLifecycle#SINGLETON} lifecycle.
+     * The instance is created lazily, upon first use.
+     * @param clazz the Subscriber class
+     * @return a SubscriberFactory
+     */
+    public static SubscriberFactory singleton(final Class<? extends Subscriber> clazz) {
+        return new SingletonFactory(new PrototypeFactory(clazz, resolveConstructor(clazz)));
+    }
+
+    /**
+     * Creates a {@link SubscriberFactory} with {@link SubscriberLifecycle#POOLED} lifecycle.
+     * @param clazz the Subscriber class
+     * @param poolSize the maximum number of idle instances to retain; a value of zero or less will
+     *                 use {@link ThreadUtil#determineNumberOfWorkerThreads()}
+     * @return a SubscriberFactory
+     */
+    public static SubscriberFactory pooled(final Class<? extends Subscriber> clazz, final int poolSize) {
+        final int capacity = poolSize > 0 ? poolSize : ThreadUtil.determineNumberOfWorkerThreads();
+        return new PooledFactory(new PrototypeFactory(clazz, resolveConstructor(clazz)), capacity);
+    }
+
+    private static MethodHandle resolveConstructor(final Class<? extends Subscriber> clazz) {
+        try {
+            return MethodHandles.lookup()
+                    .unreflectConstructor(clazz.getDeclaredConstructor())
+                    .asType(SUBSCRIBER_CONSTRUCTOR_TYPE);
+        } catch (NoSuchMethodException | IllegalAccessException | SecurityException e) {
+            throw new IllegalArgumentException("Subscriber " + clazz.getName()
+                    + " does not declare an accessible no-arg constructor", e);
+        }
+    }
+
+    private record PrototypeFactory(Class<? extends Subscriber> clazz, MethodHandle constructor) implements SubscriberFactory {
+
+        @Override
+        public Subscriber acquire() {
+            try {
+                return (Subscriber) constructor.invokeExact();
+            } catch (Error e) {
+                throw e;
+            } catch (Throwable e) {
+                throw new EventDispatchException("Unable to instantiate subscriber " + clazz.getName(), e);
+            }
+        }
+
+    }
+
+    private static final class SingletonFactory implements SubscriberFactory {
+
+        private final PrototypeFactory delegate;
+        private volatile Subscriber instance;
+
+        private SingletonFactory(final PrototypeFactory delegate) {
+            this.delegate = delegate;
+        }
+
+        @Override
+        public Subscriber acquire() {
+            Subscriber subscriber = instance;
+            if (subscriber == null) {
+                synchronized (this) {
+                    subscriber = instance;
+                    if (subscriber == null) {
+                        subscriber = delegate.acquire();
+                        instance = subscriber;
+                    }
+                }
+            }
+            return subscriber;
+        }
+
+    }
+
+    private static final class PooledFactory implements SubscriberFactory {
+
+        private final PrototypeFactory delegate;
+        private final BlockingQueue<Subscriber> pool;
+
+        private PooledFactory(final PrototypeFactory delegate, final int capacity) {
+            this.delegate = delegate;
+            this.pool = new ArrayBlockingQueue<>(capacity);
+        }
+
+        @Override
+        public Subscriber acquire() {
+            final Subscriber subscriber = pool.poll();
+            return subscriber != null ? subscriber : delegate.acquire();
+        }
+
+        @Override
+        public void release(final Subscriber subscriber) {
+            // When the pool is already full, the instance is simply left for the GC.
+            pool.offer(subscriber);
+        }
+
+    }
+
+}
@@ -0,0 +1,50 @@
+/*
+ * This file is part of Alpine.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ * Copyright (c) Steve Springett. All Rights Reserved.
+ */
+package alpine.event.framework;
+
+/**
+ * Service provider interface for supplying {@link Subscriber} instances to an {@link IEventService}.
+ * <p>
+ * A factory is resolved once per subscriber class when it is subscribed, and then used for every
+ * event dispatched to that subscriber. Implementations must be thread safe. Custom factories, for
+ * example ones backed by a dependency injection container, can be registered through
+ * {@link BaseEventService#subscribe(Class, Class, SubscriberFactory)}.
+ *
+ * @see SubscriberFactories
+ * @since 3.8.0
+ */
+public interface SubscriberFactory {
+
+    /**
+     * Provides a subscriber instance that is ready to be informed of an event.
+     * @return a Subscriber
+     * @throws EventDispatchException when no instance could be provided
+     */
+    Subscriber acquire();
+
+    /**
+     * Hands a subscriber instance back to the factory after it has been informed
+     * of an event successfully. Instances whose {@link Subscriber#inform(Event)}
+     * method failed are not released, and are simply discarded.
+     * @param subscriber the Subscriber previously obtained through {@link #acquire()}
+     */
+    default void release(final Subscriber subscriber) {
+    }
+
+}
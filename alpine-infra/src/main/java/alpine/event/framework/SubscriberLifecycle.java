@@ -0,0 +1,49 @@
+/*
+ * This file is part of Alpine.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ * Copyright (c) Steve Springett. All Rights Reserved.
+ */
+package alpine.event.framework;
+
+/**
+ * Defines how instances of a {@link Subscriber} are managed by a {@link SubscriberFactory}.
+ *
+ * @see SubscriberScope
+ * @see SubscriberFactories#forClass(Class)
+ * @since 3.8.0
+ */
+public enum SubscriberLifecycle {
+
+    /**
+     * A new instance is created for every event the subscriber is informed of.
+     * This is the default, and matches the behavior of previous Alpine releases.
+     */
+    PROTOTYPE,
+
+    /**
+     * A single instance is shared across all events and worker threads.
+     * Subscribers using this lifecycle must be thread safe.
+     */
+    SINGLETON,
+
+    /**
+     * Instances are borrowed from a bounded pool and returned after the subscriber
+     * has been informed. An instance is never used by more than one thread at a time,
+     * but it will be reused for subsequent events, so it must not hold per-event state.
+     */
+    POOLED
+
+}
@@ -0,0 +1,57 @@
+/*
+ * This file is part of Alpine.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ * Copyright (c) Steve Springett. All Rights Reserved.
+ */
+package alpine.event.framework;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Declares the {@link SubscriberLifecycle} of a {@link Subscriber}. Subscribers without
+ * this annotation use {@link SubscriberLifecycle#PROTOTYPE}.
+ *
+ * <pre>
+ * &#64;SubscriberScope(SubscriberLifecycle.SINGLETON)
+ * public class MyStatelessTask implements Subscriber {
+ *     ...
+ * }
+ * </pre>
+ *
+ * @since 3.8.0
+ */
+@Documented
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.TYPE)
+public @interface SubscriberScope {
+
+    /**
+     * @return the lifecycle of the annotated subscriber
+     */
+    SubscriberLifecycle value() default SubscriberLifecycle.PROTOTYPE;
+
+    /**
+     * The maximum number of idle instances retained when using {@link SubscriberLifecycle#POOLED}.
+     * A value of zero or less will use {@link alpine.common.util.ThreadUtil#determineNumberOfWorkerThreads()}.
+     * @return the maximum pool size
+     */
+    int poolSize() default 0;
+
+}
@@ -0,0 +1,54 @@
+/*
+ * This file is part of Alpine.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ * Copyright (c) Steve Springett. All Rights Reserved.
+ */
+package alpine.event.framework;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Limits how long a {@link Subscriber} may take to process an event. When the timeout is exceeded,
+ * the thread informing the subscriber is interrupted, its {@link CancellationToken} is cancelled,
+ * and the event is considered failed. Subscribers without this annotation use the default timeout
+ * of the event service.
+ *
+ * <pre>
+ * &#64;SubscriberTimeout(60_000)
+ * public class LdapSyncTask implements Subscriber {
+ *     ...
+ * }
+ * </pre>
+ *
+ * @see alpine.Config.AlpineKey#EVENT_SUBSCRIBER_TIMEOUT
+ * @since 3.8.0
+ */
+@Documented
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.TYPE)
+public @interface SubscriberTimeout {
+
+    /**
+     * @return the maximum duration in milliseconds the subscriber may take to process an event.
+     * A value of zero or less disables the timeout.
+     */
+    long value();
+
+}
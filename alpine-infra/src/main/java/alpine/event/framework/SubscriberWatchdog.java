@@ -0,0 +1,72 @@
+/*
+ * This file is part of Alpine.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ * Copyright (c) Steve Springett. All Rights Reserved.
+ */
+package alpine.event.framework;
+
+import alpine.common.logging.Logger;
+import org.apache.commons.lang3.concurrent.BasicThreadFactory;
+
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cancels the {@link CancellationToken}s of subscribers exceeding their {@link SubscriberTimeout}.
+ * A single daemon thread is shared by all event services, as it only fires for runaway subscribers.
+ *
+ * @since 3.8.0
+ */
+final class SubscriberWatchdog {
+
+    private static final Logger LOGGER = Logger.getLogger(SubscriberWatchdog.class);
+    private static final ScheduledExecutorService SCHEDULER = createScheduler();
+
+    private SubscriberWatchdog() {
+    }
+
+    private static ScheduledExecutorService createScheduler() {
+        final var scheduler = new ScheduledThreadPoolExecutor(1, new BasicThreadFactory.Builder()
+                .namingPattern("Alpine-SubscriberWatchdog-%d")
+                .uncaughtExceptionHandler(new LoggableUncaughtExceptionHandler())
+                .daemon(true)
+                .build());
+        // Nearly all cancellations are cancelled once the subscriber returned,
+        // don't retain them until their timeout elapsed.
+        scheduler.setRemoveOnCancelPolicy(true);
+        return scheduler;
+    }
+
+    /**
+     * Schedules the cancellation of a token.
+     * @param token the token of the subscriber being informed
+     * @param binding the binding of the subscriber being informed
+     * @param timeoutMillis the timeout of the subscriber in milliseconds
+     * @return the scheduled cancellation, to be cancelled once the subscriber returned
+     */
+    static ScheduledFuture<?> watch(final CancellationToken token, final SubscriberBinding binding,
+                                    final long timeoutMillis) {
+        return SCHEDULER.schedule(() -> {
+            if (token.cancel()) {
+                LOGGER.warn("Subscriber " + binding.getSubscriberClass().getName() + " exceeded its timeout of "
+                        + timeoutMillis + "ms; Interrupting it");
+            }
+        }, timeoutMillis, TimeUnit.MILLISECONDS);
+    }
+
+}
@@ -0,0 +1,346 @@
+/*
+ * This file is part of Alpine.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ * Copyright (c) Steve Springett. All Rights Reserved.
+ */
+package alpine.event.framework;
+
+import alpine.common.logging.Logger;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.DelayQueue;
+import java.util.concurrent.Delayed;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * A hierarchical timing wheel, scheduling large numbers of tasks at constant cost per task.
+ * <p>
+ * Each level of the wheel is an array of buckets, each bucket holding the tasks expiring within one tick
+ * of the level. Tasks expiring beyond the span of a level are added to the next, coarser level, which is
+ * created on demand, and are moved down to finer levels as time advances. Adding and cancelling a task
+ * only links or unlinks it in a bucket. Rather than ticking through empty buckets, the wheel is advanced by a
+ * single thread waiting on a {@link DelayQueue} of the non-empty buckets. While no bucket expires, the thread
+ * only wakes up every 200 milliseconds to check whether the wheel was closed.
+ * <p>
+ * Tasks run on the thread advancing the wheel, and should therefore hand off any lengthy work, for example
+ * to the {@link DeferredPublisher}.
+ *
+ * @since 3.8.0
+ */
+final class TimingWheel {
+
+    /**
+     * A task scheduled on a {@link TimingWheel}.
+     */
+    static final class Timeout {
+
+        private final TimingWheel wheel;
+        private final long expirationMillis;
+        private final Runnable task;
+        private final AtomicBoolean done = new AtomicBoolean();
+        private Bucket bucket;
+        private Timeout prev;
+        private Timeout next;
+
+        private Timeout(final TimingWheel wheel, final long expirationMillis, final Runnable task) {
+            this.wheel = wheel;
+            this.expirationMillis = expirationMillis;
+            this.task = task;
+        }
+
+        /**
+         * Cancels the task, unless it already ran.
+         * @return {@code true} if the task was cancelled, {@code false} if it already ran or was cancelled before
+         */
+        boolean cancel() {
+            if (!done.compareAndSet(false, true)) {
+                return false;
+            }
+            wheel.pending.decrementAndGet();
+            final Bucket bucket = this.bucket;
+            if (bucket != null) {
+                bucket.remove(this);
+            }
+            return true;
+        }
+
+        private void run() {
+            if (!done.compareAndSet(false, true)) {
+                return;
+            }
+            wheel.pending.decrementAndGet();
+            try {
+                task.run();
+            } catch (RuntimeException e) {
+                LOGGER.error("An error occurred while running a scheduled task", e);
+            }
+        }
+
+    }
+
+    /**
+     * A doubly-linked list of the tasks expiring within the same tick of a level.
+     */
+    private static final class Bucket implements Delayed {
+
+        private final AtomicLong expirationMillis = new AtomicLong(-1);
+        private final Timeout root = new Timeout(null, -1, null);
+
+        private Bucket() {
+            root.next = root;
+            root.prev = root;
+        }
+
+        private synchronized void add(final Timeout timeout) {
+            timeout.bucket = this;
+            timeout.next = root;
+            timeout.prev = root.prev;
+            root.prev.next = timeout;
+            root.prev = timeout;
+        }
+
+        private synchronized void remove(final Timeout timeout) {
+            if (timeout.bucket == this) {
+                timeout.next.prev = timeout.prev;
+                timeout.prev.next = timeout.next;
+                timeout.next = null;
+                timeout.prev = null;
+                timeout.bucket = null;
+            }
+        }
+
+        /**
+         * Removes all tasks from the bucket.
+         * @param drained receives the removed tasks
+         */
+        private synchronized void drainTo(final List<Timeout> drained) {
+            Timeout timeout = root.next;
+            while (timeout != root) {
+                final Timeout next = timeout.next;
+                remove(timeout);
+                drained.add(timeout);
+                timeout = next;
+            }
+            expirationMillis.set(-1);
+        }
+
+        /**
+         * @return {@code true} if the expiration changed, meaning the bucket has to be queued again
+         */
+        private boolean setExpiration(final long expirationMillis) {
+            return this.expirationMillis.getAndSet(expirationMillis) != expirationMillis;
+        }
+
+        @Override
+        public long getDelay(final TimeUnit unit) {
+            return unit.convert(Math.max(0, expirationMillis.get() - nowMillis()), TimeUnit.MILLISECONDS);
+        }
+
+        @Override
+        public int compareTo(final Delayed other) {
+            return Long.compare(expirationMillis.get(), ((Bucket) other).expirationMillis.get());
+        }
+
+    }
+
+    /**
+     * A level of the wheel, spanning {@code wheelSize} ticks.
+     */
+    private final class Level {
+
+        private final long tickMillis;
+        private final long spanMillis;
+        private final Bucket[] buckets;
+        private volatile long currentTimeMillis;
+        private volatile Level overflow;
+
+        private Level(final long tickMillis, final long startMillis) {
+            this.tickMillis = tickMillis;
+            this.spanMillis = tickMillis * wheelSize;
+            this.buckets = new Bucket[wheelSize];
+            for (int i = 0; i < wheelSize; i++) {
+                buckets[i] = new Bucket();
+            }
+            this.currentTimeMillis = startMillis - (startMillis % tickMillis);
+        }
+
+        /**
+         * @return {@code false} if the task is already due
+         */
+        private boolean add(final Timeout timeout) {
+            final long expiration = timeout.expirationMillis;
+            final long currentTime = currentTimeMillis;
+            if (expiration < currentTime + tickMillis) {
+                return false;
+            }
+            if (expiration < currentTime + spanMillis) {
+                final long virtualId = expiration / tickMillis;
+                final Bucket bucket = buckets[(int) (virtualId % wheelSize)];
+                bucket.add(timeout);
+                if (bucket.setExpiration(virtualId * tickMillis)) {
+                    queue.offer(bucket);
+                }
+                return true;
+            }
+            return getOverflow().add(timeout);
+        }
+
+        private Level getOverflow() {
+            Level level = overflow;
+            if (level == null) {
+                synchronized (this) {
+                    level = overflow;
+                    if (level == null) {
+                        level = new Level(spanMillis, currentTimeMillis);
+                        overflow = level;
+                    }
+                }
+            }
+            return level;
+        }
+
+        private void advance(final long timeMillis) {
+            if (timeMillis >= currentTimeMillis + tickMillis) {
+                currentTimeMillis = timeMillis - (timeMillis % tickMillis);
+                final Level level = overflow;
+                if (level != null) {
+                    level.advance(currentTimeMillis);
+                }
+            }
+        }
+
+    }
+
+    private static final Logger LOGGER = Logger.getLogger(TimingWheel.class);
+    private static final TimingWheel INSTANCE = new TimingWheel("Alpine-TimingWheel", 10, 512);
+
+    private final int wheelSize;
+    private final DelayQueue<Bucket> queue = new DelayQueue<>();
+    private final AtomicInteger pending = new AtomicInteger();
+    // Tasks are added under the read lock, so that they can be added concurrently,
+    // while the wheel is advanced under the write lock.
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Level root;
+    private final Thread reaper;
+    private volatile boolean closed;
+
+    /**
+     * @param threadName the name of the thread advancing the wheel
+     * @param tickMillis the resolution of the wheel in milliseconds
+     * @param wheelSize  the number of buckets per level
+     */
+    TimingWheel(final String threadName, final long tickMillis, final int wheelSize) {
+        this.wheelSize = wheelSize;
+        this.root = new Level(tickMillis, nowMillis());
+        this.reaper = new Thread(this::advanceLoop, threadName);
+        this.reaper.setDaemon(true);
+        this.reaper.setUncaughtExceptionHandler(new LoggableUncaughtExceptionHandler());
+        this.reaper.start();
+    }
+
+    /**
+     * @return the {@link TimingWheel} shared by all event services
+     */
+    static TimingWheel getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * Schedules a task. Tasks due within the resolution of the wheel run right away, on the calling thread.
+     * @param task the task to run
+     * @param delayMillis the delay in milliseconds after which to run the task
+     * @return the scheduled task, which may be cancelled
+     */
+    Timeout schedule(final Runnable task, final long delayMillis) {
+        final var timeout = new Timeout(this, nowMillis() + Math.max(0, delayMillis), task);
+        pending.incrementAndGet();
+        final boolean added;
+        lock.readLock().lock();
+        try {
+            added = !closed && root.add(timeout);
+        } finally {
+            lock.readLock().unlock();
+        }
+        if (!added) {
+            timeout.run();
+        }
+        return timeout;
+    }
+
+    /**
+     * @return the number of tasks that are neither run nor cancelled
+     */
+    int size() {
+        return pending.get();
+    }
+
+    /**
+     * Stops advancing the wheel. Pending tasks will not run, tasks scheduled afterward run right away.
+     */
+    void close() {
+        closed = true;
+        reaper.interrupt();
+    }
+
+    private void advanceLoop() {
+        final var drained = new ArrayList<Timeout>();
+        final var expired = new ArrayList<Timeout>();
+        while (!closed) {
+            Bucket bucket;
+            try {
+                bucket = queue.poll(200, TimeUnit.MILLISECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+            if (bucket == null) {
+                continue;
+            }
+            lock.writeLock().lock();
+            try {
+                while (bucket != null) {
+                    root.advance(bucket.expirationMillis.get());
+                    bucket.drainTo(drained);
+                    // Tasks of coarser levels are moved to finer levels, unless they are due.
+                    for (final Timeout timeout : drained) {
+                        if (!timeout.done.get() && !root.add(timeout)) {
+                            expired.add(timeout);
+                        }
+                    }
+                    drained.clear();
+                    bucket = queue.poll();
+                }
+            } finally {
+                lock.writeLock().unlock();
+            }
+            for (final Timeout timeout : expired) {
+                timeout.run();
+            }
+            expired.clear();
+        }
+    }
+
+    private static long nowMillis() {
+        return TimeUnit.NANOSECONDS.toMillis(System.nanoTime());
+    }
+
+}
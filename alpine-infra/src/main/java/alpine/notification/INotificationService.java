@@ -18,6 +18,8 @@
  */
 package alpine.notification;
 
+import alpine.event.framework.PublishStatus;
+
 import java.time.Duration;
 
 /**
@@ -33,9 +35,10 @@ public interface INotificationService {
      * Publishes Notification. Published notifications will get dispatched to all subscribers in the order in
      * which they subscribed. Subscribers are informed asynchronously one after the next.
      * @param notification A Notification to publish
+     * @return The {@link PublishStatus}, describing whether the notification was queued for all subscribers
      * @since 1.3.0
      */
-    void publish(Notification notification);
+    PublishStatus publish(Notification notification);
 
     /**
      * Subscribes to a Notification. Subscribes are automatically notified of all notifications for which they are
@@ -18,9 +18,12 @@
  */
 package alpine.notification;
 
+import java.io.Serializable;
 import java.time.LocalDateTime;
 
-public final class Notification {
+public final class Notification implements Serializable {
+
+    private static final long serialVersionUID = -1784523609728462305L;
 
     private String scope;
     private String group;
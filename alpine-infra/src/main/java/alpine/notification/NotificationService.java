@@ -18,23 +18,44 @@
  */
 package alpine.notification;
 
+import alpine.Config;
 import alpine.common.logging.Logger;
+import alpine.common.logging.MdcSnapshot;
 import alpine.common.metrics.Metrics;
+import alpine.common.metrics.TagCardinalityLimiter;
+import alpine.common.metrics.VirtualThreadPinningMonitor;
+import alpine.common.util.ThreadUtil;
+import alpine.common.util.VirtualThreadExecutorService;
+import alpine.event.framework.DispatchStatistics;
+import alpine.event.framework.EventJournal;
+import alpine.event.framework.EventServiceStatus;
 import alpine.event.framework.LoggableUncaughtExceptionHandler;
+import alpine.event.framework.PublishStatus;
+import alpine.event.framework.QueueAdmission;
 import io.micrometer.core.instrument.Counter;
 import org.apache.commons.lang3.concurrent.BasicThreadFactory;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputFilter;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
 import java.lang.reflect.InvocationTargetException;
 import java.time.Duration;
 import java.time.Instant;
 import java.time.temporal.ChronoUnit;
 import java.util.ArrayList;
+import java.util.List;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import static alpine.common.util.ExecutorUtil.getExecutorStats;
 
@@ -44,6 +65,13 @@ import static alpine.common.util.ExecutorUtil.getExecutorStats;
  * the objectives and logic of notification processing vary enough to warrant implementations specific to
  * notifications.
  *
+ * When the {@link Config.AlpineKey#EVENT_JOURNAL_ENABLED event journal} is enabled, notifications
+ * are written to it before being dispatched, and replayed on startup if not all subscribers have
+ * been informed of them.
+ *
+ * The {@link org.slf4j.MDC} of the publishing thread, such as request and trace identifiers,
+ * is restored while subscribers are informed of a notification.
+ *
  * @author Steve Springett
  * @since 1.3.0
  */
@@ -53,16 +81,51 @@ public final class NotificationService implements INotificationService {
     private static final Logger LOGGER = Logger.getLogger(NotificationService.class);
     private static final Map<Class<? extends Notification>, ArrayList<Subscription>> SUBSCRIPTION_MAP = new ConcurrentHashMap<>();
     private static final ExecutorService EXECUTOR_SERVICE;
+    private static final QueueAdmission QUEUE_ADMISSION;
     private static final String EXECUTOR_SERVICE_NAME = "Alpine-NotificationService";
+    private static final int THREAD_POOL_SIZE = 4;
+    private static final Map<PublishedMetricKey, Counter> PUBLISHED_COUNTERS = new ConcurrentHashMap<>();
+    private static final TagCardinalityLimiter GROUP_LIMITER;
+    private static final TagCardinalityLimiter SCOPE_LIMITER;
+    private static final EventJournal JOURNAL;
+    private static final DispatchStatistics DISPATCH_STATISTICS = new DispatchStatistics();
 
     static {
-        BasicThreadFactory factory = new BasicThreadFactory.Builder()
-                .namingPattern(EXECUTOR_SERVICE_NAME + "-%d")
-                .uncaughtExceptionHandler(new LoggableUncaughtExceptionHandler())
-                .build();
-        EXECUTOR_SERVICE = new ThreadPoolExecutor(4, 4, 0L, TimeUnit.MILLISECONDS,
-                new LinkedBlockingQueue<>(), factory);
+        final int queueCapacity = QueueAdmission.determineQueueCapacity(Config.AlpineKey.NOTIFICATION_SERVICE_QUEUE_CAPACITY);
+        if (ThreadUtil.isVirtualThreadModeEnabled()) {
+            EXECUTOR_SERVICE = new VirtualThreadExecutorService(EXECUTOR_SERVICE_NAME,
+                    ThreadUtil.determineVirtualThreadConcurrency(THREAD_POOL_SIZE), queueCapacity,
+                    new LoggableUncaughtExceptionHandler());
+            VirtualThreadPinningMonitor.start();
+        } else {
+            BasicThreadFactory factory = new BasicThreadFactory.Builder()
+                    .namingPattern(EXECUTOR_SERVICE_NAME + "-%d")
+                    .uncaughtExceptionHandler(new LoggableUncaughtExceptionHandler())
+                    .build();
+            EXECUTOR_SERVICE = new ThreadPoolExecutor(THREAD_POOL_SIZE, THREAD_POOL_SIZE, 0L, TimeUnit.MILLISECONDS,
+                    new LinkedBlockingQueue<>(queueCapacity), factory);
+        }
         Metrics.registerExecutorService(EXECUTOR_SERVICE, EXECUTOR_SERVICE_NAME);
+        QUEUE_ADMISSION = QueueAdmission.fromConfig(EXECUTOR_SERVICE_NAME,
+                Config.AlpineKey.NOTIFICATION_SERVICE_OVERFLOW_POLICY, Config.AlpineKey.NOTIFICATION_SERVICE_OVERFLOW_TIMEOUT);
+
+        final int tagCardinalityLimit = Config.getInstance().getPropertyAsInt(Config.AlpineKey.METRICS_TAG_CARDINALITY_LIMIT);
+        GROUP_LIMITER = new TagCardinalityLimiter("group", tagCardinalityLimit);
+        SCOPE_LIMITER = new TagCardinalityLimiter("scope", tagCardinalityLimit);
+
+        EventJournal journal = null;
+        if (Config.getInstance().getPropertyAsBoolean(Config.AlpineKey.EVENT_JOURNAL_ENABLED)) {
+            try {
+                journal = EventJournal.open(EXECUTOR_SERVICE_NAME);
+                journal.setRecoveryHandler(NotificationService::replayJournalEntry);
+            } catch (IOException e) {
+                LOGGER.error("Unable to open the notification journal; Notifications will be dispatched without durability guarantees", e);
+            }
+        }
+        JOURNAL = journal;
+    }
+
+    private record PublishedMetricKey(String group, NotificationLevel level, String scope) {
     }
 
     /**
@@ -79,58 +142,191 @@ public final class NotificationService implements INotificationService {
      * {@inheritDoc}
      * @since 1.3.0
      */
-    public void publish(final Notification notification) {
+    public PublishStatus publish(final Notification notification) {
+        if (JOURNAL != null && hasSubscriptions(notification)) {
+            final long sequence = appendToJournal(notification);
+            if (sequence >= 0) {
+                return publish(notification, new JournaledDelivery(sequence));
+            }
+        }
+        return publish(notification, null);
+    }
+
+    private PublishStatus publish(final Notification notification, final JournaledDelivery delivery) {
         LOGGER.debug("Dispatching notification: " + notification.getClass().toString());
         final ArrayList<Subscription> subscriptions = SUBSCRIPTION_MAP.get(notification.getClass());
         if (subscriptions == null) {
             LOGGER.debug("No subscribers to inform from notification: " + notification.getClass().getName());
-            return;
+            return PublishStatus.IGNORED;
         }
+        final MdcSnapshot mdcSnapshot = MdcSnapshot.capture();
+        PublishStatus status = PublishStatus.IGNORED;
         for (final Subscription subscription : subscriptions) {
             if (subscription.getScope() != null && subscription.getGroup() != null && subscription.getLevel() != null) { // subscription was the most specific
                 if (subscription.getScope().equals(notification.getScope()) && subscription.getGroup().equals(notification.getGroup()) && subscription.getLevel() == notification.getLevel()) {
-                    alertSubscriber(notification, subscription.getSubscriber());
+                    status = status.merge(alertSubscriber(notification, subscription.getSubscriber(), delivery, mdcSnapshot));
                 }
             } else if (subscription.getGroup() != null && subscription.getLevel() != null) { // subscription was very specific
                 if (subscription.getGroup().equals(notification.getGroup()) && subscription.getLevel() == notification.getLevel()) {
-                    alertSubscriber(notification, subscription.getSubscriber());
+                    status = status.merge(alertSubscriber(notification, subscription.getSubscriber(), delivery, mdcSnapshot));
                 }
             } else if (subscription.getGroup() != null) { // subscription was somewhat specific
                 if (subscription.getGroup().equals(notification.getGroup())) {
-                    alertSubscriber(notification, subscription.getSubscriber());
+                    status = status.merge(alertSubscriber(notification, subscription.getSubscriber(), delivery, mdcSnapshot));
                 }
             } else if (subscription.getLevel() != null) { // subscription was somewhat specific
                 if (subscription.getLevel() == notification.getLevel()) {
-                    alertSubscriber(notification, subscription.getSubscriber());
+                    status = status.merge(alertSubscriber(notification, subscription.getSubscriber(), delivery, mdcSnapshot));
                 }
             } else { // subscription was not specific
-                alertSubscriber(notification, subscription.getSubscriber());
+                status = status.merge(alertSubscriber(notification, subscription.getSubscriber(), delivery, mdcSnapshot));
             }
         }
+        if (delivery != null) {
+            delivery.release();
+        }
         recordPublishedMetric(notification);
+        return status;
     }
 
-    private void alertSubscriber(final Notification notification, final Class<? extends Subscriber> subscriberClass) {
+    private PublishStatus alertSubscriber(final Notification notification, final Class<? extends Subscriber> subscriberClass,
+                                          final JournaledDelivery delivery, final MdcSnapshot mdcSnapshot) {
         LOGGER.debug("Alerting subscriber " + subscriberClass.getName());
-        EXECUTOR_SERVICE.execute(() -> {
+        final String notificationType = notification.getClass().getName();
+        final long enqueuedAtNanos = DISPATCH_STATISTICS.recordEnqueued(notificationType);
+        final AtomicBoolean dequeued = new AtomicBoolean();
+        final Runnable task = () -> {
+            if (dequeued.compareAndSet(false, true)) {
+                DISPATCH_STATISTICS.recordStarted(notificationType, enqueuedAtNanos);
+            }
+            final MdcSnapshot.Scope scope = mdcSnapshot.restore();
             try {
                 subscriberClass.getDeclaredConstructor().newInstance().inform(notification);
             } catch (NoSuchMethodException | InvocationTargetException | InstantiationException |
                      IllegalAccessException | SecurityException e) {
                 LOGGER.error("An error occurred while informing subscriber: " + e);
+            } finally {
+                scope.close();
+                DISPATCH_STATISTICS.recordProcessed(subscriberClass.getName(), 1);
+                if (delivery != null) {
+                    delivery.release();
+                }
             }
-        });
+        };
+        final AtomicBoolean discarded = new AtomicBoolean();
+        final Runnable onDiscard = () -> {
+            if (dequeued.compareAndSet(false, true)) {
+                DISPATCH_STATISTICS.recordDiscarded(notificationType);
+            }
+            if (delivery != null && discarded.compareAndSet(false, true)) {
+                delivery.abandon();
+            }
+        };
+        if (delivery != null) {
+            delivery.retain();
+        }
+        try {
+            return QUEUE_ADMISSION.submit(EXECUTOR_SERVICE, new QueueAdmission.Task(task, onDiscard));
+        } catch (RejectedExecutionException e) {
+            onDiscard.run();
+            throw e;
+        }
+    }
+
+    /**
+     * Returns the status of the NotificationService. The status is computed from lock-free counters,
+     * so that it can be retrieved cheaply while the service is saturated. Notifications are not chained,
+     * so no chains are reported.
+     * @return the {@link EventServiceStatus} of the NotificationService
+     * @since 3.8.0
+     */
+    public EventServiceStatus getStatus() {
+        return new EventServiceStatus(getClass().getName(),
+                List.of(getExecutorStats(EXECUTOR_SERVICE)),
+                DISPATCH_STATISTICS.getQueuedCounts(),
+                DISPATCH_STATISTICS.getOldestQueuedAge().toMillis(),
+                0, Map.of(),
+                DISPATCH_STATISTICS.getThroughput());
+    }
+
+    private static long appendToJournal(final Notification notification) {
+        try {
+            final var baos = new ByteArrayOutputStream();
+            try (final var oos = new ObjectOutputStream(baos)) {
+                oos.writeObject(notification);
+            }
+            return JOURNAL.append(baos.toByteArray());
+        } catch (IOException | RuntimeException e) {
+            // Most likely the subject of the notification is not serializable.
+            LOGGER.debug("Unable to write notification to the journal; Dispatching it without durability guarantees", e);
+            return -1;
+        }
+    }
+
+    private static boolean replayJournalEntry(final EventJournal.Entry entry) {
+        final Notification notification;
+        try (final var ois = new ObjectInputStream(new ByteArrayInputStream(entry.payload()))) {
+            ois.setObjectInputFilter(info -> info.depth() == 1 && info.serialClass() != null
+                    && info.serialClass() != Notification.class
+                    ? ObjectInputFilter.Status.REJECTED : ObjectInputFilter.Status.UNDECIDED);
+            notification = (Notification) ois.readObject();
+        } catch (IOException | ClassNotFoundException | RuntimeException e) {
+            LOGGER.error("Unable to deserialize notification " + entry.sequence() + " recovered from the journal; Discarding it", e);
+            JOURNAL.acknowledge(entry.sequence());
+            return true;
+        }
+        if (!INSTANCE.hasSubscriptions(notification)) {
+            // The application likely did not finish subscribing yet.
+            return false;
+        }
+        INSTANCE.publish(notification, new JournaledDelivery(entry.sequence()));
+        return true;
+    }
+
+    /**
+     * Tracks the subscribers of a journaled notification, and acknowledges it once all have been informed.
+     * Notifications discarded due to queue overflow are not acknowledged, and will be replayed on startup.
+     */
+    private static final class JournaledDelivery {
+
+        private final long sequence;
+        private final AtomicInteger pending = new AtomicInteger(1);
+        private volatile boolean abandoned;
+
+        private JournaledDelivery(final long sequence) {
+            this.sequence = sequence;
+        }
+
+        private void retain() {
+            pending.incrementAndGet();
+        }
+
+        private void release() {
+            if (pending.decrementAndGet() == 0 && !abandoned) {
+                JOURNAL.acknowledge(sequence);
+            }
+        }
+
+        private void abandon() {
+            abandoned = true;
+            release();
+        }
+
     }
 
     private void recordPublishedMetric(final Notification notification) {
-        Counter.builder("alpine_notifications_published_total")
-                .description("Total number of published notifications")
-                .tags(
-                        "group", notification.getGroup(),
-                        "level", notification.getLevel().name(),
-                        "scope", notification.getScope()
-                )
-                .register(Metrics.getRegistry())
+        final var key = new PublishedMetricKey(
+                GROUP_LIMITER.limit(notification.getGroup()),
+                notification.getLevel(),
+                SCOPE_LIMITER.limit(notification.getScope()));
+        PUBLISHED_COUNTERS.computeIfAbsent(key, k -> Counter.builder("alpine_notifications_published_total")
+                        .description("Total number of published notifications")
+                        .tags(
+                                "group", k.group(),
+                                "level", k.level().name(),
+                                "scope", k.scope()
+                        )
+                        .register(Metrics.getRegistry()))
                 .increment();
     }
 
@@ -182,6 +378,9 @@ public final class NotificationService implements INotificationService {
     public void shutdown() {
         LOGGER.info("Shutting down NotificationService");
         EXECUTOR_SERVICE.shutdown();
+        if (JOURNAL != null) {
+            JOURNAL.sync();
+        }
     }
 
     /**
@@ -207,6 +406,9 @@ public final class NotificationService implements INotificationService {
         }
 
         LOGGER.info("Executor terminated gracefully");
+        if (JOURNAL != null) {
+            JOURNAL.close();
+        }
         return true;
     }
 
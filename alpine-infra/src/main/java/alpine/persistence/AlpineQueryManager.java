@@ -24,8 +24,14 @@ import alpine.event.framework.EventService;
 import alpine.event.framework.LoggableSubscriber;
 import alpine.event.framework.Subscriber;
 import alpine.model.ApiKey;
+import alpine.model.ClusterLease;
+import alpine.model.ClusterMessage;
+import alpine.model.ClusterNode;
 import alpine.model.ConfigProperty;
+import alpine.model.DeadLetterEvent;
+import alpine.model.EventOutboxEntry;
 import alpine.model.EventServiceLog;
+import alpine.model.EventServiceLogSummary;
 import alpine.model.LdapUser;
 import alpine.model.ManagedUser;
 import alpine.model.MappedLdapGroup;
@@ -37,18 +43,26 @@ import alpine.model.Team;
 import alpine.model.UserPrincipal;
 import alpine.resources.AlpineRequest;
 import alpine.security.ApiKeyGenerator;
+import org.apache.commons.lang3.StringUtils;
 
 import javax.jdo.PersistenceManager;
 import javax.jdo.Query;
+import javax.jdo.datastore.JDOConnection;
 import java.security.Principal;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
 import java.sql.Timestamp;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.Date;
 import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.UUID;
 
 /**
  * This QueryManager provides a concrete extension of {@link AbstractAlpineQueryManager} by
@@ -1104,32 +1118,697 @@ public class AlpineQueryManager extends AbstractAlpineQueryManager {
             return null;
         }
 
-        return callInTransaction(() -> {
+        final var completed = new Timestamp(new Date().getTime());
+        final EventServiceLog updated = callInTransaction(() -> {
             final EventServiceLog log = getObjectById(EventServiceLog.class, eventServiceLog.getId());
             if (log != null) {
-                log.setCompleted(new Timestamp(new Date().getTime()));
+                log.setCompleted(completed);
                 return log;
             } else {
                 return null;
             }
         });
+        if (updated != null) {
+            try {
+                withNativeConnection(EventServiceLogSummary.class, connection -> {
+                    EventServiceLogRecorder.updateSummary(connection, eventServiceLog.getSubscriberClass(),
+                            eventServiceLog.getId(), eventServiceLog.getStarted(), completed);
+                    return null;
+                });
+            } catch (SQLException e) {
+                throw new IllegalStateException("Failed to update the EventServiceLogSummary", e);
+            }
+            evictEventServiceLogSummaries();
+        }
+        return updated;
     }
 
     /**
-     * Returns the most recent log entry for the specified Subscriber.
+     * Returns the most recent completed log entry for the specified Subscriber.
      * If no log entries are found, this method will return null.
+     * <p>
+     * Log entries that were recorded by {@link EventServiceLogRecorder}, but not yet
+     * written to the datastore, are considered as well.
+     * <p>
+     * The entry is read from the {@link EventServiceLogSummary} of the subscriber, so that the lookup
+     * does not slow down as log entries accumulate, and remains possible after the entry was pruned.
      * @param clazz The LoggableSubscriber class to query on
      * @return a EventServiceLog
      * @since 1.0.0
      */
     public EventServiceLog getLatestEventServiceLog(final Class<LoggableSubscriber> clazz) {
-        final Query<EventServiceLog> query = pm.newQuery(EventServiceLog.class, "eventClass == :clazz");
-        query.setParameters(clazz);
-        query.setOrdering("completed desc");
-        query.setRange(0, 1);
+        final Query<EventServiceLogSummary> summaryQuery = pm.newQuery(EventServiceLogSummary.class, "subscriberClass == :clazz");
+        summaryQuery.setParameters(clazz.getCanonicalName());
+        final EventServiceLogSummary summary = executeAndCloseUnique(summaryQuery);
+        EventServiceLog latest = null;
+        if (summary != null) {
+            latest = new EventServiceLog();
+            latest.setId(summary.getLogId());
+            latest.setSubscriberClass(summary.getSubscriberClass());
+            latest.setStarted(summary.getStarted());
+            latest.setCompleted(summary.getCompleted());
+        } else {
+            // Logs written before summaries were introduced.
+            final Query<EventServiceLog> query = pm.newQuery(EventServiceLog.class, "subscriberClass == :clazz && completed != null");
+            query.setParameters(clazz.getCanonicalName());
+            query.setOrdering("completed desc");
+            query.setRange(0, 1);
+            latest = executeAndCloseUnique(query);
+        }
+        return EventServiceLogRecorder.getInstance().readThrough(clazz.getCanonicalName(), latest);
+    }
+
+    /**
+     * Returns the canonical class names of all subscribers that EventServiceLogs exist for.
+     * @return a List of subscriber class names
+     * @since 3.8.0
+     */
+    public List<String> getEventServiceLogSubscriberClasses() {
+        final Query<EventServiceLog> query = pm.newQuery(EventServiceLog.class);
+        query.setResult("distinct subscriberClass");
+        return executeAndCloseResultList(query, String.class);
+    }
+
+    /**
+     * Deletes up to {@code limit} of the oldest EventServiceLogs started before the given time.
+     * The {@link EventServiceLogSummary} of their subscribers is retained.
+     * @param startedBefore logs started before this time are deleted
+     * @param limit the maximum number of logs to delete
+     * @return the number of deleted logs
+     * @since 3.8.0
+     */
+    public int deleteEventServiceLogs(final Timestamp startedBefore, final int limit) {
+        final Query<EventServiceLog> query = pm.newQuery(EventServiceLog.class, "started < :startedBefore");
+        query.setParameters(startedBefore);
+        query.setResult("id");
+        query.setOrdering("id asc");
+        query.setRange(0, limit);
+        return deleteEventServiceLogs(executeAndCloseResultList(query, Long.class));
+    }
+
+    /**
+     * Deletes up to {@code limit} of the oldest EventServiceLogs of a subscriber, that exceed
+     * the given number of logs retained per subscriber.
+     * @param subscriberClass the canonical class name of the subscriber
+     * @param maxLogs the number of most recent logs to retain
+     * @param limit the maximum number of logs to delete
+     * @return the number of deleted logs
+     * @since 3.8.0
+     */
+    public int deleteExcessEventServiceLogs(final String subscriberClass, final int maxLogs, final int limit) {
+        final Query<EventServiceLog> query = pm.newQuery(EventServiceLog.class, "subscriberClass == :subscriberClass");
+        query.setParameters(subscriberClass);
+        query.setResult("id");
+        query.setOrdering("id desc");
+        query.setRange(maxLogs, (long) maxLogs + limit);
+        return deleteEventServiceLogs(executeAndCloseResultList(query, Long.class));
+    }
+
+    private int deleteEventServiceLogs(final List<Long> ids) {
+        if (ids.isEmpty()) {
+            return 0;
+        }
+        callInTransaction(() -> withNativeConnection(EventServiceLog.class, connection -> {
+            try (final PreparedStatement ps = connection.prepareStatement("""
+                    DELETE FROM "EVENTSERVICELOG" WHERE "ID" = ?
+                    """)) {
+                for (final Long id : ids) {
+                    ps.setLong(1, id);
+                    ps.addBatch();
+                }
+                return ps.executeBatch();
+            }
+        }));
+        // Logs were deleted bypassing DataNucleus, make sure it doesn't serve stale state.
+        pm.getPersistenceManagerFactory().getDataStoreCache().evictAll(false, EventServiceLog.class);
+        return ids.size();
+    }
+
+    private void evictEventServiceLogSummaries() {
+        // Summaries were modified bypassing DataNucleus, make sure it doesn't serve stale state.
+        pm.getPersistenceManagerFactory().getDataStoreCache().evictAll(false, EventServiceLogSummary.class);
+    }
+
+    /**
+     * Creates a new EventOutboxEntry. If a transaction is active, the entry is created as part of it,
+     * and will only become visible to relays once the transaction is committed.
+     * @param eventService the name of the event service the event was published to
+     * @param eventClass the name of the class of the event
+     * @param payload the serialized event
+     * @return a new EventOutboxEntry
+     * @since 3.8.0
+     */
+    public EventOutboxEntry createEventOutboxEntry(final String eventService, final String eventClass, final byte[] payload) {
+        return callInTransaction(() -> {
+            final var entry = new EventOutboxEntry();
+            entry.setEventService(eventService);
+            entry.setEventClass(eventClass);
+            entry.setPayload(payload);
+            entry.setCreated(new Timestamp(new Date().getTime()));
+            return pm.makePersistent(entry);
+        });
+    }
+
+    /**
+     * Claims up to {@code limit} EventOutboxEntries of an event service, in the order they were created.
+     * Entries that are not claimed, or that were claimed by another instance before {@code claimExpiry},
+     * are eligible. Claims of {@code claimant} itself never expire, as its events may still be processed.
+     * <p>
+     * Rows are locked using {@code SELECT ... FOR UPDATE SKIP LOCKED} where the database supports it,
+     * so that multiple instances can claim entries concurrently without blocking each other.
+     * @param eventService the name of the event service
+     * @param claimant the identifier of the instance claiming the entries
+     * @param limit the maximum number of entries to claim
+     * @param claimExpiry claims made before this time are considered abandoned
+     * @return the claimed entries, which are not managed by the PersistenceManager
+     * @since 3.8.0
+     */
+    public List<EventOutboxEntry> claimEventOutboxEntries(final String eventService, final String claimant,
+                                                          final int limit, final Timestamp claimExpiry) {
+        final var claimedAt = new Timestamp(new Date().getTime());
+        final List<EventOutboxEntry> entries = callInTransaction(() -> withEventOutboxConnection(connection -> {
+            final var claimed = new ArrayList<EventOutboxEntry>();
+            try (final PreparedStatement ps = connection.prepareStatement(getSkipLockedQuery(
+                    connection.getMetaData().getDatabaseProductName(),
+                    "\"ID\", \"EVENTCLASS\", \"PAYLOAD\", \"CREATED\", \"ATTEMPTS\"", "EVENTOUTBOX",
+                    "\"EVENTSERVICE\" = ? AND (\"CLAIMEDAT\" IS NULL OR (\"CLAIMEDAT\" < ? AND \"CLAIMEDBY\" <> ?))", limit))) {
+                ps.setString(1, eventService);
+                ps.setTimestamp(2, claimExpiry);
+                ps.setString(3, claimant);
+                try (final ResultSet rs = ps.executeQuery()) {
+                    while (rs.next()) {
+                        final var entry = new EventOutboxEntry();
+                        entry.setId(rs.getLong("ID"));
+                        entry.setEventService(eventService);
+                        entry.setEventClass(rs.getString("EVENTCLASS"));
+                        entry.setPayload(rs.getBytes("PAYLOAD"));
+                        entry.setCreated(rs.getTimestamp("CREATED"));
+                        entry.setAttempts(rs.getInt("ATTEMPTS") + 1);
+                        entry.setClaimedBy(claimant);
+                        entry.setClaimedAt(claimedAt);
+                        claimed.add(entry);
+                    }
+                }
+            }
+            if (claimed.isEmpty()) {
+                return claimed;
+            }
+            try (final PreparedStatement ps = connection.prepareStatement("""
+                    UPDATE "EVENTOUTBOX" SET "CLAIMEDBY" = ?, "CLAIMEDAT" = ?, "ATTEMPTS" = "ATTEMPTS" + 1
+                    WHERE "ID" = ?
+                    """)) {
+                for (final EventOutboxEntry entry : claimed) {
+                    ps.setString(1, claimant);
+                    ps.setTimestamp(2, claimedAt);
+                    ps.setLong(3, entry.getId());
+                    ps.addBatch();
+                }
+                ps.executeBatch();
+            }
+            return claimed;
+        }));
+        if (!entries.isEmpty()) {
+            evictEventOutboxEntries();
+        }
+        return entries;
+    }
+
+    /**
+     * Releases all claims an instance holds on EventOutboxEntries of an event service,
+     * making the entries eligible to be claimed again immediately.
+     * @param eventService the name of the event service
+     * @param claimant the identifier of the instance that claimed the entries
+     * @return the number of released entries
+     * @since 3.8.0
+     */
+    public int releaseEventOutboxEntries(final String eventService, final String claimant) {
+        final int released = callInTransaction(() -> withEventOutboxConnection(connection -> {
+            try (final PreparedStatement ps = connection.prepareStatement("""
+                    UPDATE "EVENTOUTBOX" SET "CLAIMEDBY" = NULL, "CLAIMEDAT" = NULL
+                    WHERE "EVENTSERVICE" = ? AND "CLAIMEDBY" = ?
+                    """)) {
+                ps.setString(1, eventService);
+                ps.setString(2, claimant);
+                return ps.executeUpdate();
+            }
+        }));
+        if (released > 0) {
+            evictEventOutboxEntries();
+        }
+        return released;
+    }
+
+    /**
+     * Releases the claims on EventOutboxEntries, making the entries eligible to be claimed again immediately.
+     * @param ids the IDs of the entries to release
+     * @since 3.8.0
+     */
+    public void releaseEventOutboxEntries(final Collection<Long> ids) {
+        if (ids.isEmpty()) {
+            return;
+        }
+        callInTransaction(() -> withEventOutboxConnection(connection -> {
+            try (final PreparedStatement ps = connection.prepareStatement("""
+                    UPDATE "EVENTOUTBOX" SET "CLAIMEDBY" = NULL, "CLAIMEDAT" = NULL WHERE "ID" = ?
+                    """)) {
+                for (final Long id : ids) {
+                    ps.setLong(1, id);
+                    ps.addBatch();
+                }
+                return ps.executeBatch();
+            }
+        }));
+        evictEventOutboxEntries();
+    }
+
+    /**
+     * Deletes EventOutboxEntries, typically after their events have been processed.
+     * @param ids the IDs of the entries to delete
+     * @since 3.8.0
+     */
+    public void deleteEventOutboxEntries(final Collection<Long> ids) {
+        if (ids.isEmpty()) {
+            return;
+        }
+        callInTransaction(() -> withEventOutboxConnection(connection -> {
+            try (final PreparedStatement ps = connection.prepareStatement("""
+                    DELETE FROM "EVENTOUTBOX" WHERE "ID" = ?
+                    """)) {
+                for (final Long id : ids) {
+                    ps.setLong(1, id);
+                    ps.addBatch();
+                }
+                return ps.executeBatch();
+            }
+        }));
+        evictEventOutboxEntries();
+    }
+
+    /**
+     * Creates a new DeadLetterEvent.
+     * @param eventService the name of the event service the event was published to
+     * @param subscriberClass the name of the class of the subscriber that failed to process the event
+     * @param eventClass the name of the class of the event
+     * @param payload the serialized event, or {@code null} if it could not be serialized
+     * @param attempts the number of attempts made to process the event
+     * @param failure a description of the last failure, truncated to 1024 characters
+     * @return a new DeadLetterEvent
+     * @since 3.8.0
+     */
+    public DeadLetterEvent createDeadLetterEvent(final String eventService, final String subscriberClass,
+                                                 final String eventClass, final byte[] payload,
+                                                 final int attempts, final String failure) {
+        return callInTransaction(() -> {
+            final var deadLetterEvent = new DeadLetterEvent();
+            deadLetterEvent.setEventService(eventService);
+            deadLetterEvent.setSubscriberClass(subscriberClass);
+            deadLetterEvent.setEventClass(eventClass);
+            deadLetterEvent.setPayload(payload);
+            deadLetterEvent.setAttempts(attempts);
+            deadLetterEvent.setFailure(StringUtils.abbreviate(failure, 1024));
+            deadLetterEvent.setCreated(new Timestamp(new Date().getTime()));
+            return pm.makePersistent(deadLetterEvent);
+        });
+    }
+
+    /**
+     * Returns a paginated list of DeadLetterEvents, most recent first.
+     * @return a PaginatedResult of DeadLetterEvents
+     * @since 3.8.0
+     */
+    public PaginatedResult getDeadLetterEvents() {
+        final Query<DeadLetterEvent> query = pm.newQuery(DeadLetterEvent.class);
+        query.setOrdering("created desc, id desc");
+        return execute(query);
+    }
+
+    /**
+     * Returns the DeadLetterEvents with the specified UUIDs. UUIDs without a matching event are ignored.
+     * @param uuids the UUIDs of the events to retrieve
+     * @return a List of DeadLetterEvents, in the order they were created
+     * @since 3.8.0
+     */
+    public List<DeadLetterEvent> getDeadLetterEvents(final Collection<UUID> uuids) {
+        if (uuids.isEmpty()) {
+            return List.of();
+        }
+        final Query<DeadLetterEvent> query = pm.newQuery(DeadLetterEvent.class, ":uuids.contains(uuid)");
+        query.setParameters(uuids);
+        query.setOrdering("id asc");
+        return executeAndCloseList(query);
+    }
+
+    /**
+     * Builds a query selecting and locking up to {@code limit} rows, skipping rows that are
+     * locked by other transactions where the database supports it.
+     */
+    private static String getSkipLockedQuery(final String databaseProductName, final String columns,
+                                             final String table, final String filter, final int limit) {
+        return switch (databaseProductName) {
+            case "Microsoft SQL Server" -> """
+                    SELECT TOP (%d) %s FROM "%s" WITH (UPDLOCK, ROWLOCK, READPAST)
+                    WHERE %s ORDER BY "ID"
+                    """.formatted(limit, columns, table, filter);
+            case "MySQL", "MariaDB" -> """
+                    SELECT %s FROM "%s" WHERE %s ORDER BY "ID"
+                    LIMIT %d FOR UPDATE SKIP LOCKED
+                    """.formatted(columns, table, filter, limit);
+            case "PostgreSQL", "H2" -> """
+                    SELECT %s FROM "%s" WHERE %s ORDER BY "ID"
+                    FETCH FIRST %d ROWS ONLY FOR UPDATE SKIP LOCKED
+                    """.formatted(columns, table, filter, limit);
+            // Without SKIP LOCKED, concurrent claimants wait for each other, but never claim the same rows.
+            default -> """
+                    SELECT %s FROM "%s" WHERE %s ORDER BY "ID"
+                    FETCH FIRST %d ROWS ONLY FOR UPDATE
+                    """.formatted(columns, table, filter, limit);
+        };
+    }
+
+    private <T> T withEventOutboxConnection(final SqlFunction<T> function) throws SQLException {
+        return withNativeConnection(EventOutboxEntry.class, function);
+    }
+
+    private <T> T withNativeConnection(final Class<?> persistentClass, final SqlFunction<T> function) throws SQLException {
+        // Let DataNucleus create the table if necessary, before accessing it via JDBC.
+        pm.getExtent(persistentClass);
+        final var jdoConnection = (JDOConnection) pm.getDataStoreConnection();
+        try {
+            return function.apply((Connection) jdoConnection.getNativeConnection());
+        } finally {
+            jdoConnection.close();
+        }
+    }
+
+    /**
+     * Registers a node of the cluster.
+     * @param nodeId the unique identifier of the node
+     * @param hostname the hostname of the node
+     * @return the registered ClusterNode
+     * @since 3.8.0
+     */
+    public ClusterNode registerClusterNode(final String nodeId, final String hostname) {
+        return callInTransaction(() -> {
+            final var now = new Timestamp(new Date().getTime());
+            final var node = new ClusterNode();
+            node.setNodeId(nodeId);
+            node.setHostname(hostname);
+            node.setStarted(now);
+            node.setLastHeartbeat(now);
+            return pm.makePersistent(node);
+        });
+    }
+
+    /**
+     * Records a heartbeat of a node of the cluster.
+     * @param nodeId the unique identifier of the node
+     * @return {@code false} if the node is not registered, for example because it was considered stale
+     * @since 3.8.0
+     */
+    public boolean updateClusterNodeHeartbeat(final String nodeId) {
+        return callInTransaction(() -> {
+            final Query<ClusterNode> query = pm.newQuery(ClusterNode.class, "nodeId == :nodeId");
+            query.setParameters(nodeId);
+            final ClusterNode node = executeAndCloseUnique(query);
+            if (node == null) {
+                return false;
+            }
+            node.setLastHeartbeat(new Timestamp(new Date().getTime()));
+            return true;
+        });
+    }
+
+    /**
+     * Returns the nodes of the cluster that sent a heartbeat since the given time.
+     * @param heartbeatSince the time of the oldest heartbeat considered alive
+     * @return a List of ClusterNodes, ordered by the time they started
+     * @since 3.8.0
+     */
+    public List<ClusterNode> getClusterNodes(final Timestamp heartbeatSince) {
+        final Query<ClusterNode> query = pm.newQuery(ClusterNode.class, "lastHeartbeat >= :heartbeatSince");
+        query.setParameters(heartbeatSince);
+        query.setOrdering("started asc, nodeId asc");
+        return executeAndCloseList(query);
+    }
+
+    /**
+     * Deletes a node of the cluster, including all messages that were addressed to it.
+     * @param nodeId the unique identifier of the node
+     * @since 3.8.0
+     */
+    public void deleteClusterNode(final String nodeId) {
+        callInTransaction(() -> {
+            final Query<ClusterNode> query = pm.newQuery(ClusterNode.class, "nodeId == :nodeId");
+            query.deletePersistentAll(nodeId);
+            return deleteOrphanedClusterMessages();
+        });
+        evictClusterMessages();
+    }
+
+    /**
+     * Deletes nodes of the cluster that did not send a heartbeat since the given time,
+     * including all messages that were addressed to them.
+     * @param heartbeatBefore the time of the oldest heartbeat considered alive
+     * @return the number of deleted nodes
+     * @since 3.8.0
+     */
+    public long deleteStaleClusterNodes(final Timestamp heartbeatBefore) {
+        final long deleted = callInTransaction(() -> {
+            final Query<ClusterNode> query = pm.newQuery(ClusterNode.class, "lastHeartbeat < :heartbeatBefore");
+            final long count = query.deletePersistentAll(heartbeatBefore);
+            deleteOrphanedClusterMessages();
+            return count;
+        });
+        evictClusterMessages();
+        return deleted;
+    }
+
+    private int deleteOrphanedClusterMessages() throws SQLException {
+        return withNativeConnection(ClusterMessage.class, connection -> {
+            try (final PreparedStatement ps = connection.prepareStatement("""
+                    DELETE FROM "CLUSTERMESSAGE"
+                    WHERE "TARGETNODE" IS NOT NULL
+                      AND "TARGETNODE" NOT IN (SELECT "NODEID" FROM "CLUSTERNODE")
+                    """)) {
+                return ps.executeUpdate();
+            }
+        });
+    }
+
+    /**
+     * Sends messages to nodes of the cluster. If a transaction is active, the messages are
+     * created as part of it.
+     * @param messages the messages to send
+     * @since 3.8.0
+     */
+    public void createClusterMessages(final List<ClusterMessage> messages) {
+        if (messages.isEmpty()) {
+            return;
+        }
+        callInTransaction(() -> withNativeConnection(ClusterMessage.class, connection -> {
+            try (final PreparedStatement ps = connection.prepareStatement("""
+                    INSERT INTO "CLUSTERMESSAGE" ("EVENTSERVICE", "EVENTCLASS", "PAYLOAD", "TARGETNODE", "ORIGINNODE", "CREATED")
+                    VALUES (?, ?, ?, ?, ?, ?)
+                    """)) {
+                final var now = new Timestamp(new Date().getTime());
+                for (final ClusterMessage message : messages) {
+                    ps.setString(1, message.getEventService());
+                    ps.setString(2, message.getEventClass());
+                    ps.setBytes(3, message.getPayload());
+                    ps.setString(4, message.getTargetNode());
+                    ps.setString(5, message.getOriginNode());
+                    ps.setTimestamp(6, now);
+                    ps.addBatch();
+                }
+                return ps.executeBatch();
+            }
+        }));
+    }
+
+    /**
+     * Receives up to {@code limit} messages addressed to the given node, or to any node.
+     * Received messages are deleted, so that every message is received by exactly one node.
+     * <p>
+     * Rows are locked using {@code SELECT ... FOR UPDATE SKIP LOCKED} where the database supports it,
+     * so that multiple nodes can receive messages concurrently without blocking each other.
+     * @param nodeId the unique identifier of the receiving node
+     * @param limit the maximum number of messages to receive
+     * @return the received messages, in the order they were sent
+     * @since 3.8.0
+     */
+    public List<ClusterMessage> receiveClusterMessages(final String nodeId, final int limit) {
+        final List<ClusterMessage> messages = callInTransaction(() -> withNativeConnection(ClusterMessage.class, connection -> {
+            final var received = new ArrayList<ClusterMessage>();
+            try (final PreparedStatement ps = connection.prepareStatement(getSkipLockedQuery(
+                    connection.getMetaData().getDatabaseProductName(),
+                    "\"ID\", \"EVENTSERVICE\", \"EVENTCLASS\", \"PAYLOAD\", \"TARGETNODE\", \"ORIGINNODE\", \"CREATED\"",
+                    "CLUSTERMESSAGE", "(\"TARGETNODE\" = ? OR \"TARGETNODE\" IS NULL)", limit))) {
+                ps.setString(1, nodeId);
+                try (final ResultSet rs = ps.executeQuery()) {
+                    while (rs.next()) {
+                        final var message = new ClusterMessage();
+                        message.setId(rs.getLong("ID"));
+                        message.setEventService(rs.getString("EVENTSERVICE"));
+                        message.setEventClass(rs.getString("EVENTCLASS"));
+                        message.setPayload(rs.getBytes("PAYLOAD"));
+                        message.setTargetNode(rs.getString("TARGETNODE"));
+                        message.setOriginNode(rs.getString("ORIGINNODE"));
+                        message.setCreated(rs.getTimestamp("CREATED"));
+                        received.add(message);
+                    }
+                }
+            }
+            if (received.isEmpty()) {
+                return received;
+            }
+            try (final PreparedStatement ps = connection.prepareStatement("""
+                    DELETE FROM "CLUSTERMESSAGE" WHERE "ID" = ?
+                    """)) {
+                for (final ClusterMessage message : received) {
+                    ps.setLong(1, message.getId());
+                    ps.addBatch();
+                }
+                ps.executeBatch();
+            }
+            return received;
+        }));
+        if (!messages.isEmpty()) {
+            evictClusterMessages();
+        }
+        return messages;
+    }
+
+    private void evictClusterMessages() {
+        // Messages were modified bypassing DataNucleus, make sure it doesn't serve stale state.
+        pm.getPersistenceManagerFactory().getDataStoreCache().evictAll(false, ClusterMessage.class);
+    }
+
+    /**
+     * Acquires or renews a lease of the cluster. The lease is granted if it is not held by any other node,
+     * or if it expired. Leases expire according to the clock of the node acquiring them, so clocks of all
+     * nodes must be synchronized.
+     * <p>
+     * Must not be called while a transaction is active, as the lease is created if it doesn't exist yet,
+     * which fails if another node created it concurrently.
+     * @param name the name of the lease
+     * @param holder the unique identifier of the node acquiring the lease
+     * @param durationMillis the number of milliseconds after which the lease expires, unless renewed
+     * @return {@code true} if the lease is held by {@code holder}
+     * @since 3.8.0
+     */
+    public boolean acquireClusterLease(final String name, final String holder, final long durationMillis) {
+        final var now = new Timestamp(new Date().getTime());
+        final var expires = new Timestamp(now.getTime() + durationMillis);
+        final boolean acquired;
+        try {
+            acquired = callInTransaction(() -> withNativeConnection(ClusterLease.class, connection -> {
+                try (final PreparedStatement ps = connection.prepareStatement("""
+                        UPDATE "CLUSTERLEASE"
+                        SET "ACQUIRED" = CASE WHEN "HOLDER" = ? THEN "ACQUIRED" ELSE ? END, "HOLDER" = ?, "EXPIRES" = ?
+                        WHERE "NAME" = ? AND ("HOLDER" = ? OR "HOLDER" IS NULL OR "EXPIRES" < ?)
+                        """)) {
+                    ps.setString(1, holder);
+                    ps.setTimestamp(2, now);
+                    ps.setString(3, holder);
+                    ps.setTimestamp(4, expires);
+                    ps.setString(5, name);
+                    ps.setString(6, holder);
+                    ps.setTimestamp(7, now);
+                    if (ps.executeUpdate() > 0) {
+                        return true;
+                    }
+                }
+                try (final PreparedStatement ps = connection.prepareStatement("""
+                        SELECT 1 FROM "CLUSTERLEASE" WHERE "NAME" = ?
+                        """)) {
+                    ps.setString(1, name);
+                    try (final ResultSet rs = ps.executeQuery()) {
+                        if (rs.next()) {
+                            // The lease is held by another node.
+                            return false;
+                        }
+                    }
+                }
+                try (final PreparedStatement ps = connection.prepareStatement("""
+                        INSERT INTO "CLUSTERLEASE" ("NAME", "HOLDER", "ACQUIRED", "EXPIRES") VALUES (?, ?, ?, ?)
+                        """)) {
+                    ps.setString(1, name);
+                    ps.setString(2, holder);
+                    ps.setTimestamp(3, now);
+                    ps.setTimestamp(4, expires);
+                    return ps.executeUpdate() > 0;
+                }
+            }));
+        } catch (RuntimeException e) {
+            if (isIntegrityConstraintViolation(e)) {
+                // Another node created the lease concurrently, and thus holds it.
+                return false;
+            }
+            throw e;
+        }
+        evictClusterLeases();
+        return acquired;
+    }
+
+    /**
+     * Releases a lease of the cluster, if it is held by the given node.
+     * @param name the name of the lease
+     * @param holder the unique identifier of the node holding the lease
+     * @return {@code true} if the lease was held by {@code holder}, and is now released
+     * @since 3.8.0
+     */
+    public boolean releaseClusterLease(final String name, final String holder) {
+        final boolean released = callInTransaction(() -> withNativeConnection(ClusterLease.class, connection -> {
+            try (final PreparedStatement ps = connection.prepareStatement("""
+                    UPDATE "CLUSTERLEASE" SET "HOLDER" = NULL, "EXPIRES" = ? WHERE "NAME" = ? AND "HOLDER" = ?
+                    """)) {
+                ps.setTimestamp(1, new Timestamp(new Date().getTime()));
+                ps.setString(2, name);
+                ps.setString(3, holder);
+                return ps.executeUpdate() > 0;
+            }
+        }));
+        evictClusterLeases();
+        return released;
+    }
+
+    /**
+     * Returns a lease of the cluster.
+     * @param name the name of the lease
+     * @return the ClusterLease, or {@code null} if it was never acquired
+     * @since 3.8.0
+     */
+    public ClusterLease getClusterLease(final String name) {
+        final Query<ClusterLease> query = pm.newQuery(ClusterLease.class, "name == :name");
+        query.setParameters(name);
         return executeAndCloseUnique(query);
     }
 
+    private void evictClusterLeases() {
+        // Leases were modified bypassing DataNucleus, make sure it doesn't serve stale state.
+        pm.getPersistenceManagerFactory().getDataStoreCache().evictAll(false, ClusterLease.class);
+    }
+
+    private static boolean isIntegrityConstraintViolation(final Throwable throwable) {
+        for (Throwable cause = throwable; cause != null; cause = cause.getCause()) {
+            if (cause instanceof SQLException sqlException && sqlException.getSQLState() != null
+                    && sqlException.getSQLState().startsWith("23")) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void evictEventOutboxEntries() {
+        // Entries were modified bypassing DataNucleus, make sure it doesn't serve stale state.
+        pm.getPersistenceManagerFactory().getDataStoreCache().evictAll(false, EventOutboxEntry.class);
+    }
+
+    @FunctionalInterface
+    private interface SqlFunction<T> {
+        T apply(Connection connection) throws SQLException;
+    }
+
     /**
      * Returns a ConfigProperty with the specified groupName and propertyName.
      * @param groupName the group name of the config property
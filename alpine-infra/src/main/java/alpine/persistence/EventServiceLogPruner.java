@@ -0,0 +1,154 @@
+/*
+ * This file is part of Alpine.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ * Copyright (c) Steve Springett. All Rights Reserved.
+ */
+package alpine.persistence;
+
+import alpine.Config;
+import alpine.common.logging.Logger;
+import alpine.common.metrics.Metrics;
+import alpine.event.framework.LoggableUncaughtExceptionHandler;
+import alpine.model.EventServiceLog;
+import alpine.model.EventServiceLogSummary;
+import io.micrometer.core.instrument.Counter;
+import org.apache.commons.lang3.concurrent.BasicThreadFactory;
+
+import javax.jdo.PersistenceManager;
+import java.sql.Timestamp;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Enforces the retention of {@link EventServiceLog}s.
+ * <p>
+ * Every {@link Config.AlpineKey#EVENT_SERVICE_LOG_PRUNE_INTERVAL} milliseconds, logs started more than
+ * {@link Config.AlpineKey#EVENT_SERVICE_LOG_RETENTION_DAYS} days ago are deleted, as well as the oldest logs
+ * of subscribers with more than {@link Config.AlpineKey#EVENT_SERVICE_LOG_RETENTION_MAX_LOGS} logs.
+ * A value of zero or less disables the respective limit. Both limits are disabled by default.
+ * <p>
+ * Logs are deleted in batches of at most {@link Config.AlpineKey#EVENT_SERVICE_LOG_PRUNE_BATCH_SIZE} logs,
+ * each in its own transaction, so that pruning a large number of logs does not hold locks for long.
+ * The {@link EventServiceLogSummary} of subscribers is retained.
+ *
+ * @see EventServiceLogRecorder
+ * @since 3.8.0
+ */
+public final class EventServiceLogPruner {
+
+    private static final Logger LOGGER = Logger.getLogger(EventServiceLogPruner.class);
+    private static final EventServiceLogPruner INSTANCE = new EventServiceLogPruner(
+            () -> new AlpineQueryManager().getPersistenceManager(), Clock.systemUTC(),
+            Duration.ofDays(Config.getInstance().getPropertyAsInt(Config.AlpineKey.EVENT_SERVICE_LOG_RETENTION_DAYS)),
+            Config.getInstance().getPropertyAsInt(Config.AlpineKey.EVENT_SERVICE_LOG_RETENTION_MAX_LOGS),
+            Config.getInstance().getPropertyAsInt(Config.AlpineKey.EVENT_SERVICE_LOG_PRUNE_BATCH_SIZE),
+            Config.getInstance().getPropertyAsLong(Config.AlpineKey.EVENT_SERVICE_LOG_PRUNE_INTERVAL));
+
+    private final Supplier<PersistenceManager> pmSupplier;
+    private final Clock clock;
+    private final Duration maxAge;
+    private final int maxLogs;
+    private final int batchSize;
+    private final long intervalMillis;
+    private final Counter prunedCounter;
+    private volatile ScheduledExecutorService executor;
+
+    EventServiceLogPruner(final Supplier<PersistenceManager> pmSupplier, final Clock clock, final Duration maxAge,
+                          final int maxLogs, final int batchSize, final long intervalMillis) {
+        this.pmSupplier = pmSupplier;
+        this.clock = clock;
+        this.maxAge = maxAge;
+        this.maxLogs = maxLogs;
+        this.batchSize = Math.max(1, batchSize);
+        this.intervalMillis = intervalMillis;
+        this.prunedCounter = Counter.builder("alpine_event_service_logs_pruned_total")
+                .description("Total number of EventServiceLogs deleted due to retention")
+                .register(Metrics.getRegistry());
+    }
+
+    public static EventServiceLogPruner getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * Starts pruning logs periodically, unless pruning was already started or is disabled.
+     */
+    public void start() {
+        if (executor != null || intervalMillis <= 0 || !isRetentionEnabled()) {
+            return;
+        }
+        synchronized (this) {
+            if (executor == null) {
+                final var threadFactory = new BasicThreadFactory.Builder()
+                        .uncaughtExceptionHandler(new LoggableUncaughtExceptionHandler())
+                        .namingPattern("Alpine-EventServiceLogPruner-%d")
+                        .daemon(true)
+                        .build();
+                final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(threadFactory);
+                scheduler.scheduleWithFixedDelay(this::prune, intervalMillis, intervalMillis, TimeUnit.MILLISECONDS);
+                executor = scheduler;
+            }
+        }
+    }
+
+    /**
+     * Deletes all logs exceeding the retention.
+     * @return the number of deleted logs
+     */
+    public synchronized long prune() {
+        if (!isRetentionEnabled()) {
+            return 0;
+        }
+
+        long deleted = 0;
+        try (final var qm = new AlpineQueryManager(pmSupplier.get())) {
+            if (maxAge.isPositive()) {
+                final var startedBefore = Timestamp.from(clock.instant().minus(maxAge));
+                int batch;
+                do {
+                    batch = qm.deleteEventServiceLogs(startedBefore, batchSize);
+                    deleted += batch;
+                } while (batch == batchSize);
+            }
+            if (maxLogs > 0) {
+                for (final String subscriberClass : qm.getEventServiceLogSubscriberClasses()) {
+                    int batch;
+                    do {
+                        batch = qm.deleteExcessEventServiceLogs(subscriberClass, maxLogs, batchSize);
+                        deleted += batch;
+                    } while (batch == batchSize);
+                }
+            }
+        } catch (RuntimeException e) {
+            LOGGER.error("Failed to prune EventServiceLogs", e);
+        }
+
+        if (deleted > 0) {
+            LOGGER.debug("Pruned " + deleted + " EventServiceLogs");
+            prunedCounter.increment(deleted);
+        }
+        return deleted;
+    }
+
+    private boolean isRetentionEnabled() {
+        return maxAge.isPositive() || maxLogs > 0;
+    }
+
+}
@@ -0,0 +1,441 @@
+/*
+ * This file is part of Alpine.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ * Copyright (c) Steve Springett. All Rights Reserved.
+ */
+package alpine.persistence;
+
+import alpine.Config;
+import alpine.common.logging.Logger;
+import alpine.event.framework.LoggableUncaughtExceptionHandler;
+import alpine.event.framework.Subscriber;
+import alpine.model.EventServiceLog;
+import alpine.model.EventServiceLogSummary;
+import org.apache.commons.lang3.concurrent.BasicThreadFactory;
+
+import javax.jdo.PersistenceManager;
+import javax.jdo.datastore.JDOConnection;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.LockSupport;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+/**
+ * Write-behind recorder for {@link EventServiceLog}s.
+ * <p>
+ * Rather than running two transactions on the event worker thread for every
+ * {@link alpine.event.framework.LoggableSubscriber} invocation, start and completion
+ * records are buffered in memory, and periodically written using JDBC batches.
+ * Records that complete before they are flushed are written with a single {@code INSERT}.
+ * <p>
+ * Records are flushed every {@link Config.AlpineKey#EVENT_SERVICE_LOG_FLUSH_INTERVAL} milliseconds,
+ * and when {@link #flush()} is called explicitly, e.g. during shutdown. An interval of zero or less
+ * disables buffering, and writes records immediately.
+ * <p>
+ * The most recent completion of each subscriber is additionally written to its {@link EventServiceLogSummary},
+ * so that it can be looked up without querying the EventServiceLogs, which are subject to retention.
+ *
+ * @see EventServiceLogPruner
+ * @see AlpineQueryManager#getLatestEventServiceLog(Class)
+ * @since 3.8.0
+ */
+public final class EventServiceLogRecorder {
+
+    /**
+     * A buffered {@link EventServiceLog}.
+     */
+    public static final class PendingLog {
+
+        private final String subscriberClass;
+        private final Timestamp started;
+        private volatile Timestamp completed;
+        private volatile long id;
+        private boolean completionPersisted; // Only accessed while holding the flush lock
+
+        private PendingLog(final String subscriberClass, final Timestamp started) {
+            this.subscriberClass = subscriberClass;
+            this.started = started;
+        }
+
+        private EventServiceLog toEventServiceLog() {
+            final var log = new EventServiceLog();
+            log.setId(id);
+            log.setSubscriberClass(subscriberClass);
+            log.setStarted(started);
+            log.setCompleted(completed);
+            return log;
+        }
+
+    }
+
+    private static final Logger LOGGER = Logger.getLogger(EventServiceLogRecorder.class);
+    private static final EventServiceLogRecorder INSTANCE = new EventServiceLogRecorder(
+            () -> new AlpineQueryManager().getPersistenceManager(),
+            Config.getInstance().getPropertyAsLong(Config.AlpineKey.EVENT_SERVICE_LOG_FLUSH_INTERVAL),
+            EventServiceLogPruner.getInstance());
+    private static final int QUEUE_CAPACITY = 10_000;
+
+    private final Supplier<PersistenceManager> pmSupplier;
+    private final long flushIntervalMillis;
+    private final EventServiceLogPruner pruner;
+    private final BlockingQueue<PendingLog> pendingInserts = new ArrayBlockingQueue<>(QUEUE_CAPACITY);
+    private final BlockingQueue<PendingLog> pendingCompletions = new ArrayBlockingQueue<>(QUEUE_CAPACITY);
+    private final Map<String, PendingLog> latestUnflushedCompletions = new ConcurrentHashMap<>();
+    private final Map<String, PendingLog> pendingSummaries = new HashMap<>(); // Only accessed while holding the flush lock
+    private final Lock flushLock = new ReentrantLock();
+    private volatile ScheduledExecutorService flushExecutor;
+    private boolean schemaInitialized; // Only accessed while holding the flush lock
+
+    EventServiceLogRecorder(final Supplier<PersistenceManager> pmSupplier, final long flushIntervalMillis) {
+        this(pmSupplier, flushIntervalMillis, null);
+    }
+
+    private EventServiceLogRecorder(final Supplier<PersistenceManager> pmSupplier, final long flushIntervalMillis,
+                                    final EventServiceLogPruner pruner) {
+        this.pmSupplier = pmSupplier;
+        this.flushIntervalMillis = flushIntervalMillis;
+        this.pruner = pruner;
+    }
+
+    public static EventServiceLogRecorder getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * Records that the specified subscriber started to process an event.
+     * @param clazz the class of the subscriber
+     * @return a handle to pass to {@link #recordCompleted(PendingLog)}
+     */
+    public PendingLog recordStarted(final Class<? extends Subscriber> clazz) {
+        final var log = new PendingLog(clazz.getCanonicalName(), new Timestamp(System.currentTimeMillis()));
+        if (pruner != null) {
+            pruner.start();
+        }
+        enqueue(pendingInserts, log);
+        return log;
+    }
+
+    /**
+     * Records that the subscriber of a previously started log completed processing its event.
+     * @param log the handle returned by {@link #recordStarted(Class)}
+     */
+    public void recordCompleted(final PendingLog log) {
+        log.completed = new Timestamp(System.currentTimeMillis());
+        latestUnflushedCompletions.merge(log.subscriberClass, log,
+                (prev, current) -> current.completed.before(prev.completed) ? prev : current);
+        enqueue(pendingCompletions, log);
+    }
+
+    /**
+     * Merges buffered, not yet flushed, completions into the result of an {@link EventServiceLog} query.
+     * @param subscriberClass the canonical class name of the subscriber
+     * @param persisted the most recent completed log of the subscriber, as read from the datastore, or {@code null}
+     * @return the most recent completed log of the subscriber, or {@code null} if none exists
+     */
+    EventServiceLog readThrough(final String subscriberClass, final EventServiceLog persisted) {
+        final PendingLog pending = latestUnflushedCompletions.get(subscriberClass);
+        if (pending == null) {
+            return persisted;
+        }
+        if (persisted != null && persisted.getCompleted() != null
+                && !persisted.getCompleted().before(pending.completed)) {
+            return persisted;
+        }
+        return pending.toEventServiceLog();
+    }
+
+    private void enqueue(final BlockingQueue<PendingLog> queue, final PendingLog log) {
+        if (flushIntervalMillis <= 0) {
+            queue.offer(log);
+            flush();
+            return;
+        }
+
+        ensureFlushExecutorStarted();
+        while (!queue.offer(log)) {
+            // Prefer delaying the subscriber over losing log records.
+            LOGGER.debug("EventServiceLog buffer is saturated; Flushing on the calling thread");
+            flush();
+            if (queue.remainingCapacity() == 0) {
+                // The flush failed; Back off rather than retrying it right away.
+                LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(flushIntervalMillis));
+            }
+        }
+    }
+
+    private void ensureFlushExecutorStarted() {
+        if (flushExecutor != null) {
+            return;
+        }
+        synchronized (this) {
+            if (flushExecutor == null) {
+                final var threadFactory = new BasicThreadFactory.Builder()
+                        .uncaughtExceptionHandler(new LoggableUncaughtExceptionHandler())
+                        .namingPattern("Alpine-EventServiceLogRecorder-%d")
+                        .daemon(true)
+                        .build();
+                final ScheduledExecutorService executor = Executors.newSingleThreadScheduledExecutor(threadFactory);
+                executor.scheduleWithFixedDelay(this::flush, flushIntervalMillis, flushIntervalMillis, TimeUnit.MILLISECONDS);
+                flushExecutor = executor;
+            }
+        }
+    }
+
+    /**
+     * Writes all buffered records to the datastore.
+     * <p>
+     * Records are only removed from the buffers once they were written, so that they are
+     * retried by the next flush if writing them fails.
+     */
+    public void flush() {
+        flushLock.lock();
+        try {
+            if (pendingInserts.isEmpty() && pendingCompletions.isEmpty() && pendingSummaries.isEmpty()) {
+                return;
+            }
+
+            final var inserts = new ArrayList<>(pendingInserts);
+            final var completions = new ArrayList<PendingLog>();
+
+            try (final var qm = new AlpineQueryManager(pmSupplier.get())) {
+                if (!schemaInitialized) {
+                    // Let DataNucleus create the table if necessary, before accessing it via JDBC.
+                    qm.getPersistenceManager().getExtent(EventServiceLog.class);
+                    qm.getPersistenceManager().getExtent(EventServiceLogSummary.class);
+                    schemaInitialized = true;
+                }
+
+                final var jdoConnection = (JDOConnection) qm.getPersistenceManager().getDataStoreConnection();
+                try {
+                    final var connection = (Connection) jdoConnection.getNativeConnection();
+                    write(connection, inserts, completions);
+                    removeHead(pendingInserts, inserts.size());
+                    removeHead(pendingCompletions, completions.size());
+
+                    for (final List<PendingLog> logs : List.of(inserts, completions)) {
+                        for (final PendingLog log : logs) {
+                            if (log.completionPersisted && log.completed != null) {
+                                pendingSummaries.merge(log.subscriberClass, log,
+                                        (prev, current) -> current.completed.before(prev.completed) ? prev : current);
+                            }
+                        }
+                    }
+                    summarize(connection);
+                } finally {
+                    jdoConnection.close();
+                }
+
+                if (!completions.isEmpty()) {
+                    // Completions were written bypassing DataNucleus, make sure it doesn't serve stale state.
+                    qm.getPersistenceManager().getPersistenceManagerFactory()
+                            .getDataStoreCache().evictAll(false, EventServiceLog.class);
+                }
+                qm.getPersistenceManager().getPersistenceManagerFactory()
+                        .getDataStoreCache().evictAll(false, EventServiceLogSummary.class);
+            }
+        } catch (Exception e) {
+            LOGGER.error("Failed to write EventServiceLogs; They will be retried with the next flush", e);
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    /**
+     * Inserts and completes logs in a single transaction. If the transaction fails,
+     * the state of all logs is reset, so that they can be written again.
+     */
+    private void write(final Connection connection, final List<PendingLog> inserts,
+                       final List<PendingLog> completions) throws SQLException {
+        final boolean autoCommit = connection.getAutoCommit();
+        connection.setAutoCommit(false);
+        List<PendingLog> uncompleted = List.of();
+        try {
+            insert(connection, inserts);
+
+            // Take completions only after inserts have been performed, so that all
+            // completions reference logs that either have an ID, or were already
+            // written including their completion timestamp.
+            completions.addAll(pendingCompletions);
+            uncompleted = completions.stream().filter(log -> !log.completionPersisted).toList();
+            complete(connection, completions);
+            connection.commit();
+        } catch (SQLException | RuntimeException e) {
+            connection.rollback();
+            for (final PendingLog log : inserts) {
+                log.id = 0;
+                log.completionPersisted = false;
+            }
+            for (final PendingLog log : uncompleted) {
+                log.completionPersisted = false;
+            }
+            throw e;
+        } finally {
+            connection.setAutoCommit(autoCommit);
+        }
+    }
+
+    private static void removeHead(final BlockingQueue<PendingLog> queue, final int count) {
+        // Only the flush removes records, so the head of the queue are the records that were written.
+        for (int i = 0; i < count; i++) {
+            queue.poll();
+        }
+    }
+
+    private void insert(final Connection connection, final List<PendingLog> logs) throws SQLException {
+        if (logs.isEmpty()) {
+            return;
+        }
+
+        try (final PreparedStatement ps = connection.prepareStatement("""
+                INSERT INTO "EVENTSERVICELOG" ("SUBSCRIBERCLASS", "STARTED", "COMPLETED")
+                VALUES (?, ?, ?)
+                """, new String[]{"ID"})) {
+            for (final PendingLog log : logs) {
+                final Timestamp completed = log.completed;
+                log.completionPersisted = completed != null;
+                ps.setString(1, log.subscriberClass);
+                ps.setTimestamp(2, log.started);
+                ps.setTimestamp(3, completed);
+                ps.addBatch();
+            }
+            ps.executeBatch();
+
+            try (final ResultSet rs = ps.getGeneratedKeys()) {
+                int i = 0;
+                while (rs.next() && i < logs.size()) {
+                    logs.get(i++).id = rs.getLong(1);
+                }
+            } catch (SQLException e) {
+                // Not all drivers return generated keys for batches. Completions
+                // will be correlated by subscriber and start timestamp instead.
+                LOGGER.debug("Unable to retrieve generated EventServiceLog IDs", e);
+            }
+        }
+    }
+
+    private void complete(final Connection connection, final List<PendingLog> logs) throws SQLException {
+        try (final PreparedStatement byId = connection.prepareStatement("""
+                UPDATE "EVENTSERVICELOG" SET "COMPLETED" = ? WHERE "ID" = ?
+                """);
+             final PreparedStatement byStarted = connection.prepareStatement("""
+                UPDATE "EVENTSERVICELOG" SET "COMPLETED" = ?
+                WHERE "SUBSCRIBERCLASS" = ? AND "STARTED" = ? AND "COMPLETED" IS NULL
+                """)) {
+            int byIdCount = 0;
+            int byStartedCount = 0;
+            for (final PendingLog log : logs) {
+                if (log.completionPersisted) {
+                    continue;
+                }
+                if (log.id > 0) {
+                    byId.setTimestamp(1, log.completed);
+                    byId.setLong(2, log.id);
+                    byId.addBatch();
+                    byIdCount++;
+                } else {
+                    byStarted.setTimestamp(1, log.completed);
+                    byStarted.setString(2, log.subscriberClass);
+                    byStarted.setTimestamp(3, log.started);
+                    byStarted.addBatch();
+                    byStartedCount++;
+                }
+                log.completionPersisted = true;
+            }
+            if (byIdCount > 0) {
+                byId.executeBatch();
+            }
+            if (byStartedCount > 0) {
+                byStarted.executeBatch();
+            }
+        }
+    }
+
+    private void summarize(final Connection connection) throws SQLException {
+        for (final Iterator<PendingLog> it = pendingSummaries.values().iterator(); it.hasNext(); ) {
+            final PendingLog log = it.next();
+            updateSummary(connection, log.subscriberClass, log.id, log.started, log.completed);
+            it.remove();
+            // Completions older than the summarized one were replaced by it already.
+            latestUnflushedCompletions.remove(log.subscriberClass, log);
+        }
+    }
+
+    /**
+     * Updates the {@link EventServiceLogSummary} of a subscriber, unless it already records a more recent completion.
+     * Must not be called while a transaction is active, as the summary is created if it doesn't exist yet,
+     * which fails if another instance created it concurrently.
+     */
+    static void updateSummary(final Connection connection, final String subscriberClass, final long logId,
+                              final Timestamp started, final Timestamp completed) throws SQLException {
+        try (final PreparedStatement ps = connection.prepareStatement("""
+                UPDATE "EVENTSERVICELOGSUMMARY" SET "LOGID" = ?, "STARTED" = ?, "COMPLETED" = ?
+                WHERE "SUBSCRIBERCLASS" = ? AND "COMPLETED" < ?
+                """)) {
+            ps.setLong(1, logId);
+            ps.setTimestamp(2, started);
+            ps.setTimestamp(3, completed);
+            ps.setString(4, subscriberClass);
+            ps.setTimestamp(5, completed);
+            if (ps.executeUpdate() > 0) {
+                return;
+            }
+        }
+        try (final PreparedStatement ps = connection.prepareStatement("""
+                SELECT 1 FROM "EVENTSERVICELOGSUMMARY" WHERE "SUBSCRIBERCLASS" = ?
+                """)) {
+            ps.setString(1, subscriberClass);
+            try (final ResultSet rs = ps.executeQuery()) {
+                if (rs.next()) {
+                    // The summary already records a more recent completion.
+                    return;
+                }
+            }
+        }
+        try (final PreparedStatement ps = connection.prepareStatement("""
+                INSERT INTO "EVENTSERVICELOGSUMMARY" ("SUBSCRIBERCLASS", "LOGID", "STARTED", "COMPLETED")
+                VALUES (?, ?, ?, ?)
+                """)) {
+            ps.setString(1, subscriberClass);
+            ps.setLong(2, logId);
+            ps.setTimestamp(3, started);
+            ps.setTimestamp(4, completed);
+            ps.executeUpdate();
+        } catch (SQLException e) {
+            if (e.getSQLState() == null || !e.getSQLState().startsWith("23")) {
+                throw e;
+            }
+            // Another instance created the summary concurrently, with a completion of about the same time.
+            LOGGER.debug("EventServiceLogSummary of " + subscriberClass + " was created concurrently", e);
+        }
+    }
+
+}
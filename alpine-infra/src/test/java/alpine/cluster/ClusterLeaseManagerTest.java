@@ -0,0 +1,184 @@
+/*
+ * This file is part of Alpine.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ * Copyright (c) Steve Springett. All Rights Reserved.
+ */
+package alpine.cluster;
+
+import alpine.common.metrics.Metrics;
+import alpine.event.framework.BaseEventService;
+import alpine.event.framework.ClusterSingleton;
+import alpine.event.framework.Event;
+import alpine.event.framework.PublishStatus;
+import alpine.event.framework.Subscriber;
+import alpine.model.ClusterLease;
+import alpine.persistence.AlpineQueryManager;
+import alpine.persistence.JdoProperties;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.Timer;
+import org.datanucleus.api.jdo.JDOPersistenceManagerFactory;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import javax.jdo.JDOHelper;
+import java.sql.Timestamp;
+import java.time.Duration;
+
+import static alpine.test.TestUtil.awaitCondition;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+
+public class ClusterLeaseManagerTest {
+
+    public record TestSingletonEvent() implements ClusterSingleton, Event {
+    }
+
+    public static class TestSubscriber implements Subscriber {
+        @Override
+        public void inform(final Event event) {
+        }
+    }
+
+    private JDOPersistenceManagerFactory pmf;
+    private ClusterLeaseManager nodeA;
+    private ClusterLeaseManager nodeB;
+
+    @BeforeEach
+    public void setUp() {
+        pmf = (JDOPersistenceManagerFactory) JDOHelper.getPersistenceManagerFactory(JdoProperties.unit(), "Alpine");
+        nodeA = createLeaseManager("node-a");
+        nodeB = createLeaseManager("node-b");
+    }
+
+    @AfterEach
+    public void tearDown() {
+        nodeA.stop();
+        nodeB.stop();
+        if (pmf != null) {
+            pmf.close();
+        }
+    }
+
+    private ClusterLeaseManager createLeaseManager(final String holderId) {
+        return new ClusterLeaseManager(() -> new AlpineQueryManager(pmf.getPersistenceManager()), holderId, 1000, 100);
+    }
+
+    @Test
+    public void testLeaseIsHeldByOneNode() {
+        assertThat(nodeA.tryAcquire("lease")).isTrue();
+        assertThat(nodeB.tryAcquire("lease")).isFalse();
+        assertThat(nodeA.isHeld("lease")).isTrue();
+        assertThat(nodeB.isHeld("lease")).isFalse();
+        assertThat(getLease("lease").getHolder()).isEqualTo("node-a");
+
+        // Renewals keep the lease with its holder beyond its duration.
+        nodeA.renew();
+        assertThat(getLease("lease").getHolder()).isEqualTo("node-a");
+        assertThat(nodeA.tryAcquire("other-lease")).isTrue();
+        assertThat(nodeB.tryAcquire("lease")).isFalse();
+    }
+
+    @Test
+    public void testReleasedLeaseIsAcquiredByOtherNode() throws Exception {
+        assertThat(nodeA.tryAcquire("lease")).isTrue();
+        assertThat(nodeB.tryAcquire("lease")).isFalse();
+
+        nodeA.release("lease");
+        assertThat(nodeA.isHeld("lease")).isFalse();
+        assertThat(getLease("lease").getHolder()).isNull();
+
+        // Node B only retries once per renewal interval.
+        awaitCondition(() -> nodeB.tryAcquire("lease"));
+        assertThat(nodeB.isHeld("lease")).isTrue();
+        assertThat(getLease("lease").getHolder()).isEqualTo("node-b");
+        assertThat(nodeA.tryAcquire("lease")).isFalse();
+    }
+
+    @Test
+    public void testExpiredLeaseIsTakenOver() throws Exception {
+        try (final var qm = new AlpineQueryManager(pmf.getPersistenceManager())) {
+            // A node that acquired the lease, and stopped without releasing it.
+            assertThat(qm.acquireClusterLease("lease", "node-c", Duration.ofMinutes(5).toMillis())).isTrue();
+        }
+        assertThat(nodeA.tryAcquire("lease")).isFalse();
+
+        try (final var qm = new AlpineQueryManager(pmf.getPersistenceManager())) {
+            final ClusterLease lease = qm.getClusterLease("lease");
+            qm.runInTransaction(() -> lease.setExpires(new Timestamp(System.currentTimeMillis() - 1000)));
+        }
+        awaitCondition(() -> nodeA.tryAcquire("lease"));
+        assertThat(getLease("lease").getHolder()).isEqualTo("node-a");
+    }
+
+    @Test
+    public void testLeaseMetrics() {
+        assertThat(nodeA.tryAcquire("metrics-lease")).isTrue();
+        assertThat(nodeB.tryAcquire("metrics-lease")).isFalse();
+
+        final Gauge heldByA = Metrics.getRegistry().find("alpine_cluster_lease_held")
+                .tags("lease", "metrics-lease", "node", "node-a").gauge();
+        final Gauge heldByB = Metrics.getRegistry().find("alpine_cluster_lease_held")
+                .tags("lease", "metrics-lease", "node", "node-b").gauge();
+        assertThat(heldByA).isNotNull();
+        assertThat(heldByA.value()).isEqualTo(1);
+        assertThat(heldByB).isNotNull();
+        assertThat(heldByB.value()).isZero();
+
+        final Timer acquired = Metrics.getRegistry().find("alpine_cluster_lease_acquisition")
+                .tags("lease", "metrics-lease", "outcome", "acquired").timer();
+        final Timer rejected = Metrics.getRegistry().find("alpine_cluster_lease_acquisition")
+                .tags("lease", "metrics-lease", "outcome", "rejected").timer();
+        assertThat(acquired).isNotNull();
+        assertThat(acquired.count()).isEqualTo(1);
+        assertThat(rejected).isNotNull();
+        assertThat(rejected.count()).isEqualTo(1);
+    }
+
+    @Test
+    public void testEventServiceIgnoresSingletonEventsWithoutLease() {
+        final var eventServiceA = new BaseEventService() {{
+            setLeaseManager(nodeA);
+        }};
+        final var eventServiceB = new BaseEventService() {{
+            setLeaseManager(nodeB);
+        }};
+        try {
+            eventServiceA.subscribe(TestSingletonEvent.class, TestSubscriber.class);
+            eventServiceB.subscribe(TestSingletonEvent.class, TestSubscriber.class);
+
+            assertThat(eventServiceA.publish(new TestSingletonEvent())).isEqualTo(PublishStatus.ACCEPTED);
+            assertThat(eventServiceB.publish(new TestSingletonEvent())).isEqualTo(PublishStatus.IGNORED);
+            assertThat(getLease(TestSingletonEvent.class.getName()).getHolder()).isEqualTo("node-a");
+        } finally {
+            eventServiceA.shutdown(Duration.ofSeconds(5));
+            eventServiceB.shutdown(Duration.ofSeconds(5));
+        }
+    }
+
+    @Test
+    public void testRenewalIntervalMustBeShorterThanLeaseDuration() {
+        assertThatExceptionOfType(IllegalArgumentException.class)
+                .isThrownBy(() -> new ClusterLeaseManager(AlpineQueryManager::new, "node-a", 1000, 1000));
+    }
+
+    private ClusterLease getLease(final String name) {
+        try (final var qm = new AlpineQueryManager(pmf.getPersistenceManager())) {
+            return qm.getClusterLease(name);
+        }
+    }
+
+}
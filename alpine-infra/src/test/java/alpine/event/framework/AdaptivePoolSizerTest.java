@@ -0,0 +1,149 @@
+/*
+ * This file is part of Alpine.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ * Copyright (c) Steve Springett. All Rights Reserved.
+ */
+package alpine.event.framework;
+
+import alpine.common.metrics.Metrics;
+import io.micrometer.core.instrument.Counter;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class AdaptivePoolSizerTest {
+
+    private final AtomicReference<Double> cpu = new AtomicReference<>(0.1);
+    private final CountDownLatch release = new CountDownLatch(1);
+    private ThreadPoolExecutor executor;
+    private AdaptivePoolSizer sizer;
+
+    @BeforeEach
+    public void setUp() {
+        executor = new ThreadPoolExecutor(4, 4, 0L, TimeUnit.MILLISECONDS, new LinkedBlockingQueue<>());
+        sizer = new AdaptivePoolSizer("Alpine-AdaptivePoolSizerTest", executor, 2, 8, 100, 0.8, cpu::get);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        release.countDown();
+        executor.shutdownNow();
+    }
+
+    @Test
+    public void testGrowsWhenEventsWait() {
+        assertThat(sizer.decide(4, 10, 4, 250, 0.5)).isEqualTo(new AdaptivePoolSizer.Decision(5, "grow"));
+        assertThat(sizer.decide(7, 10, 7, 250, Double.NaN)).isEqualTo(new AdaptivePoolSizer.Decision(8, "grow"));
+        assertThat(sizer.decide(8, 10, 8, 250, 0.5)).isEqualTo(new AdaptivePoolSizer.Decision(8, null));
+    }
+
+    @Test
+    public void testDoesNotGrowBelowQueueWaitTarget() {
+        assertThat(sizer.decide(4, 10, 4, 50, 0.5)).isEqualTo(new AdaptivePoolSizer.Decision(4, null));
+    }
+
+    @Test
+    public void testHoldsWhenCpuIsSaturated() {
+        assertThat(sizer.decide(4, 10, 4, 250, 0.9)).isEqualTo(new AdaptivePoolSizer.Decision(4, "hold_cpu"));
+    }
+
+    @Test
+    public void testShrinksAfterConsecutiveIdleEvaluations() {
+        assertThat(sizer.decide(8, 0, 1, 0, 0.1)).isEqualTo(new AdaptivePoolSizer.Decision(8, null));
+        assertThat(sizer.decide(8, 0, 1, 0, 0.1)).isEqualTo(new AdaptivePoolSizer.Decision(8, null));
+        assertThat(sizer.decide(8, 0, 1, 0, 0.1)).isEqualTo(new AdaptivePoolSizer.Decision(6, "shrink"));
+
+        // A busy evaluation resets the streak.
+        assertThat(sizer.decide(6, 0, 1, 0, 0.1)).isEqualTo(new AdaptivePoolSizer.Decision(6, null));
+        assertThat(sizer.decide(6, 0, 6, 0, 0.1)).isEqualTo(new AdaptivePoolSizer.Decision(6, null));
+        assertThat(sizer.decide(6, 0, 1, 0, 0.1)).isEqualTo(new AdaptivePoolSizer.Decision(6, null));
+        assertThat(sizer.decide(6, 0, 1, 0, 0.1)).isEqualTo(new AdaptivePoolSizer.Decision(6, null));
+        assertThat(sizer.decide(6, 0, 1, 0, 0.1)).isEqualTo(new AdaptivePoolSizer.Decision(5, "shrink"));
+
+        assertThat(sizer.decide(2, 0, 0, 0, 0.1)).isEqualTo(new AdaptivePoolSizer.Decision(2, null));
+        assertThat(sizer.decide(2, 0, 0, 0, 0.1)).isEqualTo(new AdaptivePoolSizer.Decision(2, null));
+        assertThat(sizer.decide(2, 0, 0, 0, 0.1)).isEqualTo(new AdaptivePoolSizer.Decision(2, null));
+    }
+
+    @Test
+    public void testAdjustResizesExecutor() {
+        for (int i = 0; i < 10; i++) {
+            executor.execute(() -> {
+                try {
+                    release.await(5, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            });
+        }
+        sizer.recordQueueWait(TimeUnit.MILLISECONDS.toNanos(300));
+        sizer.adjust();
+        assertThat(executor.getCorePoolSize()).isEqualTo(5);
+        assertThat(executor.getMaximumPoolSize()).isEqualTo(5);
+        assertThat(getDecisionCount("grow")).isEqualTo(1);
+
+        // Queue wait measurements are reset after each evaluation.
+        sizer.adjust();
+        assertThat(executor.getMaximumPoolSize()).isEqualTo(5);
+
+        cpu.set(0.95);
+        sizer.recordQueueWait(TimeUnit.MILLISECONDS.toNanos(300));
+        sizer.adjust();
+        assertThat(executor.getMaximumPoolSize()).isEqualTo(5);
+        assertThat(getDecisionCount("hold_cpu")).isEqualTo(1);
+    }
+
+    @Test
+    public void testStartResizesExecutorIntoBounds() {
+        executor.setMaximumPoolSize(12);
+        executor.setCorePoolSize(12);
+        sizer.start(Duration.ofHours(1));
+        try {
+            assertThat(executor.getCorePoolSize()).isEqualTo(8);
+            assertThat(executor.getMaximumPoolSize()).isEqualTo(8);
+        } finally {
+            sizer.stop();
+        }
+
+        final var smallExecutor = new ThreadPoolExecutor(1, 1, 0L, TimeUnit.MILLISECONDS, new LinkedBlockingQueue<>());
+        final var smallSizer = new AdaptivePoolSizer("Alpine-AdaptivePoolSizerTest", smallExecutor, 2, 8, 100, 0.8, cpu::get);
+        smallSizer.start(Duration.ofHours(1));
+        try {
+            assertThat(smallExecutor.getCorePoolSize()).isEqualTo(2);
+            assertThat(smallExecutor.getMaximumPoolSize()).isEqualTo(2);
+        } finally {
+            smallSizer.stop();
+            smallExecutor.shutdownNow();
+        }
+    }
+
+    private static double getDecisionCount(final String decision) {
+        final Counter counter = Metrics.getRegistry().find("alpine_worker_pool_decisions_total")
+                .tags("executor", "Alpine-AdaptivePoolSizerTest", "decision", decision)
+                .counter();
+        return counter != null ? counter.count() : 0;
+    }
+
+}
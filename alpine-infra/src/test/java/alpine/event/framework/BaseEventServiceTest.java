@@ -0,0 +1,228 @@
+/*
+ * This file is part of Alpine.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ * Copyright (c) Steve Springett. All Rights Reserved.
+ */
+package alpine.event.framework;
+
+import alpine.common.metrics.Metrics;
+import io.micrometer.core.instrument.Counter;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class BaseEventServiceTest {
+
+    public static class TestEvent implements Event {
+    }
+
+    private static final List<Subscriber> INFORMED = new CopyOnWriteArrayList<>();
+
+    public static class PrototypeSubscriber implements Subscriber {
+        @Override
+        public void inform(final Event event) {
+            INFORMED.add(this);
+        }
+    }
+
+    @SubscriberScope(SubscriberLifecycle.SINGLETON)
+    public static class SingletonSubscriber implements Subscriber {
+        @Override
+        public void inform(final Event event) {
+            INFORMED.add(this);
+        }
+    }
+
+    public record KeyedEvent(String key) implements Event {
+    }
+
+    private static final List<String> INFORMED_KEYS = new CopyOnWriteArrayList<>();
+    private static volatile CountDownLatch blockingSubscriberStarted;
+    private static volatile CountDownLatch blockingSubscriberRelease;
+
+    public static class BlockingSubscriber implements Subscriber {
+        @Override
+        public void inform(final Event event) {
+            INFORMED_KEYS.add(((KeyedEvent) event).key());
+            blockingSubscriberStarted.countDown();
+            try {
+                blockingSubscriberRelease.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    private BaseEventService eventService;
+
+    @BeforeEach
+    public void setUp() {
+        INFORMED.clear();
+        INFORMED_KEYS.clear();
+        blockingSubscriberStarted = new CountDownLatch(1);
+        blockingSubscriberRelease = new CountDownLatch(1);
+        eventService = new BaseEventService() {
+        };
+    }
+
+    @AfterEach
+    public void tearDown() {
+        eventService.shutdown(Duration.ofSeconds(5));
+    }
+
+    @Test
+    public void testPublishWithPrototypeSubscriber() {
+        eventService.subscribe(TestEvent.class, PrototypeSubscriber.class);
+        eventService.publish(new TestEvent());
+        eventService.publish(new TestEvent());
+        assertThat(eventService.shutdown(Duration.ofSeconds(5))).isTrue();
+
+        assertThat(INFORMED).hasSize(2);
+        assertThat(INFORMED.get(0)).isNotSameAs(INFORMED.get(1));
+    }
+
+    @Test
+    public void testPublishWithSingletonSubscriber() {
+        eventService.subscribe(TestEvent.class, SingletonSubscriber.class);
+        eventService.publish(new TestEvent());
+        eventService.publish(new TestEvent());
+        assertThat(eventService.shutdown(Duration.ofSeconds(5))).isTrue();
+
+        assertThat(INFORMED).hasSize(2);
+        assertThat(INFORMED.get(0)).isSameAs(INFORMED.get(1));
+    }
+
+    @Test
+    public void testPublishWithCustomFactory() {
+        final var subscriber = new PrototypeSubscriber();
+        eventService.subscribe(TestEvent.class, PrototypeSubscriber.class, () -> subscriber);
+        eventService.publish(new TestEvent());
+        assertThat(eventService.shutdown(Duration.ofSeconds(5))).isTrue();
+
+        assertThat(INFORMED).containsExactly(subscriber);
+    }
+
+    @Test
+    public void testPersistenceSkippedForNonLoggableSubscriber() {
+        eventService.subscribe(TestEvent.class, PrototypeSubscriber.class);
+        final Counter counter = Metrics.getRegistry().find("alpine_event_persistence_skipped_total")
+                .tag("subscriber", PrototypeSubscriber.class.getSimpleName())
+                .counter();
+        assertThat(counter).isNotNull();
+        final double countBefore = counter.count();
+
+        eventService.publish(new TestEvent());
+        eventService.publish(new TestEvent());
+        assertThat(eventService.shutdown(Duration.ofSeconds(5))).isTrue();
+
+        assertThat(counter.count() - countBefore).isEqualTo(2);
+    }
+
+    @Test
+    public void testProcessingTimerIsRegisteredOnce() {
+        final var binding = new SubscriberBinding(PrototypeSubscriber.class, SubscriberFactories.prototype(PrototypeSubscriber.class));
+        assertThat(binding.getProcessingTimer(TestEvent.class)).isSameAs(binding.getProcessingTimer(TestEvent.class));
+
+        eventService.subscribe(TestEvent.class, PrototypeSubscriber.class);
+        eventService.publish(new TestEvent());
+        eventService.publish(new TestEvent());
+        assertThat(eventService.shutdown(Duration.ofSeconds(5))).isTrue();
+
+        assertThat(binding.getProcessingTimer(TestEvent.class).count()).isGreaterThanOrEqualTo(2);
+    }
+
+    @Test
+    public void testPublishStatus() {
+        assertThat(eventService.publish(new TestEvent())).isEqualTo(PublishStatus.IGNORED);
+
+        eventService.subscribe(TestEvent.class, PrototypeSubscriber.class);
+        assertThat(eventService.publish(new TestEvent())).isEqualTo(PublishStatus.ACCEPTED);
+    }
+
+    @Test
+    public void testCoalesce() throws Exception {
+        eventService.coalesce(KeyedEvent.class, KeyedEvent::key);
+        eventService.subscribe(KeyedEvent.class, BlockingSubscriber.class);
+
+        // Occupy the executor's only thread. Events being processed are not coalesced.
+        assertThat(eventService.publish(new KeyedEvent("a"))).isEqualTo(PublishStatus.ACCEPTED);
+        assertThat(blockingSubscriberStarted.await(5, TimeUnit.SECONDS)).isTrue();
+
+        assertThat(eventService.publish(new KeyedEvent("a"))).isEqualTo(PublishStatus.ACCEPTED);
+        assertThat(eventService.publish(new KeyedEvent("a"))).isEqualTo(PublishStatus.COALESCED);
+        assertThat(eventService.publish(new KeyedEvent("b"))).isEqualTo(PublishStatus.ACCEPTED);
+        assertThat(eventService.publish(new KeyedEvent("a"))).isEqualTo(PublishStatus.COALESCED);
+
+        blockingSubscriberRelease.countDown();
+        assertThat(eventService.shutdown(Duration.ofSeconds(5))).isTrue();
+        assertThat(INFORMED_KEYS).containsExactly("a", "a", "b");
+    }
+
+    @Test
+    public void testGetStatus() throws Exception {
+        eventService.subscribe(KeyedEvent.class, BlockingSubscriber.class);
+        eventService.publish(new KeyedEvent("a"));
+        eventService.publish(new KeyedEvent("b"));
+        eventService.publish(new KeyedEvent("c"));
+        assertThat(blockingSubscriberStarted.await(5, TimeUnit.SECONDS)).isTrue();
+
+        EventServiceStatus status = eventService.getStatus();
+        assertThat(status.executors()).hasSize(2);
+        assertThat(status.executors().get(0).activeThreads()).isEqualTo(1);
+        assertThat(status.queuedEvents()).containsExactly(Map.entry(KeyedEvent.class.getName(), 2));
+        assertThat(status.oldestQueuedEventAgeMillis()).isNotNegative();
+
+        blockingSubscriberRelease.countDown();
+        assertThat(eventService.shutdown(Duration.ofSeconds(5))).isTrue();
+
+        status = eventService.getStatus();
+        assertThat(status.queuedEvents()).isEmpty();
+        assertThat(status.oldestQueuedEventAgeMillis()).isZero();
+        assertThat(status.inFlightChainCount()).isZero();
+        assertThat(status.subscriberThroughput())
+                .containsEntry(BlockingSubscriber.class.getName(), 3.0 / DispatchStatistics.THROUGHPUT_WINDOW.toSeconds());
+    }
+
+    @Test
+    public void testSubscribeToInterface() {
+        eventService.subscribe(Event.class, PrototypeSubscriber.class);
+        assertThat(eventService.hasSubscriptions(new TestEvent())).isTrue();
+        eventService.publish(new TestEvent());
+        assertThat(eventService.shutdown(Duration.ofSeconds(5))).isTrue();
+
+        assertThat(INFORMED).hasSize(1);
+    }
+
+    @Test
+    public void testUnsubscribe() {
+        eventService.subscribe(TestEvent.class, PrototypeSubscriber.class);
+        eventService.unsubscribe(PrototypeSubscriber.class);
+        eventService.publish(new TestEvent());
+        assertThat(eventService.shutdown(Duration.ofSeconds(5))).isTrue();
+
+        assertThat(INFORMED).isEmpty();
+    }
+
+}
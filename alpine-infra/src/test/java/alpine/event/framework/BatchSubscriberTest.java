@@ -0,0 +1,93 @@
+/*
+ * This file is part of Alpine.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ * Copyright (c) Steve Springett. All Rights Reserved.
+ */
+package alpine.event.framework;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class BatchSubscriberTest {
+
+    public record TestEvent(int sequence) implements Event {
+    }
+
+    private static final List<List<Event>> BATCHES = new CopyOnWriteArrayList<>();
+
+    @BatchOptions(maxSize = 3, maxLingerMillis = 100)
+    public static class TestBatchSubscriber implements BatchSubscriber {
+        @Override
+        public void inform(final List<Event> events) {
+            BATCHES.add(events);
+        }
+    }
+
+    private BaseEventService eventService;
+
+    @BeforeEach
+    public void setUp() {
+        BATCHES.clear();
+        eventService = new BaseEventService() {
+        };
+        eventService.subscribe(TestEvent.class, TestBatchSubscriber.class);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        eventService.shutdown(Duration.ofSeconds(5));
+    }
+
+    @Test
+    public void testBatchIsDispatchedWhenFull() {
+        for (int i = 0; i < 4; i++) {
+            eventService.publish(new TestEvent(i));
+        }
+        assertThat(eventService.shutdown(Duration.ofSeconds(5))).isTrue();
+
+        assertThat(BATCHES).containsExactly(
+                List.of(new TestEvent(0), new TestEvent(1), new TestEvent(2)),
+                List.of(new TestEvent(3)));
+    }
+
+    @Test
+    public void testBatchIsDispatchedAfterLinger() throws Exception {
+        eventService.publish(new TestEvent(0));
+        eventService.publish(new TestEvent(1));
+
+        final long deadline = System.nanoTime() + Duration.ofSeconds(5).toNanos();
+        while (BATCHES.isEmpty() && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        assertThat(BATCHES).containsExactly(List.of(new TestEvent(0), new TestEvent(1)));
+    }
+
+    @Test
+    public void testBatchIsDispatchedOnShutdown() {
+        eventService.publish(new TestEvent(0));
+        assertThat(eventService.shutdown(Duration.ofSeconds(5))).isTrue();
+
+        assertThat(BATCHES).containsExactly(List.of(new TestEvent(0)));
+    }
+
+}
@@ -0,0 +1,206 @@
+/*
+ * This file is part of Alpine.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ * Copyright (c) Steve Springett. All Rights Reserved.
+ */
+package alpine.event.framework;
+
+import alpine.common.logging.Logger;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class ChainTrackerTest {
+
+    private static final Logger LOGGER = Logger.getLogger(ChainTrackerTest.class);
+
+    @Test
+    public void testAddAndRemove() {
+        final var tracker = new ChainTracker();
+        final UUID chainIdentifier = UUID.randomUUID();
+        assertThat(tracker.isInFlight(chainIdentifier)).isFalse();
+
+        assertThat(tracker.add(chainIdentifier, false)).isTrue();
+        assertThat(tracker.add(chainIdentifier, false)).isTrue();
+        assertThat(tracker.isInFlight(chainIdentifier)).isTrue();
+
+        tracker.remove(chainIdentifier);
+        assertThat(tracker.isInFlight(chainIdentifier)).isTrue();
+        tracker.remove(chainIdentifier);
+        assertThat(tracker.isInFlight(chainIdentifier)).isFalse();
+
+        // Removing an untracked chain must not affect later additions.
+        tracker.remove(chainIdentifier);
+        assertThat(tracker.add(chainIdentifier, true)).isTrue();
+        assertThat(tracker.isInFlight(chainIdentifier)).isTrue();
+    }
+
+    @Test
+    public void testSingleton() {
+        final var tracker = new ChainTracker();
+        final UUID chainIdentifier = UUID.randomUUID();
+
+        assertThat(tracker.add(chainIdentifier, true)).isTrue();
+        assertThat(tracker.add(chainIdentifier, true)).isFalse();
+        assertThat(tracker.add(UUID.randomUUID(), true)).isTrue();
+
+        tracker.remove(chainIdentifier);
+        assertThat(tracker.isInFlight(chainIdentifier)).isFalse();
+        assertThat(tracker.add(chainIdentifier, true)).isTrue();
+    }
+
+    @Test
+    public void testConcurrentSingleton() throws Exception {
+        final var tracker = new ChainTracker();
+        final UUID chainIdentifier = UUID.randomUUID();
+        final int threads = 8;
+        final var accepted = new AtomicInteger();
+        final var start = new CountDownLatch(1);
+        final ExecutorService executor = Executors.newFixedThreadPool(threads);
+        for (int i = 0; i < threads; i++) {
+            executor.execute(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                if (tracker.add(chainIdentifier, true)) {
+                    accepted.incrementAndGet();
+                }
+            });
+        }
+        start.countDown();
+        executor.shutdown();
+        assertThat(executor.awaitTermination(5, TimeUnit.SECONDS)).isTrue();
+        assertThat(accepted.get()).isEqualTo(1);
+    }
+
+    /**
+     * Compares throughput of {@link ChainTracker} with the previous, {@code synchronized} implementation,
+     * when multiple threads track events of distinct chains concurrently. Excluded from the default build,
+     * run it with {@code mvn test -Dgroups=benchmark -Dsurefire.excludedGroups=none}.
+     */
+    @Test
+    @Tag("benchmark")
+    public void testContentionBenchmark() throws Exception {
+        final int threads = Math.max(4, Runtime.getRuntime().availableProcessors());
+        final int iterations = 50_000;
+
+        final var tracker = new ChainTracker();
+        final long lockFreeNanos = benchmark(threads, iterations, chainIdentifier -> {
+            tracker.add(chainIdentifier, false);
+            tracker.isInFlight(chainIdentifier);
+            tracker.remove(chainIdentifier);
+        });
+
+        final var legacyTracker = new SynchronizedChainTracker();
+        final long synchronizedNanos = benchmark(threads, iterations, chainIdentifier -> {
+            final UUID eventIdentifier = UUID.randomUUID();
+            legacyTracker.add(chainIdentifier, eventIdentifier, false);
+            legacyTracker.isInFlight(chainIdentifier);
+            legacyTracker.remove(chainIdentifier, eventIdentifier);
+        });
+
+        LOGGER.info("Tracked %d events on %d threads: lock-free=%dms, synchronized=%dms".formatted(
+                threads * iterations, threads,
+                TimeUnit.NANOSECONDS.toMillis(lockFreeNanos), TimeUnit.NANOSECONDS.toMillis(synchronizedNanos)));
+        assertThat(tracker.isInFlight(UUID.randomUUID())).isFalse();
+    }
+
+    private interface Operation {
+        void run(UUID chainIdentifier);
+    }
+
+    private static long benchmark(final int threads, final int iterations, final Operation operation) throws Exception {
+        final ExecutorService executor = Executors.newFixedThreadPool(threads);
+        final var ready = new CountDownLatch(threads);
+        final var start = new CountDownLatch(1);
+        final var done = new CountDownLatch(threads);
+        for (int i = 0; i < threads; i++) {
+            executor.execute(() -> {
+                final UUID chainIdentifier = UUID.randomUUID();
+                ready.countDown();
+                try {
+                    start.await();
+                    for (int j = 0; j < iterations; j++) {
+                        operation.run(chainIdentifier);
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                } finally {
+                    done.countDown();
+                }
+            });
+        }
+        ready.await();
+        final long startNanos = System.nanoTime();
+        start.countDown();
+        assertThat(done.await(60, TimeUnit.SECONDS)).isTrue();
+        final long elapsedNanos = System.nanoTime() - startNanos;
+        executor.shutdown();
+        return elapsedNanos;
+    }
+
+    /**
+     * The chain tracking previously implemented in {@link BaseEventService}.
+     */
+    private static final class SynchronizedChainTracker {
+
+        private final Map<UUID, ArrayList<UUID>> chainTracker = new ConcurrentHashMap<>();
+
+        synchronized boolean isInFlight(final UUID chainIdentifier) {
+            final ArrayList<UUID> eventIdentifiers = chainTracker.get(chainIdentifier);
+            return eventIdentifiers != null && !eventIdentifiers.isEmpty();
+        }
+
+        synchronized boolean add(final UUID chainIdentifier, final UUID eventIdentifier, final boolean singleton) {
+            ArrayList<UUID> eventIdentifiers = chainTracker.get(chainIdentifier);
+            if (eventIdentifiers == null) {
+                eventIdentifiers = new ArrayList<>();
+            }
+            if (singleton && !eventIdentifiers.isEmpty()) {
+                return false;
+            }
+            eventIdentifiers.add(eventIdentifier);
+            chainTracker.put(chainIdentifier, eventIdentifiers);
+            return true;
+        }
+
+        synchronized void remove(final UUID chainIdentifier, final UUID eventIdentifier) {
+            final ArrayList<UUID> eventIdentifiers = chainTracker.get(chainIdentifier);
+            if (eventIdentifiers == null) {
+                return;
+            }
+            eventIdentifiers.remove(eventIdentifier);
+            if (eventIdentifiers.isEmpty()) {
+                chainTracker.remove(chainIdentifier);
+            }
+        }
+
+    }
+
+}
@@ -0,0 +1,177 @@
+/*
+ * This file is part of Alpine.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ * Copyright (c) Steve Springett. All Rights Reserved.
+ */
+package alpine.event.framework;
+
+import alpine.common.logging.Logger;
+import alpine.event.framework.ClusterEventBridgeTestNode.BroadcastEvent;
+import alpine.event.framework.ClusterEventBridgeTestNode.StopEvent;
+import alpine.event.framework.ClusterEventBridgeTestNode.TestEventService;
+import alpine.event.framework.ClusterEventBridgeTestNode.WorkEvent;
+import alpine.model.ClusterMessage;
+import alpine.model.ClusterNode;
+import alpine.persistence.AlpineQueryManager;
+import org.datanucleus.api.jdo.JDOPersistenceManagerFactory;
+import org.h2.tools.Server;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.BufferedReader;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.concurrent.TimeUnit;
+
+import static alpine.event.framework.ClusterEventBridgeTestNode.BROADCASTS;
+import static alpine.event.framework.ClusterEventBridgeTestNode.WORK;
+import static alpine.test.TestUtil.awaitCondition;
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class ClusterEventBridgeTest {
+
+    private static final Logger LOGGER = Logger.getLogger(ClusterEventBridgeTest.class);
+    private static final Duration AWAIT_TIMEOUT = Duration.ofSeconds(15);
+
+    private Server server;
+    private String url;
+    private JDOPersistenceManagerFactory pmf;
+
+    @BeforeEach
+    public void setUp() throws Exception {
+        WORK.clear();
+        BROADCASTS.clear();
+        server = Server.createTcpServer("-tcpPort", "0", "-ifNotExists").start();
+        url = "jdbc:h2:tcp://localhost:" + server.getPort() + "/mem:cluster;DB_CLOSE_DELAY=-1";
+        pmf = ClusterEventBridgeTestNode.createPersistenceManagerFactory(url);
+        try (final var qm = new AlpineQueryManager(pmf.getPersistenceManager())) {
+            // Create the tables before other nodes connect.
+            qm.getPersistenceManager().getExtent(ClusterNode.class);
+            qm.getPersistenceManager().getExtent(ClusterMessage.class);
+        }
+    }
+
+    @AfterEach
+    public void tearDown() {
+        if (pmf != null) {
+            pmf.close();
+        }
+        if (server != null) {
+            server.stop();
+        }
+    }
+
+    @Test
+    public void testWorkIsDispatchedToOneNodeAndBroadcastsToAllNodes() throws Exception {
+        final TestEventService nodeA = ClusterEventBridgeTestNode.startNode(pmf);
+        final TestEventService nodeB = ClusterEventBridgeTestNode.startNode(pmf);
+        try {
+            // Node B joined after node A, so only node B knows about both nodes yet.
+            for (int i = 0; i < 50; i++) {
+                assertThat(nodeB.publish(new WorkEvent(i))).isEqualTo(PublishStatus.ACCEPTED);
+            }
+            nodeB.publish(new BroadcastEvent(1));
+
+            awaitCondition(() -> WORK.size() == 50, AWAIT_TIMEOUT);
+            assertThat(WORK).hasSize(50);
+            // Both nodes share the subscriber of this JVM, so the broadcast is recorded once.
+            awaitCondition(() -> BROADCASTS.size() == 1, AWAIT_TIMEOUT);
+            assertThat(BROADCASTS).containsExactly(1);
+            awaitCondition(() -> countMessages() == 0, AWAIT_TIMEOUT);
+            assertThat(countMessages()).isZero();
+        } finally {
+            nodeA.shutdown(Duration.ofSeconds(5));
+            nodeB.shutdown(Duration.ofSeconds(5));
+        }
+
+        try (final var qm = new AlpineQueryManager(pmf.getPersistenceManager())) {
+            assertThat(qm.getCount(ClusterNode.class)).isZero();
+        }
+    }
+
+    @Test
+    public void testThroughputAcrossTwoJvms() throws Exception {
+        final int eventCount = 500;
+        final Process process = new ProcessBuilder(
+                Path.of(System.getProperty("java.home"), "bin", "java").toString(),
+                "-cp", System.getProperty("java.class.path"),
+                ClusterEventBridgeTestNode.class.getName(), url)
+                .redirectErrorStream(true)
+                .start();
+        final var remoteResults = new HashMap<String, String>();
+        try (final var reader = new BufferedReader(new InputStreamReader(process.getInputStream(), StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = reader.readLine()) != null && !line.equals("READY")) {
+                LOGGER.debug(line);
+            }
+            assertThat(line).isEqualTo("READY");
+
+            final TestEventService localNode = ClusterEventBridgeTestNode.startNode(pmf);
+            try {
+                final long startedAt = System.nanoTime();
+                for (int i = 0; i < eventCount; i++) {
+                    localNode.publish(new WorkEvent(i));
+                    localNode.publish(new BroadcastEvent(i));
+                }
+                localNode.publish(new StopEvent());
+
+                while ((line = reader.readLine()) != null) {
+                    final String[] parts = line.split(" ", 2);
+                    if (parts.length == 2 && (parts[0].equals("WORK") || parts[0].equals("BROADCASTS"))) {
+                        remoteResults.put(parts[0], parts[1]);
+                    } else if (line.equals("STOPPED") || line.equals("TIMEOUT")) {
+                        remoteResults.put("RESULT", line);
+                    }
+                }
+                assertThat(process.waitFor(30, TimeUnit.SECONDS)).isTrue();
+                assertThat(remoteResults.get("RESULT")).isEqualTo("STOPPED");
+
+                final String[] remoteWork = remoteResults.get("WORK").split(" ");
+                final int remoteWorkCount = Integer.parseInt(remoteWork[0]);
+                final long remoteWorkSum = Long.parseLong(remoteWork[1]);
+                awaitCondition(() -> WORK.size() + remoteWorkCount >= eventCount, AWAIT_TIMEOUT);
+                final long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startedAt);
+
+                // Every work event was processed by exactly one of the nodes.
+                final long expectedSum = (long) eventCount * (eventCount - 1) / 2;
+                assertThat(WORK.size() + remoteWorkCount).isEqualTo(eventCount);
+                assertThat(WORK.stream().mapToLong(Integer::longValue).sum() + remoteWorkSum).isEqualTo(expectedSum);
+                // Every broadcast was processed by both nodes.
+                assertThat(Integer.parseInt(remoteResults.get("BROADCASTS"))).isEqualTo(eventCount);
+                assertThat(BROADCASTS).hasSize(eventCount);
+
+                LOGGER.info("Dispatched %d work events (%d local, %d remote) and %d broadcasts across two JVMs in %dms (%.0f events/s)"
+                        .formatted(eventCount, WORK.size(), remoteWorkCount, eventCount, elapsedMillis,
+                                (eventCount * 3) * 1000.0 / Math.max(1, elapsedMillis)));
+            } finally {
+                localNode.shutdown(Duration.ofSeconds(5));
+            }
+        } finally {
+            process.destroyForcibly();
+        }
+    }
+
+    private long countMessages() {
+        try (final var qm = new AlpineQueryManager(pmf.getPersistenceManager())) {
+            return qm.getCount(ClusterMessage.class);
+        }
+    }
+
+}
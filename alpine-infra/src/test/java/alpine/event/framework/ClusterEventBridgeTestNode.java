@@ -0,0 +1,113 @@
+/*
+ * This file is part of Alpine.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ * Copyright (c) Steve Springett. All Rights Reserved.
+ */
+package alpine.event.framework;
+
+import alpine.cluster.ClusterNodeRegistry;
+import alpine.cluster.DatabaseClusterTransport;
+import alpine.persistence.AlpineQueryManager;
+import alpine.persistence.JdoProperties;
+import org.datanucleus.api.jdo.JDOPersistenceManagerFactory;
+
+import javax.jdo.JDOHelper;
+import java.io.Serializable;
+import java.time.Duration;
+import java.util.Properties;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A cluster node for {@link ClusterEventBridgeTest}, to be run in a separate JVM.
+ * Prints {@code READY} once it joined the cluster, and the values of all events it
+ * received once it received a {@link StopEvent}.
+ */
+public class ClusterEventBridgeTestNode {
+
+    public record WorkEvent(int value) implements ClusterEvent, Serializable {
+    }
+
+    public record BroadcastEvent(int value) implements ClusterEvent, Serializable {
+        @Override
+        public Scope getClusterScope() {
+            return Scope.ALL_NODES;
+        }
+    }
+
+    public record StopEvent() implements ClusterEvent, Serializable {
+        @Override
+        public Scope getClusterScope() {
+            return Scope.ALL_NODES;
+        }
+    }
+
+    public static class TestEventService extends BaseEventService {
+    }
+
+    static final Set<Integer> WORK = ConcurrentHashMap.newKeySet();
+    static final Set<Integer> BROADCASTS = ConcurrentHashMap.newKeySet();
+    static final CountDownLatch STOPPED = new CountDownLatch(1);
+
+    public static class RecordingSubscriber implements Subscriber {
+        @Override
+        public void inform(final Event event) {
+            if (event instanceof WorkEvent workEvent) {
+                WORK.add(workEvent.value());
+            } else if (event instanceof BroadcastEvent broadcastEvent) {
+                BROADCASTS.add(broadcastEvent.value());
+            } else if (event instanceof StopEvent) {
+                STOPPED.countDown();
+            }
+        }
+    }
+
+    static JDOPersistenceManagerFactory createPersistenceManagerFactory(final String url) {
+        final Properties properties = JdoProperties.unit();
+        properties.put("javax.jdo.option.ConnectionURL", url);
+        return (JDOPersistenceManagerFactory) JDOHelper.getPersistenceManagerFactory(properties, "Alpine");
+    }
+
+    static TestEventService startNode(final JDOPersistenceManagerFactory pmf) {
+        final var eventService = new TestEventService();
+        eventService.subscribe(WorkEvent.class, RecordingSubscriber.class);
+        eventService.subscribe(BroadcastEvent.class, RecordingSubscriber.class);
+        eventService.subscribe(StopEvent.class, RecordingSubscriber.class);
+        final var registry = ClusterNodeRegistry.fromConfig(() -> new AlpineQueryManager(pmf.getPersistenceManager()));
+        final var transport = new DatabaseClusterTransport(() -> new AlpineQueryManager(pmf.getPersistenceManager()), 20, 100);
+        eventService.setClusterBridge(new ClusterEventBridge(registry, transport, new JavaEventSerializer()));
+        return eventService;
+    }
+
+    public static void main(final String[] args) throws Exception {
+        final JDOPersistenceManagerFactory pmf = createPersistenceManagerFactory(args[0]);
+        final TestEventService eventService = startNode(pmf);
+        System.out.println("READY");
+        System.out.flush();
+
+        final boolean stopped = STOPPED.await(60, TimeUnit.SECONDS);
+        eventService.shutdown(Duration.ofSeconds(10));
+        System.out.println("WORK " + WORK.size() + " " + WORK.stream().mapToLong(Integer::longValue).sum());
+        System.out.println("BROADCASTS " + BROADCASTS.size());
+        System.out.println(stopped ? "STOPPED" : "TIMEOUT");
+        System.out.flush();
+        pmf.close();
+        System.exit(0);
+    }
+
+}
@@ -0,0 +1,242 @@
+/*
+ * This file is part of Alpine.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ * Copyright (c) Steve Springett. All Rights Reserved.
+ */
+package alpine.event.framework;
+
+import org.apache.commons.lang3.concurrent.BasicThreadFactory;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class DelayedPublicationTest {
+
+    public static class TestEvent extends SingletonCapableEvent {
+        private final int order;
+
+        public TestEvent(final int order) {
+            this.order = order;
+        }
+    }
+
+    private static final List<Integer> RECEIVED = new CopyOnWriteArrayList<>();
+    private static volatile CountDownLatch latch;
+
+    public static class TestSubscriber implements Subscriber {
+        @Override
+        public void inform(final Event event) {
+            RECEIVED.add(((TestEvent) event).order);
+            latch.countDown();
+        }
+    }
+
+    private BaseEventService eventService;
+    private TimingWheel timingWheel;
+
+    @BeforeEach
+    public void setUp() {
+        RECEIVED.clear();
+        eventService = new BaseEventService() {{
+            setExecutorService(Executors.newSingleThreadExecutor(new BasicThreadFactory.Builder()
+                    .namingPattern("Alpine-DelayedPublicationTest-%d")
+                    .build()));
+        }};
+        eventService.subscribe(TestEvent.class, TestSubscriber.class);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        eventService.shutdown(Duration.ofSeconds(5));
+        if (timingWheel != null) {
+            timingWheel.close();
+        }
+    }
+
+    @Test
+    public void testEventsArePublishedInOrderOfDueTime() throws Exception {
+        latch = new CountDownLatch(3);
+        final long start = System.nanoTime();
+        eventService.publishDelayed(new TestEvent(3), Duration.ofMillis(300));
+        eventService.publishDelayed(new TestEvent(1), Duration.ofMillis(100));
+        eventService.publishAt(new TestEvent(2), Instant.now().plusMillis(200));
+
+        assertThat(latch.await(5, TimeUnit.SECONDS)).isTrue();
+        assertThat(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start)).isGreaterThanOrEqualTo(290);
+        assertThat(RECEIVED).containsExactly(1, 2, 3);
+    }
+
+    @Test
+    public void testEventsDueInThePastArePublishedRightAway() throws Exception {
+        latch = new CountDownLatch(1);
+        eventService.publishAt(new TestEvent(1), Instant.now().minusSeconds(60));
+
+        assertThat(latch.await(5, TimeUnit.SECONDS)).isTrue();
+        assertThat(RECEIVED).containsExactly(1);
+    }
+
+    @Test
+    public void testPendingEventIsBeingProcessed() throws Exception {
+        latch = new CountDownLatch(1);
+        final var event = new TestEvent(1);
+        event.setSingleton(true);
+        event.setChainIdentifier(UUID.randomUUID());
+        final var duplicate = new TestEvent(2);
+        duplicate.setSingleton(true);
+        duplicate.setChainIdentifier(event.getChainIdentifier());
+
+        assertThat(eventService.publishDelayed(event, Duration.ofMillis(200))).isEqualTo(PublishStatus.ACCEPTED);
+        assertThat(eventService.isEventBeingProcessed(event.getChainIdentifier())).isTrue();
+        assertThat(eventService.publish(duplicate)).isEqualTo(PublishStatus.IGNORED);
+
+        assertThat(latch.await(5, TimeUnit.SECONDS)).isTrue();
+        assertThat(RECEIVED).containsExactly(1);
+        assertThat(eventService.shutdown(Duration.ofSeconds(5))).isTrue();
+        assertThat(eventService.isEventBeingProcessed(event.getChainIdentifier())).isFalse();
+    }
+
+    @Test
+    public void testBlockedPublicationDoesNotDelayOtherEvents() throws Exception {
+        latch = new CountDownLatch(1);
+        final var release = new CountDownLatch(1);
+        final var blockedEventService = new BaseEventService() {
+            @Override
+            public PublishStatus publish(final Event event) {
+                try {
+                    release.await(5, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return PublishStatus.ACCEPTED;
+            }
+        };
+        try {
+            blockedEventService.publishDelayed(new TestEvent(1), Duration.ofMillis(50));
+            eventService.publishDelayed(new TestEvent(2), Duration.ofMillis(100));
+
+            assertThat(latch.await(2, TimeUnit.SECONDS)).isTrue();
+            assertThat(RECEIVED).containsExactly(2);
+        } finally {
+            release.countDown();
+            blockedEventService.shutdown(Duration.ofSeconds(5));
+        }
+    }
+
+    @Test
+    public void testDefaultImplementationPublishesOnceDue() throws Exception {
+        final var published = new CountDownLatch(1);
+        final var publishedEvents = new CopyOnWriteArrayList<Event>();
+        final IEventService minimalEventService = new IEventService() {
+            @Override
+            public PublishStatus publish(final Event event) {
+                publishedEvents.add(event);
+                published.countDown();
+                return PublishStatus.ACCEPTED;
+            }
+
+            @Override
+            public void subscribe(final Class<? extends Event> eventType, final Class<? extends Subscriber> subscriberType) {
+            }
+
+            @Override
+            public void unsubscribe(final Class<? extends Subscriber> subscriberType) {
+            }
+
+            @Override
+            public boolean hasSubscriptions(final Event event) {
+                return true;
+            }
+
+            @Override
+            public void shutdown() {
+            }
+
+            @Override
+            public boolean shutdown(final Duration timeout) {
+                return true;
+            }
+
+            @Override
+            public boolean isEventBeingProcessed(final ChainableEvent event) {
+                return false;
+            }
+
+            @Override
+            public boolean isEventBeingProcessed(final UUID chainIdentifier) {
+                return false;
+            }
+        };
+
+        final var event = new TestEvent(1);
+        final long start = System.nanoTime();
+        assertThat(minimalEventService.publishAt(event, Instant.now().plusMillis(100))).isEqualTo(PublishStatus.ACCEPTED);
+
+        assertThat(published.await(5, TimeUnit.SECONDS)).isTrue();
+        assertThat(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start)).isGreaterThanOrEqualTo(90);
+        assertThat(publishedEvents).containsExactly(event);
+    }
+
+    @Test
+    public void testCancelledTaskDoesNotRun() throws Exception {
+        timingWheel = new TimingWheel("Alpine-TimingWheelTest", 10, 8);
+        final var ran = new AtomicInteger();
+        final var done = new CountDownLatch(1);
+        final TimingWheel.Timeout cancelled = timingWheel.schedule(ran::incrementAndGet, 100);
+        timingWheel.schedule(done::countDown, 200);
+        cancelled.cancel();
+
+        assertThat(done.await(5, TimeUnit.SECONDS)).isTrue();
+        assertThat(ran.get()).isZero();
+        assertThat(timingWheel.size()).isZero();
+    }
+
+    @Test
+    public void testTasksBeyondTheFirstLevelAreRun() throws Exception {
+        // With 8 buckets of 10ms, tasks due after 80ms overflow into higher levels.
+        timingWheel = new TimingWheel("Alpine-TimingWheelTest", 10, 8);
+        final int count = 1000;
+        final var done = new CountDownLatch(count);
+        final var early = new AtomicInteger();
+        final long start = System.nanoTime();
+        for (int i = 0; i < count; i++) {
+            final long delay = i % 500;
+            timingWheel.schedule(() -> {
+                // Tasks may run up to one tick early.
+                if (TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) < delay - 10) {
+                    early.incrementAndGet();
+                }
+                done.countDown();
+            }, delay);
+        }
+
+        assertThat(done.await(5, TimeUnit.SECONDS)).isTrue();
+        assertThat(early.get()).isZero();
+        assertThat(timingWheel.size()).isZero();
+    }
+
+}
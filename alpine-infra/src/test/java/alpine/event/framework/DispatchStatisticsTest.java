@@ -0,0 +1,93 @@
+/*
+ * This file is part of Alpine.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ * Copyright (c) Steve Springett. All Rights Reserved.
+ */
+package alpine.event.framework;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class DispatchStatisticsTest {
+
+    private final AtomicLong nanoTime = new AtomicLong(TimeUnit.SECONDS.toNanos(1000));
+    private final DispatchStatistics statistics = new DispatchStatistics(nanoTime::get);
+
+    @Test
+    public void testQueuedCounts() {
+        final long first = statistics.recordEnqueued("A");
+        statistics.recordEnqueued("A");
+        statistics.recordEnqueued("B");
+        assertThat(statistics.getQueuedCounts()).containsExactly(Map.entry("A", 2), Map.entry("B", 1));
+
+        statistics.recordStarted("A", first);
+        statistics.recordDiscarded("B");
+        assertThat(statistics.getQueuedCounts()).containsExactly(Map.entry("A", 1));
+    }
+
+    @Test
+    public void testOldestQueuedAge() {
+        assertThat(statistics.getOldestQueuedAge()).isZero();
+
+        final long first = statistics.recordEnqueued("A");
+        advance(Duration.ofSeconds(1));
+        final long second = statistics.recordEnqueued("A");
+        advance(Duration.ofSeconds(1));
+        assertThat(statistics.getOldestQueuedAge()).isEqualTo(Duration.ofSeconds(2));
+
+        // The age is estimated from the most recently started dispatch, overstating it.
+        statistics.recordStarted("A", first);
+        assertThat(statistics.getOldestQueuedAge()).isEqualTo(Duration.ofSeconds(2));
+
+        statistics.recordStarted("A", second);
+        assertThat(statistics.getOldestQueuedAge()).isZero();
+
+        advance(Duration.ofSeconds(5));
+        statistics.recordEnqueued("A");
+        advance(Duration.ofSeconds(3));
+        assertThat(statistics.getOldestQueuedAge()).isEqualTo(Duration.ofSeconds(3));
+    }
+
+    @Test
+    public void testThroughput() {
+        statistics.recordProcessed("S", 30);
+        advance(Duration.ofSeconds(30));
+        statistics.recordProcessed("S", 30);
+        assertThat(statistics.getThroughput()).containsEntry("S", 1.0);
+
+        // The first 30 events fall out of the window.
+        advance(Duration.ofSeconds(45));
+        assertThat(statistics.getThroughput()).containsEntry("S", 0.5);
+
+        // Buckets are reused for new seconds.
+        statistics.recordProcessed("S", 6);
+        assertThat(statistics.getThroughput()).containsEntry("S", 0.6);
+
+        advance(Duration.ofMinutes(5));
+        assertThat(statistics.getThroughput()).containsEntry("S", 0.0);
+    }
+
+    private void advance(final Duration duration) {
+        nanoTime.addAndGet(duration.toNanos());
+    }
+
+}
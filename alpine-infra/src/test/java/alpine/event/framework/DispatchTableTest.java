@@ -0,0 +1,105 @@
+/*
+ * This file is part of Alpine.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ * Copyright (c) Steve Springett. All Rights Reserved.
+ */
+package alpine.event.framework;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class DispatchTableTest {
+
+    public interface MarkerEvent extends Event {
+    }
+
+    public static class ParentEvent implements MarkerEvent {
+    }
+
+    public static class ChildEvent extends ParentEvent {
+    }
+
+    public static class SubscriberA implements Subscriber {
+        @Override
+        public void inform(final Event event) {
+        }
+    }
+
+    public static class SubscriberB implements Subscriber {
+        @Override
+        public void inform(final Event event) {
+        }
+    }
+
+    private static SubscriberBinding binding(final Class<? extends Subscriber> subscriberClass) {
+        return new SubscriberBinding(subscriberClass, SubscriberFactories.prototype(subscriberClass));
+    }
+
+    private static List<Class<? extends Subscriber>> subscribers(final List<SubscriberBinding> bindings) {
+        return bindings.stream().<Class<? extends Subscriber>>map(SubscriberBinding::getSubscriberClass).toList();
+    }
+
+    @Test
+    public void testLookupIncludesSupertypes() {
+        final DispatchTable table = DispatchTable.EMPTY
+                .withSubscription(MarkerEvent.class, binding(SubscriberA.class))
+                .withSubscription(ChildEvent.class, binding(SubscriberB.class));
+
+        assertThat(subscribers(table.lookup(ChildEvent.class))).containsExactly(SubscriberB.class, SubscriberA.class);
+        assertThat(subscribers(table.lookup(ParentEvent.class))).containsExactly(SubscriberA.class);
+        assertThat(table.lookup(Event.class)).isEmpty();
+        assertThat(table.lookup(ChildEvent.class)).isSameAs(table.lookup(ChildEvent.class));
+    }
+
+    @Test
+    public void testSubscriberIsIncludedOnce() {
+        final DispatchTable table = DispatchTable.EMPTY
+                .withSubscription(ChildEvent.class, binding(SubscriberA.class))
+                .withSubscription(ParentEvent.class, binding(SubscriberA.class))
+                .withSubscription(ParentEvent.class, binding(SubscriberA.class));
+
+        assertThat(subscribers(table.lookup(ChildEvent.class))).containsExactly(SubscriberA.class);
+    }
+
+    @Test
+    public void testModificationsYieldNewTable() {
+        final DispatchTable table = DispatchTable.EMPTY.withSubscription(ParentEvent.class, binding(SubscriberA.class));
+        final List<SubscriberBinding> bindings = table.lookup(ChildEvent.class);
+
+        final DispatchTable modified = table
+                .withSubscription(ParentEvent.class, binding(SubscriberB.class))
+                .withoutSubscriber(SubscriberA.class);
+
+        assertThat(subscribers(modified.lookup(ChildEvent.class))).containsExactly(SubscriberB.class);
+        assertThat(subscribers(table.lookup(ChildEvent.class))).containsExactly(SubscriberA.class);
+        assertThat(subscribers(bindings)).containsExactly(SubscriberA.class);
+        assertThat(modified.withoutSubscriber(SubscriberB.class).lookup(ChildEvent.class)).isEmpty();
+    }
+
+    @Test
+    public void testWithBindingReplacesExistingBinding() {
+        final SubscriberBinding replacement = binding(SubscriberA.class);
+        final DispatchTable table = DispatchTable.EMPTY
+                .withSubscription(ParentEvent.class, binding(SubscriberA.class))
+                .withBinding(replacement);
+
+        assertThat(table.lookup(ParentEvent.class)).containsExactly(replacement);
+    }
+
+}
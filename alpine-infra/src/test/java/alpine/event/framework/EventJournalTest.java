@@ -0,0 +1,190 @@
+/*
+ * This file is part of Alpine.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ * Copyright (c) Steve Springett. All Rights Reserved.
+ */
+package alpine.event.framework;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.Serializable;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.stream.Stream;
+
+import static alpine.test.TestUtil.awaitCondition;
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class EventJournalTest {
+
+    public record TestDurableEvent(String value) implements DurableEvent, Serializable {
+    }
+
+    private static final List<Event> INFORMED = new CopyOnWriteArrayList<>();
+
+    public static class TestSubscriber implements Subscriber {
+        @Override
+        public void inform(final Event event) {
+            INFORMED.add(event);
+        }
+    }
+
+    @TempDir
+    private Path directory;
+
+    @Test
+    public void testAcknowledgedSegmentsAreCompacted() throws Exception {
+        try (final var journal = new EventJournal(directory, 128, 60_000)) {
+            final var sequences = new long[20];
+            for (int i = 0; i < sequences.length; i++) {
+                sequences[i] = journal.append(("event-" + i).getBytes(StandardCharsets.UTF_8));
+            }
+            assertThat(journal.getSegmentCount()).isGreaterThan(1);
+            assertThat(journal.getUnacknowledgedCount()).isEqualTo(20);
+
+            for (final long sequence : sequences) {
+                journal.acknowledge(sequence);
+            }
+            assertThat(journal.getUnacknowledgedCount()).isZero();
+            assertThat(journal.getSegmentCount()).isEqualTo(1);
+            assertThat(listSegments()).hasSize(1);
+        }
+    }
+
+    @Test
+    public void testUnacknowledgedEventsOfOldestSegmentAreRelocated() throws Exception {
+        try (final var journal = new EventJournal(directory, 128, 60_000)) {
+            final long pinned = journal.append("pinned".getBytes(StandardCharsets.UTF_8));
+            for (int i = 0; i < 20; i++) {
+                journal.acknowledge(journal.append(("event-" + i).getBytes(StandardCharsets.UTF_8)));
+            }
+            assertThat(journal.getUnacknowledgedCount()).isEqualTo(1);
+            assertThat(journal.getSegmentCount()).isLessThanOrEqualTo(2);
+            assertThat(listSegments()).hasSizeLessThanOrEqualTo(2);
+
+            journal.acknowledge(pinned);
+            assertThat(journal.getUnacknowledgedCount()).isZero();
+        }
+
+        try (final var journal = new EventJournal(directory, 128, 60_000)) {
+            assertThat(journal.getUnacknowledgedCount()).isZero();
+        }
+    }
+
+    @Test
+    public void testRelocatedEventIsRecovered() throws Exception {
+        try (final var journal = new EventJournal(directory, 128, 60_000)) {
+            journal.append("pinned".getBytes(StandardCharsets.UTF_8));
+            for (int i = 0; i < 20; i++) {
+                journal.acknowledge(journal.append(("event-" + i).getBytes(StandardCharsets.UTF_8)));
+            }
+        }
+
+        final var recovered = new CopyOnWriteArrayList<String>();
+        try (final var journal = new EventJournal(directory, 128, 10)) {
+            journal.setRecoveryHandler(entry -> recovered.add(new String(entry.payload(), StandardCharsets.UTF_8)));
+            awaitCondition(() -> !recovered.isEmpty());
+            assertThat(recovered).containsExactly("pinned");
+        }
+    }
+
+    @Test
+    public void testReleasedEventIsReplayed() throws Exception {
+        final var replayed = new CopyOnWriteArrayList<Long>();
+        try (final var journal = new EventJournal(directory, 1024, 10)) {
+            journal.setRecoveryHandler(entry -> replayed.add(entry.sequence()));
+            final long sequence = journal.append("foo".getBytes(StandardCharsets.UTF_8));
+            journal.release(sequence);
+            awaitCondition(() -> !replayed.isEmpty());
+            assertThat(replayed).containsExactly(sequence);
+            assertThat(journal.getUnacknowledgedCount()).isEqualTo(1);
+        }
+    }
+
+    @Test
+    public void testUnacknowledgedEventsAreRecovered() throws Exception {
+        try (final var journal = new EventJournal(directory, 1024, 60_000)) {
+            journal.acknowledge(journal.append("foo".getBytes(StandardCharsets.UTF_8)));
+            journal.append("bar".getBytes(StandardCharsets.UTF_8));
+        }
+
+        final var recovered = new CopyOnWriteArrayList<String>();
+        try (final var journal = new EventJournal(directory, 1024, 10)) {
+            assertThat(journal.getUnacknowledgedCount()).isEqualTo(1);
+            journal.setRecoveryHandler(entry -> {
+                recovered.add(new String(entry.payload(), StandardCharsets.UTF_8));
+                journal.acknowledge(entry.sequence());
+                return true;
+            });
+            awaitCondition(() -> !recovered.isEmpty());
+            assertThat(recovered).containsExactly("bar");
+            assertThat(journal.getUnacknowledgedCount()).isZero();
+        }
+
+        try (final var journal = new EventJournal(directory, 1024, 60_000)) {
+            assertThat(journal.getUnacknowledgedCount()).isZero();
+        }
+    }
+
+    @Test
+    public void testTornRecordIsIgnored() throws Exception {
+        try (final var journal = new EventJournal(directory, 1024, 60_000)) {
+            journal.append("foo".getBytes(StandardCharsets.UTF_8));
+            journal.append("bar".getBytes(StandardCharsets.UTF_8));
+        }
+
+        // Corrupt the last byte of the second record's payload. Each record holds an 8 byte
+        // length and checksum, a 9 byte header, and a 3 byte payload.
+        try (final FileChannel channel = FileChannel.open(listSegments().get(0), StandardOpenOption.WRITE)) {
+            channel.write(ByteBuffer.wrap(new byte[]{0}), 2 * 20 - 1);
+        }
+
+        try (final var journal = new EventJournal(directory, 1024, 60_000)) {
+            assertThat(journal.getUnacknowledgedCount()).isEqualTo(1);
+        }
+    }
+
+    @Test
+    public void testDurableEventIsAcknowledgedAfterProcessing() throws Exception {
+        INFORMED.clear();
+        final var eventService = new BaseEventService() {
+        };
+        eventService.subscribe(TestDurableEvent.class, TestSubscriber.class);
+        final var journal = new EventJournal(directory, 1024, 60_000);
+        eventService.setJournal(journal);
+
+        assertThat(eventService.publish(new TestDurableEvent("foo"))).isEqualTo(PublishStatus.ACCEPTED);
+        awaitCondition(() -> journal.getUnacknowledgedCount() == 0);
+        assertThat(INFORMED).containsExactly(new TestDurableEvent("foo"));
+        assertThat(journal.getUnacknowledgedCount()).isZero();
+        assertThat(eventService.shutdown(Duration.ofSeconds(5))).isTrue();
+    }
+
+    private List<Path> listSegments() throws Exception {
+        try (final Stream<Path> files = Files.list(directory)) {
+            return files.sorted().toList();
+        }
+    }
+
+}
@@ -0,0 +1,198 @@
+/*
+ * This file is part of Alpine.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ * Copyright (c) Steve Springett. All Rights Reserved.
+ */
+package alpine.event.framework;
+
+import alpine.common.metrics.MeterRegistryCustomizer;
+import alpine.common.metrics.Metrics;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.Meter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.config.MeterFilter;
+import io.micrometer.core.instrument.distribution.DistributionStatisticConfig;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class EventLifecycleMetricsTest {
+
+    public static class TestMeterRegistryCustomizer implements MeterRegistryCustomizer {
+
+        @Override
+        public void accept(final MeterRegistry meterRegistry) {
+            meterRegistry.config().meterFilter(new MeterFilter() {
+                @Override
+                public DistributionStatisticConfig configure(final Meter.Id id, final DistributionStatisticConfig config) {
+                    if (id.getName().startsWith("alpine_event_")) {
+                        return DistributionStatisticConfig.builder()
+                                .percentiles(0.5, 0.99)
+                                .build()
+                                .merge(config);
+                    }
+                    return config;
+                }
+            });
+        }
+
+    }
+
+    public static class LifecycleEvent implements Event {
+    }
+
+    public static class RootEvent extends AbstractChainableEvent {
+    }
+
+    public static class LinkEvent extends AbstractChainableEvent {
+    }
+
+    private static volatile CountDownLatch blockingSubscriberStarted;
+    private static volatile CountDownLatch blockingSubscriberRelease;
+    private static volatile CountDownLatch linkLatch;
+
+    public static class BlockingSubscriber implements Subscriber {
+        @Override
+        public void inform(final Event event) {
+            blockingSubscriberStarted.countDown();
+            try {
+                blockingSubscriberRelease.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    public static class SleepingSubscriber implements Subscriber {
+        @Override
+        public void inform(final Event event) {
+            try {
+                Thread.sleep(100);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            if (event instanceof LinkEvent) {
+                linkLatch.countDown();
+            }
+        }
+    }
+
+    public static final class LinkEventService extends BaseEventService {
+
+        private static final LinkEventService INSTANCE = new LinkEventService();
+
+        public static LinkEventService getInstance() {
+            return INSTANCE;
+        }
+
+    }
+
+    private BaseEventService eventService;
+
+    @BeforeEach
+    public void setUp() {
+        blockingSubscriberStarted = new CountDownLatch(1);
+        blockingSubscriberRelease = new CountDownLatch(1);
+        linkLatch = new CountDownLatch(1);
+        eventService = new BaseEventService() {
+        };
+    }
+
+    @AfterEach
+    public void tearDown() {
+        blockingSubscriberRelease.countDown();
+        eventService.shutdown(Duration.ofSeconds(5));
+        LinkEventService.getInstance().unsubscribe(SleepingSubscriber.class);
+    }
+
+    @Test
+    public void testQueueWaitAndInFlight() throws Exception {
+        eventService.subscribe(LifecycleEvent.class, BlockingSubscriber.class);
+        final Timer queueWaitTimer = Metrics.getRegistry().find("alpine_event_queue_wait")
+                .tags("event", LifecycleEvent.class.getSimpleName(), "subscriber", BlockingSubscriber.class.getSimpleName())
+                .timer();
+        final long countBefore = queueWaitTimer != null ? queueWaitTimer.count() : 0;
+
+        eventService.publish(new LifecycleEvent());
+        eventService.publish(new LifecycleEvent());
+        assertThat(blockingSubscriberStarted.await(5, TimeUnit.SECONDS)).isTrue();
+
+        final Gauge inFlight = Metrics.getRegistry().find("alpine_events_in_flight")
+                .tags("event", LifecycleEvent.class.getName(), "publisher", eventService.getClass().getName())
+                .gauge();
+        assertThat(inFlight).isNotNull();
+        assertThat(inFlight.value()).isEqualTo(2);
+
+        Thread.sleep(200);
+        blockingSubscriberRelease.countDown();
+        assertThat(eventService.shutdown(Duration.ofSeconds(5))).isTrue();
+
+        assertThat(inFlight.value()).isZero();
+        final Timer timer = Metrics.getRegistry().find("alpine_event_queue_wait")
+                .tags("event", LifecycleEvent.class.getSimpleName(), "subscriber", BlockingSubscriber.class.getSimpleName())
+                .timer();
+        assertThat(timer).isNotNull();
+        assertThat(timer.count() - countBefore).isEqualTo(2);
+        // The second event waited for the first one to be processed.
+        assertThat(timer.max(TimeUnit.MILLISECONDS)).isGreaterThanOrEqualTo(200);
+        assertThat(timer.takeSnapshot().percentileValues()).hasSize(2);
+
+        final Timer processingTimer = Metrics.getRegistry().find("alpine_event_processing")
+                .tags("event", LifecycleEvent.class.getSimpleName(), "subscriber", BlockingSubscriber.class.getSimpleName())
+                .timer();
+        assertThat(processingTimer).isNotNull();
+        assertThat(processingTimer.max(TimeUnit.MILLISECONDS)).isGreaterThanOrEqualTo(200);
+        // Percentile histograms are opt-in.
+        assertThat(processingTimer.takeSnapshot().histogramCounts()).isEmpty();
+    }
+
+    @Test
+    public void testChainDurationCoversLinks() throws Exception {
+        eventService.subscribe(RootEvent.class, SleepingSubscriber.class);
+        LinkEventService.getInstance().subscribe(LinkEvent.class, SleepingSubscriber.class);
+
+        final var rootEvent = new RootEvent();
+        rootEvent.onSuccess(new LinkEvent(), LinkEventService.class);
+        eventService.publish(rootEvent);
+
+        assertThat(linkLatch.await(5, TimeUnit.SECONDS)).isTrue();
+        final Timer timer = awaitTimer("alpine_event_chain_duration", RootEvent.class);
+        assertThat(timer.count()).isEqualTo(1);
+        // The root event and its link were processed one after another.
+        assertThat(timer.totalTime(TimeUnit.MILLISECONDS)).isGreaterThanOrEqualTo(200);
+        assertThat(Metrics.getRegistry().find("alpine_event_chain_duration")
+                .tag("event", LinkEvent.class.getSimpleName()).timer()).isNull();
+    }
+
+    private static Timer awaitTimer(final String name, final Class<? extends Event> eventClass) throws InterruptedException {
+        final long deadline = System.nanoTime() + Duration.ofSeconds(5).toNanos();
+        Timer timer;
+        while (((timer = Metrics.getRegistry().find(name).tag("event", eventClass.getSimpleName()).timer()) == null
+                || timer.count() == 0) && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        assertThat(timer).isNotNull();
+        return timer;
+    }
+
+}
@@ -0,0 +1,200 @@
+/*
+ * This file is part of Alpine.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ * Copyright (c) Steve Springett. All Rights Reserved.
+ */
+package alpine.event.framework;
+
+import alpine.model.EventOutboxEntry;
+import alpine.persistence.AlpineQueryManager;
+import alpine.persistence.JdoProperties;
+import org.datanucleus.api.jdo.JDOPersistenceManagerFactory;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import javax.jdo.JDOHelper;
+import javax.jdo.Transaction;
+import java.io.Serializable;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static alpine.test.TestUtil.awaitCondition;
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class EventOutboxTest {
+
+    public record TestDurableEvent(String value) implements DurableEvent, Serializable {
+    }
+
+    public record UnsubscribedDurableEvent(String value) implements DurableEvent, Serializable {
+    }
+
+    private static final List<Event> INFORMED = new CopyOnWriteArrayList<>();
+
+    public static class TestSubscriber implements Subscriber {
+        @Override
+        public void inform(final Event event) {
+            INFORMED.add(event);
+        }
+    }
+
+    private JDOPersistenceManagerFactory pmf;
+    private BaseEventService eventService;
+
+    @BeforeEach
+    public void setUp() {
+        INFORMED.clear();
+        pmf = (JDOPersistenceManagerFactory) JDOHelper.getPersistenceManagerFactory(JdoProperties.unit(), "Alpine");
+        eventService = new BaseEventService() {
+        };
+        eventService.subscribe(TestDurableEvent.class, TestSubscriber.class);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        eventService.shutdown(Duration.ofSeconds(5));
+        if (pmf != null) {
+            pmf.close();
+        }
+    }
+
+    private EventOutbox createOutbox(final String claimant) {
+        return new EventOutbox(eventService, () -> new AlpineQueryManager(pmf.getPersistenceManager()),
+                new JavaEventSerializer(), claimant, 10, 60_000, 60_000);
+    }
+
+    @Test
+    public void testDurableEventIsRelayedAndDeleted() throws Exception {
+        final EventOutbox outbox = createOutbox("node-a");
+        eventService.setOutbox(outbox);
+
+        assertThat(eventService.publish(new TestDurableEvent("foo"))).isEqualTo(PublishStatus.ACCEPTED);
+        assertThat(INFORMED).isEmpty();
+        assertThat(countEntries()).isEqualTo(1);
+
+        assertThat(outbox.poll()).isEqualTo(1);
+        awaitCondition(() -> INFORMED.size() >= 1);
+        assertThat(INFORMED).containsExactly(new TestDurableEvent("foo"));
+
+        assertThat(awaitEntriesDeleted(outbox)).isZero();
+    }
+
+    @Test
+    public void testEventIsNotRelayedWhenTransactionIsRolledBack() {
+        eventService.setOutbox(createOutbox("node-a"));
+
+        try (final var qm = new AlpineQueryManager(pmf.getPersistenceManager())) {
+            final Transaction trx = qm.getPersistenceManager().currentTransaction();
+            trx.begin();
+            assertThat(eventService.publish(qm, new TestDurableEvent("foo"))).isEqualTo(PublishStatus.ACCEPTED);
+            trx.rollback();
+        }
+
+        assertThat(countEntries()).isZero();
+    }
+
+    @Test
+    public void testUnfinishedEventsAreReplayedOnStartup() throws Exception {
+        try (final var qm = new AlpineQueryManager(pmf.getPersistenceManager())) {
+            createOutbox("node-a").append(qm, new TestDurableEvent("foo"));
+            // Simulate the instance claiming the event, and stopping before it was processed.
+            assertThat(qm.claimEventOutboxEntries(eventService.getClass().getName(), "node-a", 10,
+                    new Timestamp(System.currentTimeMillis()))).hasSize(1);
+        }
+
+        // Claims of other instances are respected until they expire.
+        final EventOutbox otherOutbox = createOutbox("node-b");
+        eventService.setOutbox(otherOutbox);
+        assertThat(otherOutbox.poll()).isZero();
+
+        final EventOutbox restartedOutbox = createOutbox("node-a");
+        eventService.setOutbox(restartedOutbox);
+        assertThat(restartedOutbox.poll()).isEqualTo(1);
+        awaitCondition(() -> INFORMED.size() >= 1);
+
+        assertThat(awaitEntriesDeleted(restartedOutbox)).isZero();
+    }
+
+    @Test
+    public void testClaimedEntriesAreNotClaimedAgain() {
+        try (final var qm = new AlpineQueryManager(pmf.getPersistenceManager())) {
+            final EventOutbox outbox = createOutbox("node-a");
+            outbox.append(qm, new TestDurableEvent("foo"));
+            outbox.append(qm, new TestDurableEvent("bar"));
+
+            final String eventServiceName = eventService.getClass().getName();
+            final var claimExpiry = new Timestamp(System.currentTimeMillis() - 60_000);
+            final List<EventOutboxEntry> claimed = qm.claimEventOutboxEntries(eventServiceName, "node-a", 1, claimExpiry);
+            assertThat(claimed).satisfiesExactly(entry -> {
+                assertThat(entry.getClaimedBy()).isEqualTo("node-a");
+                assertThat(entry.getAttempts()).isEqualTo(1);
+            });
+            assertThat(qm.claimEventOutboxEntries(eventServiceName, "node-b", 10, claimExpiry))
+                    .extracting(EventOutboxEntry::getId)
+                    .doesNotContain(claimed.get(0).getId())
+                    .hasSize(1);
+            assertThat(qm.claimEventOutboxEntries(eventServiceName, "node-b", 10, claimExpiry)).isEmpty();
+        }
+    }
+
+    @Test
+    public void testOwnClaimsDoNotExpire() {
+        try (final var qm = new AlpineQueryManager(pmf.getPersistenceManager())) {
+            createOutbox("node-a").append(qm, new TestDurableEvent("foo"));
+
+            final String eventServiceName = eventService.getClass().getName();
+            final var claimExpiry = new Timestamp(System.currentTimeMillis() + 60_000);
+            assertThat(qm.claimEventOutboxEntries(eventServiceName, "node-a", 10, claimExpiry)).hasSize(1);
+            assertThat(qm.claimEventOutboxEntries(eventServiceName, "node-a", 10, claimExpiry)).isEmpty();
+            assertThat(qm.claimEventOutboxEntries(eventServiceName, "node-b", 10, claimExpiry)).hasSize(1);
+        }
+    }
+
+    @Test
+    public void testEntriesWithoutSubscribersAreDeleted() {
+        final EventOutbox outbox = createOutbox("node-a");
+        try (final var qm = new AlpineQueryManager(pmf.getPersistenceManager())) {
+            outbox.append(qm, new UnsubscribedDurableEvent("foo"));
+        }
+
+        for (int i = 0; i < EventOutbox.MAX_UNSUBSCRIBED_ATTEMPTS; i++) {
+            assertThat(outbox.poll()).isEqualTo(1);
+        }
+        assertThat(outbox.poll()).isZero();
+        assertThat(countEntries()).isZero();
+    }
+
+    private long countEntries() {
+        try (final var qm = new AlpineQueryManager(pmf.getPersistenceManager())) {
+            return qm.getCount(EventOutboxEntry.class);
+        }
+    }
+
+    private long awaitEntriesDeleted(final EventOutbox outbox) throws InterruptedException {
+        // Entries are deleted during the poll following the completion of all subscribers.
+        final long deadline = System.nanoTime() + Duration.ofSeconds(5).toNanos();
+        long count;
+        while ((count = countEntries()) > 0 && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+            outbox.poll();
+        }
+        return count;
+    }
+
+}
@@ -0,0 +1,98 @@
+/*
+ * This file is part of Alpine.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ * Copyright (c) Steve Springett. All Rights Reserved.
+ */
+package alpine.event.framework;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.InvalidClassException;
+import java.io.Serializable;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+
+public class JavaEventSerializerTest {
+
+    public static class ValueEvent implements Event, Serializable {
+        private final List<String> names = List.of("a", "b");
+        private final Map<String, Integer> counts = Map.of("a", 1);
+        private final UUID uuid = UUID.randomUUID();
+        private final Instant instant = Instant.now();
+        private final int[] numbers = {1, 2, 3};
+    }
+
+    public static class GadgetEvent implements Event, Serializable {
+        private final Object payload;
+
+        public GadgetEvent(final Object payload) {
+            this.payload = payload;
+        }
+    }
+
+    public record Node(Node next) implements Serializable {
+    }
+
+    private final JavaEventSerializer serializer = new JavaEventSerializer(List.of());
+
+    @Test
+    public void testValueTypesAreAllowed() throws Exception {
+        final var event = new ValueEvent();
+        final Event deserialized = serializer.deserialize(ValueEvent.class.getName(), serializer.serialize(event));
+        assertThat(deserialized).isInstanceOf(ValueEvent.class);
+        assertThat(deserialized).usingRecursiveComparison().isEqualTo(event);
+    }
+
+    @Test
+    public void testUnlistedClassIsRejected() throws Exception {
+        final byte[] payload = serializer.serialize(new GadgetEvent(new AtomicInteger(42)));
+        assertThatExceptionOfType(InvalidClassException.class)
+                .isThrownBy(() -> serializer.deserialize(GadgetEvent.class.getName(), payload));
+    }
+
+    @Test
+    public void testConfiguredPackageIsAllowed() throws Exception {
+        final var permissive = new JavaEventSerializer(List.of("java.util.concurrent.atomic"));
+        final byte[] payload = permissive.serialize(new GadgetEvent(new AtomicInteger(42)));
+        final Event deserialized = permissive.deserialize(GadgetEvent.class.getName(), payload);
+        assertThat(((GadgetEvent) deserialized).payload).hasToString("42");
+    }
+
+    @Test
+    public void testDifferentEventClassIsRejected() throws Exception {
+        final byte[] payload = serializer.serialize(new ValueEvent());
+        assertThatExceptionOfType(InvalidClassException.class)
+                .isThrownBy(() -> serializer.deserialize(GadgetEvent.class.getName(), payload));
+    }
+
+    @Test
+    public void testExcessiveDepthIsRejected() throws Exception {
+        Node node = null;
+        for (int i = 0; i < JavaEventSerializer.MAX_DEPTH; i++) {
+            node = new Node(node);
+        }
+        final byte[] payload = serializer.serialize(new GadgetEvent(node));
+        assertThatExceptionOfType(InvalidClassException.class)
+                .isThrownBy(() -> serializer.deserialize(GadgetEvent.class.getName(), payload));
+    }
+
+}
@@ -0,0 +1,159 @@
+/*
+ * This file is part of Alpine.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ * Copyright (c) Steve Springett. All Rights Reserved.
+ */
+package alpine.event.framework;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class PartitionedEventServiceTest {
+
+    public record TestEvent(String key, int sequence) implements PartitionedEvent {
+        @Override
+        public Object getPartitionKey() {
+            return key;
+        }
+    }
+
+    private static final Map<String, List<Integer>> SEQUENCES = new ConcurrentHashMap<>();
+    private static final Map<String, String> THREADS = new ConcurrentHashMap<>();
+
+    public static class TestSubscriber implements Subscriber {
+        @Override
+        public void inform(final Event event) {
+            final var testEvent = (TestEvent) event;
+            SEQUENCES.computeIfAbsent(testEvent.key(), key -> new CopyOnWriteArrayList<>()).add(testEvent.sequence());
+            THREADS.put(testEvent.key(), Thread.currentThread().getName());
+        }
+    }
+
+    @RetryPolicy(maxAttempts = 3, initialBackoffMillis = 50, jitter = 0)
+    public static class FailingOnceSubscriber implements Subscriber {
+        private static final Set<Integer> FAILED = ConcurrentHashMap.newKeySet();
+
+        @Override
+        public void inform(final Event event) {
+            final var testEvent = (TestEvent) event;
+            if (testEvent.sequence() == 0 && FAILED.add(testEvent.sequence())) {
+                throw new IllegalStateException("Failing the first attempt");
+            }
+            SEQUENCES.computeIfAbsent(testEvent.key(), key -> new CopyOnWriteArrayList<>()).add(testEvent.sequence());
+        }
+    }
+
+    private static final Map<String, Set<String>> BATCH_THREADS = new ConcurrentHashMap<>();
+
+    @BatchOptions(maxSize = 1000, maxLingerMillis = 60_000)
+    public static class TestBatchSubscriber implements BatchSubscriber {
+        @Override
+        public void inform(final List<Event> events) {
+            for (final Event event : events) {
+                final var testEvent = (TestEvent) event;
+                SEQUENCES.computeIfAbsent(testEvent.key(), key -> new CopyOnWriteArrayList<>()).add(testEvent.sequence());
+                BATCH_THREADS.computeIfAbsent(testEvent.key(), key -> ConcurrentHashMap.newKeySet())
+                        .add(Thread.currentThread().getName());
+            }
+        }
+    }
+
+    private PartitionedEventService eventService;
+
+    @BeforeEach
+    public void setUp() {
+        SEQUENCES.clear();
+        THREADS.clear();
+        BATCH_THREADS.clear();
+        FailingOnceSubscriber.FAILED.clear();
+        eventService = new PartitionedEventService(4);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        eventService.shutdown(Duration.ofSeconds(5));
+    }
+
+    @Test
+    public void testOrderingPerPartitionKey() {
+        eventService.subscribe(TestEvent.class, TestSubscriber.class);
+        final List<String> keys = List.of("a", "b", "c", "d", "e", "f", "g", "h");
+        for (int i = 0; i < 100; i++) {
+            for (final String key : keys) {
+                eventService.publish(new TestEvent(key, i));
+            }
+        }
+        assertThat(eventService.shutdown(Duration.ofSeconds(5))).isTrue();
+
+        assertThat(SEQUENCES).containsOnlyKeys(keys);
+        for (final String key : keys) {
+            assertThat(SEQUENCES.get(key)).hasSize(100).isSorted();
+            assertThat(THREADS.get(key)).isEqualTo("Alpine-PartitionedEventService-" + eventService.partitionOf(key));
+        }
+        assertThat(Set.copyOf(THREADS.values())).hasSizeGreaterThan(1);
+    }
+
+    @Test
+    public void testRetriesPreserveOrdering() {
+        eventService.subscribe(TestEvent.class, FailingOnceSubscriber.class);
+        for (int i = 0; i < 5; i++) {
+            eventService.publish(new TestEvent("a", i));
+        }
+        assertThat(eventService.shutdown(Duration.ofSeconds(5))).isTrue();
+
+        assertThat(FailingOnceSubscriber.FAILED).containsExactly(0);
+        assertThat(SEQUENCES.get("a")).containsExactly(0, 1, 2, 3, 4);
+    }
+
+    @Test
+    public void testBatchesAreSplitByPartition() {
+        eventService.subscribe(TestEvent.class, TestBatchSubscriber.class);
+        final List<String> keys = List.of("a", "b", "c", "d", "e", "f", "g", "h");
+        for (int i = 0; i < 10; i++) {
+            for (final String key : keys) {
+                eventService.publish(new TestEvent(key, i));
+            }
+        }
+        assertThat(eventService.shutdown(Duration.ofSeconds(5))).isTrue();
+
+        assertThat(SEQUENCES).containsOnlyKeys(keys);
+        for (final String key : keys) {
+            assertThat(SEQUENCES.get(key)).containsExactly(0, 1, 2, 3, 4, 5, 6, 7, 8, 9);
+            assertThat(BATCH_THREADS.get(key)).containsExactly("Alpine-PartitionedEventService-" + eventService.partitionOf(key));
+        }
+    }
+
+    @Test
+    public void testPartitionOf() {
+        assertThat(eventService.partitionOf(null)).isZero();
+        for (int i = 0; i < 100; i++) {
+            assertThat(eventService.partitionOf(i)).isBetween(0, 3);
+            assertThat(eventService.partitionOf(-i)).isBetween(0, 3);
+        }
+        assertThat(eventService.partitionOf("foo")).isEqualTo(eventService.partitionOf("foo"));
+    }
+
+}
@@ -0,0 +1,189 @@
+/*
+ * This file is part of Alpine.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ * Copyright (c) Steve Springett. All Rights Reserved.
+ */
+package alpine.event.framework;
+
+import alpine.common.util.VirtualThreadExecutorService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+
+public class QueueAdmissionTest {
+
+    private final CountDownLatch release = new CountDownLatch(1);
+    private final CountDownLatch blockingTaskStarted = new CountDownLatch(1);
+    private final List<String> executed = new CopyOnWriteArrayList<>();
+    private final AtomicInteger discarded = new AtomicInteger();
+    private ExecutorService executor;
+
+    @BeforeEach
+    public void setUp() {
+        executor = new ThreadPoolExecutor(1, 1, 0L, TimeUnit.MILLISECONDS, new LinkedBlockingQueue<>(1));
+    }
+
+    @AfterEach
+    public void tearDown() throws Exception {
+        release.countDown();
+        executor.shutdown();
+        assertThat(executor.awaitTermination(5, TimeUnit.SECONDS)).isTrue();
+    }
+
+    @Test
+    public void testBlock() throws Exception {
+        final var admission = new QueueAdmission("test", OverflowPolicy.BLOCK, Duration.ofSeconds(5));
+        saturate(admission);
+
+        final Thread releaser = Thread.ofVirtual().start(() -> {
+            try {
+                Thread.sleep(100);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            release.countDown();
+        });
+        assertThat(admission.submit(executor, task("new"))).isEqualTo(PublishStatus.THROTTLED);
+        releaser.join();
+
+        executor.shutdown();
+        assertThat(executor.awaitTermination(5, TimeUnit.SECONDS)).isTrue();
+        assertThat(executed).containsExactly("blocking", "queued", "new");
+    }
+
+    @Test
+    public void testBlockTimeout() throws Exception {
+        final var admission = new QueueAdmission("test", OverflowPolicy.BLOCK, Duration.ofMillis(50));
+        saturate(admission);
+
+        assertThat(admission.submit(executor, task("new"))).isEqualTo(PublishStatus.DROPPED);
+        assertThat(discarded.get()).isEqualTo(1);
+    }
+
+    @Test
+    public void testCallerRuns() throws Exception {
+        final var admission = new QueueAdmission("test", OverflowPolicy.CALLER_RUNS, Duration.ZERO);
+        saturate(admission);
+
+        assertThat(admission.submit(executor, task("new"))).isEqualTo(PublishStatus.THROTTLED);
+        assertThat(executed).containsExactly("new");
+    }
+
+    @Test
+    public void testDropOldest() throws Exception {
+        final var admission = new QueueAdmission("test", OverflowPolicy.DROP_OLDEST, Duration.ZERO);
+        saturate(admission);
+
+        assertThat(admission.submit(executor, task("new"))).isEqualTo(PublishStatus.THROTTLED);
+        assertThat(discarded.get()).isEqualTo(1);
+
+        release.countDown();
+        executor.shutdown();
+        assertThat(executor.awaitTermination(5, TimeUnit.SECONDS)).isTrue();
+        assertThat(executed).containsExactly("blocking", "new");
+    }
+
+    @Test
+    public void testDropNewest() throws Exception {
+        final var admission = new QueueAdmission("test", OverflowPolicy.DROP_NEWEST, Duration.ZERO);
+        saturate(admission);
+
+        assertThat(admission.submit(executor, task("new"))).isEqualTo(PublishStatus.DROPPED);
+        assertThat(discarded.get()).isEqualTo(1);
+
+        release.countDown();
+        executor.shutdown();
+        assertThat(executor.awaitTermination(5, TimeUnit.SECONDS)).isTrue();
+        assertThat(executed).containsExactly("blocking", "queued");
+    }
+
+    @Test
+    public void testReject() throws Exception {
+        final var admission = new QueueAdmission("test", OverflowPolicy.REJECT, Duration.ZERO);
+        saturate(admission);
+
+        assertThatExceptionOfType(RejectedExecutionException.class)
+                .isThrownBy(() -> admission.submit(executor, task("new")));
+        assertThat(discarded.get()).isEqualTo(1);
+    }
+
+    @Test
+    public void testDropOldestWithVirtualThreadExecutor() throws Exception {
+        executor.shutdown();
+        executor = new VirtualThreadExecutorService("test", 1, 1, (thread, throwable) -> { });
+        testDropOldest();
+    }
+
+    @Test
+    public void testOfferToQueue() {
+        final var queue = new LinkedBlockingQueue<QueueAdmission.Task>(1);
+        final var dropOldest = new QueueAdmission("test", OverflowPolicy.DROP_OLDEST, Duration.ZERO);
+        assertThat(dropOldest.offer(queue, task("first"))).isEqualTo(PublishStatus.ACCEPTED);
+        assertThat(dropOldest.offer(queue, task("second"))).isEqualTo(PublishStatus.THROTTLED);
+        assertThat(discarded.get()).isEqualTo(1);
+
+        final var callerRuns = new QueueAdmission("test", OverflowPolicy.CALLER_RUNS, Duration.ZERO);
+        assertThat(callerRuns.offer(queue, task("third"))).isEqualTo(PublishStatus.THROTTLED);
+        assertThat(executed).containsExactly("third");
+
+        final var reject = new QueueAdmission("test", OverflowPolicy.REJECT, Duration.ZERO);
+        assertThatExceptionOfType(RejectedExecutionException.class).isThrownBy(() -> reject.offer(queue, task("fourth")));
+        assertThat(discarded.get()).isEqualTo(2);
+
+        queue.poll().run();
+        assertThat(executed).containsExactly("third", "second");
+    }
+
+    @Test
+    public void testOverflowPolicyOf() {
+        assertThat(OverflowPolicy.of("drop-oldest")).isEqualTo(OverflowPolicy.DROP_OLDEST);
+        assertThat(OverflowPolicy.of(" CALLER_RUNS ")).isEqualTo(OverflowPolicy.CALLER_RUNS);
+        assertThatExceptionOfType(IllegalArgumentException.class).isThrownBy(() -> OverflowPolicy.of("foo"));
+    }
+
+    private void saturate(final QueueAdmission admission) throws InterruptedException {
+        assertThat(admission.submit(executor, () -> {
+            blockingTaskStarted.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            executed.add("blocking");
+        })).isEqualTo(PublishStatus.ACCEPTED);
+        assertThat(blockingTaskStarted.await(5, TimeUnit.SECONDS)).isTrue();
+        assertThat(admission.submit(executor, task("queued"))).isEqualTo(PublishStatus.ACCEPTED);
+    }
+
+    private QueueAdmission.Task task(final String name) {
+        return new QueueAdmission.Task(() -> executed.add(name), discarded::incrementAndGet);
+    }
+
+}
@@ -0,0 +1,320 @@
+/*
+ * This file is part of Alpine.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ * Copyright (c) Steve Springett. All Rights Reserved.
+ */
+package alpine.event.framework;
+
+import alpine.model.DeadLetterEvent;
+import alpine.persistence.AlpineQueryManager;
+import alpine.persistence.JdoProperties;
+import org.datanucleus.api.jdo.JDOPersistenceManagerFactory;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import javax.jdo.JDOHelper;
+import java.io.IOException;
+import java.io.Serializable;
+import java.io.UncheckedIOException;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static alpine.test.TestUtil.awaitCondition;
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class RetryPolicyTest {
+
+    public static class TestEvent extends AbstractChainableEvent implements Serializable {
+
+        private static final long serialVersionUID = 1L;
+
+        private final String value;
+
+        public TestEvent(final String value) {
+            this.value = value;
+        }
+
+        public String getValue() {
+            return value;
+        }
+
+    }
+
+    public static class OutcomeEvent implements Event {
+
+        private final String outcome;
+
+        public OutcomeEvent(final String outcome) {
+            this.outcome = outcome;
+        }
+
+    }
+
+    private static final List<String> INFORMED = new CopyOnWriteArrayList<>();
+    private static final Map<String, AtomicInteger> FAILURES_LEFT = new ConcurrentHashMap<>();
+    private static volatile CountDownLatch outcomeLatch;
+
+    /**
+     * Fails to process an event as often as configured for its value.
+     */
+    @RetryPolicy(maxAttempts = 3, initialBackoffMillis = 10, jitter = 0)
+    public static class FlakySubscriber implements Subscriber {
+        @Override
+        public void inform(final Event event) {
+            final String value = ((TestEvent) event).getValue();
+            INFORMED.add(value);
+            final AtomicInteger failuresLeft = FAILURES_LEFT.get(value);
+            if (failuresLeft != null && failuresLeft.getAndDecrement() > 0) {
+                throw new UncheckedIOException(new IOException("Service unavailable"));
+            }
+        }
+    }
+
+    @RetryPolicy(maxAttempts = 3, initialBackoffMillis = 10, abortOn = IllegalArgumentException.class)
+    public static class InvalidInputSubscriber implements Subscriber {
+        @Override
+        public void inform(final Event event) {
+            INFORMED.add(((TestEvent) event).getValue());
+            throw new IllegalArgumentException("Invalid input");
+        }
+    }
+
+    @RetryPolicy(maxAttempts = 2, initialBackoffMillis = 500, jitter = 0)
+    public static class SlowRetrySubscriber implements Subscriber {
+        @Override
+        public void inform(final Event event) {
+            final String value = ((TestEvent) event).getValue();
+            INFORMED.add(value);
+            if (value.equals("fail") && FAILURES_LEFT.get(value).getAndDecrement() > 0) {
+                throw new IllegalStateException("Service unavailable");
+            }
+        }
+    }
+
+    public static class OutcomeSubscriber implements Subscriber {
+        @Override
+        public void inform(final Event event) {
+            INFORMED.add(((OutcomeEvent) event).outcome);
+            outcomeLatch.countDown();
+        }
+    }
+
+    public static final class RetryingEventService extends BaseEventService {
+
+        private static final RetryingEventService INSTANCE = new RetryingEventService();
+
+        public static RetryingEventService getInstance() {
+            return INSTANCE;
+        }
+
+    }
+
+    private JDOPersistenceManagerFactory pmf;
+    private DeadLetterStore deadLetterStore;
+    private BaseEventService eventService;
+
+    @BeforeEach
+    public void setUp() {
+        INFORMED.clear();
+        FAILURES_LEFT.clear();
+        outcomeLatch = new CountDownLatch(1);
+        pmf = (JDOPersistenceManagerFactory) JDOHelper.getPersistenceManagerFactory(JdoProperties.unit(), "Alpine");
+        deadLetterStore = new DeadLetterStore(() -> new AlpineQueryManager(pmf.getPersistenceManager()), new JavaEventSerializer());
+        eventService = RetryingEventService.getInstance();
+        eventService.setDeadLetterStore(deadLetterStore);
+        eventService.subscribe(OutcomeEvent.class, OutcomeSubscriber.class);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        eventService.unsubscribe(FlakySubscriber.class);
+        eventService.unsubscribe(InvalidInputSubscriber.class);
+        eventService.unsubscribe(SlowRetrySubscriber.class);
+        eventService.unsubscribe(OutcomeSubscriber.class);
+        if (pmf != null) {
+            pmf.close();
+        }
+    }
+
+    @Test
+    public void testFailedEventIsRetriedUntilProcessed() throws Exception {
+        eventService.subscribe(TestEvent.class, FlakySubscriber.class);
+        FAILURES_LEFT.put("flaky", new AtomicInteger(2));
+
+        final var event = new TestEvent("flaky");
+        event.onSuccess(new OutcomeEvent("success"), RetryingEventService.class);
+        event.onFailure(new OutcomeEvent("failure"), RetryingEventService.class);
+        eventService.publish(event);
+
+        assertThat(outcomeLatch.await(5, TimeUnit.SECONDS)).isTrue();
+        assertThat(INFORMED).containsExactly("flaky", "flaky", "flaky", "success");
+        assertThat(eventService.isEventBeingProcessed(event)).isFalse();
+        assertThat(getDeadLetterEvents()).isEmpty();
+    }
+
+    @Test
+    public void testExhaustedEventIsDeadLettered() throws Exception {
+        eventService.subscribe(TestEvent.class, FlakySubscriber.class);
+        FAILURES_LEFT.put("broken", new AtomicInteger(Integer.MAX_VALUE));
+
+        final var event = new TestEvent("broken");
+        event.onFailure(new OutcomeEvent("failure"), RetryingEventService.class);
+        eventService.publish(event);
+
+        assertThat(outcomeLatch.await(5, TimeUnit.SECONDS)).isTrue();
+        assertThat(INFORMED).containsExactly("broken", "broken", "broken", "failure");
+        assertThat(getDeadLetterEvents()).satisfiesExactly(deadLetterEvent -> {
+            assertThat(deadLetterEvent.getUuid()).isNotNull();
+            assertThat(deadLetterEvent.getEventService()).isEqualTo(RetryingEventService.class.getName());
+            assertThat(deadLetterEvent.getSubscriberClass()).isEqualTo(FlakySubscriber.class.getName());
+            assertThat(deadLetterEvent.getEventClass()).isEqualTo(TestEvent.class.getName());
+            assertThat(deadLetterEvent.getPayload()).isNotEmpty();
+            assertThat(deadLetterEvent.getAttempts()).isEqualTo(3);
+            assertThat(deadLetterEvent.getFailure()).contains("Service unavailable");
+        });
+    }
+
+    @Test
+    public void testFailedResubmissionIsDeadLettered() throws Exception {
+        final var selections = new AtomicInteger();
+        final BaseEventService failingEventService = new BaseEventService() {
+            {
+                setDeadLetterStore(deadLetterStore);
+            }
+
+            @Override
+            protected ExecutorService selectExecutorService(final Event event) {
+                if (selections.incrementAndGet() > 1) {
+                    throw new IllegalStateException("No executor available");
+                }
+                return super.selectExecutorService(event);
+            }
+        };
+        failingEventService.subscribe(TestEvent.class, FlakySubscriber.class);
+        FAILURES_LEFT.put("resubmit", new AtomicInteger(1));
+
+        final var event = new TestEvent("resubmit");
+        event.onFailure(new OutcomeEvent("failure"), RetryingEventService.class);
+        try {
+            failingEventService.publish(event);
+
+            assertThat(outcomeLatch.await(5, TimeUnit.SECONDS)).isTrue();
+            assertThat(INFORMED).containsExactly("resubmit", "failure");
+            assertThat(failingEventService.isEventBeingProcessed(event)).isFalse();
+            assertThat(getDeadLetterEvents()).satisfiesExactly(deadLetterEvent -> {
+                assertThat(deadLetterEvent.getSubscriberClass()).isEqualTo(FlakySubscriber.class.getName());
+                assertThat(deadLetterEvent.getAttempts()).isEqualTo(1);
+            });
+        } finally {
+            failingEventService.shutdown(Duration.ofSeconds(5));
+        }
+    }
+
+    @Test
+    public void testAbortedEventIsNotRetried() throws Exception {
+        eventService.subscribe(TestEvent.class, InvalidInputSubscriber.class);
+
+        final var event = new TestEvent("invalid");
+        event.onFailure(new OutcomeEvent("failure"), RetryingEventService.class);
+        eventService.publish(event);
+
+        assertThat(outcomeLatch.await(5, TimeUnit.SECONDS)).isTrue();
+        assertThat(INFORMED).containsExactly("invalid", "failure");
+        assertThat(getDeadLetterEvents()).satisfiesExactly(deadLetterEvent ->
+                assertThat(deadLetterEvent.getAttempts()).isEqualTo(1));
+    }
+
+    @Test
+    public void testRetryDoesNotHoldWorker() throws Exception {
+        eventService.subscribe(TestEvent.class, SlowRetrySubscriber.class);
+        FAILURES_LEFT.put("fail", new AtomicInteger(1));
+
+        final var event = new TestEvent("fail");
+        event.onSuccess(new OutcomeEvent("success"), RetryingEventService.class);
+        eventService.publish(event);
+        eventService.publish(new TestEvent("next"));
+
+        assertThat(outcomeLatch.await(5, TimeUnit.SECONDS)).isTrue();
+        // The single worker processed the next event while the failed one was waiting for its retry.
+        assertThat(INFORMED).containsExactly("fail", "next", "fail", "success");
+    }
+
+    @Test
+    public void testDeadLetteredEventIsRepublished() throws Exception {
+        eventService.subscribe(TestEvent.class, FlakySubscriber.class);
+        FAILURES_LEFT.put("recovering", new AtomicInteger(3));
+
+        final var event = new TestEvent("recovering");
+        event.onFailure(new OutcomeEvent("failure"), RetryingEventService.class);
+        eventService.publish(event);
+        assertThat(outcomeLatch.await(5, TimeUnit.SECONDS)).isTrue();
+
+        final List<DeadLetterEvent> deadLetterEvents = getDeadLetterEvents();
+        assertThat(deadLetterEvents).hasSize(1);
+        INFORMED.clear();
+        try (final var qm = new AlpineQueryManager(pmf.getPersistenceManager())) {
+            assertThat(deadLetterStore.republish(qm, List.of(deadLetterEvents.get(0).getUuid()))).isEqualTo(1);
+        }
+
+        awaitCondition(() -> INFORMED.contains("recovering"));
+        assertThat(INFORMED).containsExactly("recovering");
+        assertThat(getDeadLetterEvents()).isEmpty();
+    }
+
+    @Test
+    public void testBackoff() {
+        final RetryPolicy policy = ExponentialPolicy.class.getAnnotation(RetryPolicy.class);
+        assertThat(RetryScheduler.getBackoffMillis(policy, 1)).isEqualTo(100);
+        assertThat(RetryScheduler.getBackoffMillis(policy, 2)).isEqualTo(300);
+        assertThat(RetryScheduler.getBackoffMillis(policy, 3)).isEqualTo(900);
+        assertThat(RetryScheduler.getBackoffMillis(policy, 4)).isEqualTo(1000);
+
+        final RetryPolicy defaultPolicy = DefaultPolicy.class.getAnnotation(RetryPolicy.class);
+        assertThat(RetryScheduler.getBackoffMillis(defaultPolicy, 1)).isBetween(500L, 1000L);
+    }
+
+    @Test
+    public void testRetryableFailures() {
+        final RetryPolicy policy = InvalidInputSubscriber.class.getAnnotation(RetryPolicy.class);
+        assertThat(RetryScheduler.isRetryable(policy, 1, new UncheckedIOException(new IOException()))).isTrue();
+        assertThat(RetryScheduler.isRetryable(policy, 3, new UncheckedIOException(new IOException()))).isFalse();
+        assertThat(RetryScheduler.isRetryable(policy, 1, new IllegalArgumentException())).isFalse();
+        assertThat(RetryScheduler.isRetryable(policy, 1, new EventDispatchException("", new IllegalArgumentException()))).isFalse();
+    }
+
+    @RetryPolicy(initialBackoffMillis = 100, multiplier = 3, maxBackoffMillis = 1000, jitter = 0)
+    private static final class ExponentialPolicy {
+    }
+
+    @RetryPolicy
+    private static final class DefaultPolicy {
+    }
+
+    private List<DeadLetterEvent> getDeadLetterEvents() {
+        try (final var qm = new AlpineQueryManager(pmf.getPersistenceManager())) {
+            return qm.getDeadLetterEvents().getList(DeadLetterEvent.class);
+        }
+    }
+
+}
@@ -0,0 +1,244 @@
+/*
+ * This file is part of Alpine.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ * Copyright (c) Steve Springett. All Rights Reserved.
+ */
+package alpine.event.framework;
+
+import alpine.common.metrics.Metrics;
+import io.micrometer.core.instrument.Gauge;
+import org.apache.commons.lang3.concurrent.BasicThreadFactory;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class SubscriberBulkheadTest {
+
+    public static class SlowEvent implements Event {
+    }
+
+    public static class FastEvent implements Event {
+    }
+
+    private static final AtomicInteger ACTIVE = new AtomicInteger();
+    private static final AtomicInteger MAX_ACTIVE = new AtomicInteger();
+    private static final AtomicInteger COMPLETED = new AtomicInteger();
+    private static final Set<String> THREAD_NAMES = ConcurrentHashMap.newKeySet();
+    private static volatile CountDownLatch release;
+    private static volatile CountDownLatch fastLatch;
+
+    public static class SlowSubscriber implements Subscriber {
+        @Override
+        public void inform(final Event event) {
+            MAX_ACTIVE.accumulateAndGet(ACTIVE.incrementAndGet(), Math::max);
+            THREAD_NAMES.add(Thread.currentThread().getName());
+            try {
+                release.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } finally {
+                ACTIVE.decrementAndGet();
+                COMPLETED.incrementAndGet();
+            }
+        }
+    }
+
+    public static class DedicatedSubscriber extends SlowSubscriber {
+    }
+
+    public static class OtherEvent implements Event {
+    }
+
+    private static volatile CountDownLatch otherStarted;
+    private static volatile CountDownLatch otherRelease;
+
+    public static class OtherSubscriber implements Subscriber {
+        @Override
+        public void inform(final Event event) {
+            otherStarted.countDown();
+            try {
+                otherRelease.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    public static class FastSubscriber implements Subscriber {
+        @Override
+        public void inform(final Event event) {
+            fastLatch.countDown();
+        }
+    }
+
+    private BaseEventService eventService;
+
+    @BeforeEach
+    public void setUp() {
+        ACTIVE.set(0);
+        MAX_ACTIVE.set(0);
+        COMPLETED.set(0);
+        THREAD_NAMES.clear();
+        release = new CountDownLatch(1);
+        fastLatch = new CountDownLatch(1);
+        otherStarted = new CountDownLatch(2);
+        otherRelease = new CountDownLatch(1);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        release.countDown();
+        otherRelease.countDown();
+        if (eventService != null) {
+            eventService.shutdown(Duration.ofSeconds(5));
+        }
+    }
+
+    @Test
+    public void testConcurrencyIsLimited() throws Exception {
+        eventService = newEventService(List.of(SlowSubscriber.class.getName() + ":2"));
+        eventService.subscribe(SlowEvent.class, SlowSubscriber.class);
+        eventService.subscribe(FastEvent.class, FastSubscriber.class);
+
+        for (int i = 0; i < 10; i++) {
+            eventService.publish(new SlowEvent());
+        }
+        // Two workers remain available to other subscribers.
+        eventService.publish(new FastEvent());
+        assertThat(fastLatch.await(5, TimeUnit.SECONDS)).isTrue();
+
+        final Gauge saturation = Metrics.getRegistry().find("alpine_event_bulkhead_saturation")
+                .tag("subscriber", SlowSubscriber.class.getName())
+                .gauge();
+        assertThat(saturation).isNotNull();
+        assertThat(saturation.value()).isEqualTo(1.0);
+        assertThat(Metrics.getRegistry().find("alpine_event_bulkhead_waiting")
+                .tag("subscriber", SlowSubscriber.class.getName())
+                .gauge().value()).isEqualTo(8.0);
+
+        release.countDown();
+        assertThat(eventService.shutdown(Duration.ofSeconds(5))).isTrue();
+        assertThat(COMPLETED.get()).isEqualTo(10);
+        assertThat(MAX_ACTIVE.get()).isEqualTo(2);
+        assertThat(saturation.value()).isZero();
+    }
+
+    @Test
+    public void testDedicatedExecutor() throws Exception {
+        eventService = newEventService(List.of(DedicatedSubscriber.class.getName() + ":1:dedicated"));
+        eventService.subscribe(SlowEvent.class, DedicatedSubscriber.class);
+        eventService.subscribe(FastEvent.class, FastSubscriber.class);
+
+        for (int i = 0; i < 3; i++) {
+            eventService.publish(new SlowEvent());
+        }
+        eventService.publish(new FastEvent());
+        assertThat(fastLatch.await(5, TimeUnit.SECONDS)).isTrue();
+
+        release.countDown();
+        assertThat(eventService.shutdown(Duration.ofSeconds(5))).isTrue();
+        assertThat(COMPLETED.get()).isEqualTo(3);
+        assertThat(MAX_ACTIVE.get()).isEqualTo(1);
+        assertThat(THREAD_NAMES).allMatch(name -> name.startsWith("Alpine-BulkheadTest-DedicatedSubscriber-"));
+    }
+
+    @Test
+    public void testOverflowIsSubjectToOverflowPolicy() throws Exception {
+        eventService = new BaseEventService() {{
+            setExecutorService(Executors.newFixedThreadPool(4, new BasicThreadFactory.Builder()
+                    .namingPattern("Alpine-BulkheadTest-%d")
+                    .build()));
+            setQueueAdmission(new QueueAdmission("Alpine-BulkheadTest", OverflowPolicy.DROP_NEWEST, Duration.ZERO));
+            setBulkheads("Alpine-BulkheadTest", 2, List.of(SlowSubscriber.class.getName() + ":1"));
+        }};
+        eventService.subscribe(SlowEvent.class, SlowSubscriber.class);
+
+        assertThat(eventService.publish(new SlowEvent())).isEqualTo(PublishStatus.ACCEPTED);
+        assertThat(eventService.publish(new SlowEvent())).isEqualTo(PublishStatus.THROTTLED);
+        assertThat(eventService.publish(new SlowEvent())).isEqualTo(PublishStatus.THROTTLED);
+        assertThat(eventService.publish(new SlowEvent())).isEqualTo(PublishStatus.DROPPED);
+
+        release.countDown();
+        assertThat(eventService.shutdown(Duration.ofSeconds(5))).isTrue();
+        assertThat(COMPLETED.get()).isEqualTo(3);
+    }
+
+    @Test
+    public void testDrainingDoesNotBlockOnSaturatedExecutor() throws Exception {
+        eventService = new BaseEventService() {{
+            setExecutorService(new ThreadPoolExecutor(2, 2, 0L, TimeUnit.MILLISECONDS, new LinkedBlockingQueue<>(1),
+                    new BasicThreadFactory.Builder()
+                            .namingPattern("Alpine-BulkheadTest-%d")
+                            .build()));
+            setQueueAdmission(new QueueAdmission("Alpine-BulkheadTest", OverflowPolicy.BLOCK, Duration.ofSeconds(5)));
+            setBulkheads("Alpine-BulkheadTest", 10, List.of(SlowSubscriber.class.getName() + ":1"));
+        }};
+        eventService.subscribe(SlowEvent.class, SlowSubscriber.class);
+        eventService.subscribe(OtherEvent.class, OtherSubscriber.class);
+
+        // One dispatch runs on the first worker, two wait in the bulkhead.
+        for (int i = 0; i < 3; i++) {
+            eventService.publish(new SlowEvent());
+        }
+        // One dispatch runs on the second worker, one fills the queue of the executor.
+        eventService.publish(new OtherEvent());
+        eventService.publish(new OtherEvent());
+
+        // The first worker must not block while draining the bulkhead into the full queue,
+        // but go on to take the queued dispatch.
+        release.countDown();
+        assertThat(otherStarted.await(2, TimeUnit.SECONDS)).isTrue();
+
+        otherRelease.countDown();
+        assertThat(eventService.shutdown(Duration.ofSeconds(5))).isTrue();
+        assertThat(COMPLETED.get()).isEqualTo(3);
+        assertThat(MAX_ACTIVE.get()).isEqualTo(1);
+    }
+
+    @Test
+    public void testParse() {
+        final Map<String, SubscriberBulkhead.Spec> specs = SubscriberBulkhead.parse(List.of(
+                "com.example.A:2", "com.example.B: 4 :dedicated", "com.example.C", "com.example.D:0",
+                "com.example.E:x", "com.example.F:1:shared"));
+        assertThat(specs).containsOnly(
+                Map.entry("com.example.A", new SubscriberBulkhead.Spec(2, false)),
+                Map.entry("com.example.B", new SubscriberBulkhead.Spec(4, true)));
+    }
+
+    private static BaseEventService newEventService(final List<String> bulkheads) {
+        return new BaseEventService() {{
+            setExecutorService(Executors.newFixedThreadPool(4, new BasicThreadFactory.Builder()
+                    .namingPattern("Alpine-BulkheadTest-%d")
+                    .build()));
+            setBulkheads("Alpine-BulkheadTest", Integer.MAX_VALUE, bulkheads);
+        }};
+    }
+
+}
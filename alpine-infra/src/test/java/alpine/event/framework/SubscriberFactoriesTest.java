@@ -0,0 +1,116 @@
+/*
+ * This file is part of Alpine.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ * Copyright (c) Steve Springett. All Rights Reserved.
+ */
+package alpine.event.framework;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+
+public class SubscriberFactoriesTest {
+
+    public static class DefaultSubscriber implements Subscriber {
+        @Override
+        public void inform(final Event event) {
+        }
+    }
+
+    @SubscriberScope(SubscriberLifecycle.SINGLETON)
+    public static class SingletonSubscriber implements Subscriber {
+        @Override
+        public void inform(final Event event) {
+        }
+    }
+
+    @SubscriberScope(value = SubscriberLifecycle.POOLED, poolSize = 1)
+    public static class PooledSubscriber implements Subscriber {
+        @Override
+        public void inform(final Event event) {
+        }
+    }
+
+    public static class FailingSubscriber implements Subscriber {
+        public FailingSubscriber() {
+            throw new IllegalStateException("boom");
+        }
+
+        @Override
+        public void inform(final Event event) {
+        }
+    }
+
+    public static class NoDefaultConstructorSubscriber implements Subscriber {
+        public NoDefaultConstructorSubscriber(final String ignored) {
+        }
+
+        @Override
+        public void inform(final Event event) {
+        }
+    }
+
+    @Test
+    public void testPrototypeIsDefault() {
+        final SubscriberFactory factory = SubscriberFactories.forClass(DefaultSubscriber.class);
+        final Subscriber first = factory.acquire();
+        factory.release(first);
+        final Subscriber second = factory.acquire();
+        assertThat(first).isInstanceOf(DefaultSubscriber.class);
+        assertThat(second).isInstanceOf(DefaultSubscriber.class).isNotSameAs(first);
+    }
+
+    @Test
+    public void testSingleton() {
+        final SubscriberFactory factory = SubscriberFactories.forClass(SingletonSubscriber.class);
+        assertThat(factory.acquire()).isSameAs(factory.acquire());
+    }
+
+    @Test
+    public void testPooled() {
+        final SubscriberFactory factory = SubscriberFactories.forClass(PooledSubscriber.class);
+        final Subscriber first = factory.acquire();
+        final Subscriber second = factory.acquire();
+        assertThat(second).isNotSameAs(first);
+
+        factory.release(first);
+        factory.release(second); // Exceeds the pool size of 1 and is discarded
+        assertThat(factory.acquire()).isSameAs(first);
+        assertThat(factory.acquire()).isNotSameAs(first).isNotSameAs(second);
+    }
+
+    @Test
+    public void testConstructorFailure() {
+        final SubscriberFactory factory = SubscriberFactories.forClass(FailingSubscriber.class);
+        assertThatExceptionOfType(EventDispatchException.class)
+                .isThrownBy(factory::acquire)
+                .withCauseInstanceOf(IllegalStateException.class);
+    }
+
+    @Test
+    public void testMissingConstructor() {
+        assertThatExceptionOfType(IllegalArgumentException.class)
+                .isThrownBy(() -> SubscriberFactories.forClass(NoDefaultConstructorSubscriber.class));
+    }
+
+    @Test
+    public void testEventServiceResolver() {
+        assertThat(EventServiceResolver.resolve(EventService.class)).isSameAs(EventService.getInstance());
+        assertThat(EventServiceResolver.resolve(SingleThreadedEventService.class)).isSameAs(SingleThreadedEventService.getInstance());
+    }
+
+}
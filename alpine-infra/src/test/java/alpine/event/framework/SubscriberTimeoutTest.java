@@ -0,0 +1,197 @@
+/*
+ * This file is part of Alpine.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ * Copyright (c) Steve Springett. All Rights Reserved.
+ */
+package alpine.event.framework;
+
+import alpine.common.metrics.Metrics;
+import io.micrometer.core.instrument.Counter;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class SubscriberTimeoutTest {
+
+    public static class TestEvent extends AbstractChainableEvent {
+    }
+
+    public static class FailureEvent implements Event {
+    }
+
+    private static final List<String> OUTCOMES = new CopyOnWriteArrayList<>();
+    private static volatile CountDownLatch failureLatch;
+
+    @SubscriberTimeout(100)
+    public static class BlockingSubscriber implements Subscriber {
+        @Override
+        public void inform(final Event event) {
+            try {
+                new CountDownLatch(1).await(10, TimeUnit.SECONDS);
+                OUTCOMES.add("completed");
+            } catch (InterruptedException e) {
+                OUTCOMES.add("interrupted");
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    @SubscriberTimeout(100)
+    public static class CooperativeSubscriber implements Subscriber {
+        @Override
+        public void inform(final Event event) {
+            final long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+            while (System.nanoTime() < deadline) {
+                // Swallows interrupts, but checks its token.
+                Thread.interrupted();
+                if (CancellationToken.current().isCancelled()) {
+                    OUTCOMES.add("cancelled");
+                    CancellationToken.current().throwIfCancelled();
+                }
+            }
+            OUTCOMES.add("completed");
+        }
+    }
+
+    @SubscriberTimeout(5000)
+    public static class FastSubscriber implements Subscriber {
+        @Override
+        public void inform(final Event event) {
+            OUTCOMES.add((CancellationToken.current().isCancelled() ? "cancelled" : "completed")
+                    + (Thread.currentThread().isInterrupted() ? "-interrupted" : ""));
+        }
+    }
+
+    public static class UnannotatedSubscriber implements Subscriber {
+        @Override
+        public void inform(final Event event) {
+            try {
+                Thread.sleep(10_000);
+                OUTCOMES.add("completed");
+            } catch (InterruptedException e) {
+                OUTCOMES.add("interrupted");
+            }
+        }
+    }
+
+    public static class FailureSubscriber implements Subscriber {
+        @Override
+        public void inform(final Event event) {
+            OUTCOMES.add("failure-event");
+            failureLatch.countDown();
+        }
+    }
+
+    public static final class FailureEventService extends BaseEventService {
+
+        private static final FailureEventService INSTANCE = new FailureEventService();
+
+        public static FailureEventService getInstance() {
+            return INSTANCE;
+        }
+
+    }
+
+    private BaseEventService eventService;
+
+    @BeforeEach
+    public void setUp() {
+        OUTCOMES.clear();
+        failureLatch = new CountDownLatch(1);
+        eventService = new BaseEventService() {
+        };
+    }
+
+    @AfterEach
+    public void tearDown() {
+        eventService.shutdown(Duration.ofSeconds(5));
+        FailureEventService.getInstance().unsubscribe(FailureSubscriber.class);
+    }
+
+    @Test
+    public void testBlockedSubscriberIsInterruptedAndFails() throws Exception {
+        FailureEventService.getInstance().subscribe(FailureEvent.class, FailureSubscriber.class);
+        eventService.subscribe(TestEvent.class, BlockingSubscriber.class);
+        final Counter counter = getTimeoutCounter(BlockingSubscriber.class);
+        final double countBefore = counter.count();
+
+        final var event = new TestEvent();
+        event.onFailure(new FailureEvent(), FailureEventService.class);
+        eventService.publish(event);
+
+        assertThat(failureLatch.await(5, TimeUnit.SECONDS)).isTrue();
+        assertThat(OUTCOMES).containsExactly("interrupted", "failure-event");
+        assertThat(counter.count() - countBefore).isEqualTo(1);
+    }
+
+    @Test
+    public void testCooperativeSubscriberObservesCancellation() {
+        eventService.subscribe(TestEvent.class, CooperativeSubscriber.class);
+        final Counter counter = getTimeoutCounter(CooperativeSubscriber.class);
+        final double countBefore = counter.count();
+
+        eventService.publish(new TestEvent());
+        assertThat(eventService.shutdown(Duration.ofSeconds(5))).isTrue();
+
+        assertThat(OUTCOMES).containsExactly("cancelled");
+        assertThat(counter.count() - countBefore).isEqualTo(1);
+    }
+
+    @Test
+    public void testTimedOutSubscriberDoesNotAffectNextEvent() {
+        eventService.subscribe(TestEvent.class, BlockingSubscriber.class);
+        eventService.subscribe(FailureEvent.class, FastSubscriber.class);
+
+        eventService.publish(new TestEvent());
+        eventService.publish(new FailureEvent());
+        assertThat(eventService.shutdown(Duration.ofSeconds(5))).isTrue();
+
+        // The interrupt of the timed out subscriber must not leak into the worker's next task.
+        assertThat(OUTCOMES).containsExactly("interrupted", "completed");
+    }
+
+    @Test
+    public void testDefaultSubscriberTimeout() {
+        eventService.shutdown();
+        eventService = new BaseEventService() {{
+            setSubscriberTimeout(Duration.ofMillis(100));
+        }};
+        eventService.subscribe(TestEvent.class, UnannotatedSubscriber.class);
+        assertThat(CancellationToken.current().isCancelled()).isFalse();
+
+        eventService.publish(new TestEvent());
+        assertThat(eventService.shutdown(Duration.ofSeconds(5))).isTrue();
+
+        assertThat(OUTCOMES).containsExactly("interrupted");
+    }
+
+    private static Counter getTimeoutCounter(final Class<? extends Subscriber> subscriberClass) {
+        final Counter counter = Metrics.getRegistry().find("alpine_event_subscriber_timeouts_total")
+                .tag("subscriber", subscriberClass.getSimpleName())
+                .counter();
+        assertThat(counter).isNotNull();
+        return counter;
+    }
+
+}
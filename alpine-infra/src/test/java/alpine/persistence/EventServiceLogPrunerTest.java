@@ -0,0 +1,155 @@
+/*
+ * This file is part of Alpine.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ * Copyright (c) Steve Springett. All Rights Reserved.
+ */
+package alpine.persistence;
+
+import alpine.event.framework.Event;
+import alpine.event.framework.LoggableSubscriber;
+import alpine.model.EventServiceLog;
+import org.datanucleus.api.jdo.JDOPersistenceManagerFactory;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import javax.jdo.JDOHelper;
+import javax.jdo.Query;
+import java.sql.Timestamp;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class EventServiceLogPrunerTest {
+
+    public static class TestSubscriber implements LoggableSubscriber {
+        @Override
+        public void inform(final Event event) {
+        }
+    }
+
+    public static class OtherSubscriber implements LoggableSubscriber {
+        @Override
+        public void inform(final Event event) {
+        }
+    }
+
+    private static final Instant NOW = Instant.parse("2026-10-16T12:00:00Z");
+
+    private JDOPersistenceManagerFactory pmf;
+
+    @BeforeEach
+    public void setUp() {
+        pmf = (JDOPersistenceManagerFactory) JDOHelper.getPersistenceManagerFactory(JdoProperties.unit(), "Alpine");
+    }
+
+    @AfterEach
+    public void tearDown() {
+        if (pmf != null) {
+            pmf.close();
+        }
+    }
+
+    @Test
+    public void testPruneByAge() {
+        for (int i = 0; i < 5; i++) {
+            createLog(TestSubscriber.class, NOW.minus(Duration.ofDays(40 + i)));
+        }
+        createLog(TestSubscriber.class, NOW.minus(Duration.ofDays(1)));
+
+        // Batches smaller than the number of expired logs must not stop pruning early.
+        final var pruner = newPruner(Duration.ofDays(30), 0, 2);
+        assertThat(pruner.prune()).isEqualTo(5);
+        assertThat(getLogs()).satisfiesExactly(log ->
+                assertThat(log.getStarted().toInstant()).isEqualTo(NOW.minus(Duration.ofDays(1))));
+    }
+
+    @Test
+    public void testPruneByCount() {
+        for (int i = 10; i > 0; i--) {
+            createLog(TestSubscriber.class, NOW.minus(Duration.ofMinutes(i)));
+        }
+        createLog(OtherSubscriber.class, NOW);
+
+        final var pruner = newPruner(Duration.ZERO, 3, 2);
+        assertThat(pruner.prune()).isEqualTo(7);
+        assertThat(getLogs())
+                .filteredOn(log -> log.getSubscriberClass().equals(TestSubscriber.class.getCanonicalName()))
+                .extracting(log -> log.getStarted().toInstant())
+                .containsExactlyInAnyOrder(NOW.minus(Duration.ofMinutes(3)), NOW.minus(Duration.ofMinutes(2)),
+                        NOW.minus(Duration.ofMinutes(1)));
+        assertThat(getLogs())
+                .filteredOn(log -> log.getSubscriberClass().equals(OtherSubscriber.class.getCanonicalName()))
+                .hasSize(1);
+    }
+
+    @Test
+    public void testPruneDisabled() {
+        createLog(TestSubscriber.class, NOW.minus(Duration.ofDays(400)));
+
+        assertThat(newPruner(Duration.ZERO, 0, 100).prune()).isZero();
+        assertThat(getLogs()).hasSize(1);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testLatestLogIsRetainedAfterPruning() {
+        final var recorder = new EventServiceLogRecorder(pmf::getPersistenceManager, 60_000);
+        recorder.recordCompleted(recorder.recordStarted(TestSubscriber.class));
+        recorder.flush();
+
+        final var pruner = new EventServiceLogPruner(pmf::getPersistenceManager,
+                Clock.fixed(Instant.now().plus(Duration.ofDays(31)), ZoneOffset.UTC), Duration.ofDays(30), 0, 100, 0);
+        assertThat(pruner.prune()).isEqualTo(1);
+        assertThat(getLogs()).isEmpty();
+
+        try (final var qm = new AlpineQueryManager(pmf.getPersistenceManager())) {
+            final EventServiceLog latest = qm.getLatestEventServiceLog(
+                    (Class<LoggableSubscriber>) (Class<?>) TestSubscriber.class);
+            assertThat(latest).isNotNull();
+            assertThat(latest.getCompleted()).isNotNull();
+        }
+    }
+
+    private EventServiceLogPruner newPruner(final Duration maxAge, final int maxLogs, final int batchSize) {
+        return new EventServiceLogPruner(pmf::getPersistenceManager, Clock.fixed(NOW, ZoneOffset.UTC),
+                maxAge, maxLogs, batchSize, 0);
+    }
+
+    private void createLog(final Class<? extends LoggableSubscriber> subscriberClass, final Instant started) {
+        try (final var qm = new AlpineQueryManager(pmf.getPersistenceManager())) {
+            qm.callInTransaction(() -> {
+                final var log = new EventServiceLog();
+                log.setSubscriberClass(subscriberClass.getCanonicalName());
+                log.setStarted(Timestamp.from(started));
+                log.setCompleted(Timestamp.from(started.plusSeconds(1)));
+                return qm.getPersistenceManager().makePersistent(log);
+            });
+        }
+    }
+
+    private List<EventServiceLog> getLogs() {
+        try (final var qm = new AlpineQueryManager(pmf.getPersistenceManager())) {
+            final Query<EventServiceLog> query = qm.getPersistenceManager().newQuery(EventServiceLog.class);
+            return List.copyOf(qm.getPersistenceManager().detachCopyAll(query.executeList()));
+        }
+    }
+
+}
@@ -0,0 +1,176 @@
+/*
+ * This file is part of Alpine.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ * Copyright (c) Steve Springett. All Rights Reserved.
+ */
+package alpine.persistence;
+
+import alpine.event.framework.Event;
+import alpine.event.framework.LoggableSubscriber;
+import alpine.model.EventServiceLog;
+import alpine.model.EventServiceLogSummary;
+import org.datanucleus.api.jdo.JDOPersistenceManagerFactory;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import javax.jdo.JDOHelper;
+import javax.jdo.Query;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class EventServiceLogRecorderTest {
+
+    public static class TestSubscriber implements LoggableSubscriber {
+        @Override
+        public void inform(final Event event) {
+        }
+    }
+
+    private JDOPersistenceManagerFactory pmf;
+    private EventServiceLogRecorder recorder;
+
+    @BeforeEach
+    public void setUp() {
+        pmf = (JDOPersistenceManagerFactory) JDOHelper.getPersistenceManagerFactory(JdoProperties.unit(), "Alpine");
+        recorder = new EventServiceLogRecorder(pmf::getPersistenceManager, 60_000);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        if (pmf != null) {
+            pmf.close();
+        }
+    }
+
+    @Test
+    public void testStartAndCompletionInSingleFlush() {
+        final EventServiceLogRecorder.PendingLog log = recorder.recordStarted(TestSubscriber.class);
+        recorder.recordCompleted(log);
+        recorder.flush();
+
+        final List<EventServiceLog> logs = getLogs();
+        assertThat(logs).satisfiesExactly(persisted -> {
+            assertThat(persisted.getSubscriberClass()).isEqualTo(TestSubscriber.class.getCanonicalName());
+            assertThat(persisted.getStarted()).isNotNull();
+            assertThat(persisted.getCompleted()).isNotNull();
+        });
+    }
+
+    @Test
+    public void testCompletionInSubsequentFlush() {
+        final EventServiceLogRecorder.PendingLog log = recorder.recordStarted(TestSubscriber.class);
+        recorder.flush();
+        assertThat(getLogs()).satisfiesExactly(persisted -> assertThat(persisted.getCompleted()).isNull());
+
+        recorder.recordCompleted(log);
+        recorder.flush();
+        assertThat(getLogs()).satisfiesExactly(persisted -> assertThat(persisted.getCompleted()).isNotNull());
+    }
+
+    @Test
+    public void testReadThroughPendingCompletion() {
+        final String subscriberClass = TestSubscriber.class.getCanonicalName();
+        assertThat(recorder.readThrough(subscriberClass, null)).isNull();
+
+        final EventServiceLogRecorder.PendingLog log = recorder.recordStarted(TestSubscriber.class);
+        recorder.flush();
+        recorder.recordCompleted(log);
+
+        final EventServiceLog pending = recorder.readThrough(subscriberClass, null);
+        assertThat(pending).isNotNull();
+        assertThat(pending.getCompleted()).isNotNull();
+
+        recorder.flush();
+        assertThat(recorder.readThrough(subscriberClass, null)).isNull();
+    }
+
+    @Test
+    public void testFailedFlushIsRetried() {
+        final var failing = new AtomicBoolean(true);
+        final var recorder = new EventServiceLogRecorder(() -> {
+            if (failing.get()) {
+                throw new IllegalStateException("Datastore unavailable");
+            }
+            return pmf.getPersistenceManager();
+        }, 60_000);
+        final String subscriberClass = TestSubscriber.class.getCanonicalName();
+
+        final EventServiceLogRecorder.PendingLog log = recorder.recordStarted(TestSubscriber.class);
+        recorder.recordCompleted(log);
+        recorder.flush();
+        assertThat(getLogs()).isEmpty();
+        assertThat(recorder.readThrough(subscriberClass, null)).isNotNull();
+
+        failing.set(false);
+        recorder.flush();
+        assertThat(getLogs()).satisfiesExactly(persisted -> assertThat(persisted.getCompleted()).isNotNull());
+        assertThat(recorder.readThrough(subscriberClass, null)).isNull();
+
+        recorder.flush();
+        assertThat(getLogs()).hasSize(1);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testGetLatestEventServiceLog() {
+        recorder.recordCompleted(recorder.recordStarted(TestSubscriber.class));
+        recorder.recordStarted(TestSubscriber.class);
+        recorder.flush();
+
+        try (final var qm = new AlpineQueryManager(pmf.getPersistenceManager())) {
+            final EventServiceLog latest = qm.getLatestEventServiceLog(
+                    (Class<LoggableSubscriber>) (Class<?>) TestSubscriber.class);
+            assertThat(latest).isNotNull();
+            assertThat(latest.getCompleted()).isNotNull();
+        }
+    }
+
+    @Test
+    public void testSummaryRecordsLatestCompletion() {
+        final EventServiceLogRecorder.PendingLog first = recorder.recordStarted(TestSubscriber.class);
+        recorder.recordCompleted(first);
+        recorder.flush();
+        final EventServiceLogRecorder.PendingLog second = recorder.recordStarted(TestSubscriber.class);
+        recorder.flush();
+        recorder.recordCompleted(second);
+        recorder.flush();
+
+        final EventServiceLog latest = getLogs().stream()
+                .max(Comparator.comparing(EventServiceLog::getId))
+                .orElseThrow();
+        try (final var qm = new AlpineQueryManager(pmf.getPersistenceManager())) {
+            final Query<EventServiceLogSummary> query = qm.getPersistenceManager().newQuery(EventServiceLogSummary.class);
+            final List<EventServiceLogSummary> summaries = query.executeList();
+            assertThat(summaries).satisfiesExactly(summary -> {
+                assertThat(summary.getSubscriberClass()).isEqualTo(TestSubscriber.class.getCanonicalName());
+                assertThat(summary.getStarted()).isEqualTo(latest.getStarted());
+                assertThat(summary.getCompleted()).isEqualTo(latest.getCompleted());
+            });
+        }
+    }
+
+    private List<EventServiceLog> getLogs() {
+        try (final var qm = new AlpineQueryManager(pmf.getPersistenceManager())) {
+            final Query<EventServiceLog> query = qm.getPersistenceManager().newQuery(EventServiceLog.class);
+            return List.copyOf(qm.getPersistenceManager().detachCopyAll(query.executeList()));
+        }
+    }
+
+}
@@ -0,0 +1,55 @@
+/*
+ * This file is part of Alpine.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ * Copyright (c) Steve Springett. All Rights Reserved.
+ */
+package alpine.test;
+
+import java.time.Duration;
+import java.util.function.BooleanSupplier;
+
+/**
+ * Utilities shared by tests.
+ */
+public final class TestUtil {
+
+    private static final Duration DEFAULT_TIMEOUT = Duration.ofSeconds(5);
+
+    private TestUtil() { }
+
+    /**
+     * Waits up to five seconds for a condition to become true. Callers assert the condition afterward.
+     * @param condition the condition to wait for
+     * @throws InterruptedException when interrupted while waiting
+     */
+    public static void awaitCondition(final BooleanSupplier condition) throws InterruptedException {
+        awaitCondition(condition, DEFAULT_TIMEOUT);
+    }
+
+    /**
+     * Waits for a condition to become true. Callers assert the condition afterward.
+     * @param condition the condition to wait for
+     * @param timeout   the maximum time to wait
+     * @throws InterruptedException when interrupted while waiting
+     */
+    public static void awaitCondition(final BooleanSupplier condition, final Duration timeout) throws InterruptedException {
+        final long deadline = System.nanoTime() + timeout.toNanos();
+        while (!condition.getAsBoolean() && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+    }
+
+}
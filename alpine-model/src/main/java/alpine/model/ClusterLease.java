@@ -0,0 +1,106 @@
+/*
+ * This file is part of Alpine.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ * Copyright (c) Steve Springett. All Rights Reserved.
+ */
+package alpine.model;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
+import jakarta.validation.constraints.NotBlank;
+import javax.jdo.annotations.Column;
+import javax.jdo.annotations.IdGeneratorStrategy;
+import javax.jdo.annotations.PersistenceCapable;
+import javax.jdo.annotations.Persistent;
+import javax.jdo.annotations.PrimaryKey;
+import javax.jdo.annotations.Unique;
+import java.io.Serializable;
+import java.sql.Timestamp;
+
+/**
+ * Persistable object representing a named lease, held by at most one node of an Alpine cluster at a time.
+ *
+ * @since 3.8.0
+ */
+@PersistenceCapable
+public class ClusterLease implements Serializable {
+
+    private static final long serialVersionUID = -3350742146215089537L;
+
+    @PrimaryKey
+    @Persistent(valueStrategy = IdGeneratorStrategy.NATIVE)
+    @JsonIgnore
+    private long id;
+
+    @Persistent
+    @Unique(name = "CLUSTERLEASE_NAME_IDX")
+    @Column(name = "NAME", jdbcType = "VARCHAR", length = 255, allowsNull = "false")
+    @NotBlank
+    private String name;
+
+    @Persistent
+    @Column(name = "HOLDER", jdbcType = "VARCHAR", length = 36)
+    private String holder;
+
+    @Persistent
+    @Column(name = "ACQUIRED")
+    private Timestamp acquired;
+
+    @Persistent
+    @Column(name = "EXPIRES", allowsNull = "false")
+    private Timestamp expires;
+
+    public long getId() {
+        return id;
+    }
+
+    public void setId(long id) {
+        this.id = id;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public void setName(String name) {
+        this.name = name;
+    }
+
+    public String getHolder() {
+        return holder;
+    }
+
+    public void setHolder(String holder) {
+        this.holder = holder;
+    }
+
+    public Timestamp getAcquired() {
+        return acquired;
+    }
+
+    public void setAcquired(Timestamp acquired) {
+        this.acquired = acquired;
+    }
+
+    public Timestamp getExpires() {
+        return expires;
+    }
+
+    public void setExpires(Timestamp expires) {
+        this.expires = expires;
+    }
+
+}
@@ -0,0 +1,106 @@
+/*
+ * This file is part of Alpine.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ * Copyright (c) Steve Springett. All Rights Reserved.
+ */
+package alpine.model;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
+import jakarta.validation.constraints.NotBlank;
+import javax.jdo.annotations.Column;
+import javax.jdo.annotations.IdGeneratorStrategy;
+import javax.jdo.annotations.PersistenceCapable;
+import javax.jdo.annotations.Persistent;
+import javax.jdo.annotations.PrimaryKey;
+import javax.jdo.annotations.Unique;
+import java.io.Serializable;
+import java.sql.Timestamp;
+
+/**
+ * Persistable object representing a node of an Alpine cluster.
+ *
+ * @since 3.8.0
+ */
+@PersistenceCapable
+public class ClusterNode implements Serializable {
+
+    private static final long serialVersionUID = 6022716405392731864L;
+
+    @PrimaryKey
+    @Persistent(valueStrategy = IdGeneratorStrategy.NATIVE)
+    @JsonIgnore
+    private long id;
+
+    @Persistent
+    @Unique(name = "CLUSTERNODE_NODEID_IDX")
+    @Column(name = "NODEID", jdbcType = "VARCHAR", length = 36, allowsNull = "false")
+    @NotBlank
+    private String nodeId;
+
+    @Persistent
+    @Column(name = "HOSTNAME")
+    private String hostname;
+
+    @Persistent
+    @Column(name = "STARTED", allowsNull = "false")
+    private Timestamp started;
+
+    @Persistent
+    @Column(name = "LASTHEARTBEAT", allowsNull = "false")
+    private Timestamp lastHeartbeat;
+
+    public long getId() {
+        return id;
+    }
+
+    public void setId(long id) {
+        this.id = id;
+    }
+
+    public String getNodeId() {
+        return nodeId;
+    }
+
+    public void setNodeId(String nodeId) {
+        this.nodeId = nodeId;
+    }
+
+    public String getHostname() {
+        return hostname;
+    }
+
+    public void setHostname(String hostname) {
+        this.hostname = hostname;
+    }
+
+    public Timestamp getStarted() {
+        return started;
+    }
+
+    public void setStarted(Timestamp started) {
+        this.started = started;
+    }
+
+    public Timestamp getLastHeartbeat() {
+        return lastHeartbeat;
+    }
+
+    public void setLastHeartbeat(Timestamp lastHeartbeat) {
+        this.lastHeartbeat = lastHeartbeat;
+    }
+
+}
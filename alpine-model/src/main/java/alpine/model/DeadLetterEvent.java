@@ -0,0 +1,164 @@
+/*
+ * This file is part of Alpine.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ * Copyright (c) Steve Springett. All Rights Reserved.
+ */
+package alpine.model;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
+import jakarta.validation.constraints.NotBlank;
+import javax.jdo.annotations.Column;
+import javax.jdo.annotations.IdGeneratorStrategy;
+import javax.jdo.annotations.Index;
+import javax.jdo.annotations.PersistenceCapable;
+import javax.jdo.annotations.Persistent;
+import javax.jdo.annotations.PrimaryKey;
+import javax.jdo.annotations.Unique;
+import java.io.Serializable;
+import java.sql.Timestamp;
+import java.util.UUID;
+
+/**
+ * Persistable object representing an event a subscriber failed to process,
+ * after exhausting all attempts permitted by its retry policy.
+ *
+ * @since 3.8.0
+ */
+@PersistenceCapable(table = "DEADLETTEREVENT")
+@Index(name = "DEADLETTEREVENT_CREATED_IDX", members = {"created"})
+public class DeadLetterEvent implements Serializable {
+
+    private static final long serialVersionUID = -6214981270419870312L;
+
+    @PrimaryKey
+    @Persistent(valueStrategy = IdGeneratorStrategy.NATIVE)
+    @JsonIgnore
+    private long id;
+
+    @Persistent(customValueStrategy = "uuid")
+    @Unique(name = "DEADLETTEREVENT_UUID_IDX")
+    @Column(name = "UUID", jdbcType = "VARCHAR", length = 36, allowsNull = "false")
+    private UUID uuid;
+
+    @Persistent
+    @Column(name = "EVENTSERVICE", allowsNull = "false")
+    @NotBlank
+    private String eventService;
+
+    @Persistent
+    @Column(name = "SUBSCRIBERCLASS", allowsNull = "false")
+    @NotBlank
+    private String subscriberClass;
+
+    @Persistent
+    @Column(name = "EVENTCLASS", allowsNull = "false")
+    @NotBlank
+    private String eventClass;
+
+    @Persistent(defaultFetchGroup = "true")
+    @Column(name = "PAYLOAD", jdbcType = "BLOB")
+    @JsonIgnore
+    private byte[] payload;
+
+    @Persistent
+    @Column(name = "ATTEMPTS", allowsNull = "false", defaultValue = "0")
+    private int attempts;
+
+    @Persistent
+    @Column(name = "FAILURE", jdbcType = "VARCHAR", length = 1024)
+    private String failure;
+
+    @Persistent
+    @Column(name = "CREATED", allowsNull = "false")
+    private Timestamp created;
+
+    public long getId() {
+        return id;
+    }
+
+    public void setId(long id) {
+        this.id = id;
+    }
+
+    public UUID getUuid() {
+        return uuid;
+    }
+
+    public void setUuid(UUID uuid) {
+        this.uuid = uuid;
+    }
+
+    public String getEventService() {
+        return eventService;
+    }
+
+    public void setEventService(String eventService) {
+        this.eventService = eventService;
+    }
+
+    public String getSubscriberClass() {
+        return subscriberClass;
+    }
+
+    public void setSubscriberClass(String subscriberClass) {
+        this.subscriberClass = subscriberClass;
+    }
+
+    public String getEventClass() {
+        return eventClass;
+    }
+
+    public void setEventClass(String eventClass) {
+        this.eventClass = eventClass;
+    }
+
+    /**
+     * @return the serialized event, or {@code null} if the event could not be serialized
+     */
+    public byte[] getPayload() {
+        return payload;
+    }
+
+    public void setPayload(byte[] payload) {
+        this.payload = payload;
+    }
+
+    public int getAttempts() {
+        return attempts;
+    }
+
+    public void setAttempts(int attempts) {
+        this.attempts = attempts;
+    }
+
+    public String getFailure() {
+        return failure;
+    }
+
+    public void setFailure(String failure) {
+        this.failure = failure;
+    }
+
+    public Timestamp getCreated() {
+        return created;
+    }
+
+    public void setCreated(Timestamp created) {
+        this.created = created;
+    }
+
+}
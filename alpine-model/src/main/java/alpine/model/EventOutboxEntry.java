@@ -0,0 +1,144 @@
+/*
+ * This file is part of Alpine.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ * Copyright (c) Steve Springett. All Rights Reserved.
+ */
+package alpine.model;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
+import jakarta.validation.constraints.NotBlank;
+import javax.jdo.annotations.Column;
+import javax.jdo.annotations.IdGeneratorStrategy;
+import javax.jdo.annotations.Index;
+import javax.jdo.annotations.PersistenceCapable;
+import javax.jdo.annotations.Persistent;
+import javax.jdo.annotations.PrimaryKey;
+import java.io.Serializable;
+import java.sql.Timestamp;
+
+/**
+ * Persistable object representing an event that was published to a durable event service,
+ * but not yet processed by all of its subscribers.
+ *
+ * @since 3.8.0
+ */
+@PersistenceCapable(table = "EVENTOUTBOX")
+@Index(name = "EVENTOUTBOX_CLAIM_IDX", members = {"eventService", "claimedAt"})
+public class EventOutboxEntry implements Serializable {
+
+    private static final long serialVersionUID = 3416624585932542305L;
+
+    @PrimaryKey
+    @Persistent(valueStrategy = IdGeneratorStrategy.NATIVE)
+    @JsonIgnore
+    private long id;
+
+    @Persistent
+    @Column(name = "EVENTSERVICE", allowsNull = "false")
+    @NotBlank
+    private String eventService;
+
+    @Persistent
+    @Column(name = "EVENTCLASS", allowsNull = "false")
+    @NotBlank
+    private String eventClass;
+
+    @Persistent(defaultFetchGroup = "true")
+    @Column(name = "PAYLOAD", jdbcType = "BLOB", allowsNull = "false")
+    private byte[] payload;
+
+    @Persistent
+    @Column(name = "CREATED", allowsNull = "false")
+    private Timestamp created;
+
+    @Persistent
+    @Column(name = "CLAIMEDBY")
+    private String claimedBy;
+
+    @Persistent
+    @Column(name = "CLAIMEDAT")
+    private Timestamp claimedAt;
+
+    @Persistent
+    @Column(name = "ATTEMPTS", allowsNull = "false", defaultValue = "0")
+    private int attempts;
+
+    public long getId() {
+        return id;
+    }
+
+    public void setId(long id) {
+        this.id = id;
+    }
+
+    public String getEventService() {
+        return eventService;
+    }
+
+    public void setEventService(String eventService) {
+        this.eventService = eventService;
+    }
+
+    public String getEventClass() {
+        return eventClass;
+    }
+
+    public void setEventClass(String eventClass) {
+        this.eventClass = eventClass;
+    }
+
+    public byte[] getPayload() {
+        return payload;
+    }
+
+    public void setPayload(byte[] payload) {
+        this.payload = payload;
+    }
+
+    public Timestamp getCreated() {
+        return created;
+    }
+
+    public void setCreated(Timestamp created) {
+        this.created = created;
+    }
+
+    public String getClaimedBy() {
+        return claimedBy;
+    }
+
+    public void setClaimedBy(String claimedBy) {
+        this.claimedBy = claimedBy;
+    }
+
+    public Timestamp getClaimedAt() {
+        return claimedAt;
+    }
+
+    public void setClaimedAt(Timestamp claimedAt) {
+        this.claimedAt = claimedAt;
+    }
+
+    public int getAttempts() {
+        return attempts;
+    }
+
+    public void setAttempts(int attempts) {
+        this.attempts = attempts;
+    }
+
+}
@@ -53,6 +53,7 @@ public class EventServiceLog implements Serializable {
     private String subscriberClass;
 
     @Persistent
+    @Index(name = "EVENTSERVICELOG_STARTED_IDX")
     @Column(name = "STARTED")
     private Timestamp started;
 
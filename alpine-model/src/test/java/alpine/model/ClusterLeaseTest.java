@@ -0,0 +1,65 @@
+/*
+ * This file is part of Alpine.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ * Copyright (c) Steve Springett. All Rights Reserved.
+ */
+package alpine.model;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.sql.Timestamp;
+import java.util.Date;
+
+public class ClusterLeaseTest {
+
+    @Test
+    public void idTest() {
+        ClusterLease lease = new ClusterLease();
+        lease.setId(123L);
+        Assertions.assertEquals(123L, lease.getId());
+    }
+
+    @Test
+    public void nameTest() {
+        ClusterLease lease = new ClusterLease();
+        lease.setName("alpine.server.tasks.LdapSyncTask");
+        Assertions.assertEquals("alpine.server.tasks.LdapSyncTask", lease.getName());
+    }
+
+    @Test
+    public void holderTest() {
+        ClusterLease lease = new ClusterLease();
+        lease.setHolder("9b1cd2a4-3f67-4d6a-8b89-4d2b7f5d3c10");
+        Assertions.assertEquals("9b1cd2a4-3f67-4d6a-8b89-4d2b7f5d3c10", lease.getHolder());
+    }
+
+    @Test
+    public void acquiredTest() {
+        Timestamp ts = Timestamp.from(new Date().toInstant());
+        ClusterLease lease = new ClusterLease();
+        lease.setAcquired(ts);
+        Assertions.assertEquals(ts, lease.getAcquired());
+    }
+
+    @Test
+    public void expiresTest() {
+        Timestamp ts = Timestamp.from(new Date().toInstant());
+        ClusterLease lease = new ClusterLease();
+        lease.setExpires(ts);
+        Assertions.assertEquals(ts, lease.getExpires());
+    }
+}
@@ -0,0 +1,78 @@
+/*
+ * This file is part of Alpine.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ * Copyright (c) Steve Springett. All Rights Reserved.
+ */
+package alpine.model;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.sql.Timestamp;
+import java.util.Date;
+
+public class ClusterMessageTest {
+
+    @Test
+    public void idTest() {
+        ClusterMessage message = new ClusterMessage();
+        message.setId(123L);
+        Assertions.assertEquals(123L, message.getId());
+    }
+
+    @Test
+    public void eventServiceTest() {
+        ClusterMessage message = new ClusterMessage();
+        message.setEventService("com.example.EventService");
+        Assertions.assertEquals("com.example.EventService", message.getEventService());
+    }
+
+    @Test
+    public void eventClassTest() {
+        ClusterMessage message = new ClusterMessage();
+        message.setEventClass("com.example.EventClass");
+        Assertions.assertEquals("com.example.EventClass", message.getEventClass());
+    }
+
+    @Test
+    public void payloadTest() {
+        ClusterMessage message = new ClusterMessage();
+        message.setPayload(new byte[]{1, 2, 3});
+        Assertions.assertArrayEquals(new byte[]{1, 2, 3}, message.getPayload());
+    }
+
+    @Test
+    public void targetNodeTest() {
+        ClusterMessage message = new ClusterMessage();
+        message.setTargetNode("node-1");
+        Assertions.assertEquals("node-1", message.getTargetNode());
+    }
+
+    @Test
+    public void originNodeTest() {
+        ClusterMessage message = new ClusterMessage();
+        message.setOriginNode("node-2");
+        Assertions.assertEquals("node-2", message.getOriginNode());
+    }
+
+    @Test
+    public void createdTest() {
+        Timestamp ts = Timestamp.from(new Date().toInstant());
+        ClusterMessage message = new ClusterMessage();
+        message.setCreated(ts);
+        Assertions.assertEquals(ts, message.getCreated());
+    }
+}
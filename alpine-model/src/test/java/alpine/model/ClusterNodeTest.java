@@ -0,0 +1,65 @@
+/*
+ * This file is part of Alpine.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ * Copyright (c) Steve Springett. All Rights Reserved.
+ */
+package alpine.model;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.sql.Timestamp;
+import java.util.Date;
+
+public class ClusterNodeTest {
+
+    @Test
+    public void idTest() {
+        ClusterNode node = new ClusterNode();
+        node.setId(123L);
+        Assertions.assertEquals(123L, node.getId());
+    }
+
+    @Test
+    public void nodeIdTest() {
+        ClusterNode node = new ClusterNode();
+        node.setNodeId("9b1cd2a4-3f67-4d6a-8b89-4d2b7f5d3c10");
+        Assertions.assertEquals("9b1cd2a4-3f67-4d6a-8b89-4d2b7f5d3c10", node.getNodeId());
+    }
+
+    @Test
+    public void hostnameTest() {
+        ClusterNode node = new ClusterNode();
+        node.setHostname("alpine-1");
+        Assertions.assertEquals("alpine-1", node.getHostname());
+    }
+
+    @Test
+    public void startedTest() {
+        Timestamp ts = Timestamp.from(new Date().toInstant());
+        ClusterNode node = new ClusterNode();
+        node.setStarted(ts);
+        Assertions.assertEquals(ts, node.getStarted());
+    }
+
+    @Test
+    public void lastHeartbeatTest() {
+        Timestamp ts = Timestamp.from(new Date().toInstant());
+        ClusterNode node = new ClusterNode();
+        node.setLastHeartbeat(ts);
+        Assertions.assertEquals(ts, node.getLastHeartbeat());
+    }
+}
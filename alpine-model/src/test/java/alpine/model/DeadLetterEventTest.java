@@ -0,0 +1,94 @@
+/*
+ * This file is part of Alpine.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ * Copyright (c) Steve Springett. All Rights Reserved.
+ */
+package alpine.model;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.sql.Timestamp;
+import java.util.Date;
+import java.util.UUID;
+
+public class DeadLetterEventTest {
+
+    @Test
+    public void idTest() {
+        DeadLetterEvent event = new DeadLetterEvent();
+        event.setId(123L);
+        Assertions.assertEquals(123L, event.getId());
+    }
+
+    @Test
+    public void uuidTest() {
+        UUID uuid = UUID.randomUUID();
+        DeadLetterEvent event = new DeadLetterEvent();
+        event.setUuid(uuid);
+        Assertions.assertEquals(uuid, event.getUuid());
+    }
+
+    @Test
+    public void eventServiceTest() {
+        DeadLetterEvent event = new DeadLetterEvent();
+        event.setEventService("alpine.event.framework.EventService");
+        Assertions.assertEquals("alpine.event.framework.EventService", event.getEventService());
+    }
+
+    @Test
+    public void subscriberClassTest() {
+        DeadLetterEvent event = new DeadLetterEvent();
+        event.setSubscriberClass("alpine.server.tasks.LdapSyncTask");
+        Assertions.assertEquals("alpine.server.tasks.LdapSyncTask", event.getSubscriberClass());
+    }
+
+    @Test
+    public void eventClassTest() {
+        DeadLetterEvent event = new DeadLetterEvent();
+        event.setEventClass("alpine.event.LdapSyncEvent");
+        Assertions.assertEquals("alpine.event.LdapSyncEvent", event.getEventClass());
+    }
+
+    @Test
+    public void payloadTest() {
+        DeadLetterEvent event = new DeadLetterEvent();
+        event.setPayload(new byte[]{1, 2, 3});
+        Assertions.assertArrayEquals(new byte[]{1, 2, 3}, event.getPayload());
+    }
+
+    @Test
+    public void attemptsTest() {
+        DeadLetterEvent event = new DeadLetterEvent();
+        event.setAttempts(3);
+        Assertions.assertEquals(3, event.getAttempts());
+    }
+
+    @Test
+    public void failureTest() {
+        DeadLetterEvent event = new DeadLetterEvent();
+        event.setFailure("java.lang.IllegalStateException: Directory unavailable");
+        Assertions.assertEquals("java.lang.IllegalStateException: Directory unavailable", event.getFailure());
+    }
+
+    @Test
+    public void createdTest() {
+        Timestamp ts = Timestamp.from(new Date().toInstant());
+        DeadLetterEvent event = new DeadLetterEvent();
+        event.setCreated(ts);
+        Assertions.assertEquals(ts, event.getCreated());
+    }
+}
@@ -0,0 +1,86 @@
+/*
+ * This file is part of Alpine.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ * Copyright (c) Steve Springett. All Rights Reserved.
+ */
+package alpine.model;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.sql.Timestamp;
+import java.util.Date;
+
+public class EventOutboxEntryTest {
+
+    @Test
+    public void idTest() {
+        EventOutboxEntry entry = new EventOutboxEntry();
+        entry.setId(123L);
+        Assertions.assertEquals(123L, entry.getId());
+    }
+
+    @Test
+    public void eventServiceTest() {
+        EventOutboxEntry entry = new EventOutboxEntry();
+        entry.setEventService("com.example.EventService");
+        Assertions.assertEquals("com.example.EventService", entry.getEventService());
+    }
+
+    @Test
+    public void eventClassTest() {
+        EventOutboxEntry entry = new EventOutboxEntry();
+        entry.setEventClass("com.example.EventClass");
+        Assertions.assertEquals("com.example.EventClass", entry.getEventClass());
+    }
+
+    @Test
+    public void payloadTest() {
+        EventOutboxEntry entry = new EventOutboxEntry();
+        entry.setPayload(new byte[]{1, 2, 3});
+        Assertions.assertArrayEquals(new byte[]{1, 2, 3}, entry.getPayload());
+    }
+
+    @Test
+    public void createdTest() {
+        Timestamp ts = Timestamp.from(new Date().toInstant());
+        EventOutboxEntry entry = new EventOutboxEntry();
+        entry.setCreated(ts);
+        Assertions.assertEquals(ts, entry.getCreated());
+    }
+
+    @Test
+    public void claimedByTest() {
+        EventOutboxEntry entry = new EventOutboxEntry();
+        entry.setClaimedBy("node-1");
+        Assertions.assertEquals("node-1", entry.getClaimedBy());
+    }
+
+    @Test
+    public void claimedAtTest() {
+        Timestamp ts = Timestamp.from(new Date().toInstant());
+        EventOutboxEntry entry = new EventOutboxEntry();
+        entry.setClaimedAt(ts);
+        Assertions.assertEquals(ts, entry.getClaimedAt());
+    }
+
+    @Test
+    public void attemptsTest() {
+        EventOutboxEntry entry = new EventOutboxEntry();
+        entry.setAttempts(3);
+        Assertions.assertEquals(3, entry.getAttempts());
+    }
+}
@@ -0,0 +1,122 @@
+/*
+ * This file is part of Alpine.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ * Copyright (c) Steve Springett. All Rights Reserved.
+ */
+package alpine.server.resources;
+
+import alpine.event.framework.DeadLetterStore;
+import alpine.model.DeadLetterEvent;
+import alpine.persistence.AlpineQueryManager;
+import alpine.persistence.PaginatedResult;
+import alpine.server.auth.PermissionRequired;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.headers.Header;
+import io.swagger.v3.oas.annotations.media.ArraySchema;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.tags.Tag;
+
+import jakarta.ws.rs.Consumes;
+import jakarta.ws.rs.DELETE;
+import jakarta.ws.rs.GET;
+import jakarta.ws.rs.POST;
+import jakarta.ws.rs.Path;
+import jakarta.ws.rs.Produces;
+import jakarta.ws.rs.core.MediaType;
+import jakarta.ws.rs.core.Response;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Bundled JAX-RS resource to inspect, re-publish and discard events that subscribers
+ * failed to process, after exhausting all attempts permitted by their retry policy.
+ * Requires the {@value #PERMISSION} permission.
+ *
+ * @see DeadLetterStore
+ * @see alpine.event.framework.RetryPolicy
+ * @since 3.8.0
+ */
+@Path("/v1/event/deadletter")
+@Tag(name = "event")
+public final class DeadLetterResource extends AlpineResource {
+
+    /**
+     * The permission required to access dead-lettered events.
+     */
+    public static final String PERMISSION = "EVENT_MANAGEMENT";
+
+    @GET
+    @Produces(MediaType.APPLICATION_JSON)
+    @Operation(
+            summary = "Returns a list of dead-lettered events, most recent first"
+    )
+    @ApiResponse(
+            responseCode = "200",
+            description = "A list of dead-lettered events",
+            headers = @Header(name = TOTAL_COUNT_HEADER, description = "The total number of dead-lettered events", schema = @Schema(format = "integer")),
+            content = @Content(array = @ArraySchema(schema = @Schema(implementation = DeadLetterEvent.class)))
+    )
+    @ApiResponse(responseCode = "401", description = "Unauthorized")
+    @PermissionRequired(PERMISSION)
+    public Response getDeadLetterEvents() {
+        try (final var qm = new AlpineQueryManager(getAlpineRequest())) {
+            final PaginatedResult result = qm.getDeadLetterEvents();
+            return Response.ok(result.getObjects()).header(TOTAL_COUNT_HEADER, result.getTotal()).build();
+        }
+    }
+
+    @POST
+    @Path("/republish")
+    @Consumes(MediaType.APPLICATION_JSON)
+    @Produces(MediaType.APPLICATION_JSON)
+    @Operation(
+            summary = "Re-publishes dead-lettered events",
+            description = "Re-publishes the dead-lettered events with the given UUIDs to the subscriber that failed " +
+                    "to process them, and removes them from the dead-letter store. Events that can not be " +
+                    "re-published remain in the store."
+    )
+    @ApiResponse(responseCode = "200", description = "The number of re-published events")
+    @ApiResponse(responseCode = "401", description = "Unauthorized")
+    @PermissionRequired(PERMISSION)
+    public Response republishDeadLetterEvents(final List<UUID> uuids) {
+        try (final var qm = new AlpineQueryManager()) {
+            final int republished = DeadLetterStore.getInstance().republish(qm, uuids != null ? uuids : List.of());
+            return Response.ok(Map.of("republished", republished)).build();
+        }
+    }
+
+    @DELETE
+    @Consumes(MediaType.APPLICATION_JSON)
+    @Produces(MediaType.APPLICATION_JSON)
+    @Operation(
+            summary = "Discards dead-lettered events",
+            description = "Removes the dead-lettered events with the given UUIDs from the dead-letter store."
+    )
+    @ApiResponse(responseCode = "200", description = "The number of discarded events")
+    @ApiResponse(responseCode = "401", description = "Unauthorized")
+    @PermissionRequired(PERMISSION)
+    public Response deleteDeadLetterEvents(final List<UUID> uuids) {
+        try (final var qm = new AlpineQueryManager()) {
+            final List<DeadLetterEvent> deadLetterEvents = qm.getDeadLetterEvents(uuids != null ? uuids : List.of());
+            qm.delete(deadLetterEvents);
+            return Response.ok(Map.of("deleted", deadLetterEvents.size())).build();
+        }
+    }
+
+}
@@ -0,0 +1,76 @@
+/*
+ * This file is part of Alpine.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ * Copyright (c) Steve Springett. All Rights Reserved.
+ */
+package alpine.server.resources;
+
+import alpine.event.framework.EventService;
+import alpine.event.framework.EventServiceStatus;
+import alpine.event.framework.SingleThreadedEventService;
+import alpine.notification.NotificationService;
+import alpine.server.auth.PermissionRequired;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.media.ArraySchema;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.tags.Tag;
+
+import jakarta.ws.rs.GET;
+import jakarta.ws.rs.Path;
+import jakarta.ws.rs.Produces;
+import jakarta.ws.rs.core.MediaType;
+import jakarta.ws.rs.core.Response;
+import java.util.List;
+
+/**
+ * Bundled JAX-RS resource to inspect what the {@link EventService}, {@link SingleThreadedEventService}
+ * and {@link NotificationService} are doing, for example during incidents. The status of each service
+ * is computed from lock-free counters, and can be retrieved cheaply while the services are saturated.
+ * Requires the {@value DeadLetterResource#PERMISSION} permission.
+ *
+ * @see EventServiceStatus
+ * @since 3.8.0
+ */
+@Path("/v1/event/status")
+@Tag(name = "event")
+public final class EventServiceStatusResource extends AlpineResource {
+
+    @GET
+    @Produces(MediaType.APPLICATION_JSON)
+    @Operation(
+            summary = "Returns the status of the event and notification services",
+            description = "Returns, for each service, the stats of its executors, the number of queued events per " +
+                    "event type, the estimated age of the oldest queued event, the event chains being processed, " +
+                    "and the number of events processed per second by each subscriber over the last minute."
+    )
+    @ApiResponse(
+            responseCode = "200",
+            description = "The status of the event and notification services",
+            content = @Content(array = @ArraySchema(schema = @Schema(implementation = EventServiceStatus.class)))
+    )
+    @ApiResponse(responseCode = "401", description = "Unauthorized")
+    @PermissionRequired(DeadLetterResource.PERMISSION)
+    public Response getEventServiceStatus() {
+        final List<EventServiceStatus> statuses = List.of(
+                EventService.getInstance().getStatus(),
+                SingleThreadedEventService.getInstance().getStatus(),
+                NotificationService.getInstance().getStatus());
+        return Response.ok(statuses).build();
+    }
+
+}
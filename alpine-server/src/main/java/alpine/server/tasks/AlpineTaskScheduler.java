@@ -18,74 +18,322 @@
  */
 package alpine.server.tasks;
 
+import alpine.Config;
+import alpine.cluster.ClusterLeaseManager;
+import alpine.common.logging.Logger;
+import alpine.common.metrics.Metrics;
+import alpine.event.framework.ChainableEvent;
+import alpine.event.framework.ClusterSingleton;
 import alpine.event.framework.Event;
 import alpine.event.framework.EventService;
+import alpine.event.framework.LoggableUncaughtExceptionHandler;
 import alpine.event.framework.SingleThreadedEventService;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.Timer;
+import org.apache.commons.lang3.concurrent.BasicThreadFactory;
 
-import java.util.ArrayList;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayDeque;
 import java.util.List;
-import java.util.Timer;
-import java.util.TimerTask;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
 
 /**
  * A simple framework for scheduling events to run periodically. Works in
  * conjunction with the {@link EventService} to process events.
  *
+ * Events are scheduled on a {@link ScheduledExecutorService} shared by all schedulers, either at a fixed
+ * rate, or following a {@link CronExpression}. Each run publishes the event to the event services it has
+ * subscribers in. A {@link TaskSchedule} may add random jitter to its runs, skip runs while the event of the
+ * previous run is still being processed, and catch up on missed runs according to its {@link MissedRunPolicy}.
+ * Runs are published on separate threads, so that a publication blocked by a saturated event service does
+ * not delay the runs of other schedules.
+ *
+ * Prior to 3.8.0, events were scheduled on a {@link java.util.Timer} with fixed delay, so that every late
+ * run pushed back all later ones. Runs are now scheduled at a fixed rate, relative to the scheduled time of
+ * the previous run rather than to its actual time. Late runs thus no longer accumulate drift.
+ *
+ * For each schedule, the times of the last and next run are published as the
+ * {@code alpine_task_schedule_last_run_timestamp} and {@code alpine_task_schedule_next_run_timestamp} gauges,
+ * the delay of runs beyond their scheduled time as the {@code alpine_task_schedule_lateness} timer, and the
+ * outcome of runs as the {@code alpine_task_schedule_runs_total} counter.
+ *
+ * When clustering is enabled, events implementing {@link ClusterSingleton} are
+ * only published by the node holding their lease.
+ *
  * @author Steve Springett
  * @since 1.0.0
  */
 public abstract class AlpineTaskScheduler {
 
-    // Holds a list of all timers created during construction
-    private final List<Timer> timers = new ArrayList<>();
+    private static final Logger LOGGER = Logger.getLogger(AlpineTaskScheduler.class);
+    private static final ScheduledExecutorService SCHEDULER = Executors.newScheduledThreadPool(2,
+            new BasicThreadFactory.Builder()
+                    .namingPattern("Alpine-TaskScheduler-%d")
+                    .uncaughtExceptionHandler(new LoggableUncaughtExceptionHandler())
+                    .daemon(true)
+                    .build());
+    private static final ExecutorService PUBLISHER = Executors.newCachedThreadPool(
+            new BasicThreadFactory.Builder()
+                    .namingPattern("Alpine-TaskScheduler-Publisher-%d")
+                    .uncaughtExceptionHandler(new LoggableUncaughtExceptionHandler())
+                    .daemon(true)
+                    .build());
+
+    // Holds all tasks scheduled by this scheduler
+    private final List<ScheduledTask> tasks = new CopyOnWriteArrayList<>();
+    private final Clock clock;
+    private TaskRunHistory history;
+    private volatile boolean shutdown;
+
+    protected AlpineTaskScheduler() {
+        this(Clock.systemUTC(), null);
+    }
+
+    AlpineTaskScheduler(final Clock clock, final TaskRunHistory history) {
+        this.clock = clock;
+        this.history = history;
+    }
 
     /**
-     * Schedules a repeating Event.
+     * Schedules a repeating Event at a fixed rate.
      * @param event the Event to schedule
      * @param delay delay in milliseconds before task is to be executed.
      * @param period time in milliseconds between successive task executions.
      */
     protected void scheduleEvent(final Event event, final long delay, final long period) {
-        final Timer timer = new Timer();
-        timer.schedule(new ScheduleEvent().event(event), delay, period);
-        timers.add(timer);
+        scheduleEvent(event, TaskSchedule.fixedRate(Duration.ofMillis(delay), Duration.ofMillis(period)));
     }
 
     /**
-     * Inner-class that when run() publishes an Event
+     * Schedules an Event following a cron expression, in the default time zone of the JVM.
+     * @param event the Event to schedule
+     * @param cronExpression the {@link CronExpression} to follow
+     * @since 3.8.0
      */
-    private class ScheduleEvent extends TimerTask {
-        private Event event;
+    protected void scheduleEvent(final Event event, final String cronExpression) {
+        scheduleEvent(event, TaskSchedule.cron(cronExpression));
+    }
 
-        /**
-         * The Event that will be published
-         * @param event the Event to publish
-         * @return a new ScheduleEvent instance
-         */
-        public ScheduleEvent event(final Event event) {
+    /**
+     * Schedules an Event.
+     * @param event the Event to schedule
+     * @param schedule the {@link TaskSchedule} to publish the Event at
+     * @since 3.8.0
+     */
+    protected void scheduleEvent(final Event event, final TaskSchedule schedule) {
+        final var task = new ScheduledTask(event, schedule);
+        tasks.add(task);
+        task.start();
+    }
+
+    /**
+     * Publishes a scheduled Event to all event services it has subscribers in.
+     * @param event the Event to publish
+     * @since 3.8.0
+     */
+    protected void publish(final Event event) {
+        boolean informed = false;
+        if (EventService.getInstance().hasSubscriptions(event)) {
+            informed = true;
+            EventService.getInstance().publish(event);
+        }
+        if (SingleThreadedEventService.getInstance().hasSubscriptions(event)) {
+            informed = true;
+            SingleThreadedEventService.getInstance().publish(event);
+        }
+        if (!informed) {
+            LOGGER.debug("No subscribers to inform from scheduled event: " + event.getClass().getName());
+        }
+    }
+
+    /**
+     * Shuts town the TaskScheduler by canceling all scheduled events.
+     * When clustering is enabled, leases held by this node are released.
+     */
+    public void shutdown() {
+        shutdown = true;
+        for (final ScheduledTask task : tasks) {
+            task.cancel();
+        }
+        if (isClusterEnabled()) {
+            ClusterLeaseManager.getInstance().stop();
+        }
+    }
+
+    private synchronized TaskRunHistory getHistory() {
+        if (history == null) {
+            history = TaskRunHistory.open();
+        }
+        return history;
+    }
+
+    private static boolean isClusterEnabled() {
+        return Config.getInstance().getPropertyAsBoolean(Config.AlpineKey.CLUSTER_ENABLED);
+    }
+
+    /**
+     * An Event published according to a {@link TaskSchedule}. Each run schedules the next one once
+     * it completed, so runs of the same task never overlap.
+     */
+    private final class ScheduledTask {
+
+        private final Event event;
+        private final TaskSchedule schedule;
+        private final String name;
+        private final Timer latenessTimer;
+        private volatile Instant lastRun;
+        private volatile Instant nextRun;
+        private ScheduledFuture<?> future;
+
+        private ScheduledTask(final Event event, final TaskSchedule schedule) {
             this.event = event;
-            return this;
+            this.schedule = schedule;
+            this.name = schedule.getName() != null ? schedule.getName() : event.getClass().getName();
+            this.latenessTimer = Timer.builder("alpine_task_schedule_lateness")
+                    .description("Delay of scheduled runs beyond their scheduled time, excluding jitter")
+                    .tag("schedule", name)
+                    .register(Metrics.getRegistry());
+            Gauge.builder("alpine_task_schedule_last_run_timestamp", this, task -> toEpochSeconds(task.lastRun))
+                    .description("Time of the last run of a schedule")
+                    .tag("schedule", name)
+                    .baseUnit("seconds")
+                    .register(Metrics.getRegistry());
+            Gauge.builder("alpine_task_schedule_next_run_timestamp", this, task -> toEpochSeconds(task.nextRun))
+                    .description("Time of the next run of a schedule, as scheduled")
+                    .tag("schedule", name)
+                    .baseUnit("seconds")
+                    .register(Metrics.getRegistry());
+        }
+
+        private void start() {
+            final Instant now = clock.instant();
+            final Instant previous = schedule.getMissedRunPolicy() != MissedRunPolicy.SKIP
+                    ? getHistory().getLastRun(name) : null;
+            final Instant first = previous != null ? schedule.nextRun(previous) : schedule.firstRun(now);
+            LOGGER.debug("Scheduling " + name + " " + schedule);
+            plan(first, now, now.plus(schedule.getInitialDelay()));
         }
 
         /**
-         * Publishes the Event specified in the constructor.
-         * This method publishes to all {@link EventService}s.
+         * Schedules the run at {@code next}, catching up on missed runs if it lies in the past.
          */
-        public void run() {
+        private void plan(Instant next, final Instant now, final Instant notBefore) {
+            if (next != null && next.isBefore(now)) {
+                next = catchUp(next, now);
+            }
+            nextRun = next;
+            if (next == null) {
+                LOGGER.warn("Schedule " + name + " (" + schedule + ") has no further runs");
+                return;
+            }
+            final long jitterMillis = schedule.getJitter().toMillis() > 0
+                    ? ThreadLocalRandom.current().nextLong(schedule.getJitter().toMillis() + 1) : 0;
+            final Instant due = (next.isBefore(notBefore) ? notBefore : next).plusMillis(jitterMillis);
+            final Instant scheduled = next;
             synchronized (this) {
-                EventService.getInstance().publish(event);
-                SingleThreadedEventService.getInstance().publish(event);
+                if (!shutdown) {
+                    future = SCHEDULER.schedule(() -> run(scheduled, due),
+                            Math.max(0, Duration.between(now, due).toMillis()), TimeUnit.MILLISECONDS);
+                }
             }
         }
-    }
 
-    /**
-     * Shuts town the TaskScheduler by canceling all scheduled events.
-     */
-    public void shutdown() {
-        for (final Timer timer: timers) {
-            timer.cancel();
+        /**
+         * @param missed the earliest missed run
+         * @return the run to schedule next, according to the {@link MissedRunPolicy}
+         */
+        private Instant catchUp(final Instant missed, final Instant now) {
+            final int kept = switch (schedule.getMissedRunPolicy()) {
+                case SKIP -> 0;
+                case RUN_ONCE -> 1;
+                case RUN_ALL -> TaskSchedule.MAX_CATCH_UP_RUNS;
+            };
+            final var missedRuns = new ArrayDeque<Instant>();
+            int skipped = 0;
+            Instant run = missed;
+            for (; run != null && run.isBefore(now); run = schedule.nextRun(run)) {
+                missedRuns.addLast(run);
+                if (missedRuns.size() > kept) {
+                    missedRuns.removeFirst();
+                    skipped++;
+                }
+            }
+            if (skipped > 0) {
+                LOGGER.warn("Schedule " + name + " missed " + skipped + " run(s), which are skipped ("
+                        + schedule.getMissedRunPolicy() + ")");
+                recordRun("missed", skipped);
+            }
+            return missedRuns.isEmpty() ? run : missedRuns.getFirst();
         }
+
+        /**
+         * Hands the run off to the publisher threads, as publishing blocks while the event service is saturated.
+         */
+        private void run(final Instant scheduled, final Instant due) {
+            final Instant now = clock.instant();
+            latenessTimer.record(Duration.between(due, now).isNegative() ? Duration.ZERO : Duration.between(due, now));
+            lastRun = now;
+            PUBLISHER.execute(() -> complete(scheduled));
+        }
+
+        private void complete(final Instant scheduled) {
+            try {
+                publishIfDue();
+            } catch (RuntimeException e) {
+                LOGGER.error("An error occurred while publishing scheduled event " + name, e);
+            }
+            if (schedule.getMissedRunPolicy() != MissedRunPolicy.SKIP) {
+                getHistory().recordRun(name, scheduled);
+            }
+            plan(schedule.nextRun(scheduled), clock.instant(), Instant.MIN);
+        }
+
+        private void publishIfDue() {
+            if (event instanceof ClusterSingleton singleton && isClusterEnabled()
+                    && !ClusterLeaseManager.getInstance().tryAcquire(singleton.getLeaseName())) {
+                LOGGER.debug("Skipping scheduled event " + name + ", as lease " + singleton.getLeaseName()
+                        + " is held by another node");
+                recordRun("skipped_lease", 1);
+                return;
+            }
+            if (schedule.isSkipIfRunning() && event instanceof ChainableEvent chainableEvent
+                    && (EventService.getInstance().isEventBeingProcessed(chainableEvent)
+                    || SingleThreadedEventService.getInstance().isEventBeingProcessed(chainableEvent))) {
+                LOGGER.info("Skipping scheduled event " + name + ", as the previous run is still being processed");
+                recordRun("skipped_running", 1);
+                return;
+            }
+            publish(event);
+            recordRun("published", 1);
+        }
+
+        private void recordRun(final String outcome, final int count) {
+            Counter.builder("alpine_task_schedule_runs_total")
+                    .description("Total number of runs of a schedule, by outcome")
+                    .tags("schedule", name, "outcome", outcome)
+                    .register(Metrics.getRegistry())
+                    .increment(count);
+        }
+
+        private synchronized void cancel() {
+            if (future != null) {
+                future.cancel(false);
+            }
+        }
+
+        private static double toEpochSeconds(final Instant instant) {
+            return instant != null ? instant.toEpochMilli() / 1000.0 : Double.NaN;
+        }
+
     }
 
 }
@@ -0,0 +1,210 @@
+/*
+ * This file is part of Alpine.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ * Copyright (c) Steve Springett. All Rights Reserved.
+ */
+package alpine.server.tasks;
+
+import java.time.ZonedDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.BitSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * A cron expression of the five standard fields: minute, hour, day of month, month and day of week.
+ * <p>
+ * Fields accept {@code *}, single values, ranges ({@code 1-5}), steps ({@code *}{@code /15}, {@code 0-30/10})
+ * and comma-separated lists thereof. Months and days of week may be given by their English three-letter
+ * names ({@code JAN}, {@code MON}), and Sunday may be given as 0 or 7. The macros {@code @yearly},
+ * {@code @monthly}, {@code @weekly}, {@code @daily} and {@code @hourly} are supported as well.
+ * <p>
+ * As with the classic cron daemon, when both the day of month and the day of week are restricted,
+ * a day matches if either of them matches. Times that do not exist in the time zone of the expression,
+ * because clocks are set forward for daylight saving time, do not match.
+ *
+ * @since 3.8.0
+ */
+public final class CronExpression {
+
+    private static final Map<String, String> MACROS = Map.of(
+            "@yearly", "0 0 1 1 *",
+            "@annually", "0 0 1 1 *",
+            "@monthly", "0 0 1 * *",
+            "@weekly", "0 0 * * 0",
+            "@daily", "0 0 * * *",
+            "@midnight", "0 0 * * *",
+            "@hourly", "0 * * * *");
+    private static final List<String> MONTH_NAMES = List.of(
+            "JAN", "FEB", "MAR", "APR", "MAY", "JUN", "JUL", "AUG", "SEP", "OCT", "NOV", "DEC");
+    private static final List<String> DAY_NAMES = List.of("SUN", "MON", "TUE", "WED", "THU", "FRI", "SAT");
+
+    /**
+     * How many years ahead to look for a matching time, before giving up on expressions
+     * that never match, such as February 30.
+     */
+    private static final int MAX_YEARS_AHEAD = 5;
+
+    private final String expression;
+    private final BitSet minutes;
+    private final BitSet hours;
+    private final BitSet daysOfMonth;
+    private final BitSet months;
+    private final BitSet daysOfWeek;
+    private final boolean daysOfMonthRestricted;
+    private final boolean daysOfWeekRestricted;
+
+    private CronExpression(final String expression) {
+        this.expression = expression;
+        final String[] fields = MACROS.getOrDefault(expression.toLowerCase(Locale.ROOT), expression).trim().split("\\s+");
+        if (fields.length != 5) {
+            throw new IllegalArgumentException("Cron expression \"%s\" must consist of 5 fields, but has %d"
+                    .formatted(expression, fields.length));
+        }
+        minutes = parseField(fields[0], 0, 59, null);
+        hours = parseField(fields[1], 0, 23, null);
+        daysOfMonth = parseField(fields[2], 1, 31, null);
+        months = parseField(fields[3], 1, 12, MONTH_NAMES);
+        daysOfWeek = parseField(fields[4], 0, 7, DAY_NAMES);
+        if (daysOfWeek.get(7)) {
+            daysOfWeek.set(0);
+        }
+        daysOfMonthRestricted = !isWildcard(fields[2]);
+        daysOfWeekRestricted = !isWildcard(fields[4]);
+    }
+
+    /**
+     * Parses a cron expression.
+     * @param expression the expression to parse
+     * @return the parsed {@link CronExpression}
+     * @throws IllegalArgumentException when the expression is invalid
+     */
+    public static CronExpression parse(final String expression) {
+        if (expression == null || expression.isBlank()) {
+            throw new IllegalArgumentException("Cron expression must not be empty");
+        }
+        return new CronExpression(expression.trim());
+    }
+
+    /**
+     * Determines the first time matching this expression, after the given time.
+     * @param after the time to start searching from, exclusive
+     * @return the next matching time, with seconds and nanoseconds set to zero,
+     * or {@code null} if the expression does not match within the next years
+     */
+    public ZonedDateTime next(final ZonedDateTime after) {
+        ZonedDateTime time = after.truncatedTo(ChronoUnit.MINUTES).plusMinutes(1);
+        final int maxYear = time.getYear() + MAX_YEARS_AHEAD;
+        while (time.getYear() <= maxYear) {
+            if (!months.get(time.getMonthValue())) {
+                time = time.plusMonths(1).withDayOfMonth(1).truncatedTo(ChronoUnit.DAYS);
+            } else if (!matchesDay(time)) {
+                time = time.plusDays(1).truncatedTo(ChronoUnit.DAYS);
+            } else if (!hours.get(time.getHour())) {
+                time = time.plusHours(1).truncatedTo(ChronoUnit.HOURS);
+            } else if (!minutes.get(time.getMinute())) {
+                time = time.plusMinutes(1);
+            } else {
+                return time;
+            }
+        }
+        return null;
+    }
+
+    private boolean matchesDay(final ZonedDateTime time) {
+        final boolean dayOfMonth = daysOfMonth.get(time.getDayOfMonth());
+        final boolean dayOfWeek = daysOfWeek.get(time.getDayOfWeek().getValue() % 7);
+        if (daysOfMonthRestricted && daysOfWeekRestricted) {
+            return dayOfMonth || dayOfWeek;
+        }
+        return dayOfMonth && dayOfWeek;
+    }
+
+    private static boolean isWildcard(final String field) {
+        return "*".equals(field) || "?".equals(field);
+    }
+
+    private BitSet parseField(final String field, final int min, final int max, final List<String> names) {
+        final var values = new BitSet(max + 1);
+        for (final String part : field.split(",")) {
+            final String[] rangeAndStep = part.split("/", -1);
+            if (rangeAndStep.length > 2) {
+                throw invalid(field);
+            }
+            final String range = rangeAndStep[0];
+            int from;
+            int to;
+            if (isWildcard(range)) {
+                from = min;
+                to = max;
+            } else if (range.contains("-")) {
+                final String[] bounds = range.split("-", -1);
+                if (bounds.length != 2) {
+                    throw invalid(field);
+                }
+                from = parseValue(bounds[0], field, names);
+                to = parseValue(bounds[1], field, names);
+            } else {
+                from = parseValue(range, field, names);
+                // A single value with a step, such as 5/15, runs from the value to the maximum.
+                to = rangeAndStep.length == 2 ? max : from;
+            }
+            final int step = rangeAndStep.length == 2 ? parseValue(rangeAndStep[1], field, null) : 1;
+            if (from < min || to > max || from > to || step < 1) {
+                throw invalid(field);
+            }
+            for (int value = from; value <= to; value += step) {
+                values.set(value);
+            }
+        }
+        return values;
+    }
+
+    private int parseValue(final String value, final String field, final List<String> names) {
+        if (names != null) {
+            final int index = names.indexOf(value.toUpperCase(Locale.ROOT));
+            if (index >= 0) {
+                return names == MONTH_NAMES ? index + 1 : index;
+            }
+        }
+        try {
+            return Integer.parseInt(value);
+        } catch (NumberFormatException e) {
+            throw invalid(field);
+        }
+    }
+
+    private IllegalArgumentException invalid(final String field) {
+        return new IllegalArgumentException("Invalid field \"%s\" in cron expression \"%s\"".formatted(field, expression));
+    }
+
+    @Override
+    public boolean equals(final Object o) {
+        return o instanceof CronExpression other && expression.equals(other.expression);
+    }
+
+    @Override
+    public int hashCode() {
+        return expression.hashCode();
+    }
+
+    @Override
+    public String toString() {
+        return expression;
+    }
+
+}
@@ -0,0 +1,44 @@
+/*
+ * This file is part of Alpine.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ * Copyright (c) Steve Springett. All Rights Reserved.
+ */
+package alpine.server.tasks;
+
+/**
+ * Defines how a {@link TaskSchedule} catches up on runs it missed, because the application was not running,
+ * or because the scheduler was late by more than one interval.
+ *
+ * @since 3.8.0
+ */
+public enum MissedRunPolicy {
+
+    /**
+     * Missed runs are skipped, and the schedule resumes at its next regular time.
+     */
+    SKIP,
+
+    /**
+     * Missed runs are combined into a single run, which takes place right away.
+     */
+    RUN_ONCE,
+
+    /**
+     * Each missed run takes place right away, up to {@link TaskSchedule#MAX_CATCH_UP_RUNS} of the most recent ones.
+     */
+    RUN_ALL
+
+}
@@ -0,0 +1,106 @@
+/*
+ * This file is part of Alpine.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ * Copyright (c) Steve Springett. All Rights Reserved.
+ */
+package alpine.server.tasks;
+
+import alpine.Config;
+import alpine.common.logging.Logger;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Instant;
+import java.util.Properties;
+
+/**
+ * Persists the time of the last run of each {@link TaskSchedule}, so that missed runs can be caught up on
+ * after the application was down. Times are kept in a properties file, which is replaced atomically on
+ * every write.
+ *
+ * @since 3.8.0
+ */
+final class TaskRunHistory {
+
+    private static final Logger LOGGER = Logger.getLogger(TaskRunHistory.class);
+
+    private final Path file;
+    private final Properties runs = new Properties();
+
+    TaskRunHistory(final Path file) {
+        this.file = file;
+        if (Files.exists(file)) {
+            try (InputStream in = Files.newInputStream(file)) {
+                runs.load(in);
+            } catch (IOException e) {
+                LOGGER.warn("Unable to read the task run history from " + file + "; Missed runs will not be caught up on", e);
+            }
+        }
+    }
+
+    /**
+     * Opens the history in the {@code scheduler} directory of the {@link Config#getDataDirectorty() data directory}.
+     * @return the history
+     */
+    static TaskRunHistory open() {
+        return new TaskRunHistory(Config.getInstance().getDataDirectorty().toPath()
+                .resolve("scheduler").resolve("runs.properties"));
+    }
+
+    /**
+     * @param name the name of the schedule
+     * @return the time of the last run of the schedule, as scheduled, or {@code null} if it never ran
+     */
+    synchronized Instant getLastRun(final String name) {
+        final String value = runs.getProperty(name);
+        if (value == null) {
+            return null;
+        }
+        try {
+            return Instant.ofEpochMilli(Long.parseLong(value));
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    /**
+     * @param name the name of the schedule
+     * @param time the time of the run, as scheduled
+     */
+    synchronized void recordRun(final String name, final Instant time) {
+        runs.setProperty(name, String.valueOf(time.toEpochMilli()));
+        try {
+            Files.createDirectories(file.getParent());
+            final Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+            try (OutputStream out = Files.newOutputStream(temp)) {
+                runs.store(out, "Last runs of scheduled tasks");
+            }
+            try {
+                Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING);
+            }
+        } catch (IOException e) {
+            LOGGER.warn("Unable to write the task run history to " + file, e);
+        }
+    }
+
+}
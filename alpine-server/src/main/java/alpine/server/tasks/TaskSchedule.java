@@ -0,0 +1,190 @@
+/*
+ * This file is part of Alpine.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ * Copyright (c) Steve Springett. All Rights Reserved.
+ */
+package alpine.server.tasks;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.util.Objects;
+
+/**
+ * Describes when an event scheduled by an {@link AlpineTaskScheduler} is published.
+ * <p>
+ * A schedule either follows a {@link CronExpression}, or repeats at a fixed rate after an initial delay.
+ * Instances are immutable; The {@code with} methods return modified copies.
+ *
+ * @since 3.8.0
+ */
+public final class TaskSchedule {
+
+    /**
+     * The maximum number of missed runs that take place when catching up with {@link MissedRunPolicy#RUN_ALL}.
+     */
+    public static final int MAX_CATCH_UP_RUNS = 100;
+
+    private final CronExpression cron;
+    private final ZoneId zone;
+    private final Duration initialDelay;
+    private final Duration period;
+    private final Duration jitter;
+    private final boolean skipIfRunning;
+    private final MissedRunPolicy missedRunPolicy;
+    private final String name;
+
+    private TaskSchedule(final CronExpression cron, final ZoneId zone, final Duration initialDelay,
+                         final Duration period, final Duration jitter, final boolean skipIfRunning,
+                         final MissedRunPolicy missedRunPolicy, final String name) {
+        this.cron = cron;
+        this.zone = zone;
+        this.initialDelay = initialDelay;
+        this.period = period;
+        this.jitter = jitter;
+        this.skipIfRunning = skipIfRunning;
+        this.missedRunPolicy = missedRunPolicy;
+        this.name = name;
+    }
+
+    /**
+     * Creates a schedule following a cron expression in the default time zone of the JVM.
+     * @param expression the {@link CronExpression} to follow
+     * @return a new schedule
+     * @throws IllegalArgumentException when the expression is invalid
+     */
+    public static TaskSchedule cron(final String expression) {
+        return cron(expression, ZoneId.systemDefault());
+    }
+
+    /**
+     * Creates a schedule following a cron expression.
+     * @param expression the {@link CronExpression} to follow
+     * @param zone the time zone to evaluate the expression in
+     * @return a new schedule
+     * @throws IllegalArgumentException when the expression is invalid
+     */
+    public static TaskSchedule cron(final String expression, final ZoneId zone) {
+        return new TaskSchedule(CronExpression.parse(expression), Objects.requireNonNull(zone),
+                Duration.ZERO, null, Duration.ZERO, false, MissedRunPolicy.SKIP, null);
+    }
+
+    /**
+     * Creates a schedule repeating at a fixed rate.
+     * @param initialDelay the delay before the first run
+     * @param period the time between the start of successive runs
+     * @return a new schedule
+     * @throws IllegalArgumentException when the period is not positive
+     */
+    public static TaskSchedule fixedRate(final Duration initialDelay, final Duration period) {
+        if (period.isNegative() || period.isZero()) {
+            throw new IllegalArgumentException("The period of a schedule must be positive");
+        }
+        return new TaskSchedule(null, null, initialDelay, period, Duration.ZERO, false, MissedRunPolicy.SKIP, null);
+    }
+
+    /**
+     * @param jitter the maximum random delay added to each run, to spread the load of schedules
+     *               sharing the same times, across nodes and within a node
+     * @return a copy of this schedule with the given jitter
+     */
+    public TaskSchedule withJitter(final Duration jitter) {
+        return new TaskSchedule(cron, zone, initialDelay, period, jitter, skipIfRunning, missedRunPolicy, name);
+    }
+
+    /**
+     * @param skipIfRunning whether to skip a run while the event published by the previous run is still being
+     *                      processed. Only applies to {@link alpine.event.framework.ChainableEvent}s, as only
+     *                      their processing can be tracked.
+     * @return a copy of this schedule with the given behavior
+     */
+    public TaskSchedule withSkipIfRunning(final boolean skipIfRunning) {
+        return new TaskSchedule(cron, zone, initialDelay, period, jitter, skipIfRunning, missedRunPolicy, name);
+    }
+
+    /**
+     * @param missedRunPolicy how to catch up on missed runs. Policies other than {@link MissedRunPolicy#SKIP}
+     *                        persist the time of the last run in the data directory, to catch up after downtime.
+     * @return a copy of this schedule with the given policy
+     */
+    public TaskSchedule withMissedRunPolicy(final MissedRunPolicy missedRunPolicy) {
+        return new TaskSchedule(cron, zone, initialDelay, period, jitter, skipIfRunning,
+                Objects.requireNonNull(missedRunPolicy), name);
+    }
+
+    /**
+     * @param name the name of the schedule, used to tag its metrics and to persist the time of its last run.
+     *             Defaults to the class name of the scheduled event.
+     * @return a copy of this schedule with the given name
+     */
+    public TaskSchedule withName(final String name) {
+        return new TaskSchedule(cron, zone, initialDelay, period, jitter, skipIfRunning, missedRunPolicy, name);
+    }
+
+    /**
+     * @param now the time the schedule is started at
+     * @return the time of the first run, when no previous run is known
+     */
+    Instant firstRun(final Instant now) {
+        if (cron != null) {
+            return nextRun(now);
+        }
+        return now.plus(initialDelay);
+    }
+
+    /**
+     * @param previous the time of the previous run, as scheduled
+     * @return the time of the run following {@code previous}, or {@code null} if there is none
+     */
+    Instant nextRun(final Instant previous) {
+        if (cron != null) {
+            final ZonedDateTime next = cron.next(previous.atZone(zone));
+            return next != null ? next.toInstant() : null;
+        }
+        return previous.plus(period);
+    }
+
+    CronExpression getCron() {
+        return cron;
+    }
+
+    Duration getInitialDelay() {
+        return initialDelay;
+    }
+
+    Duration getJitter() {
+        return jitter;
+    }
+
+    boolean isSkipIfRunning() {
+        return skipIfRunning;
+    }
+
+    MissedRunPolicy getMissedRunPolicy() {
+        return missedRunPolicy;
+    }
+
+    String getName() {
+        return name;
+    }
+
+    @Override
+    public String toString() {
+        return cron != null ? "cron(" + cron + ", " + zone + ")" : "fixedRate(" + period + ")";
+    }
+
+}
@@ -0,0 +1,195 @@
+/*
+ * This file is part of Alpine.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ * Copyright (c) Steve Springett. All Rights Reserved.
+ */
+package alpine.server.tasks;
+
+import alpine.common.metrics.Metrics;
+import alpine.event.framework.Event;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class AlpineTaskSchedulerTest {
+
+    public static class TestEvent implements Event {
+    }
+
+    public static class BlockingEvent implements Event {
+    }
+
+    private final class TestTaskScheduler extends AlpineTaskScheduler {
+
+        private TestTaskScheduler() {
+            super(Clock.systemUTC(), history);
+        }
+
+        @Override
+        protected void publish(final Event event) {
+            if (event instanceof BlockingEvent) {
+                try {
+                    release.await(5, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return;
+            }
+            published.add(Instant.now());
+            latch.countDown();
+        }
+
+        private void schedule(final TaskSchedule schedule) {
+            scheduleEvent(new TestEvent(), schedule);
+        }
+
+    }
+
+    @TempDir
+    private Path tempDir;
+
+    private final List<Instant> published = new CopyOnWriteArrayList<>();
+    private volatile CountDownLatch latch;
+    private final CountDownLatch release = new CountDownLatch(1);
+    private TaskRunHistory history;
+    private TestTaskScheduler scheduler;
+
+    @BeforeEach
+    public void setUp() {
+        history = new TaskRunHistory(tempDir.resolve("runs.properties"));
+        scheduler = new TestTaskScheduler();
+    }
+
+    @AfterEach
+    public void tearDown() {
+        release.countDown();
+        scheduler.shutdown();
+    }
+
+    @Test
+    public void testFixedRate() throws Exception {
+        latch = new CountDownLatch(3);
+        scheduler.scheduleEvent(new TestEvent(), 0, 50);
+        assertThat(latch.await(5, TimeUnit.SECONDS)).isTrue();
+
+        scheduler.shutdown();
+        final int publishedAtShutdown = published.size();
+        Thread.sleep(200);
+        assertThat(published).hasSizeLessThanOrEqualTo(publishedAtShutdown + 1);
+    }
+
+    @Test
+    public void testMissedRunsAreSkipped() throws Exception {
+        latch = new CountDownLatch(1);
+        history.recordRun("skip", Instant.now().minus(Duration.ofMinutes(10)));
+        scheduler.schedule(TaskSchedule.fixedRate(Duration.ofHours(1), Duration.ofMinutes(1))
+                .withName("skip"));
+        assertThat(latch.await(200, TimeUnit.MILLISECONDS)).isFalse();
+    }
+
+    @Test
+    public void testMissedRunsAreRunOnce() throws Exception {
+        latch = new CountDownLatch(1);
+        final Instant lastRun = Instant.now().truncatedTo(ChronoUnit.MILLIS).minus(Duration.ofMinutes(10)).plus(Duration.ofSeconds(30));
+        history.recordRun("run-once", lastRun);
+        scheduler.schedule(TaskSchedule.fixedRate(Duration.ZERO, Duration.ofMinutes(1))
+                .withMissedRunPolicy(MissedRunPolicy.RUN_ONCE)
+                .withName("run-once"));
+
+        assertThat(latch.await(5, TimeUnit.SECONDS)).isTrue();
+        Thread.sleep(200);
+        assertThat(published).hasSize(1);
+        // Of the nine missed runs, only the most recent one took place.
+        assertThat(history.getLastRun("run-once")).isEqualTo(lastRun.plus(Duration.ofMinutes(9)));
+        assertThat(getRunCount("run-once", "missed")).isEqualTo(8);
+        assertThat(getRunCount("run-once", "published")).isEqualTo(1);
+    }
+
+    @Test
+    public void testMissedRunsAreRunAll() throws Exception {
+        latch = new CountDownLatch(4);
+        final Instant lastRun = Instant.now().truncatedTo(ChronoUnit.MILLIS).minus(Duration.ofMinutes(5)).plus(Duration.ofSeconds(30));
+        history.recordRun("run-all", lastRun);
+        scheduler.schedule(TaskSchedule.fixedRate(Duration.ZERO, Duration.ofMinutes(1))
+                .withMissedRunPolicy(MissedRunPolicy.RUN_ALL)
+                .withName("run-all"));
+
+        assertThat(latch.await(5, TimeUnit.SECONDS)).isTrue();
+        Thread.sleep(200);
+        assertThat(published).hasSize(4);
+        assertThat(new TaskRunHistory(tempDir.resolve("runs.properties")).getLastRun("run-all"))
+                .isEqualTo(lastRun.plus(Duration.ofMinutes(4)));
+    }
+
+    @Test
+    public void testJitterDelaysRuns() throws Exception {
+        latch = new CountDownLatch(1);
+        final Instant start = Instant.now();
+        scheduler.schedule(TaskSchedule.fixedRate(Duration.ZERO, Duration.ofHours(1))
+                .withJitter(Duration.ofMillis(300))
+                .withName("jitter"));
+
+        assertThat(latch.await(5, TimeUnit.SECONDS)).isTrue();
+        assertThat(Duration.between(start, published.get(0))).isLessThanOrEqualTo(Duration.ofSeconds(1));
+        final Gauge nextRun = Metrics.getRegistry().find("alpine_task_schedule_next_run_timestamp")
+                .tag("schedule", "jitter")
+                .gauge();
+        final long earliestNextRun = start.plus(Duration.ofMinutes(59)).getEpochSecond();
+        // The next run is planned once the publication completed.
+        for (int i = 0; i < 500 && nextRun.value() <= earliestNextRun; i++) {
+            Thread.sleep(10);
+        }
+        assertThat(nextRun.value()).isGreaterThan(earliestNextRun);
+    }
+
+    @Test
+    public void testBlockedPublicationDoesNotDelayOtherSchedules() throws Exception {
+        latch = new CountDownLatch(1);
+        // More blocked publications than there are scheduler threads.
+        for (int i = 0; i < 3; i++) {
+            scheduler.scheduleEvent(new BlockingEvent(), TaskSchedule.fixedRate(Duration.ZERO, Duration.ofHours(1))
+                    .withName("blocked-" + i));
+        }
+        Thread.sleep(100);
+        scheduler.schedule(TaskSchedule.fixedRate(Duration.ZERO, Duration.ofHours(1))
+                .withName("unblocked"));
+
+        assertThat(latch.await(5, TimeUnit.SECONDS)).isTrue();
+    }
+
+    private static double getRunCount(final String schedule, final String outcome) {
+        final Counter counter = Metrics.getRegistry().find("alpine_task_schedule_runs_total")
+                .tags("schedule", schedule, "outcome", outcome)
+                .counter();
+        return counter != null ? counter.count() : 0;
+    }
+
+}
@@ -0,0 +1,105 @@
+/*
+ * This file is part of Alpine.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ * Copyright (c) Steve Springett. All Rights Reserved.
+ */
+package alpine.server.tasks;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatIllegalArgumentException;
+
+public class CronExpressionTest {
+
+    private static final ZoneId UTC = ZoneId.of("UTC");
+
+    @Test
+    public void testEveryMinute() {
+        assertThat(next("* * * * *", "2024-03-10T10:15:30")).isEqualTo(time("2024-03-10T10:16:00"));
+    }
+
+    @Test
+    public void testSteps() {
+        assertThat(next("*/15 * * * *", "2024-03-10T10:15:00")).isEqualTo(time("2024-03-10T10:30:00"));
+        assertThat(next("0 0-12/6 * * *", "2024-03-10T12:00:00")).isEqualTo(time("2024-03-11T00:00:00"));
+        assertThat(next("5/20 * * * *", "2024-03-10T10:46:00")).isEqualTo(time("2024-03-10T11:05:00"));
+    }
+
+    @Test
+    public void testNamesAndLists() {
+        // 2024-03-10 is a Sunday.
+        assertThat(next("30 9 * * MON-FRI", "2024-03-10T10:00:00")).isEqualTo(time("2024-03-11T09:30:00"));
+        assertThat(next("0 0 1 JAN,JUL *", "2024-03-10T10:00:00")).isEqualTo(time("2024-07-01T00:00:00"));
+        assertThat(next("0 0 * * 7", "2024-03-09T10:00:00")).isEqualTo(time("2024-03-10T00:00:00"));
+    }
+
+    @Test
+    public void testDayOfMonthOrDayOfWeek() {
+        // Either the 15th, or a Friday, whichever comes first.
+        assertThat(next("0 12 15 * FRI", "2024-03-10T00:00:00")).isEqualTo(time("2024-03-15T12:00:00"));
+        assertThat(next("0 12 15 * FRI", "2024-03-15T12:00:00")).isEqualTo(time("2024-03-22T12:00:00"));
+    }
+
+    @Test
+    public void testMacros() {
+        assertThat(next("@daily", "2024-03-10T10:00:00")).isEqualTo(time("2024-03-11T00:00:00"));
+        assertThat(next("@hourly", "2024-03-10T10:00:00")).isEqualTo(time("2024-03-10T11:00:00"));
+        assertThat(next("@yearly", "2024-03-10T10:00:00")).isEqualTo(time("2025-01-01T00:00:00"));
+    }
+
+    @Test
+    public void testLeapDay() {
+        assertThat(next("0 0 29 2 *", "2024-03-01T00:00:00")).isEqualTo(time("2028-02-29T00:00:00"));
+    }
+
+    @Test
+    public void testNeverMatching() {
+        assertThat(CronExpression.parse("0 0 30 2 *").next(time("2024-03-01T00:00:00"))).isNull();
+    }
+
+    @Test
+    public void testDaylightSavingTime() {
+        final ZoneId zone = ZoneId.of("Europe/Berlin");
+        // On 2024-03-31, clocks skip from 02:00 to 03:00, so 02:30 does not exist on that day.
+        final ZonedDateTime next = CronExpression.parse("30 2 * * *")
+                .next(ZonedDateTime.of(2024, 3, 30, 12, 0, 0, 0, zone));
+        assertThat(next).isEqualTo(ZonedDateTime.of(2024, 4, 1, 2, 30, 0, 0, zone));
+    }
+
+    @Test
+    public void testInvalid() {
+        assertThatIllegalArgumentException().isThrownBy(() -> CronExpression.parse("* * * *"));
+        assertThatIllegalArgumentException().isThrownBy(() -> CronExpression.parse("60 * * * *"));
+        assertThatIllegalArgumentException().isThrownBy(() -> CronExpression.parse("* * * FOO *"));
+        assertThatIllegalArgumentException().isThrownBy(() -> CronExpression.parse("*/0 * * * *"));
+        assertThatIllegalArgumentException().isThrownBy(() -> CronExpression.parse("5-1 * * * *"));
+        assertThatIllegalArgumentException().isThrownBy(() -> CronExpression.parse(""));
+    }
+
+    private static ZonedDateTime next(final String expression, final String after) {
+        return CronExpression.parse(expression).next(time(after));
+    }
+
+    private static ZonedDateTime time(final String localDateTime) {
+        return ZonedDateTime.of(LocalDateTime.parse(localDateTime), UTC);
+    }
+
+}